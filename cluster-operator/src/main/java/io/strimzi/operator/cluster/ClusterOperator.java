@@ -12,6 +12,7 @@ import io.strimzi.operator.cluster.operator.assembly.KafkaAssemblyOperator;
 import io.strimzi.operator.cluster.operator.assembly.KafkaConnectAssemblyOperator;
 import io.strimzi.operator.cluster.operator.assembly.KafkaConnectS2IAssemblyOperator;
 import io.strimzi.operator.cluster.operator.assembly.KafkaMirrorMakerAssemblyOperator;
+import io.strimzi.operator.common.MetricsRegistry;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Future;
 import io.vertx.core.http.HttpServer;
@@ -38,6 +39,13 @@ public class ClusterOperator extends AbstractVerticle {
 
     private static final int HEALTH_SERVER_PORT = 8080;
 
+    /** The prefix of the names of all the operator's metrics. */
+    static final String METRICS_PREFIX = "strimzi_cluster_operator_";
+    /** How often we check how long the event loop takes to run a timer. */
+    private static final long EVENT_LOOP_PROBE_INTERVAL_MS = 1_000;
+    /** How late a timer has to run for us to count the event loop as having been blocked. */
+    private static final long EVENT_LOOP_BLOCKED_THRESHOLD_MS = 100;
+
     private final KubernetesClient client;
     private final String namespace;
     private final long reconciliationInterval;
@@ -45,6 +53,8 @@ public class ClusterOperator extends AbstractVerticle {
     private final Map<String, Watch> watchByKind = new ConcurrentHashMap();
 
     private long reconcileTimer;
+    private long eventLoopProbeTimer;
+    private final MetricsRegistry metrics;
     private final KafkaAssemblyOperator kafkaAssemblyOperator;
     private final KafkaConnectAssemblyOperator kafkaConnectAssemblyOperator;
     private final KafkaConnectS2IAssemblyOperator kafkaConnectS2IAssemblyOperator;
@@ -56,7 +66,8 @@ public class ClusterOperator extends AbstractVerticle {
                            KafkaAssemblyOperator kafkaAssemblyOperator,
                            KafkaConnectAssemblyOperator kafkaConnectAssemblyOperator,
                            KafkaConnectS2IAssemblyOperator kafkaConnectS2IAssemblyOperator,
-                           KafkaMirrorMakerAssemblyOperator kafkaMirrorMakerAssemblyOperator) {
+                           KafkaMirrorMakerAssemblyOperator kafkaMirrorMakerAssemblyOperator,
+                           MetricsRegistry metrics) {
         log.info("Creating ClusterOperator for namespace {}", namespace);
         this.namespace = namespace;
         this.reconciliationInterval = reconciliationInterval;
@@ -65,6 +76,7 @@ public class ClusterOperator extends AbstractVerticle {
         this.kafkaConnectAssemblyOperator = kafkaConnectAssemblyOperator;
         this.kafkaConnectS2IAssemblyOperator = kafkaConnectS2IAssemblyOperator;
         this.kafkaMirrorMakerAssemblyOperator = kafkaMirrorMakerAssemblyOperator;
+        this.metrics = metrics;
     }
 
     Consumer<KubernetesClientException> recreateWatch(AbstractAssemblyOperator op) {
@@ -118,6 +130,7 @@ public class ClusterOperator extends AbstractVerticle {
                     log.info("Triggering periodic reconciliation for namespace {}...", namespace);
                     reconcileAll("timer");
                 });
+                startEventLoopProbe();
                 return startHealthServer().map((Void) null);
             }).compose(start::complete, start);
     }
@@ -127,6 +140,7 @@ public class ClusterOperator extends AbstractVerticle {
     public void stop(Future<Void> stop) {
         log.info("Stopping ClusterOperator for namespace {}", namespace);
         vertx.cancelTimer(reconcileTimer);
+        vertx.cancelTimer(eventLoopProbeTimer);
         for (Watch watch : watchByKind.values()) {
             if (watch != null) {
                 watch.close();
@@ -152,7 +166,32 @@ public class ClusterOperator extends AbstractVerticle {
     }
 
     /**
-     * Start an HTTP health server
+     * Periodically measure how late a timer runs on this verticle's event loop, which is how long the event loop
+     * was blocked (e.g. by a synchronous call to the Kubernetes API) before it could run the timer.
+     */
+    private void startEventLoopProbe() {
+        MetricsRegistry.Histogram delay = metrics.histogram(METRICS_PREFIX + "event_loop_delay_seconds",
+                "How late a timer ran on the event loop", "namespace", namespace);
+        MetricsRegistry.Counter blocked = metrics.counter(METRICS_PREFIX + "event_loop_blocked_total",
+                "Number of times a timer ran more than " + EVENT_LOOP_BLOCKED_THRESHOLD_MS + "ms late on the event loop",
+                "namespace", namespace);
+        probeEventLoop(delay, blocked);
+    }
+
+    private void probeEventLoop(MetricsRegistry.Histogram delay, MetricsRegistry.Counter blocked) {
+        long scheduledNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(EVENT_LOOP_PROBE_INTERVAL_MS);
+        eventLoopProbeTimer = vertx.setTimer(EVENT_LOOP_PROBE_INTERVAL_MS, timerId -> {
+            long lateNanos = Math.max(0, System.nanoTime() - scheduledNanos);
+            delay.observe(lateNanos / (double) TimeUnit.SECONDS.toNanos(1));
+            if (lateNanos > TimeUnit.MILLISECONDS.toNanos(EVENT_LOOP_BLOCKED_THRESHOLD_MS)) {
+                blocked.increment();
+            }
+            probeEventLoop(delay, blocked);
+        });
+    }
+
+    /**
+     * Start an HTTP health server, which also serves the operator's metrics in Prometheus format on {@code /metrics}
      */
     private Future<HttpServer> startHealthServer() {
         Future<HttpServer> result = Future.future();
@@ -163,6 +202,10 @@ public class ClusterOperator extends AbstractVerticle {
                         request.response().setStatusCode(200).end();
                     } else if (request.path().equals("/ready")) {
                         request.response().setStatusCode(200).end();
+                    } else if (request.path().equals("/metrics")) {
+                        request.response().setStatusCode(200)
+                                .putHeader("Content-Type", "text/plain; version=0.0.4")
+                                .end(metrics.scrape());
                     }
                 })
                 .listen(HEALTH_SERVER_PORT, ar -> {
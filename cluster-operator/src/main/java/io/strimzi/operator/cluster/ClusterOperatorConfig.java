@@ -30,6 +30,7 @@ public class ClusterOperatorConfig {
     public static final String STRIMZI_FULL_RECONCILIATION_INTERVAL_MS = "STRIMZI_FULL_RECONCILIATION_INTERVAL_MS";
     public static final String STRIMZI_OPERATION_TIMEOUT_MS = "STRIMZI_OPERATION_TIMEOUT_MS";
     public static final String STRIMZI_CREATE_CLUSTER_ROLES = "STRIMZI_CREATE_CLUSTER_ROLES";
+    public static final String STRIMZI_RESOURCE_CACHE = "STRIMZI_RESOURCE_CACHE";
     public static final String STRIMZI_KAFKA_IMAGES = "STRIMZI_KAFKA_IMAGES";
     public static final String STRIMZI_KAFKA_CONNECT_IMAGES = "STRIMZI_KAFKA_CONNECT_IMAGES";
     public static final String STRIMZI_KAFKA_CONNECT_S2I_IMAGES = "STRIMZI_KAFKA_CONNECT_S2I_IMAGES";
@@ -38,11 +39,13 @@ public class ClusterOperatorConfig {
     public static final long DEFAULT_FULL_RECONCILIATION_INTERVAL_MS = 120_000;
     public static final long DEFAULT_OPERATION_TIMEOUT_MS = 300_000;
     public static final boolean DEFAULT_CREATE_CLUSTER_ROLES = false;
+    public static final boolean DEFAULT_RESOURCE_CACHE = false;
 
     private final Set<String> namespaces;
     private final long reconciliationIntervalMs;
     private final long operationTimeoutMs;
     private final boolean createClusterRoles;
+    private final boolean resourceCache;
     private final KafkaVersion.Lookup versions;
 
     /**
@@ -55,10 +58,25 @@ public class ClusterOperatorConfig {
      * @param versions The configured Kafka versions
      */
     public ClusterOperatorConfig(Set<String> namespaces, long reconciliationIntervalMs, long operationTimeoutMs, boolean createClusterRoles, KafkaVersion.Lookup versions) {
+        this(namespaces, reconciliationIntervalMs, operationTimeoutMs, createClusterRoles, DEFAULT_RESOURCE_CACHE, versions);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param namespaces namespace in which the operator will run and create resources
+     * @param reconciliationIntervalMs    specify every how many milliseconds the reconciliation runs
+     * @param operationTimeoutMs    timeout for internal operations specified in milliseconds
+     * @param createClusterRoles true to create the cluster roles
+     * @param resourceCache true to read the resources the operator manages from watch-fed caches
+     * @param versions The configured Kafka versions
+     */
+    public ClusterOperatorConfig(Set<String> namespaces, long reconciliationIntervalMs, long operationTimeoutMs, boolean createClusterRoles, boolean resourceCache, KafkaVersion.Lookup versions) {
         this.namespaces = unmodifiableSet(new HashSet<>(namespaces));
         this.reconciliationIntervalMs = reconciliationIntervalMs;
         this.operationTimeoutMs = operationTimeoutMs;
         this.createClusterRoles = createClusterRoles;
+        this.resourceCache = resourceCache;
         this.versions = versions;
     }
 
@@ -104,6 +122,12 @@ public class ClusterOperatorConfig {
             createClusterRoles = Boolean.parseBoolean(createClusterRolesEnvVar);
         }
 
+        boolean resourceCache = DEFAULT_RESOURCE_CACHE;
+        String resourceCacheEnvVar = map.get(ClusterOperatorConfig.STRIMZI_RESOURCE_CACHE);
+        if (resourceCacheEnvVar != null) {
+            resourceCache = Boolean.parseBoolean(resourceCacheEnvVar);
+        }
+
         KafkaVersion.Lookup lookup = new KafkaVersion.Lookup(
                 ModelUtils.parseImageMap(map.get(STRIMZI_KAFKA_IMAGES)),
                 ModelUtils.parseImageMap(map.get(STRIMZI_KAFKA_CONNECT_IMAGES)),
@@ -122,7 +146,7 @@ public class ClusterOperatorConfig {
             }
         }
 
-        return new ClusterOperatorConfig(namespaces, reconciliationInterval, operationTimeout, createClusterRoles, lookup);
+        return new ClusterOperatorConfig(namespaces, reconciliationInterval, operationTimeout, createClusterRoles, resourceCache, lookup);
     }
 
 
@@ -154,6 +178,13 @@ public class ClusterOperatorConfig {
         return createClusterRoles;
     }
 
+    /**
+     * @return  Indicates whether the resources the operator manages should be read from watch-fed caches
+     */
+    public boolean isResourceCache() {
+        return resourceCache;
+    }
+
     public KafkaVersion.Lookup versions() {
         return versions;
     }
@@ -165,6 +196,7 @@ public class ClusterOperatorConfig {
                 ",reconciliationIntervalMs=" + reconciliationIntervalMs +
                 ",operationTimeoutMs=" + operationTimeoutMs +
                 ",createClusterRoles=" + createClusterRoles +
+                ",resourceCache=" + resourceCache +
                 ",versions=" + versions +
                 ")";
     }
@@ -26,6 +26,9 @@ import io.strimzi.operator.cluster.operator.assembly.KafkaConnectAssemblyOperato
 import io.strimzi.operator.cluster.operator.assembly.KafkaConnectS2IAssemblyOperator;
 import io.strimzi.operator.cluster.operator.assembly.KafkaMirrorMakerAssemblyOperator;
 import io.strimzi.operator.cluster.operator.resource.ResourceOperatorSupplier;
+import io.strimzi.operator.common.MetricsRegistry;
+import io.strimzi.operator.common.model.Labels;
+import io.strimzi.operator.common.operator.resource.AbstractResourceOperator;
 import io.strimzi.operator.common.operator.resource.BuildConfigOperator;
 import io.strimzi.operator.common.operator.resource.ClusterRoleOperator;
 import io.strimzi.operator.common.operator.resource.ConfigMapOperator;
@@ -54,8 +57,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static java.util.Arrays.asList;
+
 public class Main {
     private static final Logger log = LogManager.getLogger(Main.class.getName());
 
@@ -109,9 +115,10 @@ public class Main {
         PodDisruptionBudgetOperator podDisruptionBudgetOperator = new PodDisruptionBudgetOperator(vertx, client);
 
         OpenSslCertManager certManager = new OpenSslCertManager();
+        ResourceOperatorSupplier supplier = new ResourceOperatorSupplier(vertx, client, isOpenShift, config.getOperationTimeoutMs());
         KafkaAssemblyOperator kafkaClusterOperations = new KafkaAssemblyOperator(vertx, isOpenShift,
                 config.getOperationTimeoutMs(), certManager,
-                new ResourceOperatorSupplier(vertx, client, isOpenShift, config.getOperationTimeoutMs()),
+                supplier,
                 config.versions());
         KafkaConnectAssemblyOperator kafkaConnectClusterOperations = new KafkaConnectAssemblyOperator(vertx, isOpenShift, certManager, kco, configMapOperations, deploymentOperations, serviceOperations, secretOperations, networkPolicyOperator,
                 podDisruptionBudgetOperator, config.versions());
@@ -126,6 +133,28 @@ public class Main {
         KafkaMirrorMakerAssemblyOperator kafkaMirrorMakerAssemblyOperator =
                 new KafkaMirrorMakerAssemblyOperator(vertx, isOpenShift, certManager, kmmo, secretOperations, configMapOperations, networkPolicyOperator, deploymentOperations, serviceOperations, podDisruptionBudgetOperator, config.versions());
 
+        if (config.isResourceCache()) {
+            startCaches(config.getNamespaces(), asList(
+                    serviceOperations, configMapOperations, deploymentOperations, networkPolicyOperator, podDisruptionBudgetOperator,
+                    supplier.serviceOperations, supplier.configMapOperations, supplier.deploymentOperations,
+                    supplier.zkSetOperations, supplier.kafkaSetOperations,
+                    supplier.networkPolicyOperator, supplier.podDisruptionBudgetOperator));
+        }
+
+        // Shared by the operators for each namespace, which also share the health server
+        MetricsRegistry metrics = new MetricsRegistry();
+        List<AbstractResourceOperator<?, ?, ?, ?, ?>> patchingOperators = new ArrayList<>(asList(
+                serviceOperations, configMapOperations, deploymentOperations, secretOperations, kco, kmmo,
+                networkPolicyOperator, podDisruptionBudgetOperator,
+                supplier.serviceOperations, supplier.configMapOperations, supplier.deploymentOperations,
+                supplier.secretOperations, supplier.zkSetOperations, supplier.kafkaSetOperations,
+                supplier.pvcOperations, supplier.serviceAccountOperator, supplier.kafkaOperator,
+                supplier.networkPolicyOperator, supplier.podDisruptionBudgetOperator));
+        if (supplier.routeOperations != null) {
+            patchingOperators.add(supplier.routeOperations);
+        }
+        registerSkippedPatchCounters(metrics, patchingOperators);
+
         List<Future> futures = new ArrayList<>();
         for (String namespace : config.getNamespaces()) {
             Future<String> fut = Future.future();
@@ -136,7 +165,8 @@ public class Main {
                     kafkaClusterOperations,
                     kafkaConnectClusterOperations,
                     kafkaConnectS2IClusterOperations,
-                    kafkaMirrorMakerAssemblyOperator);
+                    kafkaMirrorMakerAssemblyOperator,
+                    metrics);
             vertx.deployVerticle(operator,
                 res -> {
                     if (res.succeeded()) {
@@ -151,6 +181,35 @@ public class Main {
         return CompositeFuture.join(futures);
     }
 
+    /**
+     * Start caching the resources labelled with the cluster label in each of the given namespaces,
+     * so that reconciliations read them from the cache rather than the API server.
+     * Until a cache is synced reads go to the API server, so we don't wait for them.
+     */
+    private static void startCaches(Set<String> namespaces, List<AbstractResourceOperator<?, ?, ?, ?, ?>> operators) {
+        for (String namespace : namespaces) {
+            for (AbstractResourceOperator<?, ?, ?, ?, ?> operator : operators) {
+                operator.startCache(namespace, Labels.STRIMZI_CLUSTER_LABEL).setHandler(ar -> {
+                    if (ar.failed()) {
+                        log.warn("Failed to start resource cache in namespace {}", namespace, ar.cause());
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Register a counter, for each kind of resource, of the number of patches which the given operators have not sent
+     * because they would not have changed the resource.
+     */
+    private static void registerSkippedPatchCounters(MetricsRegistry metrics, List<AbstractResourceOperator<?, ?, ?, ?, ?>> operators) {
+        for (AbstractResourceOperator<?, ?, ?, ?, ?> operator : operators) {
+            operator.setSkippedPatchesCounter(metrics.counter(ClusterOperator.METRICS_PREFIX + "resource_patches_skipped_total",
+                    "Number of patches not sent because they would not have changed the resource",
+                    "kind", operator.resourceKind()));
+        }
+    }
+
     private static void maybeLogS2iOnKubeWarning(Vertx vertx, KubernetesClient client) {
         try {
             // Check the KafkaConnectS2I isn't installed and whinge if it is
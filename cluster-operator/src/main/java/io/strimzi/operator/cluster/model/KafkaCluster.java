@@ -387,6 +387,15 @@ public class KafkaCluster extends AbstractModel {
         log.debug("End generating certificates");
     }
 
+    /**
+     * Use the given broker certificates, as generated by
+     * {@link ClusterCa#generateBrokerCerts(Kafka, String, Map)}, rather than generating them.
+     * @param brokerCerts The certificates of the brokers, by pod name
+     */
+    public void setBrokerCerts(Map<String, CertAndKey> brokerCerts) {
+        this.brokerCerts = brokerCerts;
+    }
+
     /**
      * Generates ports for bootstrap service.
      * The bootstrap service contains only the client interfaces.
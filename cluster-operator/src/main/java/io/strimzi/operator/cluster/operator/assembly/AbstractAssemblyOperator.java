@@ -31,13 +31,17 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
-import io.vertx.core.shareddata.Lock;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -49,16 +53,24 @@ import static io.fabric8.kubernetes.client.internal.PatchUtils.patchMapper;
  * <p>An assembly is a collection of Kubernetes resources of various types
  * (e.g. Services, StatefulSets, Deployments etc) which operate together to provide some functionality.</p>
  *
- * <p>This class manages a per-assembly locking strategy so only one operation per assembly
- * can proceed at once.</p>
+ * <p>This class manages a per-assembly work queue so only one operation per assembly
+ * can proceed at once. Reconciliations triggered while an assembly is being reconciled are coalesced
+ * into a single reconciliation which runs once the current one has finished.</p>
  */
 public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T extends HasMetadata,
         L extends KubernetesResourceList/*<T>*/, D extends Doneable<T>, R extends Resource<T, D>> {
 
     private static final Logger log = LogManager.getLogger(AbstractAssemblyOperator.class.getName());
 
-    protected static final int LOCK_TIMEOUT_MS = 10000;
+    /** The maximum number of custom resources to list at once when reconciling all the assemblies */
+    protected static final int LIST_PAGE_SIZE = 500;
 
+    /** Triggers of a reconciliation which arrived while the assembly was already being reconciled */
+    private static class QueuedReconciliation {
+        /** The most recent trigger, or null if there haven't been any */
+        private Reconciliation reconciliation;
+        private final List<Handler<AsyncResult<Void>>> handlers = new ArrayList<>();
+    }
 
     protected final Vertx vertx;
     protected final boolean isOpenShift;
@@ -69,6 +81,8 @@ public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T ext
     protected final NetworkPolicyOperator networkPolicyOperator;
     protected final PodDisruptionBudgetOperator podDisruptionBudgetOperator;
     private final String kind;
+    /** The assemblies being reconciled, keyed by {@link #getLockName(ResourceType, String, String)}. Guarded by itself. */
+    private final Map<String, QueuedReconciliation> queue = new HashMap<>();
 
     /**
      * @param vertx The Vertx instance
@@ -94,8 +108,8 @@ public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T ext
     }
 
     /**
-     * Gets the name of the lock to be used for operating on the given {@code assemblyType}, {@code namespace} and
-     * cluster {@code name}
+     * Gets the name of the lock (the key in the work queue) to be used for operating on the given
+     * {@code assemblyType}, {@code namespace} and cluster {@code name}
      * @param assemblyType The type of cluster
      * @param namespace The namespace containing the cluster
      * @param name The name of the cluster
@@ -140,58 +154,84 @@ public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T ext
      * <li>An assembly will be {@linkplain #createOrUpdate(Reconciliation, HasMetadata) created or updated} if ConfigMap is without same-named resources</li>
      * <li>An assembly will be {@linkplain #delete(Reconciliation) deleted} if resources without same-named ConfigMap</li>
      * </ul>
+     * If the assembly is already being reconciled the reconciliation is queued, and all the reconciliations queued
+     * while the current one is in progress are done by a single reconciliation once it has finished.
+     * The handler is always called, with the outcome of the reconciliation which was done on its behalf.
      */
     public final void reconcileAssembly(Reconciliation reconciliation, Handler<AsyncResult<Void>> handler) {
+        String key = getLockName(assemblyType, reconciliation.namespace(), reconciliation.name());
+        synchronized (queue) {
+            QueuedReconciliation queued = queue.get(key);
+            if (queued != null) {
+                // Already being reconciled: Run once more when that's finished
+                if (queued.reconciliation != null) {
+                    log.debug("{}: Coalesced with queued {}", reconciliation, queued.reconciliation);
+                } else {
+                    log.debug("{}: Queued behind reconciliation in progress", reconciliation);
+                }
+                queued.reconciliation = reconciliation;
+                queued.handlers.add(handler);
+                return;
+            }
+            queue.put(key, new QueuedReconciliation());
+        }
+        vertx.runOnContext(v -> reconcileQueued(key, reconciliation, handler));
+    }
+
+    /**
+     * Reconcile the assembly and then, if it was triggered again in the meantime, reconcile it once more
+     * on behalf of all those triggers.
+     */
+    private void reconcileQueued(String key, Reconciliation reconciliation, Handler<AsyncResult<Void>> handler) {
+        reconcile(reconciliation).setHandler(result -> {
+            QueuedReconciliation queued;
+            synchronized (queue) {
+                queued = queue.remove(key);
+                if (queued.reconciliation != null) {
+                    queue.put(key, new QueuedReconciliation());
+                }
+            }
+            try {
+                handler.handle(result);
+            } finally {
+                if (queued.reconciliation != null) {
+                    log.debug("{}: Starting queued reconciliation for {} trigger(s)", queued.reconciliation, queued.handlers.size());
+                    reconcileQueued(key, queued.reconciliation, ar -> {
+                        for (Handler<AsyncResult<Void>> queuedHandler : queued.handlers) {
+                            queuedHandler.handle(ar);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private Future<Void> reconcile(Reconciliation reconciliation) {
         String namespace = reconciliation.namespace();
         String assemblyName = reconciliation.name();
-        final String lockName = getLockName(assemblyType, namespace, assemblyName);
-        vertx.sharedData().getLockWithTimeout(lockName, LOCK_TIMEOUT_MS, res -> {
-            if (res.succeeded()) {
-                log.debug("{}: Lock {} acquired", reconciliation, lockName);
-                Lock lock = res.result();
-
-                try {
-                    // get CustomResource and related resources for the specific cluster
-                    T cr = resourceOperator.get(namespace, assemblyName);
+        try {
+            // get CustomResource and related resources for the specific cluster
+            T cr = resourceOperator.get(namespace, assemblyName);
 
-                    if (cr != null) {
-                        log.info("{}: Assembly {} should be created or updated", reconciliation, assemblyName);
-                        createOrUpdate(reconciliation, cr)
-                            .setHandler(createResult -> {
-                                lock.release();
-                                log.debug("{}: Lock {} released", reconciliation, lockName);
-                                if (createResult.failed()) {
-                                    if (createResult.cause() instanceof InvalidResourceException) {
-                                        log.error(createResult.cause().getMessage());
-                                    } else {
-                                        log.error("{}: createOrUpdate failed", reconciliation, createResult.cause());
-                                    }
-                                } else {
-                                    handler.handle(createResult);
-                                }
-                            });
+            if (cr != null) {
+                log.info("{}: Assembly {} should be created or updated", reconciliation, assemblyName);
+                return createOrUpdate(reconciliation, cr);
+            } else {
+                log.info("{}: Assembly {} should be deleted", reconciliation, assemblyName);
+                Future<Void> result = Future.future();
+                delete(reconciliation).setHandler(deleteResult -> {
+                    if (deleteResult.succeeded())   {
+                        log.info("{}: Assembly {} deleted", reconciliation, assemblyName);
                     } else {
-                        log.info("{}: Assembly {} should be deleted", reconciliation, assemblyName);
-                        delete(reconciliation).setHandler(deleteResult -> {
-                            lock.release();
-                            log.debug("{}: Lock {} released", reconciliation, lockName);
-                            if (deleteResult.succeeded())   {
-                                log.info("{}: Assembly {} deleted", reconciliation, assemblyName);
-                            } else {
-                                log.error("{}: Deletion of assembly {} failed", reconciliation, assemblyName, deleteResult.cause());
-                            }
-                            handler.handle(deleteResult);
-                        });
+                        log.error("{}: Deletion of assembly {} failed", reconciliation, assemblyName, deleteResult.cause());
                     }
-                } catch (Throwable ex) {
-                    lock.release();
-                    log.debug("{}: Lock {} released", reconciliation, lockName);
-                    handler.handle(Future.failedFuture(ex));
-                }
-            } else {
-                log.debug("{}: Failed to acquire lock {}.", reconciliation, lockName);
+                    result.handle(deleteResult);
+                });
+                return result;
             }
-        });
+        } catch (Throwable ex) {
+            return Future.failedFuture(ex);
+        }
     }
 
     /**
@@ -203,46 +243,70 @@ public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T ext
      * <li>An assembly will be {@linkplain #delete(Reconciliation) deleted} for all resources without same-named ConfigMaps</li>
      * </ul>
      *
+     * The listing is done off the event loop, and the assembly resources are listed a page at a time,
+     * each assembly being reconciled as soon as it has been listed.
+     *
      * @param trigger A description of the triggering event (timer or watch), used for logging
      * @param namespace The namespace
+     * @return A latch which counts down once all the assemblies have been reconciled.
      */
     public final CountDownLatch reconcileAll(String trigger, String namespace) {
-
-        // get ConfigMaps with kind=cluster&type=kafka (or connect, or connect-s2i) for the corresponding cluster type
-        List<T> desiredResources = resourceOperator.list(namespace, Labels.EMPTY);
-        Set<NamespaceAndName> desiredNames = desiredResources.stream()
-                .map(cr -> new NamespaceAndName(cr.getMetadata().getNamespace(), cr.getMetadata().getName()))
-                .collect(Collectors.toSet());
-        log.debug("reconcileAll({}, {}): desired resources with labels {}: {}", assemblyType, trigger, Labels.EMPTY, desiredNames);
-
-        // get resources with kind=cluster&type=kafka (or connect, or connect-s2i)
-        Labels resourceSelector = Labels.EMPTY.withKind(assemblyType.name);
-        List<? extends HasMetadata> resources = getResources(namespace, resourceSelector);
-        // now extract the cluster name from those
-        Set<NamespaceAndName> resourceNames = resources.stream()
-                .filter(r -> !r.getKind().equals(kind)) // exclude desired resource
-                .map(resource ->
-                        new NamespaceAndName(
-                                resource.getMetadata().getNamespace(),
-                                resource.getMetadata().getLabels().get(Labels.STRIMZI_CLUSTER_LABEL)
-                        )
-                )
-                .collect(Collectors.toSet());
-        log.debug("reconcileAll({}, {}): Other resources with labels {}: {}", assemblyType, trigger, resourceSelector, resourceNames);
-
-        desiredNames.addAll(resourceNames);
-
         // We use a latch so that callers (specifically, test callers) know when the reconciliation is complete
         // Using futures would be more complex for no benefit
-        CountDownLatch latch = new CountDownLatch(desiredNames.size());
-
-        for (NamespaceAndName name: desiredNames) {
-            Reconciliation reconciliation = new Reconciliation(trigger, assemblyType, name.getNamespace(), name.getName());
-            reconcileAssembly(reconciliation, result -> {
-                handleResult(reconciliation, result);
+        CountDownLatch latch = new CountDownLatch(1);
+        // The listing, and each reconciliation started, must complete before the latch counts down
+        AtomicInteger outstanding = new AtomicInteger(1);
+        Runnable completed = () -> {
+            if (outstanding.decrementAndGet() == 0) {
                 latch.countDown();
-            });
-        }
+            }
+        };
+        // Only accessed from the listing's handlers, which run on the same context
+        Set<NamespaceAndName> reconciled = new HashSet<>();
+        Consumer<NamespaceAndName> reconcile = name -> {
+            if (reconciled.add(name)) {
+                outstanding.incrementAndGet();
+                Reconciliation reconciliation = new Reconciliation(trigger, assemblyType, name.getNamespace(), name.getName());
+                reconcileAssembly(reconciliation, result -> {
+                    handleResult(reconciliation, result);
+                    completed.run();
+                });
+            }
+        };
+
+        // get the custom resources for the corresponding cluster type
+        resourceOperator.listAsync(namespace, Labels.EMPTY, LIST_PAGE_SIZE, page -> {
+            log.debug("reconcileAll({}, {}): {} desired resources with labels {}", assemblyType, trigger, page.size(), Labels.EMPTY);
+            for (T cr : page) {
+                reconcile.accept(new NamespaceAndName(cr.getMetadata().getNamespace(), cr.getMetadata().getName()));
+            }
+        }).compose(ignored -> {
+            // get resources with kind=cluster&type=kafka (or connect, or connect-s2i)
+            Future<List<? extends HasMetadata>> resources = Future.future();
+            vertx.<List<? extends HasMetadata>>executeBlocking(
+                future -> future.complete(getResources(namespace, Labels.EMPTY.withKind(assemblyType.name))),
+                true,
+                resources.completer());
+            return resources;
+        }).setHandler(ar -> {
+            if (ar.succeeded()) {
+                // now extract the cluster name from those
+                Set<NamespaceAndName> resourceNames = ar.result().stream()
+                        .filter(r -> !r.getKind().equals(kind)) // exclude desired resource
+                        .map(resource ->
+                                new NamespaceAndName(
+                                        resource.getMetadata().getNamespace(),
+                                        resource.getMetadata().getLabels().get(Labels.STRIMZI_CLUSTER_LABEL)
+                                )
+                        )
+                        .collect(Collectors.toSet());
+                log.debug("reconcileAll({}, {}): Other resources: {}", assemblyType, trigger, resourceNames);
+                resourceNames.forEach(reconcile);
+            } else {
+                log.error("reconcileAll({}, {}): Failed to list resources", assemblyType, trigger, ar.cause());
+            }
+            completed.run();
+        });
 
         return latch;
     }
@@ -303,7 +367,8 @@ public abstract class AbstractAssemblyOperator<C extends KubernetesClient, T ext
             log.info("{}: Assembly reconciled", reconciliation);
         } else {
             Throwable cause = result.cause();
-            if (cause instanceof InvalidConfigParameterException) {
+            if (cause instanceof InvalidConfigParameterException
+                    || cause instanceof InvalidResourceException) {
                 log.warn("{}: Failed to reconcile {}", reconciliation, cause.getMessage());
             } else {
                 log.warn("{}: Failed to reconcile", reconciliation, cause);
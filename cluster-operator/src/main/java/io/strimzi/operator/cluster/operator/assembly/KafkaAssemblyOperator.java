@@ -28,6 +28,7 @@ import io.strimzi.api.kafka.model.Kafka;
 import io.strimzi.api.kafka.model.PersistentClaimStorage;
 import io.strimzi.api.kafka.model.SingleVolumeStorage;
 import io.strimzi.api.kafka.model.Storage;
+import io.strimzi.certs.CertAndKey;
 import io.strimzi.certs.CertManager;
 import io.strimzi.operator.cluster.ClusterOperator;
 import io.strimzi.operator.cluster.KafkaUpgradeException;
@@ -153,78 +154,103 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
             log.error("{} spec cannot be null", kafkaAssembly.getMetadata().getName());
             return Future.failedFuture("Spec cannot be null");
         }
-        createReconciliationState(reconciliation, kafkaAssembly)
-                .reconcileCas()
-                // Roll everything if a new CA is added to the trust store.
-                .compose(state -> state.rollingUpdateForNewCaKey())
-                .compose(state -> state.clusterOperatorSecret())
-                .compose(state -> state.zkManualPodCleaning())
-                .compose(state -> state.zkManualRollingUpdate())
-                .compose(state -> state.getZookeeperDescription())
-                .compose(state -> state.zkScaleUpStep())
-                .compose(state -> state.zkScaleDown())
-                .compose(state -> state.zkService())
-                .compose(state -> state.zkHeadlessService())
-                .compose(state -> state.zkAncillaryCm())
-                .compose(state -> state.zkNodesSecret())
-                .compose(state -> state.zkNetPolicy())
-                .compose(state -> state.zkPodDisruptionBudget())
-                .compose(state -> state.zkStatefulSet())
-                .compose(state -> state.zkScaleUp())
-                .compose(state -> state.zkRollingUpdate(this::dateSupplier))
-                .compose(state -> state.zkServiceEndpointReadiness())
-                .compose(state -> state.zkHeadlessServiceEndpointReadiness())
-                .compose(state -> state.zkPersistentClaimDeletion())
-                .compose(state -> state.kafkaUpgrade())
-                .compose(state -> state.kafkaManualPodCleaning())
-                .compose(state -> state.kafkaManualRollingUpdate())
-                .compose(state -> state.getKafkaClusterDescription())
-                .compose(state -> state.kafkaInitServiceAccount())
-                .compose(state -> state.kafkaInitClusterRoleBinding())
-                .compose(state -> state.kafkaScaleDown())
-                .compose(state -> state.kafkaService())
-                .compose(state -> state.kafkaHeadlessService())
-                .compose(state -> state.kafkaExternalBootstrapService())
-                .compose(state -> state.kafkaReplicaServices())
-                .compose(state -> state.kafkaBootstrapRoute())
-                .compose(state -> state.kafkaReplicaRoutes())
-                .compose(state -> state.kafkaExternalBootstrapServiceReady())
-                .compose(state -> state.kafkaReplicaServicesReady())
-                .compose(state -> state.kafkaBootstrapRouteReady())
-                .compose(state -> state.kafkaReplicaRoutesReady())
-                .compose(state -> state.kafkaGenerateCertificates())
-                .compose(state -> state.kafkaAncillaryCm())
-                .compose(state -> state.kafkaBrokersSecret())
-                .compose(state -> state.kafkaNetPolicy())
-                .compose(state -> state.kafkaPodDisruptionBudget())
-                .compose(state -> state.kafkaStatefulSet())
-                .compose(state -> state.kafkaRollingUpdate(this::dateSupplier))
-                .compose(state -> state.kafkaScaleUp())
-                .compose(state -> state.kafkaServiceEndpointReady())
-                .compose(state -> state.kafkaHeadlessServiceEndpointReady())
-                .compose(state -> state.kafkaPersistentClaimDeletion())
-
-                .compose(state -> state.getTopicOperatorDescription())
-                .compose(state -> state.topicOperatorServiceAccount())
-                .compose(state -> state.topicOperatorRoleBinding())
-                .compose(state -> state.topicOperatorAncillaryCm())
-                .compose(state -> state.topicOperatorSecret())
-                .compose(state -> state.topicOperatorDeployment(this::dateSupplier))
-
-                .compose(state -> state.getEntityOperatorDescription())
-                .compose(state -> state.entityOperatorServiceAccount())
-                .compose(state -> state.entityOperatorTopicOpRoleBinding())
-                .compose(state -> state.entityOperatorUserOpRoleBinding())
-                .compose(state -> state.entityOperatorTopicOpAncillaryCm())
-                .compose(state -> state.entityOperatorUserOpAncillaryCm())
-                .compose(state -> state.entityOperatorSecret())
-                .compose(state -> state.entityOperatorDeployment(this::dateSupplier))
-
+        reconciliationSteps(reconciliation)
+                .execute(createReconciliationState(reconciliation, kafkaAssembly))
                 .compose(state -> chainFuture.complete(), chainFuture);
 
         return chainFuture;
     }
 
+    /**
+     * The steps of a reconciliation. Steps which don't depend on each other run concurrently,
+     * but ZooKeeper is reconciled before Kafka, and the Kafka certificates (which need the external addresses)
+     * before the Kafka StatefulSet.
+     */
+    StepGraph<ReconciliationState> reconciliationSteps(Reconciliation reconciliation) {
+        return new StepGraph<ReconciliationState>(reconciliation)
+                .step("reconcileCas", state -> state.reconcileCas())
+                // Roll everything if a new CA is added to the trust store.
+                .step("rollingUpdateForNewCaKey", state -> state.rollingUpdateForNewCaKey(), "reconcileCas")
+                .step("clusterOperatorSecret", state -> state.clusterOperatorSecret(), "rollingUpdateForNewCaKey")
+
+                .step("zkManualPodCleaning", state -> state.zkManualPodCleaning(), "clusterOperatorSecret")
+                .step("zkManualRollingUpdate", state -> state.zkManualRollingUpdate(), "zkManualPodCleaning")
+                .step("getZookeeperDescription", state -> state.getZookeeperDescription(), "zkManualRollingUpdate")
+                .step("zkScaleUpStep", state -> state.zkScaleUpStep(), "getZookeeperDescription")
+                .step("zkScaleDown", state -> state.zkScaleDown(), "zkScaleUpStep")
+                .step("zkService", state -> state.zkService(), "zkScaleDown")
+                .step("zkHeadlessService", state -> state.zkHeadlessService(), "zkScaleDown")
+                .step("zkAncillaryCm", state -> state.zkAncillaryCm(), "zkScaleDown")
+                .step("zkNodesSecret", state -> state.zkNodesSecret(), "zkScaleDown")
+                .step("zkNetPolicy", state -> state.zkNetPolicy(), "zkScaleDown")
+                .step("zkPodDisruptionBudget", state -> state.zkPodDisruptionBudget(), "zkScaleDown")
+                .step("zkStatefulSet", state -> state.zkStatefulSet(),
+                        "zkService", "zkHeadlessService", "zkAncillaryCm", "zkNodesSecret", "zkNetPolicy", "zkPodDisruptionBudget")
+                .step("zkScaleUp", state -> state.zkScaleUp(), "zkStatefulSet")
+                .step("zkRollingUpdate", state -> state.zkRollingUpdate(this::dateSupplier), "zkScaleUp")
+                .step("zkServiceEndpointReadiness", state -> state.zkServiceEndpointReadiness(), "zkRollingUpdate")
+                .step("zkHeadlessServiceEndpointReadiness", state -> state.zkHeadlessServiceEndpointReadiness(), "zkRollingUpdate")
+                .step("zkPersistentClaimDeletion", state -> state.zkPersistentClaimDeletion(),
+                        "zkServiceEndpointReadiness", "zkHeadlessServiceEndpointReadiness")
+
+                .step("kafkaUpgrade", state -> state.kafkaUpgrade(),
+                        "zkServiceEndpointReadiness", "zkHeadlessServiceEndpointReadiness")
+                .step("kafkaManualPodCleaning", state -> state.kafkaManualPodCleaning(), "kafkaUpgrade")
+                .step("kafkaManualRollingUpdate", state -> state.kafkaManualRollingUpdate(), "kafkaManualPodCleaning")
+                .step("getKafkaClusterDescription", state -> state.getKafkaClusterDescription(), "kafkaManualRollingUpdate")
+                .step("kafkaInitServiceAccount", state -> state.kafkaInitServiceAccount(), "getKafkaClusterDescription")
+                .step("kafkaInitClusterRoleBinding", state -> state.kafkaInitClusterRoleBinding(), "getKafkaClusterDescription")
+                .step("kafkaScaleDown", state -> state.kafkaScaleDown(), "getKafkaClusterDescription")
+                .step("kafkaService", state -> state.kafkaService(), "kafkaScaleDown")
+                .step("kafkaHeadlessService", state -> state.kafkaHeadlessService(), "kafkaScaleDown")
+                .step("kafkaExternalBootstrapService", state -> state.kafkaExternalBootstrapService(), "kafkaScaleDown")
+                .step("kafkaReplicaServices", state -> state.kafkaReplicaServices(), "kafkaScaleDown")
+                .step("kafkaBootstrapRoute", state -> state.kafkaBootstrapRoute(), "kafkaScaleDown")
+                .step("kafkaReplicaRoutes", state -> state.kafkaReplicaRoutes(), "kafkaScaleDown")
+                .step("kafkaExternalBootstrapServiceReady", state -> state.kafkaExternalBootstrapServiceReady(), "kafkaExternalBootstrapService")
+                .step("kafkaReplicaServicesReady", state -> state.kafkaReplicaServicesReady(), "kafkaReplicaServices")
+                .step("kafkaBootstrapRouteReady", state -> state.kafkaBootstrapRouteReady(), "kafkaBootstrapRoute")
+                .step("kafkaReplicaRoutesReady", state -> state.kafkaReplicaRoutesReady(), "kafkaReplicaRoutes")
+                // Needs the external addresses found by the ...Ready steps, and the broker certificates
+                // it generates are only used by kafkaBrokersSecret
+                .step("kafkaGenerateCertificates", state -> state.kafkaGenerateCertificates(),
+                        "kafkaExternalBootstrapServiceReady", "kafkaReplicaServicesReady", "kafkaBootstrapRouteReady", "kafkaReplicaRoutesReady")
+                .step("kafkaAncillaryCm", state -> state.kafkaAncillaryCm(), "kafkaScaleDown")
+                .step("kafkaBrokersSecret", state -> state.kafkaBrokersSecret(), "kafkaGenerateCertificates")
+                .step("kafkaNetPolicy", state -> state.kafkaNetPolicy(), "kafkaScaleDown")
+                .step("kafkaPodDisruptionBudget", state -> state.kafkaPodDisruptionBudget(), "kafkaScaleDown")
+                .step("kafkaStatefulSet", state -> state.kafkaStatefulSet(),
+                        "kafkaInitServiceAccount", "kafkaInitClusterRoleBinding", "kafkaService", "kafkaHeadlessService",
+                        "kafkaAncillaryCm", "kafkaBrokersSecret", "kafkaNetPolicy", "kafkaPodDisruptionBudget")
+                .step("kafkaRollingUpdate", state -> state.kafkaRollingUpdate(this::dateSupplier), "kafkaStatefulSet")
+                .step("kafkaScaleUp", state -> state.kafkaScaleUp(), "kafkaRollingUpdate")
+                .step("kafkaServiceEndpointReady", state -> state.kafkaServiceEndpointReady(), "kafkaScaleUp")
+                .step("kafkaHeadlessServiceEndpointReady", state -> state.kafkaHeadlessServiceEndpointReady(), "kafkaScaleUp")
+                .step("kafkaPersistentClaimDeletion", state -> state.kafkaPersistentClaimDeletion(),
+                        "kafkaServiceEndpointReady", "kafkaHeadlessServiceEndpointReady")
+
+                .step("getTopicOperatorDescription", state -> state.getTopicOperatorDescription(),
+                        "kafkaServiceEndpointReady", "kafkaHeadlessServiceEndpointReady")
+                .step("topicOperatorServiceAccount", state -> state.topicOperatorServiceAccount(), "getTopicOperatorDescription")
+                .step("topicOperatorRoleBinding", state -> state.topicOperatorRoleBinding(), "getTopicOperatorDescription")
+                .step("topicOperatorAncillaryCm", state -> state.topicOperatorAncillaryCm(), "getTopicOperatorDescription")
+                .step("topicOperatorSecret", state -> state.topicOperatorSecret(), "getTopicOperatorDescription")
+                .step("topicOperatorDeployment", state -> state.topicOperatorDeployment(this::dateSupplier),
+                        "topicOperatorServiceAccount", "topicOperatorRoleBinding", "topicOperatorAncillaryCm", "topicOperatorSecret")
+
+                .step("getEntityOperatorDescription", state -> state.getEntityOperatorDescription(),
+                        "kafkaServiceEndpointReady", "kafkaHeadlessServiceEndpointReady")
+                .step("entityOperatorServiceAccount", state -> state.entityOperatorServiceAccount(), "getEntityOperatorDescription")
+                .step("entityOperatorTopicOpRoleBinding", state -> state.entityOperatorTopicOpRoleBinding(), "getEntityOperatorDescription")
+                .step("entityOperatorUserOpRoleBinding", state -> state.entityOperatorUserOpRoleBinding(), "getEntityOperatorDescription")
+                .step("entityOperatorTopicOpAncillaryCm", state -> state.entityOperatorTopicOpAncillaryCm(), "getEntityOperatorDescription")
+                .step("entityOperatorUserOpAncillaryCm", state -> state.entityOperatorUserOpAncillaryCm(), "getEntityOperatorDescription")
+                .step("entityOperatorSecret", state -> state.entityOperatorSecret(), "getEntityOperatorDescription")
+                .step("entityOperatorDeployment", state -> state.entityOperatorDeployment(this::dateSupplier),
+                        "entityOperatorServiceAccount", "entityOperatorTopicOpRoleBinding", "entityOperatorUserOpRoleBinding",
+                        "entityOperatorTopicOpAncillaryCm", "entityOperatorUserOpAncillaryCm", "entityOperatorSecret");
+    }
+
     ReconciliationState createReconciliationState(Reconciliation reconciliation, Kafka kafkaAssembly) {
         return new ReconciliationState(reconciliation, kafkaAssembly);
     }
@@ -1373,25 +1399,26 @@ public class KafkaAssemblyOperator extends AbstractAssemblyOperator<KubernetesCl
         }
 
         Future<ReconciliationState> kafkaGenerateCertificates() {
-            Future<ReconciliationState> result = Future.future();
-            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").<ReconciliationState>executeBlocking(
+            // Other steps use kafkaCluster on the event loop while the certificates are generated on a worker thread,
+            // so the worker only uses the cluster CA and the external addresses, and kafkaCluster is updated afterwards
+            boolean nodePort = kafkaCluster.isExposedWithNodePort();
+            String externalBootstrapDnsName = nodePort ? null : kafkaExternalBootstrapDnsName;
+            Map<Integer, String> externalDnsNames = nodePort ? Collections.emptyMap() : kafkaExternalDnsNames;
+            Future<Map<String, CertAndKey>> result = Future.future();
+            vertx.createSharedWorkerExecutor("kubernetes-ops-pool").<Map<String, CertAndKey>>executeBlocking(
                 future -> {
                     try {
-                        if (kafkaCluster.isExposedWithNodePort()) {
-                            kafkaCluster.generateCertificates(kafkaAssembly,
-                                    clusterCa, null, Collections.EMPTY_MAP);
-                        } else {
-                            kafkaCluster.generateCertificates(kafkaAssembly,
-                                    clusterCa, kafkaExternalBootstrapDnsName, kafkaExternalDnsNames);
-                        }
-                        future.complete(this);
+                        future.complete(clusterCa.generateBrokerCerts(kafkaAssembly, externalBootstrapDnsName, externalDnsNames));
                     } catch (Throwable e) {
                         future.fail(e);
                     }
                 },
                 true,
                 result.completer());
-            return result;
+            return result.map(brokerCerts -> {
+                kafkaCluster.setBrokerCerts(brokerCerts);
+                return this;
+            });
         }
 
         Future<ReconciliationState> kafkaAncillaryCm() {
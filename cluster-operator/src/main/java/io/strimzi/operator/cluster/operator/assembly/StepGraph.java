@@ -0,0 +1,223 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.assembly;
+
+import io.vertx.core.Future;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The steps of a reconciliation and the ordering constraints between them.
+ * Each step is started as soon as all the steps it must come {@linkplain #step(String, Function, String...) after}
+ * have succeeded, so steps without ordering constraints between them run concurrently.
+ * If a step fails no further steps are started, and once the steps which were already running have finished
+ * the reconciliation fails with the cause of the first failure.
+ *
+ * The time each step took is recorded, and once the reconciliation is complete its critical path
+ * (the chain of steps, each waiting for the previous one, which determined how long it took) is logged.
+ *
+ * @param <S> The type of the state passed to each step.
+ */
+class StepGraph<S> {
+
+    private static final Logger log = LogManager.getLogger(StepGraph.class.getName());
+
+    private static class Step<S> {
+        private final String name;
+        private final Function<S, Future<S>> action;
+        private final List<Step<S>> after;
+        private final List<Step<S>> before = new ArrayList<>();
+        private int waitingFor;
+        private long startNanos;
+        private long endNanos;
+        private boolean finished;
+
+        Step(String name, Function<S, Future<S>> action, List<Step<S>> after) {
+            this.name = name;
+            this.action = action;
+            this.after = after;
+        }
+
+        long durationMs() {
+            return TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+        }
+    }
+
+    private final Object reconciliation;
+    private final Map<String, Step<S>> steps = new LinkedHashMap<>();
+
+    // Guarded by this while executing
+    private int remaining;
+    private int running;
+    private Throwable failure;
+
+    /**
+     * @param reconciliation The reconciliation, used in logging.
+     */
+    StepGraph(Object reconciliation) {
+        this.reconciliation = reconciliation;
+    }
+
+    /**
+     * Add a step, which must not be started until all the given steps (which must already have been added) have succeeded.
+     * Because steps can only come after steps which were added before them the graph cannot have cycles.
+     * @param name The name of the step.
+     * @param action The step itself.
+     * @param after The names of the steps this step must come after.
+     * @return This graph.
+     */
+    StepGraph<S> step(String name, Function<S, Future<S>> action, String... after) {
+        if (steps.containsKey(name)) {
+            throw new IllegalArgumentException("Step " + name + " has already been added");
+        }
+        List<Step<S>> dependencies = new ArrayList<>(after.length);
+        for (String dependency : after) {
+            Step<S> step = steps.get(dependency);
+            if (step == null) {
+                throw new IllegalArgumentException("Step " + name + " comes after unknown step " + dependency);
+            }
+            dependencies.add(step);
+        }
+        Step<S> step = new Step<>(name, action, dependencies);
+        for (Step<S> dependency : dependencies) {
+            dependency.before.add(step);
+        }
+        steps.put(name, step);
+        return this;
+    }
+
+    /**
+     * Execute the steps, passing them the given state.
+     * A graph can only be executed once.
+     * @return A future which completes with the state once all the steps have succeeded,
+     * or fails once a step has failed and none are still running.
+     */
+    Future<S> execute(S state) {
+        Future<S> result = Future.future();
+        List<Step<S>> ready = new ArrayList<>();
+        synchronized (this) {
+            remaining = steps.size();
+            for (Step<S> step : steps.values()) {
+                step.waitingFor = step.after.size();
+                if (step.waitingFor == 0) {
+                    ready.add(step);
+                }
+            }
+            running = ready.size();
+        }
+        if (ready.isEmpty()) {
+            result.complete(state);
+        }
+        for (Step<S> step : ready) {
+            start(step, state, result);
+        }
+        return result;
+    }
+
+    private void start(Step<S> step, S state, Future<S> result) {
+        log.trace("{}: Starting step {}", reconciliation, step.name);
+        synchronized (this) {
+            step.startNanos = System.nanoTime();
+        }
+        Future<S> future;
+        try {
+            future = step.action.apply(state);
+        } catch (RuntimeException e) {
+            future = Future.failedFuture(e);
+        }
+        future.setHandler(ar -> {
+            List<Step<S>> ready = new ArrayList<>();
+            boolean done;
+            Throwable failed;
+            synchronized (this) {
+                step.endNanos = System.nanoTime();
+                step.finished = true;
+                log.debug("{}: Step {} {} after {}ms", reconciliation, step.name, ar.succeeded() ? "succeeded" : "failed", step.durationMs());
+                running--;
+                if (ar.failed() && failure == null) {
+                    failure = ar.cause();
+                }
+                if (failure == null) {
+                    for (Step<S> next : step.before) {
+                        if (--next.waitingFor == 0) {
+                            ready.add(next);
+                        }
+                    }
+                    running += ready.size();
+                    done = --remaining == 0;
+                    failed = null;
+                } else {
+                    // Don't fail the result while other steps are still using the state
+                    done = false;
+                    failed = running == 0 ? failure : null;
+                }
+            }
+            if (failed != null) {
+                result.fail(failed);
+            } else if (done) {
+                if (log.isDebugEnabled()) {
+                    Map<String, Long> durations = durationsMs();
+                    StringBuilder path = new StringBuilder();
+                    for (String name : criticalPath()) {
+                        path.append(path.length() == 0 ? "" : " -> ").append(name).append(" (").append(durations.get(name)).append("ms)");
+                    }
+                    log.debug("{}: Critical path {}", reconciliation, path);
+                }
+                result.complete(state);
+            } else {
+                for (Step<S> next : ready) {
+                    start(next, state, result);
+                }
+            }
+        });
+    }
+
+    /**
+     * The durations of the steps which have completed, in milliseconds, in the order the steps were added.
+     */
+    synchronized Map<String, Long> durationsMs() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Step<S> step : steps.values()) {
+            if (step.finished) {
+                result.put(step.name, step.durationMs());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The names of the steps on the critical path, each of which was waiting for the previous one:
+     * Starting from the step which finished last, we repeatedly go back to the step it came after which finished last.
+     */
+    synchronized List<String> criticalPath() {
+        Step<S> last = null;
+        for (Step<S> step : steps.values()) {
+            if (step.finished && (last == null || step.endNanos - last.endNanos > 0)) {
+                last = step;
+            }
+        }
+        List<String> path = new ArrayList<>();
+        while (last != null) {
+            path.add(last.name);
+            Step<S> previous = null;
+            for (Step<S> dependency : last.after) {
+                if (previous == null || dependency.endNanos - previous.endNanos > 0) {
+                    previous = dependency;
+                }
+            }
+            last = previous;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
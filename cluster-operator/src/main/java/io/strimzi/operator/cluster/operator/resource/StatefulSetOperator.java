@@ -21,6 +21,7 @@ import io.strimzi.operator.common.operator.resource.AbstractScalableResourceOper
 import io.strimzi.operator.common.operator.resource.PodOperator;
 import io.strimzi.operator.common.operator.resource.PvcOperator;
 import io.strimzi.operator.common.operator.resource.ReconcileResult;
+import io.strimzi.operator.common.operator.resource.ResourceDiff;
 import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
@@ -31,6 +32,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 /**
  * Operations for {@code StatefulSets}s, which supports {@link #maybeRollingUpdate(StatefulSet, Predicate)}
@@ -42,6 +44,14 @@ public abstract class StatefulSetOperator extends AbstractScalableResourceOperat
     private static final String NO_UID = "NULL";
     private static final int INIT_GENERATION = 0;
 
+    private static final Pattern DEFAULTED_PATHS = Pattern.compile(
+        "^(" + ResourceDiff.POD_TEMPLATE_DEFAULTED_PATHS
+        + "|/spec/podManagementPolicy"
+        + "|/spec/revisionHistoryLimit"
+        + "|/spec/updateStrategy"
+        + "|/spec/volumeClaimTemplates/[0-9]+/status"
+        + "|/spec/volumeClaimTemplates/[0-9]+/spec/(volumeMode|dataSource))$");
+
     private static final Logger log = LogManager.getLogger(StatefulSetOperator.class.getName());
     protected final PodOperator podOperations;
     private final PvcOperator pvcOperations;
@@ -68,6 +78,25 @@ public abstract class StatefulSetOperator extends AbstractScalableResourceOperat
         return client.apps().statefulSets();
     }
 
+    @Override
+    protected Pattern defaultedPaths() {
+        return DEFAULTED_PATHS;
+    }
+
+    /**
+     * Also caches the pods, which are read while rolling and waiting for readiness.
+     */
+    @Override
+    public Future<Void> startCache(String namespace, String label) {
+        return CompositeFuture.join(super.startCache(namespace, label), podOperations.startCache(namespace, label)).map((Void) null);
+    }
+
+    @Override
+    public void stopCaches() {
+        super.stopCaches();
+        podOperations.stopCaches();
+    }
+
     /**
      * Asynchronously perform a rolling update of all the pods in the StatefulSet identified by the given
      * {@code namespace} and {@code name}, returning a Future that will complete when the rolling update
@@ -40,6 +40,16 @@ public class ClusterOperatorConfigTest {
         assertEquals(singleton("namespace"), config.getNamespaces());
         assertEquals(ClusterOperatorConfig.DEFAULT_FULL_RECONCILIATION_INTERVAL_MS, config.getReconciliationIntervalMs());
         assertEquals(ClusterOperatorConfig.DEFAULT_OPERATION_TIMEOUT_MS, config.getOperationTimeoutMs());
+        assertEquals(ClusterOperatorConfig.DEFAULT_RESOURCE_CACHE, config.isResourceCache());
+    }
+
+    @Test
+    public void testResourceCache() {
+        Map<String, String> envVars = new HashMap<>(ClusterOperatorConfigTest.envVars);
+        envVars.put(ClusterOperatorConfig.STRIMZI_RESOURCE_CACHE, "true");
+
+        ClusterOperatorConfig config = ClusterOperatorConfig.fromMap(envVars);
+        assertEquals(true, config.isResourceCache());
     }
 
     @Test
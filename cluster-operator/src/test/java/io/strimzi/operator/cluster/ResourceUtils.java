@@ -4,6 +4,7 @@
  */
 package io.strimzi.operator.cluster;
 
+import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
 import io.fabric8.kubernetes.api.model.Secret;
@@ -38,7 +39,10 @@ import io.strimzi.operator.cluster.model.KafkaCluster;
 import io.strimzi.operator.cluster.model.ZookeeperCluster;
 import io.strimzi.operator.common.model.Labels;
 import io.strimzi.operator.common.operator.MockCertManager;
+import io.strimzi.operator.common.operator.resource.AbstractResourceOperator;
 import io.strimzi.test.TestUtils;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -50,6 +54,10 @@ import java.util.Map;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
 
 public class ResourceUtils {
 
@@ -411,6 +419,16 @@ public class ResourceUtils {
                 .build();
     }
 
+    /**
+     * Make the given mock operator's {@code listAsync} return the given resources in the given namespace, as a single page.
+     */
+    public static <T extends HasMetadata> void mockListAsync(AbstractResourceOperator<?, T, ?, ?, ?> mockOperator, String namespace, List<T> resources) {
+        when(mockOperator.listAsync(eq(namespace), any(), anyInt(), any())).thenAnswer(invocation -> {
+            Handler<List<T>> pageHandler = invocation.getArgument(3);
+            pageHandler.handle(resources);
+            return Future.succeededFuture();
+        });
+    }
 
     public static void cleanUpTemporaryTLSFiles() {
         String tmpString = "/tmp";
@@ -71,6 +71,7 @@ import io.strimzi.operator.common.operator.resource.ServiceAccountOperator;
 import io.strimzi.operator.common.operator.resource.ServiceOperator;
 import io.strimzi.test.TestUtils;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
@@ -91,7 +92,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -100,6 +104,7 @@ import static io.strimzi.test.TestUtils.set;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -963,9 +968,7 @@ public class KafkaAssemblyOperatorTest {
 
         Kafka foo = getKafkaAssembly("foo");
         Kafka bar = getKafkaAssembly("bar");
-        when(mockKafkaOps.list(eq(clusterCmNamespace), any())).thenReturn(
-            asList(foo, bar)
-        );
+        ResourceUtils.mockListAsync(mockKafkaOps, clusterCmNamespace, asList(foo, bar));
         // when requested Custom Resource for a specific Kafka cluster
         when(mockKafkaOps.get(eq(clusterCmNamespace), eq("foo"))).thenReturn(foo);
         when(mockKafkaOps.get(eq(clusterCmNamespace), eq("bar"))).thenReturn(bar);
@@ -1048,9 +1051,7 @@ public class KafkaAssemblyOperatorTest {
         foo.getMetadata().setNamespace("namespace1");
         Kafka bar = getKafkaAssembly("bar");
         bar.getMetadata().setNamespace("namespace2");
-        when(mockKafkaOps.list(eq("*"), any())).thenReturn(
-                asList(foo, bar)
-        );
+        ResourceUtils.mockListAsync(mockKafkaOps, "*", asList(foo, bar));
         // when requested Custom Resource for a specific Kafka cluster
         when(mockKafkaOps.get(eq("namespace1"), eq("foo"))).thenReturn(foo);
         when(mockKafkaOps.get(eq("namespace2"), eq("bar"))).thenReturn(bar);
@@ -1110,6 +1111,105 @@ public class KafkaAssemblyOperatorTest {
         context.assertEquals(new HashSet(asList("foo", "bar")), createdOrUpdated);
     }
 
+    @Test
+    public void testReconcileAllWaitsForReconciliationsFromLaterPages(TestContext context) throws InterruptedException {
+        ResourceOperatorSupplier supplier = supplierWithMocks();
+        CrdOperator mockKafkaOps = supplier.kafkaOperator;
+        String clusterCmNamespace = "test";
+
+        Kafka foo = getKafkaAssembly("foo");
+        Kafka bar = getKafkaAssembly("bar");
+        when(mockKafkaOps.get(eq(clusterCmNamespace), eq("foo"))).thenReturn(foo);
+        when(mockKafkaOps.get(eq(clusterCmNamespace), eq("bar"))).thenReturn(bar);
+        // foo is on the first page, and bar on a second page which is listed later
+        Future<Void> listed = Future.future();
+        when(mockKafkaOps.listAsync(eq(clusterCmNamespace), any(), anyInt(), any())).thenAnswer(invocation -> {
+            Handler<List<Kafka>> pageHandler = invocation.getArgument(3);
+            pageHandler.handle(singletonList(foo));
+            vertx.setTimer(100, timerId -> {
+                pageHandler.handle(singletonList(bar));
+                listed.complete();
+            });
+            return listed;
+        });
+
+        Map<String, Future<Void>> reconciling = new ConcurrentHashMap<>();
+
+        KafkaAssemblyOperator ops = new KafkaAssemblyOperator(vertx, openShift,
+                ClusterOperatorConfig.DEFAULT_OPERATION_TIMEOUT_MS,
+                certManager,
+                supplier,
+                VERSIONS) {
+            @Override
+            public Future<Void> createOrUpdate(Reconciliation reconciliation, Kafka kafkaAssembly) {
+                Future<Void> result = Future.future();
+                reconciling.put(kafkaAssembly.getMetadata().getName(), result);
+                return result;
+            }
+        };
+
+        CountDownLatch latch = ops.reconcileAll("test", clusterCmNamespace);
+        TestUtils.waitFor("both reconciliations to start", 10, 10_000, () -> reconciling.size() == 2);
+
+        reconciling.get("foo").complete();
+        // bar, from the second page, is still being reconciled
+        context.assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+
+        reconciling.get("bar").complete();
+        context.assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReconciliationsTriggeredWhileReconcilingAreCoalesced(TestContext context) throws InterruptedException {
+        Async async = context.async(3);
+
+        ResourceOperatorSupplier supplier = supplierWithMocks();
+        String clusterCmNamespace = "test";
+        Kafka foo = getKafkaAssembly("foo");
+        when(supplier.kafkaOperator.get(eq(clusterCmNamespace), eq("foo"))).thenReturn(foo);
+
+        Reconciliation first = new Reconciliation("first", ResourceType.KAFKA, clusterCmNamespace, "foo");
+        Reconciliation second = new Reconciliation("second", ResourceType.KAFKA, clusterCmNamespace, "foo");
+        Reconciliation third = new Reconciliation("third", ResourceType.KAFKA, clusterCmNamespace, "foo");
+        List<Reconciliation> reconciled = new ArrayList<>();
+
+        KafkaAssemblyOperator ops = new KafkaAssemblyOperator(vertx, openShift,
+                ClusterOperatorConfig.DEFAULT_OPERATION_TIMEOUT_MS,
+                certManager,
+                supplier,
+                VERSIONS) {
+            @Override
+            public Future<Void> createOrUpdate(Reconciliation reconciliation, Kafka kafkaAssembly) {
+                reconciled.add(reconciliation);
+                if (reconciliation != first) {
+                    return Future.succeededFuture();
+                }
+                // Trigger two more reconciliations while this one is in progress
+                reconcileAssembly(second, ar -> {
+                    context.assertTrue(ar.succeeded());
+                    async.countDown();
+                });
+                reconcileAssembly(third, ar -> {
+                    context.assertTrue(ar.succeeded());
+                    async.countDown();
+                });
+                context.assertEquals(1, reconciled.size());
+                Future<Void> result = Future.future();
+                vertx.runOnContext(v -> result.complete());
+                return result;
+            }
+        };
+
+        ops.reconcileAssembly(first, ar -> {
+            context.assertTrue(ar.succeeded());
+            async.countDown();
+        });
+        async.await();
+
+        // The second and third triggers were handled by a single reconciliation
+        context.assertEquals(asList(first, third), reconciled);
+    }
+
     private ResourceOperatorSupplier supplierWithMocks() {
         RouteOperator routeOps = openShift ? mock(RouteOperator.class) : null;
 
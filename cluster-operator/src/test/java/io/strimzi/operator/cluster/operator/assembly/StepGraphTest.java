@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.cluster.operator.assembly;
+
+import io.vertx.core.Future;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StepGraphTest {
+
+    /** The steps which have been started, in order */
+    private final List<String> started = new ArrayList<>();
+    /** The futures of the steps which have been started, which the test completes */
+    private final Map<String, Future<String>> running = new HashMap<>();
+
+    private Function<String, Future<String>> step(String name) {
+        return state -> {
+            started.add(name);
+            Future<String> future = Future.future();
+            running.put(name, future);
+            return future;
+        };
+    }
+
+    private StepGraph<String> diamond() {
+        return new StepGraph<String>("test")
+                .step("a", step("a"))
+                .step("b", step("b"), "a")
+                .step("c", step("c"), "a")
+                .step("d", step("d"), "b", "c");
+    }
+
+    @Test
+    public void testIndependentStepsRunConcurrently() {
+        StepGraph<String> graph = diamond();
+        Future<String> result = graph.execute("state");
+        assertEquals(asList("a"), started);
+
+        running.get("a").complete("state");
+        // b and c are both running before either has completed
+        assertEquals(asList("a", "b", "c"), started);
+
+        running.get("c").complete("state");
+        assertEquals(asList("a", "b", "c"), started);
+        running.get("b").complete("state");
+        assertEquals(asList("a", "b", "c", "d"), started);
+        assertFalse(result.isComplete());
+
+        running.get("d").complete("state");
+        assertTrue(result.succeeded());
+        assertEquals("state", result.result());
+        assertEquals(asList("a", "b", "c", "d"), new ArrayList<>(graph.durationsMs().keySet()));
+        // b finished after c, so d was waiting for b
+        assertEquals(asList("a", "b", "d"), graph.criticalPath());
+    }
+
+    @Test
+    public void testNoStepsStartAfterAFailure() {
+        StepGraph<String> graph = diamond();
+        Future<String> result = graph.execute("state");
+        running.get("a").complete("state");
+
+        running.get("b").fail("boom");
+        // c is still running
+        assertFalse(result.isComplete());
+
+        running.get("c").complete("state");
+        assertEquals(asList("a", "b", "c"), started);
+        assertTrue(result.failed());
+        assertEquals("boom", result.cause().getMessage());
+    }
+
+    @Test
+    public void testTheFirstFailureFailsTheResult() {
+        StepGraph<String> graph = diamond();
+        Future<String> result = graph.execute("state");
+        running.get("a").complete("state");
+
+        running.get("b").fail("boom");
+        running.get("c").fail("bang");
+        assertTrue(result.failed());
+        assertEquals("boom", result.cause().getMessage());
+        assertEquals(asList("a", "b", "c"), started);
+    }
+
+    @Test
+    public void testAStepThrowingFailsTheResult() {
+        Future<String> result = new StepGraph<String>("test")
+                .step("a", state -> {
+                    throw new RuntimeException("boom");
+                })
+                .step("b", step("b"), "a")
+                .execute("state");
+        assertTrue(result.failed());
+        assertEquals("boom", result.cause().getMessage());
+        assertTrue(started.isEmpty());
+    }
+
+    @Test
+    public void testStepsMustComeAfterKnownSteps() {
+        StepGraph<String> graph = new StepGraph<String>("test").step("a", step("a"));
+        try {
+            graph.step("b", step("b"), "c");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            graph.step("a", step("a"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
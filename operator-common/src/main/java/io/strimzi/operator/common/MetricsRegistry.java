@@ -0,0 +1,227 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A registry of an operator's counters, gauges and histograms,
+ * which can be {@linkplain #scrape() scraped} in the Prometheus text exposition format.
+ *
+ * Metrics are identified by their name and labels (given as alternating label names and values).
+ * Asking for a counter or histogram which already exists returns the existing one,
+ * so callers don't need to hold on to them.
+ */
+public class MetricsRegistry {
+
+    /** Default histogram buckets, in seconds. */
+    private static final double[] DEFAULT_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+    /** A monotonically increasing count. */
+    public static class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void increment(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /** A distribution of observed durations, in seconds. */
+    public static class Histogram {
+        private final double[] buckets;
+        private final LongAdder[] bucketCounts;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(double[] buckets) {
+            this.buckets = buckets;
+            this.bucketCounts = new LongAdder[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                bucketCounts[i] = new LongAdder();
+            }
+        }
+
+        public void observe(double seconds) {
+            for (int i = 0; i < buckets.length; i++) {
+                if (seconds <= buckets[i]) {
+                    bucketCounts[i].increment();
+                    break;
+                }
+            }
+            count.increment();
+            sum.add(seconds);
+        }
+
+        /** Observe the time since the given {@link System#nanoTime()}. */
+        public void observeSince(long startNanos) {
+            observe((System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+
+        public long count() {
+            return count.sum();
+        }
+    }
+
+    /** A value which is obtained each time the metrics are scraped. */
+    private static class Gauge {
+        private final Supplier<? extends Number> value;
+
+        Gauge(Supplier<? extends Number> value) {
+            this.value = value;
+        }
+    }
+
+    private enum Type {
+        COUNTER("counter"), GAUGE("gauge"), HISTOGRAM("histogram");
+
+        private final String name;
+
+        Type(String name) {
+            this.name = name;
+        }
+    }
+
+    /** All the metrics with the same name, by their rendered labels. */
+    private static class Family {
+        private final Type type;
+        private final String help;
+        private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+        Family(Type type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Family> families = new ConcurrentHashMap<>();
+
+    /**
+     * Get or create the counter with the given name and labels.
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, Type.COUNTER, help).metrics.computeIfAbsent(labels(labels), k -> new Counter());
+    }
+
+    /**
+     * Get or create the histogram with the given name and labels.
+     */
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) family(name, Type.HISTOGRAM, help).metrics.computeIfAbsent(labels(labels), k -> new Histogram(DEFAULT_BUCKETS));
+    }
+
+    /**
+     * Register a gauge with the given name and labels, whose value is obtained from the given supplier
+     * each time the metrics are scraped. This replaces any existing gauge with the same name and labels.
+     */
+    public void gauge(String name, String help, Supplier<? extends Number> value, String... labels) {
+        family(name, Type.GAUGE, help).metrics.put(labels(labels), new Gauge(value));
+    }
+
+    private Family family(String name, Type type, String help) {
+        Family family = families.computeIfAbsent(name, k -> new Family(type, help));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type.name + ", not a " + type.name);
+        }
+        return family;
+    }
+
+    private static String labels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name, value pairs");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            sb.append(i == 0 ? "" : ",").append(labels[i]).append("=\"");
+            escape(sb, labels[i + 1]);
+            sb.append('"');
+        }
+        return sb.toString();
+    }
+
+    private static void escape(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(ch);
+            }
+        }
+    }
+
+    /**
+     * Render all the metrics in the Prometheus text exposition format (version 0.0.4).
+     */
+    public String scrape() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Family> entry : new ConcurrentSkipListMap<>(families).entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            sb.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            sb.append("# TYPE ").append(name).append(' ').append(family.type.name).append('\n');
+            for (Map.Entry<String, Object> metric : family.metrics.entrySet()) {
+                String labels = metric.getKey();
+                switch (family.type) {
+                    case COUNTER:
+                        sample(sb, name, labels, ((Counter) metric.getValue()).get());
+                        break;
+                    case GAUGE:
+                        Number value = ((Gauge) metric.getValue()).value.get();
+                        sample(sb, name, labels, value != null ? value : Double.NaN);
+                        break;
+                    case HISTOGRAM:
+                        histogram(sb, name, labels, (Histogram) metric.getValue());
+                        break;
+                    default:
+                        throw new IllegalStateException();
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void histogram(StringBuilder sb, String name, String labels, Histogram histogram) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < histogram.buckets.length; i++) {
+            cumulative += histogram.bucketCounts[i].sum();
+            sample(sb, name + "_bucket", prefix + "le=\"" + histogram.buckets[i] + "\"", cumulative);
+        }
+        long count = histogram.count.sum();
+        sample(sb, name + "_bucket", prefix + "le=\"+Inf\"", count);
+        sample(sb, name + "_count", labels, count);
+        sample(sb, name + "_sum", labels, histogram.sum.sum());
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, Number value) {
+        sb.append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ').append(value).append('\n');
+    }
+}
@@ -51,6 +51,10 @@ public abstract class AbstractReadyResourceOperator<C extends KubernetesClient,
      * @param name The resource name.
      */
     public boolean isReady(String namespace, String name) {
+        T cached = getCached(namespace, name);
+        if (cached != null) {
+            return !Readiness.isReadinessApplicable(cached.getClass()) || Readiness.isReady(cached);
+        }
         R resourceOp = operation().inNamespace(namespace).withName(name);
         T resource = resourceOp.get();
         if (resource != null)   {
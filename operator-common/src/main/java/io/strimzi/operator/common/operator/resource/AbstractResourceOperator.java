@@ -9,13 +9,16 @@ import io.fabric8.kubernetes.api.model.KubernetesResourceList;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.Watch;
 import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
 import io.fabric8.kubernetes.client.dsl.FilterWatchListMultiDeletable;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import io.strimzi.operator.common.MetricsRegistry;
 import io.strimzi.operator.common.Util;
 import io.strimzi.operator.common.model.Labels;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -23,7 +26,9 @@ import org.apache.logging.log4j.Logger;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
 
 /**
  * Abstract resource creation, for a generic resource type {@code R}.
@@ -42,6 +47,8 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
     protected final Vertx vertx;
     protected final C client;
     protected final String resourceKind;
+    private final Map<String, ResourceCache<T>> caches = new ConcurrentHashMap<>();
+    private volatile MetricsRegistry.Counter skippedPatches = new MetricsRegistry.Counter();
 
     /**
      * Constructor.
@@ -57,6 +64,76 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
 
     protected abstract MixedOperation<T, L, D, R> operation();
 
+    /**
+     * Asynchronously start a cache of the resources in the given {@code namespace}
+     * (or {@link AbstractWatchableResourceOperator#ANY_NAMESPACE}) which have the given {@code label} (or all of them,
+     * if the label is null). Once the cache is synced, {@link #get(String, String)}, {@link #getAsync(String, String)},
+     * {@link #list(String, Labels)} (for selectors which include the label) and {@link #reconcile(String, String, HasMetadata)}
+     * read from the cache, falling back to the API server for resources which aren't in it. Writes are not cached,
+     * except that the results of this operator's own writes are put in the cache.
+     * The cache needs permission to list and watch the resources.
+     * @param namespace The namespace.
+     * @param label The name of the label which the cached resources have, or null.
+     * @return A future which completes once the cache is first synced.
+     */
+    public Future<Void> startCache(String namespace, String label) {
+        FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> operation = AbstractWatchableResourceOperator.ANY_NAMESPACE.equals(namespace)
+                ? operation().inAnyNamespace() : operation().inNamespace(namespace);
+        if (label != null) {
+            operation = operation.withLabel(label);
+        }
+        ResourceCache<T> cache = new ResourceCache<>(vertx, resourceKind + "s in namespace " + namespace, label, operation);
+        ResourceCache<T> previous = caches.put(namespace, cache);
+        if (previous != null) {
+            previous.close();
+        }
+        return cache.start();
+    }
+
+    /**
+     * Stop all the caches started by {@link #startCache(String, String)}.
+     */
+    public void stopCaches() {
+        for (ResourceCache<T> cache : caches.values()) {
+            cache.close();
+        }
+        caches.clear();
+    }
+
+    /**
+     * @return The synced cache holding the resources in the given namespace (either a cache of that namespace or of
+     * {@link AbstractWatchableResourceOperator#ANY_NAMESPACE}), or null if there isn't one.
+     */
+    private ResourceCache<T> cache(String namespace) {
+        ResourceCache<T> cache = caches.get(namespace);
+        if (cache == null || !cache.isSynced()) {
+            cache = caches.get(AbstractWatchableResourceOperator.ANY_NAMESPACE);
+        }
+        return cache != null && cache.isSynced() ? cache : null;
+    }
+
+    /**
+     * @return The synced cache holding all the resources in the given namespace which match the given selector,
+     * or null if there isn't one.
+     */
+    private ResourceCache<T> cache(String namespace, Labels selector) {
+        ResourceCache<T> cache = cache(namespace);
+        return cache != null && cache.covers(selector) ? cache : null;
+    }
+
+    /**
+     * Put the result of a write in the cache (if any), so that it's not read stale before the watch catches up.
+     */
+    private void cached(T resource) {
+        if (resource != null && resource.getMetadata() != null) {
+            ResourceCache<T> cache = cache(resource.getMetadata().getNamespace());
+            if (cache != null && cache.covers(resource)) {
+                // The caller gets the resource too, so cache a copy which they can't modify
+                cache.put(ResourceCache.copy(resource));
+            }
+        }
+    }
+
     /**
      * Asynchronously create or update the given {@code resource} depending on whether it already exists,
      * returning a future for the outcome.
@@ -84,7 +161,7 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
         Future<ReconcileResult<T>> fut = Future.future();
         vertx.createSharedWorkerExecutor("kubernetes-ops-pool").executeBlocking(
             future -> {
-                T current = operation().inNamespace(namespace).withName(name).get();
+                T current = get(namespace, name);
                 if (desired != null) {
                     if (current == null) {
                         log.debug("{} {}/{} does not exist, creating it", resourceKind, namespace, name);
@@ -118,6 +195,10 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
     protected Future<ReconcileResult<T>> internalDelete(String namespace, String name) {
         try {
             operation().inNamespace(namespace).withName(name).delete();
+            ResourceCache<T> cache = cache(namespace);
+            if (cache != null) {
+                cache.remove(namespace, name);
+            }
             log.debug("{} {} in namespace {} has been deleted", resourceKind, name, namespace);
             return Future.succeededFuture(ReconcileResult.deleted());
         } catch (Exception e) {
@@ -136,7 +217,12 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
 
     protected Future<ReconcileResult<T>> internalPatch(String namespace, String name, T current, T desired, boolean cascading) {
         try {
+            T unchanged = currentIfUnchanged(namespace, name, current, desired);
+            if (unchanged != null) {
+                return skipPatch(namespace, name, unchanged);
+            }
             T result = operation().inNamespace(namespace).withName(name).cascading(cascading).patch(desired);
+            cached(result);
             log.debug("{} {} in namespace {} has been patched", resourceKind, name, namespace);
             return Future.succeededFuture(wasChanged(current, result) ? ReconcileResult.patched(result) : ReconcileResult.noop(result));
         } catch (Exception e) {
@@ -145,6 +231,81 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
         }
     }
 
+    /**
+     * Whether patching the {@code current} resource to the {@code desired} one would leave it unchanged,
+     * in which case the patch is not sent at all.
+     * By default this compares the resources using a {@link ResourceDiff} with the {@link #defaultedPaths()}.
+     * Subclasses can override this for resource types which need a different notion of equality.
+     */
+    protected boolean isUnchanged(T current, T desired) {
+        return new ResourceDiff(current, desired, defaultedPaths()).isEmpty();
+    }
+
+    /**
+     * Whether patching the {@code current} resource to the {@code desired} one would leave it unchanged.
+     * The cache can lag behind the API server, so if {@code current} came from the cache and
+     * {@link #isUnchanged(HasMetadata, HasMetadata)} says so, the resource is read again from the API server,
+     * so that a patch is never skipped because of a stale cached resource.
+     * @return The current resource, if the patch can be skipped, otherwise null.
+     */
+    protected T currentIfUnchanged(String namespace, String name, T current, T desired) {
+        if (!isUnchanged(current, desired)) {
+            return null;
+        }
+        ResourceCache<T> cache = cache(namespace);
+        if (cache == null || !cache.covers(current)) {
+            return current;
+        }
+        T latest = operation().inNamespace(namespace).withName(name).get();
+        if (latest == null || !isUnchanged(latest, desired)) {
+            log.debug("Cached {} {} in namespace {} was stale", resourceKind, name, namespace);
+            return null;
+        }
+        cached(latest);
+        return latest;
+    }
+
+    /**
+     * The JSON pointers of the fields which the API server sets to a default value when they're not set in a resource
+     * of this type, or null if there are none. The current resource having a value for such a field which the desired
+     * resource doesn't set does not require a patch.
+     */
+    protected Pattern defaultedPaths() {
+        return null;
+    }
+
+    /**
+     * Complete a patch without sending it, because it would not change the {@code current} resource.
+     */
+    protected Future<ReconcileResult<T>> skipPatch(String namespace, String name, T current) {
+        skippedPatches.increment();
+        log.debug("{} {} in namespace {} has not been patched because it is unchanged", resourceKind, name, namespace);
+        return Future.succeededFuture(ReconcileResult.noop(current));
+    }
+
+    /**
+     * Count the patches which are not sent because they would not have changed the resource in the given counter,
+     * which may be shared with other operators, rather than in a counter of this operator's own.
+     */
+    public void setSkippedPatchesCounter(MetricsRegistry.Counter counter) {
+        this.skippedPatches = counter;
+    }
+
+    /**
+     * @return The number of patches which have not been sent because they would not have changed the resource,
+     * as counted by this operator's counter.
+     */
+    public long skippedPatches() {
+        return skippedPatches.get();
+    }
+
+    /**
+     * @return The kind of Kubernetes resource operated on.
+     */
+    public String resourceKind() {
+        return resourceKind;
+    }
+
     private boolean wasChanged(T oldVersion, T newVersion) {
         if (oldVersion != null
                 && oldVersion.getMetadata() != null
@@ -162,7 +323,9 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
      */
     protected Future<ReconcileResult<T>> internalCreate(String namespace, String name, T desired) {
         try {
-            ReconcileResult<T> result = ReconcileResult.created(operation().inNamespace(namespace).withName(name).create(desired));
+            T created = operation().inNamespace(namespace).withName(name).create(desired);
+            cached(created);
+            ReconcileResult<T> result = ReconcileResult.created(created);
             log.debug("{} {} in namespace {} has been created", resourceKind, name, namespace);
             return Future.succeededFuture(result);
         } catch (Exception e) {
@@ -172,13 +335,24 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
     }
 
     /**
-     * Synchronously gets the resource with the given {@code name} in the given {@code namespace}.
+     * Synchronously gets the resource with the given {@code name} in the given {@code namespace},
+     * from the cache if there is one (see {@link #startCache(String, String)}) which holds the resource.
      * @param namespace The namespace.
      * @param name The name.
      * @return The resource, or null if it doesn't exist.
      */
     public T get(String namespace, String name) {
-        return operation().inNamespace(namespace).withName(name).get();
+        T resource = getCached(namespace, name);
+        return resource != null ? resource : operation().inNamespace(namespace).withName(name).get();
+    }
+
+    /**
+     * Gets the resource with the given {@code name} in the given {@code namespace} from the cache.
+     * @return A copy of the resource, or null if there's no cache holding it.
+     */
+    protected T getCached(String namespace, String name) {
+        ResourceCache<T> cache = cache(namespace);
+        return cache != null ? cache.get(namespace, name) : null;
     }
 
     /**
@@ -188,6 +362,10 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
      * @return A Future for the result.
      */
     public Future<T> getAsync(String namespace, String name) {
+        T cached = getCached(namespace, name);
+        if (cached != null) {
+            return Future.succeededFuture(cached);
+        }
         Future<T> result = Future.future();
         vertx.createSharedWorkerExecutor("kubernetes-ops-tool").executeBlocking(
             future -> {
@@ -206,6 +384,10 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
      */
     @SuppressWarnings("unchecked")
     public List<T> list(String namespace, Labels selector) {
+        ResourceCache<T> cache = cache(namespace, selector);
+        if (cache != null) {
+            return cache.list(namespace, selector);
+        }
         if (AbstractWatchableResourceOperator.ANY_NAMESPACE.equals(namespace))  {
             return listInAnyNamespace(selector);
         } else {
@@ -243,6 +425,60 @@ public abstract class AbstractResourceOperator<C extends KubernetesClient, T ext
         }
     }
 
+    /**
+     * Asynchronously list the resources in the given {@code namespace} with the given {@code selector},
+     * a page of at most {@code pageSize} resources at a time.
+     * Each page is passed to the given {@code pageHandler} as soon as it has been listed, before the next page is
+     * requested, so the resources need not all be held in memory at once.
+     * @param namespace The namespace.
+     * @param selector The selector.
+     * @param pageSize The maximum number of resources in each page.
+     * @param pageHandler The handler of each page of matching resources.
+     * @return A future which completes once all the pages have been handled.
+     */
+    public Future<Void> listAsync(String namespace, Labels selector, int pageSize, Handler<List<T>> pageHandler) {
+        ResourceCache<T> cache = cache(namespace, selector);
+        if (cache != null) {
+            pageHandler.handle(cache.list(namespace, selector));
+            return Future.succeededFuture();
+        }
+        FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> operation = AbstractWatchableResourceOperator.ANY_NAMESPACE.equals(namespace)
+                ? operation().inAnyNamespace() : operation().inNamespace(namespace);
+        if (selector != null) {
+            operation = operation.withLabels(selector.toMap());
+        }
+        Future<Void> result = Future.future();
+        listPage(operation, pageSize, null, pageHandler, result);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void listPage(FilterWatchListDeletable<T, L, Boolean, Watch, Watcher<T>> operation, int pageSize, String continueToken,
+                          Handler<List<T>> pageHandler, Future<Void> result) {
+        vertx.<L>executeBlocking(
+            future -> future.complete(operation.list(pageSize, continueToken)),
+            true,
+            ar -> {
+                if (ar.failed()) {
+                    result.fail(ar.cause());
+                    return;
+                }
+                L page = ar.result();
+                try {
+                    pageHandler.handle((List<T>) page.getItems());
+                } catch (Throwable t) {
+                    result.fail(t);
+                    return;
+                }
+                String next = page.getMetadata() != null ? page.getMetadata().getContinue() : null;
+                if (next == null || next.isEmpty()) {
+                    result.complete();
+                } else {
+                    listPage(operation, pageSize, next, pageHandler, result);
+                }
+            });
+    }
+
     /**
      * Returns a future that completes when the resource identified by the given {@code namespace} and {@code name}
      * is ready.
@@ -10,7 +10,6 @@ import io.fabric8.kubernetes.api.model.DoneableConfigMap;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
-import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 
 import java.util.Map;
@@ -35,24 +34,14 @@ public class ConfigMapOperator extends AbstractResourceOperator<KubernetesClient
     }
 
     @Override
-    protected Future<ReconcileResult<ConfigMap>> internalPatch(String namespace, String name, ConfigMap current, ConfigMap desired) {
-        try {
-            if (compareObjects(current.getData(), desired.getData())
-                    && compareObjects(current.getMetadata().getName(), desired.getMetadata().getName())
-                    && compareObjects(current.getMetadata().getNamespace(), desired.getMetadata().getNamespace())
-                    && compareObjects(current.getMetadata().getAnnotations(), desired.getMetadata().getAnnotations())
-                    && compareObjects(current.getMetadata().getLabels(), desired.getMetadata().getLabels())) {
-                // Checking some metadata. We cannot check entire metadata object because it contains
-                // timestamps which would cause restarting loop
-                log.debug("{} {} in namespace {} has not been patched because resources are equal", resourceKind, name, namespace);
-                return Future.succeededFuture(ReconcileResult.noop(current));
-            } else {
-                return super.internalPatch(namespace, name, current, desired);
-            }
-        } catch (Exception e) {
-            log.error("Caught exception while patching {} {} in namespace {}", resourceKind, name, namespace, e);
-            return Future.failedFuture(e);
-        }
+    protected boolean isUnchanged(ConfigMap current, ConfigMap desired) {
+        // Checking some metadata. We cannot check entire metadata object because it contains
+        // timestamps which would cause restarting loop
+        return compareObjects(current.getData(), desired.getData())
+                && compareObjects(current.getMetadata().getName(), desired.getMetadata().getName())
+                && compareObjects(current.getMetadata().getNamespace(), desired.getMetadata().getNamespace())
+                && compareObjects(current.getMetadata().getAnnotations(), desired.getMetadata().getAnnotations())
+                && compareObjects(current.getMetadata().getLabels(), desired.getMetadata().getLabels());
     }
 
     private boolean compareObjects(Object a, Object b) {
@@ -16,11 +16,19 @@ import io.strimzi.operator.common.model.Labels;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 
+import java.util.regex.Pattern;
+
 /**
  * Operations for {@code Deployment}s.
  */
 public class DeploymentOperator extends AbstractScalableResourceOperator<KubernetesClient, Deployment, DeploymentList, DoneableDeployment, ScalableResource<Deployment, DoneableDeployment>> {
 
+    private static final Pattern DEFAULTED_PATHS = Pattern.compile(
+        "^(" + ResourceDiff.POD_TEMPLATE_DEFAULTED_PATHS
+        + "|/spec/progressDeadlineSeconds"
+        + "|/spec/revisionHistoryLimit"
+        + "|/spec/strategy(/rollingUpdate)?)$");
+
     private final PodOperator podOperations;
 
     /**
@@ -42,6 +50,11 @@ public class DeploymentOperator extends AbstractScalableResourceOperator<Kuberne
         return client.extensions().deployments();
     }
 
+    @Override
+    protected Pattern defaultedPaths() {
+        return DEFAULTED_PATHS;
+    }
+
     @Override
     protected Integer currentScale(String namespace, String name) {
         Deployment deployment = get(namespace, name);
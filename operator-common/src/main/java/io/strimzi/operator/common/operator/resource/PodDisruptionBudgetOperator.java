@@ -25,6 +25,10 @@ public class PodDisruptionBudgetOperator extends AbstractResourceOperator<Kubern
     }
 
     protected Future<ReconcileResult<PodDisruptionBudget>> internalPatch(String namespace, String name, PodDisruptionBudget current, PodDisruptionBudget desired, boolean cascading) {
+        PodDisruptionBudget unchanged = currentIfUnchanged(namespace, name, current, desired);
+        if (unchanged != null) {
+            return skipPatch(namespace, name, unchanged);
+        }
         Future<ReconcileResult<PodDisruptionBudget>> fut = Future.future();
         internalDelete(namespace, name).setHandler(delRes -> {
             if (delRes.succeeded())    {
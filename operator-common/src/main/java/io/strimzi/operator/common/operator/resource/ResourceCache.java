@@ -0,0 +1,293 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.strimzi.operator.common.model.Labels;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A local cache of the resources returned by an operation (i.e. those in a namespace, or any namespace,
+ * optionally with a label), indexed by namespace and name and by label.
+ * The cache is populated from a list and then kept up to date by a watch started from the
+ * {@code resourceVersion} of that list. If the watch is closed by the API server the resources are listed again.
+ * While the cache is not {@linkplain #isSynced() synced} it should not be read.
+ * @param <T> The Kubernetes resource type.
+ */
+public class ResourceCache<T extends HasMetadata> {
+
+    private static final Logger log = LogManager.getLogger(ResourceCache.class);
+
+    private static final long MIN_RESTART_DELAY_MS = 1_000;
+    private static final long MAX_RESTART_DELAY_MS = 30_000;
+
+    private final Vertx vertx;
+    private final String description;
+    private final String label;
+    private final FilterWatchListDeletable<T, ? extends KubernetesResourceList, Boolean, Watch, Watcher<T>> operation;
+
+    private final ConcurrentHashMap<String, T> byKey = new ConcurrentHashMap<>();
+    /** The keys of the cached resources, by label (as "name=value"). Guarded by this. */
+    private final ConcurrentHashMap<String, Set<String>> byLabel = new ConcurrentHashMap<>();
+
+    private volatile boolean synced = false;
+    private volatile boolean closed = false;
+    private volatile Watch watch;
+    private long restartDelayMs = MIN_RESTART_DELAY_MS;
+
+    /**
+     * @param vertx The Vert.x instance.
+     * @param description A description of the cached resources, used in logging.
+     * @param label The name of the label which the operation selects, or null if it selects all the resources.
+     * @param operation The operation listing and watching the resources to cache.
+     */
+    public ResourceCache(Vertx vertx, String description, String label,
+                         FilterWatchListDeletable<T, ? extends KubernetesResourceList, Boolean, Watch, Watcher<T>> operation) {
+        this.vertx = vertx;
+        this.description = description;
+        this.label = label;
+        this.operation = operation;
+    }
+
+    /**
+     * Asynchronously list the resources and start watching them.
+     * If this fails it is retried in the background, but the returned future fails.
+     */
+    public Future<Void> start() {
+        Future<Void> result = Future.future();
+        vertx.<Void>executeBlocking(future -> {
+            if (!closed) {
+                sync();
+            }
+            future.complete();
+        }, false, ar -> started(ar, result));
+        return result;
+    }
+
+    private void started(AsyncResult<Void> ar, Future<Void> result) {
+        if (ar.succeeded()) {
+            restartDelayMs = MIN_RESTART_DELAY_MS;
+        } else if (!closed) {
+            log.warn("Error starting cache of {}, retrying in {}ms", description, restartDelayMs, ar.cause());
+            long delay = restartDelayMs;
+            restartDelayMs = Math.min(2 * restartDelayMs, MAX_RESTART_DELAY_MS);
+            vertx.setTimer(delay, timerId -> start());
+        }
+        result.handle(ar);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void sync() {
+        KubernetesResourceList list = operation.list();
+        String resourceVersion = list.getMetadata() != null ? list.getMetadata().getResourceVersion() : null;
+        synchronized (this) {
+            byKey.clear();
+            byLabel.clear();
+            for (T resource : (List<T>) list.getItems()) {
+                put(resource);
+            }
+        }
+        watch = operation.watch(resourceVersion, new Watcher<T>() {
+            @Override
+            public void eventReceived(Action action, T resource) {
+                switch (action) {
+                    case ADDED:
+                    case MODIFIED:
+                        put(resource);
+                        break;
+                    case DELETED:
+                        remove(resource.getMetadata().getNamespace(), resource.getMetadata().getName());
+                        break;
+                    default:
+                }
+            }
+
+            @Override
+            public void onClose(KubernetesClientException e) {
+                synced = false;
+                if (!closed && e != null) {
+                    log.info("Watch of {} closed, relisting", description, e);
+                    start();
+                }
+            }
+        });
+        if (closed) {
+            // Closed while we were starting
+            watch.close();
+            return;
+        }
+        synced = true;
+        log.debug("Cached {} {} from resourceVersion {}", byKey.size(), description, resourceVersion);
+    }
+
+    /**
+     * Stop watching the resources. The cache is no longer synced.
+     */
+    public void close() {
+        closed = true;
+        synced = false;
+        Watch watch = this.watch;
+        if (watch != null) {
+            watch.close();
+        }
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Whether the given resource is one which the cache would hold, if it existed.
+     */
+    public boolean covers(HasMetadata resource) {
+        return label == null || labels(resource).containsKey(label);
+    }
+
+    /**
+     * Whether all the resources matching the given selector (which may be null) are ones which the cache holds.
+     */
+    public boolean covers(Labels selector) {
+        return label == null || selector != null && selector.toMap().containsKey(label);
+    }
+
+    private static String key(String namespace, String name) {
+        return namespace + "/" + name;
+    }
+
+    private static String label(Map.Entry<String, String> entry) {
+        return entry.getKey() + "=" + entry.getValue();
+    }
+
+    private static Map<String, String> labels(HasMetadata resource) {
+        Map<String, String> labels = resource.getMetadata().getLabels();
+        return labels != null ? labels : Collections.emptyMap();
+    }
+
+    /**
+     * Add or replace the given resource in the cache, unless the cache already holds a more recent version of it.
+     */
+    synchronized void put(T resource) {
+        String key = key(resource.getMetadata().getNamespace(), resource.getMetadata().getName());
+        T current = byKey.get(key);
+        if (current != null) {
+            if (isOlder(resource, current)) {
+                return;
+            }
+            unindex(key, current);
+        }
+        byKey.put(key, resource);
+        for (Map.Entry<String, String> entry : labels(resource).entrySet()) {
+            byLabel.computeIfAbsent(label(entry), k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    /**
+     * Remove the resource with the given namespace and name from the cache.
+     */
+    synchronized void remove(String namespace, String name) {
+        String key = key(namespace, name);
+        T current = byKey.remove(key);
+        if (current != null) {
+            unindex(key, current);
+        }
+    }
+
+    private void unindex(String key, T resource) {
+        for (Map.Entry<String, String> entry : labels(resource).entrySet()) {
+            Set<String> keys = byLabel.get(label(entry));
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    byLabel.remove(label(entry));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get a copy of the cached resource with the given namespace and name, or null if there is no such resource.
+     */
+    public T get(String namespace, String name) {
+        T resource = byKey.get(key(namespace, name));
+        return resource != null ? copy(resource) : null;
+    }
+
+    /**
+     * Copies of the cached resources in the given namespace (or any namespace, if the namespace is
+     * {@link AbstractWatchableResourceOperator#ANY_NAMESPACE}) which match the given selector (which may be null).
+     */
+    public List<T> list(String namespace, Labels selector) {
+        Map<String, String> wanted = selector != null ? selector.toMap() : Collections.emptyMap();
+        // Start from the smallest set of resources with one of the selector's labels
+        Iterable<String> keys = byKey.keySet();
+        int size = Integer.MAX_VALUE;
+        for (Map.Entry<String, String> entry : wanted.entrySet()) {
+            Set<String> labelled = byLabel.getOrDefault(label(entry), Collections.emptySet());
+            if (labelled.size() < size) {
+                keys = labelled;
+                size = labelled.size();
+            }
+        }
+        boolean anyNamespace = AbstractWatchableResourceOperator.ANY_NAMESPACE.equals(namespace);
+        List<T> result = new ArrayList<>();
+        for (String key : keys) {
+            T resource = byKey.get(key);
+            if (resource != null
+                    && (anyNamespace || namespace.equals(resource.getMetadata().getNamespace()))
+                    && labels(resource).entrySet().containsAll(wanted.entrySet())) {
+                result.add(copy(resource));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A deep copy of the given resource, so callers can modify what they get from the cache
+     * without modifying the cache.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends HasMetadata> T copy(T resource) {
+        try {
+            return (T) Serialization.jsonMapper().treeToValue(Serialization.jsonMapper().valueToTree(resource), resource.getClass());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not copy " + resource.getKind() + " " + resource.getMetadata().getName(), e);
+        }
+    }
+
+    public int size() {
+        return byKey.size();
+    }
+
+    /**
+     * Whether {@code candidate} has a lower resourceVersion than {@code current}.
+     * ResourceVersions are supposed to be opaque, so if either can't be parsed we say it's not older.
+     */
+    private static boolean isOlder(HasMetadata candidate, HasMetadata current) {
+        try {
+            return Long.parseLong(candidate.getMetadata().getResourceVersion())
+                    < Long.parseLong(current.getMetadata().getResourceVersion());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.zjsonpatch.JsonDiff;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.regex.Pattern;
+
+import static io.fabric8.kubernetes.client.internal.PatchUtils.patchMapper;
+
+/**
+ * The differences between the current version of a resource and the desired version it would be patched to,
+ * ignoring those which the patch would not really change:
+ * <ul>
+ * <li>Differences in fields which only the API server sets (such as the {@code resourceVersion} or the {@code status}).</li>
+ * <li>Fields which are set in the current resource but not in the desired one, when they are
+ *     {@linkplain #ResourceDiff(HasMetadata, HasMetadata, Pattern) defaulted} by the API server.</li>
+ * <li>For resources which have defaulted fields, objects which are empty in the current resource
+ *     but not set in the desired one (such as a pod template's {@code securityContext}, which the API server
+ *     sets to an empty object by default).</li>
+ * </ul>
+ */
+public class ResourceDiff {
+
+    private static final Logger log = LogManager.getLogger(ResourceDiff.class.getName());
+
+    private static final Pattern SERVER_PATHS = Pattern.compile(
+        "^(/metadata/creationTimestamp"
+        + "|/metadata/generation"
+        + "|/metadata/resourceVersion"
+        + "|/metadata/selfLink"
+        + "|/metadata/uid"
+        + "|/status(/.*)?)$");
+
+    /**
+     * Fields of a pod template which the API server sets to a default value,
+     * for use in the defaulted paths of resources which have one at {@code /spec/template}.
+     * Fields which users can set through the pod template (such as the {@code securityContext}) must not be included,
+     * or removing them from the template would not patch the resource.
+     */
+    public static final String POD_TEMPLATE_DEFAULTED_PATHS =
+        "/spec/template/spec/(initContainers|containers)/[0-9]+/terminationMessagePath"
+        + "|/spec/template/spec/(initContainers|containers)/[0-9]+/terminationMessagePolicy"
+        + "|/spec/template/spec/(initContainers|containers)/[0-9]+/imagePullPolicy"
+        + "|/spec/template/spec/(initContainers|containers)/[0-9]+/env/[0-9]+/valueFrom/fieldRef/apiVersion"
+        + "|/spec/template/spec/(initContainers|containers)/[0-9]+/(livenessProbe|readinessProbe)/(failureThreshold|periodSeconds|successThreshold)"
+        + "|/spec/template/spec/dnsPolicy"
+        + "|/spec/template/spec/restartPolicy"
+        + "|/spec/template/spec/schedulerName"
+        + "|/spec/template/spec/serviceAccount"
+        + "|/spec/template/spec/volumes/[0-9]+/(configMap|secret)/defaultMode";
+
+    private final boolean isEmpty;
+
+    /**
+     * @param current The current resource.
+     * @param desired The desired resource.
+     * @param defaultedPaths Matches the JSON pointers of the fields of the resource which the API server sets
+     *                       to a default value when they're not given, or null if there are none.
+     */
+    public ResourceDiff(HasMetadata current, HasMetadata desired, Pattern defaultedPaths) {
+        JsonNode currentTree = patchMapper().valueToTree(current);
+        JsonNode diff = JsonDiff.asJson(currentTree, patchMapper().valueToTree(desired));
+        int num = 0;
+        for (JsonNode d : diff) {
+            String pathValue = d.get("path").asText();
+            if (SERVER_PATHS.matcher(pathValue).matches()
+                    || defaultedPaths != null
+                        && "remove".equals(d.get("op").asText())
+                        && (defaultedPaths.matcher(pathValue).matches() || isEmptyObject(currentTree.at(pathValue)))) {
+                continue;
+            }
+            if (log.isDebugEnabled()) {
+                ObjectMeta md = current.getMetadata();
+                log.debug("{} {}/{} differs: {}", current.getKind(), md.getNamespace(), md.getName(), d);
+            }
+            num++;
+        }
+        this.isEmpty = num == 0;
+    }
+
+    private static boolean isEmptyObject(JsonNode node) {
+        return node.isObject() && node.size() == 0;
+    }
+
+    /**
+     * @return True if patching the current resource to the desired one would not change it.
+     */
+    public boolean isEmpty() {
+        return isEmpty;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    private final MetricsRegistry metrics = new MetricsRegistry();
+
+    @Test
+    public void testCounter() {
+        MetricsRegistry.Counter counter = metrics.counter("requests_total", "Requests", "operation", "read");
+        counter.increment();
+        counter.increment(2);
+        assertSame(counter, metrics.counter("requests_total", "Requests", "operation", "read"));
+        metrics.counter("requests_total", "Requests", "operation", "write").increment();
+        assertEquals("# HELP requests_total Requests\n"
+                + "# TYPE requests_total counter\n"
+                + "requests_total{operation=\"read\"} 3\n"
+                + "requests_total{operation=\"write\"} 1\n", metrics.scrape());
+    }
+
+    @Test
+    public void testGauge() {
+        AtomicInteger value = new AtomicInteger(1);
+        metrics.gauge("queue_size", "Queue size", value::get);
+        value.set(5);
+        assertEquals("# HELP queue_size Queue size\n"
+                + "# TYPE queue_size gauge\n"
+                + "queue_size 5\n", metrics.scrape());
+    }
+
+    @Test
+    public void testHistogram() {
+        MetricsRegistry.Histogram histogram = metrics.histogram("duration_seconds", "Duration");
+        histogram.observe(0.003);
+        histogram.observe(0.3);
+        histogram.observe(100);
+        assertEquals(3, histogram.count());
+        String scrape = metrics.scrape();
+        assertTrue(scrape, scrape.contains("# TYPE duration_seconds histogram\n"));
+        assertTrue(scrape, scrape.contains("duration_seconds_bucket{le=\"0.005\"} 1\n"));
+        assertTrue(scrape, scrape.contains("duration_seconds_bucket{le=\"0.25\"} 1\n"));
+        assertTrue(scrape, scrape.contains("duration_seconds_bucket{le=\"0.5\"} 2\n"));
+        assertTrue(scrape, scrape.contains("duration_seconds_bucket{le=\"60.0\"} 2\n"));
+        assertTrue(scrape, scrape.contains("duration_seconds_bucket{le=\"+Inf\"} 3\n"));
+        assertTrue(scrape, scrape.contains("duration_seconds_count 3\n"));
+        assertTrue(scrape, scrape.contains("duration_seconds_sum "));
+    }
+
+    @Test
+    public void testLabelValuesAreEscaped() {
+        metrics.counter("errors_total", "Errors", "message", "a \"quoted\"\\value\n").increment();
+        assertTrue(metrics.scrape().contains("errors_total{message=\"a \\\"quoted\\\"\\\\value\\n\"} 1\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypeMismatch() {
+        metrics.counter("mismatch", "Mismatch");
+        metrics.histogram("mismatch", "Mismatch");
+    }
+}
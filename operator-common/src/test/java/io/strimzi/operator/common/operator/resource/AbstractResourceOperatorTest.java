@@ -6,7 +6,12 @@ package io.strimzi.operator.common.operator.resource;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ListMetaBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListMultiDeletable;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
@@ -20,10 +25,20 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.matches;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -63,6 +78,20 @@ public abstract class AbstractResourceOperatorTest<C extends KubernetesClient, T
      */
     protected abstract T resource();
 
+    /**
+     * Get a (new) test resource which differs from {@link #resource()}, so that reconciling it needs a patch
+     */
+    protected T modifiedResource() {
+        T resource = resource();
+        Map<String, String> labels = new HashMap<>();
+        if (resource.getMetadata().getLabels() != null) {
+            labels.putAll(resource.getMetadata().getLabels());
+        }
+        labels.put("modified", "true");
+        resource.getMetadata().setLabels(labels);
+        return resource;
+    }
+
     /**
      * Configure the given {@code mockClient} to return the given {@code op}
      * that's appropriate for the kind of resource being tests.
@@ -100,7 +129,7 @@ public abstract class AbstractResourceOperatorTest<C extends KubernetesClient, T
         AbstractResourceOperator<C, T, L, D, R> op = createResourceOperations(vertx, mockClient);
 
         Async async = context.async();
-        Future<ReconcileResult<T>> fut = op.createOrUpdate(resource());
+        Future<ReconcileResult<T>> fut = op.createOrUpdate(modifiedResource());
         fut.setHandler(ar -> {
             if (!ar.succeeded()) {
                 ar.cause().printStackTrace();
@@ -116,6 +145,214 @@ public abstract class AbstractResourceOperatorTest<C extends KubernetesClient, T
         });
     }
 
+    @Test
+    public void createWhenCachedIsAPatchWithoutGet(TestContext context) {
+        T resource = resource();
+        Resource mockResource = mock(resourceType());
+        when(mockResource.cascading(anyBoolean())).thenReturn(mockResource);
+
+        KubernetesResourceList mockList = mock(KubernetesResourceList.class);
+        when(mockList.getItems()).thenReturn(singletonList(resource));
+        when(mockList.getMetadata()).thenReturn(new ListMetaBuilder().withResourceVersion("1").build());
+
+        NonNamespaceOperation mockNameable = mock(NonNamespaceOperation.class);
+        when(mockNameable.withName(matches(resource.getMetadata().getName()))).thenReturn(mockResource);
+        when(mockNameable.list()).thenReturn(mockList);
+        when(mockNameable.watch(any(String.class), any(Watcher.class))).thenReturn(mock(Watch.class));
+
+        MixedOperation mockCms = mock(MixedOperation.class);
+        when(mockCms.inNamespace(matches(resource.getMetadata().getNamespace()))).thenReturn(mockNameable);
+
+        C mockClient = mock(clientType());
+        mocker(mockClient, mockCms);
+
+        AbstractResourceOperator<C, T, L, D, R> op = createResourceOperations(vertx, mockClient);
+
+        Async async = context.async();
+        op.startCache(NAMESPACE, null).compose(v -> op.createOrUpdate(modifiedResource())).setHandler(ar -> {
+            if (!ar.succeeded()) {
+                ar.cause().printStackTrace();
+            }
+            assertTrue(ar.succeeded());
+            verify(mockNameable).watch(eq("1"), any(Watcher.class));
+            verify(mockResource, never()).get();
+            verify(mockResource).patch(any());
+            op.stopCaches();
+            async.complete();
+        });
+    }
+
+    @Test
+    public void createWhenCachedAndUnchangedChecksTheApiServerBeforeSkipping(TestContext context) {
+        T resource = resource();
+        Resource mockResource = mock(resourceType());
+        // The cache is stale: The resource has since been changed
+        when(mockResource.get()).thenReturn(modifiedResource());
+        when(mockResource.cascading(anyBoolean())).thenReturn(mockResource);
+
+        KubernetesResourceList mockList = mock(KubernetesResourceList.class);
+        when(mockList.getItems()).thenReturn(singletonList(resource));
+        when(mockList.getMetadata()).thenReturn(new ListMetaBuilder().withResourceVersion("1").build());
+
+        NonNamespaceOperation mockNameable = mock(NonNamespaceOperation.class);
+        when(mockNameable.withName(matches(resource.getMetadata().getName()))).thenReturn(mockResource);
+        when(mockNameable.list()).thenReturn(mockList);
+        when(mockNameable.watch(any(String.class), any(Watcher.class))).thenReturn(mock(Watch.class));
+
+        MixedOperation mockCms = mock(MixedOperation.class);
+        when(mockCms.inNamespace(matches(resource.getMetadata().getNamespace()))).thenReturn(mockNameable);
+
+        C mockClient = mock(clientType());
+        mocker(mockClient, mockCms);
+
+        AbstractResourceOperator<C, T, L, D, R> op = createResourceOperations(vertx, mockClient);
+
+        Async async = context.async();
+        op.startCache(NAMESPACE, null).compose(v -> op.createOrUpdate(resource())).setHandler(ar -> {
+            if (!ar.succeeded()) {
+                ar.cause().printStackTrace();
+            }
+            assertTrue(ar.succeeded());
+            verify(mockResource).get();
+            verify(mockResource).patch(any());
+            assertEquals(0L, op.skippedPatches());
+            op.stopCaches();
+            async.complete();
+        });
+    }
+
+    @Test
+    public void readsFromAnyNamespaceCacheReturnCopies(TestContext context) {
+        T resource = resource();
+
+        KubernetesResourceList mockList = mock(KubernetesResourceList.class);
+        when(mockList.getItems()).thenReturn(singletonList(resource));
+        when(mockList.getMetadata()).thenReturn(new ListMetaBuilder().withResourceVersion("1").build());
+
+        FilterWatchListMultiDeletable mockAnyNamespace = mock(FilterWatchListMultiDeletable.class);
+        when(mockAnyNamespace.list()).thenReturn(mockList);
+        when(mockAnyNamespace.watch(any(String.class), any(Watcher.class))).thenReturn(mock(Watch.class));
+
+        MixedOperation mockCms = mock(MixedOperation.class);
+        when(mockCms.inAnyNamespace()).thenReturn(mockAnyNamespace);
+
+        C mockClient = mock(clientType());
+        mocker(mockClient, mockCms);
+
+        AbstractResourceOperator<C, T, L, D, R> op = createResourceOperations(vertx, mockClient);
+
+        Async async = context.async();
+        op.startCache(AbstractWatchableResourceOperator.ANY_NAMESPACE, null).setHandler(ar -> {
+            context.assertTrue(ar.succeeded());
+            List<T> listed = op.list(NAMESPACE, null);
+            context.assertEquals(1, listed.size());
+            listed.get(0).getMetadata().setAnnotations(singletonMap("modified", "true"));
+            Map<String, String> annotations = op.get(NAMESPACE, RESOURCE_NAME).getMetadata().getAnnotations();
+            context.assertTrue(annotations == null || !annotations.containsKey("modified"));
+            verify(mockCms, never()).inNamespace(any());
+            op.stopCaches();
+            async.complete();
+        });
+    }
+
+    private KubernetesResourceList page(T resource, String continueToken) {
+        KubernetesResourceList page = mock(KubernetesResourceList.class);
+        when(page.getItems()).thenReturn(singletonList(resource));
+        when(page.getMetadata()).thenReturn(new ListMetaBuilder().withContinue(continueToken).build());
+        return page;
+    }
+
+    @Test
+    public void listAsyncFollowsTheContinueToken(TestContext context) {
+        T first = resource();
+        T second = modifiedResource();
+        KubernetesResourceList firstPage = page(first, "next");
+        KubernetesResourceList secondPage = page(second, null);
+
+        NonNamespaceOperation mockNameable = mock(NonNamespaceOperation.class);
+        when(mockNameable.list(eq(1), isNull())).thenReturn(firstPage);
+        when(mockNameable.list(eq(1), eq("next"))).thenReturn(secondPage);
+
+        MixedOperation mockCms = mock(MixedOperation.class);
+        when(mockCms.inNamespace(matches(NAMESPACE))).thenReturn(mockNameable);
+
+        C mockClient = mock(clientType());
+        mocker(mockClient, mockCms);
+
+        AbstractResourceOperator<C, T, L, D, R> op = createResourceOperations(vertx, mockClient);
+
+        List<List<T>> pages = new ArrayList<>();
+        Async async = context.async();
+        op.listAsync(NAMESPACE, null, 1, pages::add).setHandler(ar -> {
+            context.assertTrue(ar.succeeded());
+            context.assertEquals(asList(singletonList(first), singletonList(second)), pages);
+            async.complete();
+        });
+    }
+
+    @Test
+    public void listAsyncFailsWhenALaterPageFails(TestContext context) {
+        T first = resource();
+        KubernetesResourceList firstPage = page(first, "next");
+        KubernetesClientException ex = new KubernetesClientException("The continue token has expired");
+
+        NonNamespaceOperation mockNameable = mock(NonNamespaceOperation.class);
+        when(mockNameable.list(eq(1), isNull())).thenReturn(firstPage);
+        when(mockNameable.list(eq(1), eq("next"))).thenThrow(ex);
+
+        MixedOperation mockCms = mock(MixedOperation.class);
+        when(mockCms.inNamespace(matches(NAMESPACE))).thenReturn(mockNameable);
+
+        C mockClient = mock(clientType());
+        mocker(mockClient, mockCms);
+
+        AbstractResourceOperator<C, T, L, D, R> op = createResourceOperations(vertx, mockClient);
+
+        List<List<T>> pages = new ArrayList<>();
+        Async async = context.async();
+        op.listAsync(NAMESPACE, null, 1, pages::add).setHandler(ar -> {
+            context.assertTrue(ar.failed());
+            context.assertEquals(ex, ar.cause());
+            // Only the first page was handled
+            context.assertEquals(singletonList(singletonList(first)), pages);
+            async.complete();
+        });
+    }
+
+    @Test
+    public void createWhenUnchangedSkipsThePatch(TestContext context) {
+        T resource = resource();
+        Resource mockResource = mock(resourceType());
+        when(mockResource.get()).thenReturn(resource);
+        when(mockResource.cascading(anyBoolean())).thenReturn(mockResource);
+
+        NonNamespaceOperation mockNameable = mock(NonNamespaceOperation.class);
+        when(mockNameable.withName(matches(resource.getMetadata().getName()))).thenReturn(mockResource);
+
+        MixedOperation mockCms = mock(MixedOperation.class);
+        when(mockCms.inNamespace(matches(resource.getMetadata().getNamespace()))).thenReturn(mockNameable);
+
+        C mockClient = mock(clientType());
+        mocker(mockClient, mockCms);
+
+        AbstractResourceOperator<C, T, L, D, R> op = createResourceOperations(vertx, mockClient);
+
+        Async async = context.async();
+        op.createOrUpdate(resource).setHandler(ar -> {
+            if (!ar.succeeded()) {
+                ar.cause().printStackTrace();
+            }
+            assertTrue(ar.succeeded());
+            assertTrue(ar.result() instanceof ReconcileResult.Noop);
+            verify(mockResource).get();
+            verify(mockResource, never()).patch(any());
+            verify(mockResource, never()).delete();
+            verify(mockResource, never()).create(any());
+            assertEquals(1L, op.skippedPatches());
+            async.complete();
+        });
+    }
+
     @Test
     public void existenceCheckThrows(TestContext context) {
         T resource = resource();
@@ -84,7 +84,7 @@ public class PodDisruptionBudgetOperatorTest extends AbstractResourceOperatorTes
         AbstractResourceOperator<KubernetesClient, PodDisruptionBudget, PodDisruptionBudgetList, DoneablePodDisruptionBudget, Resource<PodDisruptionBudget, DoneablePodDisruptionBudget>> op = createResourceOperations(vertx, mockClient);
 
         Async async = context.async();
-        Future<ReconcileResult<PodDisruptionBudget>> fut = op.createOrUpdate(resource());
+        Future<ReconcileResult<PodDisruptionBudget>> fut = op.createOrUpdate(modifiedResource());
         fut.setHandler(ar -> {
             if (!ar.succeeded()) {
                 ar.cause().printStackTrace();
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.strimzi.operator.common.model.Labels;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceCacheTest {
+
+    private final ResourceCache<ConfigMap> cache = new ResourceCache<>(null, "ConfigMaps", "app", null);
+
+    private static ConfigMap configMap(String namespace, String name, String resourceVersion, Map<String, String> labels) {
+        return new ConfigMapBuilder()
+                .withNewMetadata()
+                    .withNamespace(namespace)
+                    .withName(name)
+                    .withResourceVersion(resourceVersion)
+                    .withLabels(labels)
+                .endMetadata()
+                .build();
+    }
+
+    private static Map<String, String> labels(String... keyValues) {
+        Map<String, String> labels = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            labels.put(keyValues[i], keyValues[i + 1]);
+        }
+        return labels;
+    }
+
+    private static Set<String> names(List<ConfigMap> configMaps) {
+        Set<String> names = new HashSet<>();
+        for (ConfigMap cm : configMaps) {
+            names.add(cm.getMetadata().getNamespace() + "/" + cm.getMetadata().getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void testListByNamespaceAndLabels() {
+        cache.put(configMap("ns1", "a", "1", labels("app", "x", "role", "broker")));
+        cache.put(configMap("ns1", "b", "2", labels("app", "x", "role", "zk")));
+        cache.put(configMap("ns2", "c", "3", labels("app", "y", "role", "broker")));
+
+        assertEquals(new HashSet<>(asList("ns1/a", "ns1/b")), names(cache.list("ns1", null)));
+        assertEquals(new HashSet<>(asList("ns1/a", "ns2/c")),
+                names(cache.list(AbstractWatchableResourceOperator.ANY_NAMESPACE, Labels.fromMap(singletonMap("role", "broker")))));
+        assertEquals(new HashSet<>(asList("ns1/b")),
+                names(cache.list("ns1", Labels.fromMap(labels("app", "x", "role", "zk")))));
+        assertEquals(emptySet(), names(cache.list("ns2", Labels.fromMap(singletonMap("app", "x")))));
+    }
+
+    @Test
+    public void testUpdatesMaintainTheLabelIndex() {
+        cache.put(configMap("ns", "a", "1", labels("app", "x", "role", "broker")));
+        cache.put(configMap("ns", "a", "2", labels("app", "x", "role", "zk")));
+        assertEquals(emptySet(), names(cache.list("ns", Labels.fromMap(singletonMap("role", "broker")))));
+        assertEquals(new HashSet<>(asList("ns/a")), names(cache.list("ns", Labels.fromMap(singletonMap("role", "zk")))));
+
+        // An older version doesn't replace a newer one
+        cache.put(configMap("ns", "a", "1", labels("app", "x", "role", "broker")));
+        assertEquals("2", cache.get("ns", "a").getMetadata().getResourceVersion());
+
+        cache.remove("ns", "a");
+        assertNull(cache.get("ns", "a"));
+        assertEquals(emptySet(), names(cache.list("ns", Labels.fromMap(singletonMap("role", "zk")))));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testCovers() {
+        assertTrue(cache.covers(configMap("ns", "a", "1", labels("app", "x"))));
+        assertFalse(cache.covers(configMap("ns", "a", "1", labels("role", "zk"))));
+        assertTrue(cache.covers(Labels.fromMap(labels("app", "x", "role", "zk"))));
+        assertFalse(cache.covers(Labels.fromMap(singletonMap("role", "zk"))));
+        assertFalse(cache.covers((Labels) null));
+    }
+
+    @Test
+    public void testGetAndListReturnCopies() {
+        cache.put(configMap("ns", "a", "1", labels("app", "x")));
+        cache.get("ns", "a").getMetadata().getLabels().put("role", "zk");
+        cache.list("ns", null).get(0).getMetadata().setResourceVersion("2");
+        assertEquals(labels("app", "x"), cache.get("ns", "a").getMetadata().getLabels());
+        assertEquals("1", cache.get("ns", "a").getMetadata().getResourceVersion());
+        assertEquals(emptySet(), names(cache.list("ns", Labels.fromMap(singletonMap("role", "zk")))));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.common.operator.resource;
+
+import io.fabric8.kubernetes.api.model.PodSecurityContext;
+import io.fabric8.kubernetes.api.model.PodSecurityContextBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceDiffTest {
+
+    private static final Pattern DEFAULTED_PATHS = Pattern.compile("^(" + ResourceDiff.POD_TEMPLATE_DEFAULTED_PATHS + ")$");
+
+    private static Deployment deployment(PodSecurityContext securityContext, Long terminationGracePeriodSeconds, String terminationMessagePath) {
+        return new DeploymentBuilder()
+                .withNewMetadata()
+                    .withNamespace("ns")
+                    .withName("my-deployment")
+                .endMetadata()
+                .withNewSpec()
+                    .withNewTemplate()
+                        .withNewSpec()
+                            .withSecurityContext(securityContext)
+                            .withTerminationGracePeriodSeconds(terminationGracePeriodSeconds)
+                            .addNewContainer()
+                                .withName("my-container")
+                                .withImage("my-image")
+                                .withTerminationMessagePath(terminationMessagePath)
+                            .endContainer()
+                        .endSpec()
+                    .endTemplate()
+                .endSpec()
+                .build();
+    }
+
+    @Test
+    public void testDefaultedFieldsAreNotDifferences() {
+        Deployment desired = deployment(null, 30L, null);
+        Deployment current = deployment(new PodSecurityContext(), 30L, "/dev/termination-log");
+        assertTrue(new ResourceDiff(current, desired, DEFAULTED_PATHS).isEmpty());
+        // Without defaulted paths they are differences
+        assertFalse(new ResourceDiff(current, desired, null).isEmpty());
+    }
+
+    @Test
+    public void testRemovingUserSetTemplateFieldsIsADifference() {
+        Deployment desired = deployment(null, null, null);
+        Deployment current = deployment(new PodSecurityContextBuilder().withFsGroup(0L).build(), null, null);
+        assertFalse(new ResourceDiff(current, desired, DEFAULTED_PATHS).isEmpty());
+
+        current = deployment(null, 60L, null);
+        assertFalse(new ResourceDiff(current, desired, DEFAULTED_PATHS).isEmpty());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.DeleteTopicsResult;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the CPU used by the event loop while {@code inflight} AdminClient calls made through
+ * {@link BaseKafkaImpl} are outstanding and nothing else is happening.
+ * The {@code eventLoopCpuNanos} secondary score is the event loop thread's CPU time per second of wall clock time,
+ * so 1,000,000,000 would mean the event loop was pinning a core. It should be close to zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdminClientEventLoopBenchmark {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final Map<String, String> MANDATORY_CONFIG = new HashMap<>();
+
+    static {
+        MANDATORY_CONFIG.put(Config.ZOOKEEPER_CONNECT.key, "localhost:2181");
+        MANDATORY_CONFIG.put(Config.KAFKA_BOOTSTRAP_SERVERS.key, "localhost:9092");
+        MANDATORY_CONFIG.put(Config.NAMESPACE.key, "default");
+    }
+
+    @Param({"100", "1000", "10000"})
+    int inflight;
+
+    private Vertx vertx;
+    private Context context;
+    private Kafka kafka;
+    private long eventLoopThreadId;
+    private final List<KafkaFutureImpl<Void>> kafkaFutures = new CopyOnWriteArrayList<>();
+    private CountDownLatch completed;
+
+    /** The event loop CPU, reported per second of the iteration. */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class EventLoopCpu {
+        public long eventLoopCpuNanos;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            eventLoopCpuNanos = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        vertx = Vertx.vertx();
+        context = vertx.getOrCreateContext();
+        AdminClient adminClient = mock(AdminClient.class);
+        when(adminClient.deleteTopics(any())).thenAnswer(invocation -> {
+            Collection<String> names = invocation.getArgument(0);
+            KafkaFutureImpl<Void> future = new KafkaFutureImpl<>();
+            kafkaFutures.add(future);
+            DeleteTopicsResult result = mock(DeleteTopicsResult.class);
+            when(result.values()).thenReturn(Collections.singletonMap(names.iterator().next(), future));
+            return result;
+        });
+        kafka = new OperatorAssignedKafkaImpl(adminClient, vertx, new Config(MANDATORY_CONFIG), null);
+        CompletableFuture<Long> threadId = new CompletableFuture<>();
+        context.runOnContext(v -> threadId.complete(Thread.currentThread().getId()));
+        eventLoopThreadId = threadId.get();
+    }
+
+    @Setup(Level.Iteration)
+    public void startCalls() throws InterruptedException {
+        kafkaFutures.clear();
+        completed = new CountDownLatch(inflight);
+        CountDownLatch started = new CountDownLatch(1);
+        context.runOnContext(v -> {
+            for (int i = 0; i < inflight; i++) {
+                kafka.deleteTopic(new TopicName("topic-" + i), ar -> completed.countDown());
+            }
+            started.countDown();
+        });
+        started.await();
+    }
+
+    @TearDown(Level.Iteration)
+    public void completeCalls() throws InterruptedException {
+        for (KafkaFutureImpl<Void> future : kafkaFutures) {
+            future.complete(null);
+        }
+        completed.await();
+    }
+
+    @TearDown
+    public void teardown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public void idleWithCallsInFlight(EventLoopCpu cpu) throws InterruptedException {
+        long before = THREADS.getThreadCpuTime(eventLoopThreadId);
+        Thread.sleep(10);
+        cpu.eventLoopCpuNanos += THREADS.getThreadCpuTime(eventLoopThreadId) - before;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generates topics which look like those of a typical cluster, for the benchmarks.
+ * The topics are deterministic, so runs are comparable.
+ */
+class BenchmarkTopics {
+
+    static final LabelPredicate RESOURCE_PREDICATE = LabelPredicate.fromString("app=strimzi");
+
+    private BenchmarkTopics() { }
+
+    static Topic topic(int i) {
+        Map<String, String> config = new HashMap<>();
+        config.put("cleanup.policy", i % 4 == 0 ? "compact" : "delete");
+        config.put("retention.ms", Long.toString(86_400_000L * (1 + i % 7)));
+        config.put("min.insync.replicas", "2");
+        config.put("segment.bytes", "1073741824");
+        return new Topic.Builder("topic-" + i, 1 + i % 12, (short) 3, config).build();
+    }
+
+    static Topic[] topics(int count) {
+        Topic[] result = new Topic[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = topic(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return The given topic with a changed config entry, and a change in the number of partitions for every other topic.
+     */
+    static Topic modified(Topic topic, int i) {
+        Topic.Builder builder = new Topic.Builder(topic).withConfigEntry("retention.ms", "3600000");
+        if (i % 2 == 0) {
+            builder.withNumPartitions(topic.getNumPartitions() + 1);
+        }
+        return builder.build();
+    }
+}
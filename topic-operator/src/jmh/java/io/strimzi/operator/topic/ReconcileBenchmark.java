@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.strimzi.api.kafka.model.KafkaTopic;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Benchmarks reconciling {@code topics} topics with a {@link TopicOperator} using
+ * {@link MockKafka}, {@link MockK8s} and {@link MockTopicStore}, so that the cost measured is that of the
+ * operator itself rather than of Kafka, Kubernetes or ZooKeeper.
+ * The topics are the same in all three, which is the common case in a full reconciliation.
+ * Each operation is a pass over all the topics, so the score is the time for one pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReconcileBenchmark {
+
+    private static final Map<String, String> MANDATORY_CONFIG = new HashMap<>();
+
+    static {
+        MANDATORY_CONFIG.put(Config.ZOOKEEPER_CONNECT.key, "localhost:2181");
+        MANDATORY_CONFIG.put(Config.KAFKA_BOOTSTRAP_SERVERS.key, "localhost:9092");
+        MANDATORY_CONFIG.put(Config.NAMESPACE.key, "default");
+    }
+
+    @Param({"1000", "10000", "100000"})
+    int topics;
+
+    private Vertx vertx;
+    private Context context;
+    private TopicOperator topicOperator;
+    private TopicName[] names;
+    private KafkaTopic[] resources;
+    private TopicMetadataSnapshot snapshot;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        vertx = Vertx.vertx();
+        context = vertx.getOrCreateContext();
+        names = new TopicName[topics];
+        resources = new KafkaTopic[topics];
+        MockKafka kafka = new MockKafka();
+        MockK8s k8s = new MockK8s();
+        MockTopicStore topicStore = new MockTopicStore();
+        k8s.setCreateResponse(resourceName -> Future.succeededFuture());
+        topicStore.setCreateTopicResponse(topicName -> Future.succeededFuture());
+        Map<TopicName, TopicMetadata> metadataByName = new HashMap<>();
+        Set<String> topicNames = new HashSet<>();
+        Topic[] sources = BenchmarkTopics.topics(topics);
+        for (int i = 0; i < topics; i++) {
+            Topic topic = sources[i];
+            names[i] = topic.getTopicName();
+            resources[i] = TopicSerialization.toTopicResource(topic, BenchmarkTopics.RESOURCE_PREDICATE);
+            metadataByName.put(names[i], Utils.getTopicMetadata(topic));
+            topicNames.add(names[i].toString());
+            k8s.createResource(resources[i], ar -> { });
+            topicStore.create(topic, ar -> { });
+        }
+        snapshot = new TopicMetadataSnapshot(metadataByName, Long.MAX_VALUE);
+        kafka.setTopicsList(topicNames);
+        kafka.setTopicMetadataResponse(topicName -> Future.succeededFuture(metadataByName.get(topicName)));
+        topicOperator = new TopicOperator(vertx, kafka, k8s, topicStore, BenchmarkTopics.RESOURCE_PREDICATE,
+                "default", new Config(MANDATORY_CONFIG));
+    }
+
+    @TearDown
+    public void teardown() {
+        vertx.close();
+    }
+
+    /**
+     * Run the given action on the context and wait for the given number of results.
+     */
+    private void await(int results, Consumer<Handler<AsyncResult<?>>> action) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(results);
+        AtomicInteger failures = new AtomicInteger();
+        Handler<AsyncResult<?>> handler = ar -> {
+            if (ar.failed()) {
+                failures.incrementAndGet();
+            }
+            latch.countDown();
+        };
+        context.runOnContext(v -> action.accept(handler));
+        latch.await();
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " reconciliations failed");
+        }
+    }
+
+    /**
+     * Reconcile every topic as if in response to an event, with the Kafka metadata already known.
+     */
+    @Benchmark
+    public void reconcile() throws InterruptedException {
+        await(topics, handler -> {
+            for (int i = 0; i < topics; i++) {
+                topicOperator.reconcile(resources[i], names[i], snapshot, false)
+                        .setHandler(handler::handle);
+            }
+        });
+    }
+
+    /**
+     * A full reconciliation, which lists and bulk fetches the topics, then reconciles them.
+     * After the first pass the topics are unchanged, so this mostly measures the fingerprint check.
+     */
+    @Benchmark
+    public void reconcileAllTopics() throws InterruptedException {
+        await(1, handler -> topicOperator.reconcileAllTopics("benchmark").setHandler(handler::handle));
+    }
+}
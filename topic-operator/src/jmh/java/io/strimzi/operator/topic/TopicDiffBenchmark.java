@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link TopicDiff#diff(Topic, Topic)}, {@link TopicDiff#merge(TopicDiff)} and {@link TopicDiff#apply(Topic)},
+ * which are done for every topic in every reconciliation.
+ * Each operation works on the next of {@code topics} distinct topics, so larger numbers of topics
+ * show the effect of the working set no longer fitting in the CPU caches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopicDiffBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int topics;
+
+    private Topic[] sources;
+    private Topic[] targets;
+    private Topic[] otherTargets;
+    private TopicDiff[] diffs;
+    private TopicDiff[] otherDiffs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        sources = BenchmarkTopics.topics(topics);
+        targets = new Topic[topics];
+        otherTargets = new Topic[topics];
+        diffs = new TopicDiff[topics];
+        otherDiffs = new TopicDiff[topics];
+        for (int i = 0; i < topics; i++) {
+            targets[i] = BenchmarkTopics.modified(sources[i], i);
+            // A non-conflicting change, so the diffs can be merged
+            otherTargets[i] = new Topic.Builder(sources[i]).withConfigEntry("max.message.bytes", "2097152").build();
+            diffs[i] = TopicDiff.diff(sources[i], targets[i]);
+            otherDiffs[i] = TopicDiff.diff(sources[i], otherTargets[i]);
+        }
+    }
+
+    private int next() {
+        int i = next;
+        next = i + 1 == topics ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public TopicDiff diffUnchanged() {
+        int i = next();
+        return TopicDiff.diff(sources[i], sources[i]);
+    }
+
+    @Benchmark
+    public TopicDiff diffChanged() {
+        int i = next();
+        return TopicDiff.diff(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public TopicDiff merge() {
+        int i = next();
+        return diffs[i].merge(otherDiffs[i]);
+    }
+
+    @Benchmark
+    public Topic apply() {
+        int i = next();
+        return diffs[i].apply(sources[i]);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.strimzi.api.kafka.model.KafkaTopic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the conversions in {@link TopicSerialization} done on every reconciliation:
+ * to and from the JSON held in the topic store, and from and to the KafkaTopic resource.
+ * Each operation works on the next of {@code topics} distinct topics.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopicSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int topics;
+
+    private Topic[] sources;
+    private byte[][] json;
+    private KafkaTopic[] resources;
+    private int next;
+
+    @Setup
+    public void setup() {
+        sources = BenchmarkTopics.topics(topics);
+        json = new byte[topics][];
+        resources = new KafkaTopic[topics];
+        for (int i = 0; i < topics; i++) {
+            json[i] = TopicSerialization.toJson(sources[i]);
+            resources[i] = TopicSerialization.toTopicResource(sources[i], BenchmarkTopics.RESOURCE_PREDICATE);
+        }
+    }
+
+    private int next() {
+        int i = next;
+        next = i + 1 == topics ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public byte[] toJson() {
+        return TopicSerialization.toJson(sources[next()]);
+    }
+
+    @Benchmark
+    public Topic fromJson() {
+        return TopicSerialization.fromJson(json[next()]);
+    }
+
+    @Benchmark
+    public Topic fromTopicResource() {
+        return TopicSerialization.fromTopicResource(resources[next()]);
+    }
+
+    @Benchmark
+    public KafkaTopic toTopicResource() {
+        return TopicSerialization.toTopicResource(sources[next()], BenchmarkTopics.RESOURCE_PREDICATE);
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Groups the items for an AdminClient operation (such as {@code createTopics}) which arrive within
+ * {@code windowMs} of each other into a single request, then passes the future for each item
+ * to the {@code complete} function on the context of the caller which added it.
+ * This means creating hundreds of topics at once doesn't need hundreds of AdminClient requests.
+ *
+ * Items are keyed by topic name. The AdminClient APIs take at most one item per topic, so adding an item
+ * for a topic which is already in the pending batch sends that batch first.
+ *
+ * @param <T> The type of the items.
+ */
+class AdminClientBatcher<T> {
+
+    private final static Logger LOGGER = LogManager.getLogger(AdminClientBatcher.class);
+
+    /** The maximum number of items in one request. */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private static class Request<T> {
+        private final T item;
+        private final Context context;
+        private final Handler<AsyncResult<Void>> handler;
+
+        Request(T item, Context context, Handler<AsyncResult<Void>> handler) {
+            this.item = item;
+            this.context = context;
+            this.handler = handler;
+        }
+    }
+
+    private final Vertx vertx;
+    private final String name;
+    private final long windowMs;
+    private final Function<Map<String, T>, Map<String, KafkaFuture<Void>>> send;
+    private final BiConsumer<KafkaFuture<Void>, Handler<AsyncResult<Void>>> complete;
+
+    // Guarded by this
+    private Map<String, Request<T>> pending = new LinkedHashMap<>();
+    private Long timerId;
+
+    /**
+     * @param vertx The Vert.x instance.
+     * @param name The name of the operation, used in logging.
+     * @param windowMs How long to wait for further items before sending a request.
+     *                 If this is not positive every item is sent in its own request.
+     * @param send Makes the AdminClient request for the given items (keyed by topic name),
+     *             returning the future for each of them.
+     * @param complete Called on the caller's context with the future for the caller's item and its handler.
+     */
+    AdminClientBatcher(Vertx vertx, String name, long windowMs,
+                       Function<Map<String, T>, Map<String, KafkaFuture<Void>>> send,
+                       BiConsumer<KafkaFuture<Void>, Handler<AsyncResult<Void>>> complete) {
+        this.vertx = vertx;
+        this.name = name;
+        this.windowMs = windowMs;
+        this.send = send;
+        this.complete = complete;
+    }
+
+    /**
+     * Add the given item, for the topic with the given name, to the next request, calling the given handler
+     * on the current context once the outcome for the item is known.
+     */
+    void add(String topicName, T item, Handler<AsyncResult<Void>> handler) {
+        Request<T> request = new Request<>(item, vertx.getOrCreateContext(), handler);
+        if (windowMs <= 0) {
+            Map<String, Request<T>> batch = new LinkedHashMap<>(1);
+            batch.put(topicName, request);
+            send(batch);
+            return;
+        }
+        List<Map<String, Request<T>>> ready = new ArrayList<>(2);
+        synchronized (this) {
+            if (pending.containsKey(topicName)) {
+                ready.add(takePending());
+            }
+            pending.put(topicName, request);
+            if (pending.size() >= MAX_BATCH_SIZE) {
+                ready.add(takePending());
+            } else if (timerId == null) {
+                timerId = vertx.setTimer(windowMs, this::flush);
+            }
+        }
+        for (Map<String, Request<T>> batch : ready) {
+            send(batch);
+        }
+    }
+
+    private Map<String, Request<T>> takePending() {
+        if (timerId != null) {
+            vertx.cancelTimer(timerId);
+            timerId = null;
+        }
+        Map<String, Request<T>> batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void flush(long firedTimerId) {
+        Map<String, Request<T>> batch;
+        synchronized (this) {
+            if (timerId == null || timerId != firedTimerId) {
+                // The batch this timer was for has already been sent
+                return;
+            }
+            batch = takePending();
+        }
+        send(batch);
+    }
+
+    private void send(Map<String, Request<T>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        LOGGER.debug("Sending {} items in one {} request", batch.size(), name);
+        Map<String, T> items = new LinkedHashMap<>(batch.size());
+        for (Map.Entry<String, Request<T>> entry : batch.entrySet()) {
+            items.put(entry.getKey(), entry.getValue().item);
+        }
+        Map<String, KafkaFuture<Void>> futures;
+        try {
+            futures = send.apply(items);
+        } catch (RuntimeException e) {
+            for (Request<T> request : batch.values()) {
+                request.context.runOnContext(v -> request.handler.handle(Future.failedFuture(e)));
+            }
+            return;
+        }
+        for (Map.Entry<String, Request<T>> entry : batch.entrySet()) {
+            Request<T> request = entry.getValue();
+            KafkaFuture<Void> future = futures.get(entry.getKey());
+            request.context.runOnContext(v -> complete.accept(future, request.handler));
+        }
+    }
+}
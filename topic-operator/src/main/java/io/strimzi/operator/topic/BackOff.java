@@ -4,8 +4,13 @@
  */
 package io.strimzi.operator.topic;
 
+import java.util.Random;
+
 /**
  * Encapsulates computing delays for an exponential back-off.
+ * With a {@link Random} the delays are "decorrelated jitter": Each delay is chosen at random between
+ * {@code scaleMs} and three times the previous delay, capped at the longest delay of the exponential back-off.
+ * This stops many callers which started backing off at the same time from retrying in lockstep.
  */
 public class BackOff {
 
@@ -16,7 +21,10 @@ public class BackOff {
     private final long scaleMs;
     private final int base;
     private final int maxAttempts;
+    private final Random random;
     private int attempt = 0;
+    private long previousDelayMs;
+    private long totalDelayMs = 0;
 
     public BackOff() {
         this(DEFAULT_SCALE_MS, DEFAULT_BASE, DEFAULT_MAX_ATTEMPTS);
@@ -26,7 +34,15 @@ public class BackOff {
         this(DEFAULT_SCALE_MS, DEFAULT_BASE, maxAttempts);
     }
 
+    public BackOff(int maxAttempts, Random random) {
+        this(DEFAULT_SCALE_MS, DEFAULT_BASE, maxAttempts, random);
+    }
+
     public BackOff(long scaleMs, int base, int maxAttempts) {
+        this(scaleMs, base, maxAttempts, null);
+    }
+
+    public BackOff(long scaleMs, int base, int maxAttempts, Random random) {
         if (scaleMs <= 0) {
             throw new IllegalArgumentException();
         }
@@ -39,6 +55,8 @@ public class BackOff {
         this.scaleMs = scaleMs;
         this.base = base;
         this.maxAttempts = maxAttempts;
+        this.random = random;
+        this.previousDelayMs = scaleMs;
     }
 
     /**
@@ -48,7 +66,22 @@ public class BackOff {
      */
     public long delayMs() {
         int n = attempt++;
-        return delay(n);
+        long delay = random != null ? jitteredDelay(n) : delay(n);
+        totalDelayMs += delay;
+        return delay;
+    }
+
+    private long jitteredDelay(int n) {
+        if (n == 0) {
+            return 0L;
+        }
+        if (n >= maxAttempts) {
+            throw new MaxAttemptsExceededException();
+        }
+        long upperMs = previousDelayMs * 3;
+        long delay = Math.min(delay(maxAttempts - 1), scaleMs + (long) (random.nextDouble() * (upperMs - scaleMs)));
+        previousDelayMs = delay;
+        return delay;
     }
 
     private long delay(int n) {
@@ -65,7 +98,14 @@ public class BackOff {
         return scaleMs * pow;
     }
 
+    /**
+     * The total of all the delays.
+     * With jitter the delays aren't known in advance, so this is the total of the delays so far.
+     */
     public long totalDelayMs() {
+        if (random != null) {
+            return totalDelayMs;
+        }
         long total = 0;
         for (int i = 0; i < maxAttempts; i++) {
             total += delay(i);
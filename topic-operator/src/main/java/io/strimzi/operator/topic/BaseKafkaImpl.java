@@ -5,6 +5,8 @@
 package io.strimzi.operator.topic;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
@@ -18,10 +20,15 @@ import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 
 /**
  * Partial implementation of {@link Kafka} omitting those methods which imply a partition assignment.
@@ -37,175 +44,145 @@ public abstract class BaseKafkaImpl implements Kafka {
 
     protected final Vertx vertx;
 
+    /** The maximum number of topics described by a single describeTopics or describeConfigs request. */
+    static final int METADATA_BATCH_SIZE = 1000;
+
     private volatile boolean stopped = false;
 
+    private final Metrics metrics;
+
+    private final long batchMs;
+
+    private final AdminClientBatcher<Config> updateTopicConfigBatcher;
+
     public BaseKafkaImpl(AdminClient adminClient, Vertx vertx) {
-        this.adminClient = adminClient;
-        this.vertx = vertx;
+        this(adminClient, vertx, new Metrics());
     }
 
-    public void stop() {
-        this.stopped = true;
+    public BaseKafkaImpl(AdminClient adminClient, Vertx vertx, Metrics metrics) {
+        this(adminClient, vertx, metrics, 0);
     }
 
-    abstract class Work implements Runnable, Handler<Void> {
-        @Override
-        public void run() {
-            if (!stopped && !complete()) {
-                vertx.runOnContext(this);
+    /**
+     * @param batchMs How long to wait for further changes to topics before sending them
+     *                to Kafka in a single AdminClient request. Zero for no batching.
+     */
+    public BaseKafkaImpl(AdminClient adminClient, Vertx vertx, Metrics metrics, long batchMs) {
+        this.adminClient = adminClient;
+        this.vertx = vertx;
+        this.metrics = metrics;
+        this.batchMs = batchMs;
+        this.updateTopicConfigBatcher = batcher("updateTopicConfig", configs -> {
+            Map<ConfigResource, Config> request = new HashMap<>(configs.size());
+            for (Map.Entry<String, Config> entry : configs.entrySet()) {
+                request.put(new ConfigResource(ConfigResource.Type.TOPIC, entry.getKey()), entry.getValue());
             }
-        }
-
-        @Override
-        public void handle(Void v) {
-            run();
-        }
+            Map<String, KafkaFuture<Void>> futures = new HashMap<>(configs.size());
+            for (Map.Entry<ConfigResource, KafkaFuture<Void>> entry : adminClient.alterConfigs(request).values().entrySet()) {
+                futures.put(entry.getKey().name(), entry.getValue());
+            }
+            return futures;
+        });
+    }
 
-        protected abstract boolean complete();
+    /**
+     * A batcher for the AdminClient operation with the given name, which uses the given function to make
+     * the request and completes each item's handler on its caller's context.
+     */
+    protected <T> AdminClientBatcher<T> batcher(String name, Function<Map<String, T>, Map<String, KafkaFuture<Void>>> send) {
+        return new AdminClientBatcher<>(vertx, name, batchMs, send,
+            (future, handler) -> completeOnContext(name, future, handler));
     }
 
-    /** Some work that depends on a single future */
-    class UniWork<T> extends Work {
-        private final KafkaFuture<T> future;
-        private final Handler<AsyncResult<T>> handler;
-        private final String name;
+    public void stop() {
+        this.stopped = true;
+    }
 
-        public UniWork(String name, KafkaFuture<T> future, Handler<AsyncResult<T>> handler) {
-            if (future == null) {
-                throw new NullPointerException();
+    /**
+     * Return a Vert.x future which will be completed with the outcome of the given KafkaFuture.
+     * Rather than polling the KafkaFuture, a completion callback is registered with it, and the
+     * returned future is completed on the Vert.x context which was current when this method was called.
+     * If the KafkaFuture fails the returned future will be failed with the
+     * KafkaException (not an ExecutionException).
+     */
+    protected <T> Future<T> mapFuture(String name, KafkaFuture<T> kafkaFuture) {
+        if (kafkaFuture == null) {
+            throw new NullPointerException();
+        }
+        Context context = vertx.getOrCreateContext();
+        Future<T> result = Future.future();
+        long start = System.nanoTime();
+        kafkaFuture.whenComplete((value, error) -> {
+            metrics.histogram(Metrics.PREFIX + "admin_client_duration_seconds",
+                    "The time taken by AdminClient operations", "operation", name).observeSince(start);
+            if (error != null) {
+                metrics.counter(Metrics.PREFIX + "admin_client_errors_total",
+                        "The number of failed AdminClient operations", "operation", name).increment();
             }
-            if (handler == null) {
-                throw new NullPointerException();
+            if (stopped) {
+                LOGGER.debug("Ignoring completion of {} because we're stopped", name);
+                return;
             }
-            this.future = future;
-            this.handler = handler;
-            this.name = name;
-        }
-
-        @Override
-        protected boolean complete() {
-            if (this.future.isDone()) {
-                LOGGER.trace("Future {} of work {} is done", future, this);
-                try {
-                    try {
-                        T result = this.future.get();
-                        LOGGER.debug("Future {} has result {}", future, result);
-                        this.handler.handle(Future.succeededFuture(result));
-                        LOGGER.debug("Handler for work {} executed ok", this);
-                    } catch (ExecutionException e) {
-                        LOGGER.debug("Future {} threw {}", future, e.toString());
-                        this.handler.handle(Future.failedFuture(e.getCause()));
-                    } catch (InterruptedException e) {
-                        LOGGER.debug("Future {} threw {}", future, e.toString());
-                        this.handler.handle(Future.failedFuture(e));
-                    }
-                } catch (OperatorException e) {
-                    // TODO handler threw, but I have no context for creating a k8s error event
-                    LOGGER.trace("Handler for work {} threw {}", this, e.toString());
-                    e.printStackTrace();
-                }
-                return true;
-            } else {
-                if (LOGGER.isTraceEnabled()) {
-                    LOGGER.trace("Future {} is not done", future);
+            context.runOnContext(ignored -> {
+                if (error != null) {
+                    LOGGER.debug("Future {} of {} threw {}", kafkaFuture, name, error.toString());
+                    result.fail(error);
+                } else {
+                    LOGGER.debug("Future {} of {} has result {}", kafkaFuture, name, value);
+                    result.complete(value);
                 }
-                return false;
-            }
-        }
-
-        @Override
-        public String toString() {
-            return name + System.identityHashCode(this);
-        }
+            });
+        });
+        return result;
     }
 
-    /** Some work that depends on two futures */
-    class MetadataWork extends Work {
-        private final KafkaFuture<TopicDescription> descFuture;
-        private final KafkaFuture<Config> configFuture;
-        private final Handler<AsyncResult<TopicMetadata>> handler;
-        private boolean handled = false;
-
-        public MetadataWork(KafkaFuture<TopicDescription> descFuture,
-                            KafkaFuture<Config> configFuture, Handler<AsyncResult<TopicMetadata>> handler) {
-            if (descFuture == null) {
-                throw new NullPointerException();
-            }
-            if (configFuture == null) {
-                throw new NullPointerException();
-            }
-            if (handler == null) {
-                throw new NullPointerException();
-            }
-            this.descFuture = descFuture;
-            this.configFuture = configFuture;
-            this.handler = handler;
+    /**
+     * Invoke the given handler (on the current Vert.x context) with the outcome of the given KafkaFuture.
+     */
+    protected <T> void completeOnContext(String name, KafkaFuture<T> kafkaFuture, Handler<AsyncResult<T>> handler) {
+        if (handler == null) {
+            throw new NullPointerException();
         }
-
-
-        private <T> T result(KafkaFuture<T> future) {
-            T result;
+        mapFuture(name, kafkaFuture).setHandler(ar -> {
             try {
-                result = future.get();
-                LOGGER.trace("Future {} has result {}", future, result);
-            } catch (ExecutionException e) {
-                LOGGER.debug("Future {} threw {}", future, e.toString());
-                if (e.getCause() instanceof UnknownTopicOrPartitionException) {
-                    result = null;
-                } else {
-                    if (!handled) {
-                        handler.handle(Future.failedFuture(e.getCause()));
-                    }
-                    handled = true;
-                    return null;
-                }
-            } catch (InterruptedException e) {
-                LOGGER.debug("Future {} threw {}", future, e.toString());
-                if (!handled) {
-                    handler.handle(Future.failedFuture(e));
-                }
-                handled = true;
-                return null;
+                handler.handle(ar);
+                LOGGER.trace("Handler for {} executed ok", name);
+            } catch (OperatorException e) {
+                // TODO handler threw, but I have no context for creating a k8s error event
+                LOGGER.trace("Handler for {} threw {}", name, e.toString());
+                e.printStackTrace();
             }
-            return result;
-        }
+        });
+    }
 
-        @Override
-        protected boolean complete() {
-            if (this.descFuture.isDone()
-                    && this.configFuture.isDone()) {
-                final TopicDescription desc = result(this.descFuture);
-                final Config config = result(this.configFuture);
-                if (!handled) {
-                    TopicMetadata metadata;
-                    if (desc != null && config != null) {
-                        metadata = new TopicMetadata(desc, config);
-                    } else {
-                        metadata = null;
-                    }
-                    this.handler.handle(Future.succeededFuture(metadata));
-                    this.handled = true;
-                    LOGGER.trace("Handler for work {} executed ok", this);
-                } else {
-                }
-                return handled;
+    /**
+     * A future for the result of the given KafkaFuture, which is completed with null rather than failed
+     * when the topic doesn't exist.
+     */
+    private <T> Future<T> mapFutureUnknownAsNull(String name, KafkaFuture<T> kafkaFuture) {
+        return mapFuture(name, kafkaFuture).recover(error -> {
+            if (error instanceof UnknownTopicOrPartitionException) {
+                return Future.succeededFuture(null);
             } else {
-                if (!this.descFuture.isDone())
-                    LOGGER.trace("Description future {} is not done", descFuture);
-                if (!this.configFuture.isDone())
-                    LOGGER.trace("Config future {} is not done", configFuture);
-                return false;
+                return Future.failedFuture(error);
             }
-        }
+        });
     }
 
     /**
-     * Queue a future and callback. The callback will be invoked (on a separate thread)
-     * when the future is ready.
+     * A future for the metadata of a topic, given the futures for its description and config.
+     * The future is completed with null if the topic doesn't exist.
      */
-    protected void queueWork(Work work) {
-        LOGGER.trace("Queuing work {} for immediate execution", work);
-        vertx.runOnContext(work);
+    private Future<TopicMetadata> metadataFuture(KafkaFuture<TopicDescription> descFuture, KafkaFuture<Config> configFuture) {
+        Future<TopicDescription> desc = mapFutureUnknownAsNull("describeTopics", descFuture);
+        Future<Config> config = mapFutureUnknownAsNull("describeConfigs", configFuture);
+        return CompositeFuture.all(desc, config).map(ignored -> {
+            if (desc.result() != null && config.result() != null) {
+                return new TopicMetadata(desc.result(), config.result());
+            } else {
+                return null;
+            }
+        });
     }
 
     /**
@@ -217,14 +194,18 @@ public abstract class BaseKafkaImpl implements Kafka {
         LOGGER.debug("Deleting topic {}", topicName);
         KafkaFuture<Void> future = adminClient.deleteTopics(
                 Collections.singleton(topicName.toString())).values().get(topicName.toString());
-        queueWork(new UniWork<>("deleteTopic", future, handler));
+        completeOnContext("deleteTopic", future, handler);
     }
 
+    /**
+     * Update the config of a topic via the Kafka AdminClient API, calling the given handler
+     * (in a different thread) with the result.
+     * Updates made at about the same time are sent in a single request.
+     */
     @Override
     public void updateTopicConfig(Topic topic, Handler<AsyncResult<Void>> handler) {
         Map<ConfigResource, Config> configs = TopicSerialization.toTopicConfig(topic);
-        KafkaFuture<Void> future = adminClient.alterConfigs(configs).values().get(configs.keySet().iterator().next());
-        queueWork(new UniWork<>("updateTopicConfig", future, handler));
+        updateTopicConfigBatcher.add(topic.getTopicName().toString(), configs.values().iterator().next(), handler);
     }
 
     /**
@@ -239,16 +220,57 @@ public abstract class BaseKafkaImpl implements Kafka {
                 Collections.singleton(topicName.toString())).values().get(topicName.toString());
         KafkaFuture<Config> configFuture = adminClient.describeConfigs(
                 Collections.singleton(resource)).values().get(resource);
-        queueWork(new MetadataWork(descriptionFuture,
-            configFuture,
-            result -> handler.handle(result)));
+        metadataFuture(descriptionFuture, configFuture).setHandler(handler);
+    }
+
+    /**
+     * Get the metadata of many topics via the Kafka AdminClient API, describing at most
+     * {@link #METADATA_BATCH_SIZE} topics per request, and calling the given handler
+     * (in a different thread) with the result.
+     */
+    @Override
+    public void topicsMetadata(Collection<TopicName> topicNames, Handler<AsyncResult<Map<TopicName, TopicMetadata>>> handler) {
+        LOGGER.debug("Getting metadata for {} topics", topicNames.size());
+        List<TopicName> allNames = new ArrayList<>(topicNames.size());
+        List<Future> metadataFutures = new ArrayList<>(topicNames.size());
+        List<TopicName> batch = new ArrayList<>(Math.min(topicNames.size(), METADATA_BATCH_SIZE));
+        Iterator<TopicName> iterator = topicNames.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() == METADATA_BATCH_SIZE || !iterator.hasNext()) {
+                List<String> names = new ArrayList<>(batch.size());
+                List<ConfigResource> resources = new ArrayList<>(batch.size());
+                for (TopicName topicName : batch) {
+                    names.add(topicName.toString());
+                    resources.add(new ConfigResource(ConfigResource.Type.TOPIC, topicName.toString()));
+                }
+                Map<String, KafkaFuture<TopicDescription>> descriptions = adminClient.describeTopics(names).values();
+                Map<ConfigResource, KafkaFuture<Config>> configs = adminClient.describeConfigs(resources).values();
+                for (int i = 0; i < batch.size(); i++) {
+                    allNames.add(batch.get(i));
+                    metadataFutures.add(metadataFuture(descriptions.get(names.get(i)), configs.get(resources.get(i))));
+                }
+                batch.clear();
+            }
+        }
+        CompositeFuture.all(metadataFutures).map(ignored -> {
+            Map<TopicName, TopicMetadata> metadata = new HashMap<>(allNames.size());
+            for (int i = 0; i < allNames.size(); i++) {
+                TopicMetadata topicMetadata = (TopicMetadata) metadataFutures.get(i).result();
+                if (topicMetadata != null) {
+                    metadata.put(allNames.get(i), topicMetadata);
+                }
+            }
+            LOGGER.debug("Got metadata for {} of {} topics", metadata.size(), allNames.size());
+            return metadata;
+        }).setHandler(handler);
     }
 
     @Override
     public void listTopics(Handler<AsyncResult<Set<String>>> handler) {
         LOGGER.debug("Listing topics");
         ListTopicsResult future = adminClient.listTopics();
-        queueWork(new UniWork<>("listTopics", future.names(), handler));
+        completeOnContext("listTopics", future.names(), handler);
     }
 
 
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.Future;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * Streams items through an asynchronous task, with at most {@code concurrency} tasks in flight at once,
+ * and tracks the progress and throughput of doing so.
+ * This is used so that a full reconciliation doesn't start an operation for every topic at once.
+ *
+ * The pipeline must be {@linkplain #run() run} and its tasks completed on a single Vert.x context.
+ */
+class BoundedPipeline<T> {
+
+    private final static Logger LOGGER = LogManager.getLogger(BoundedPipeline.class);
+
+    private final String name;
+    private final int concurrency;
+    private final int total;
+    private final Iterator<T> items;
+    private final Function<T, Future<Void>> task;
+    private final Future<Void> result = Future.future();
+
+    private int inFlight = 0;
+    private volatile int started = 0;
+    private volatile int succeeded = 0;
+    private volatile int failed = 0;
+    private Throwable firstFailure;
+    private boolean pumping = false;
+    private volatile long startedMs;
+    private volatile long finishedMs;
+    private int nextProgressLog;
+
+    /**
+     * @param name A name for the pipeline, used in logging.
+     * @param concurrency The maximum number of tasks in flight at once.
+     * @param total The number of items (used for progress reporting).
+     * @param items The items to process.
+     * @param task The task to apply to each item. The task's future is completed when the item has been processed.
+     */
+    BoundedPipeline(String name, int concurrency, int total, Iterator<T> items, Function<T, Future<Void>> task) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("The concurrency must be greater than zero");
+        }
+        this.name = name;
+        this.concurrency = concurrency;
+        this.total = total;
+        this.items = items;
+        this.task = task;
+        this.nextProgressLog = progressLogInterval();
+    }
+
+    /**
+     * Start processing the items.
+     * @return A future which completes when all the items have been processed.
+     * Like {@link io.vertx.core.CompositeFuture#join(java.util.List)}, the future fails with the cause of the
+     * first failed task, but only once every task has completed.
+     */
+    Future<Void> run() {
+        LOGGER.debug("Starting {} with {} items and concurrency {}", name, total, concurrency);
+        startedMs = System.currentTimeMillis();
+        pump();
+        return result;
+    }
+
+    private void pump() {
+        if (pumping) {
+            // We're being called from a task which completed synchronously, so let the outer loop do the work
+            return;
+        }
+        pumping = true;
+        try {
+            while (inFlight < concurrency && items.hasNext()) {
+                T item = items.next();
+                inFlight++;
+                started++;
+                Future<Void> future;
+                try {
+                    future = task.apply(item);
+                } catch (RuntimeException e) {
+                    future = Future.failedFuture(e);
+                }
+                future.setHandler(ar -> {
+                    inFlight--;
+                    if (ar.succeeded()) {
+                        succeeded++;
+                    } else {
+                        if (firstFailure == null) {
+                            firstFailure = ar.cause();
+                        }
+                        failed++;
+                    }
+                    logProgress();
+                    pump();
+                });
+            }
+        } finally {
+            pumping = false;
+        }
+        if (inFlight == 0 && !items.hasNext() && !result.isComplete()) {
+            finishedMs = System.currentTimeMillis();
+            LOGGER.info("Finished {}: {} succeeded, {} failed in {}ms ({} items/s)",
+                    name, succeeded, failed, elapsedMs(), String.format("%.1f", throughput()));
+            if (firstFailure != null) {
+                result.fail(firstFailure);
+            } else {
+                result.complete();
+            }
+        }
+    }
+
+    private int progressLogInterval() {
+        return Math.max(total / 10, 1000);
+    }
+
+    private void logProgress() {
+        int completed = completed();
+        if (completed >= nextProgressLog) {
+            nextProgressLog += progressLogInterval();
+            LOGGER.info("{} progress: {}/{} ({} failed) after {}ms ({} items/s)",
+                    name, completed, total, failed, elapsedMs(), String.format("%.1f", throughput()));
+        }
+    }
+
+    String name() {
+        return name;
+    }
+
+    /** The number of items to be processed. */
+    int total() {
+        return total;
+    }
+
+    /** The number of items whose processing has started. */
+    int started() {
+        return started;
+    }
+
+    /** The number of items whose processing has completed, successfully or otherwise. */
+    int completed() {
+        return succeeded + failed;
+    }
+
+    int succeeded() {
+        return succeeded;
+    }
+
+    int failed() {
+        return failed;
+    }
+
+    boolean isFinished() {
+        return finishedMs != 0;
+    }
+
+    /** The time since the pipeline started, or the time it took if it's finished. */
+    long elapsedMs() {
+        long end = finishedMs != 0 ? finishedMs : System.currentTimeMillis();
+        return startedMs != 0 ? end - startedMs : 0;
+    }
+
+    /** The number of items completed per second. */
+    double throughput() {
+        long elapsedMs = elapsedMs();
+        return elapsedMs > 0 ? completed() * 1000.0 / elapsedMs : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + completed() + "/" + total + ")";
+    }
+}
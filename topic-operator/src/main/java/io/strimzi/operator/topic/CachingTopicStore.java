@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import org.I0Itec.zkclient.exception.ZkBadVersionException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.zookeeper.data.Stat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A write-through cache in front of a {@link ZkTopicStore}.
+ * Topics are kept in memory, along with the version of their znode, so that
+ * {@link #read(TopicName, Handler)} doesn't need to go to ZooKeeper (or parse any JSON)
+ * for a topic which has been read or written before.
+ * The cached versions are used to make updates and deletes conditional, so that
+ * a write based on stale state fails (and evicts the stale entry) rather than
+ * silently overwriting a change made by someone else.
+ * A read which completes after a concurrent write to the same topic only replaces the cached entry
+ * if it read a later version, and never re-populates the entry of a topic which was evicted while it was in flight.
+ */
+class CachingTopicStore implements TopicStore {
+
+    private final static Logger LOGGER = LogManager.getLogger(CachingTopicStore.class);
+
+    /** A topic, and the version of the znode it was read from or written to. */
+    private static class Entry {
+        private final Topic topic;
+        private final int version;
+
+        Entry(Topic topic, int version) {
+            this.topic = topic;
+            this.version = version;
+        }
+    }
+
+    private final ZkTopicStore delegate;
+
+    private final ConcurrentHashMap<TopicName, Entry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented whenever an entry is evicted, so that a read which was in flight at the time
+     * (and so might have read the evicted state) knows not to cache what it read.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    CachingTopicStore(ZkTopicStore delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void read(TopicName name, Handler<AsyncResult<Topic>> handler) {
+        Entry entry = cache.get(name);
+        if (entry != null) {
+            LOGGER.trace("Read {} from cache", name);
+            handler.handle(Future.succeededFuture(entry.topic));
+            return;
+        }
+        long evictionsAtStart = evictions.get();
+        Stat stat = new Stat();
+        delegate.read(name, stat, ar -> {
+            if (ar.succeeded() && ar.result() != null) {
+                cache.compute(name, (key, current) -> {
+                    if (evictions.get() != evictionsAtStart) {
+                        // Something was evicted while we were reading, so what we read might be stale
+                        return current;
+                    }
+                    return newer(current, new Entry(ar.result(), stat.getVersion()));
+                });
+            }
+            handler.handle(ar);
+        });
+    }
+
+    @Override
+    public void create(Topic topic, Handler<AsyncResult<Void>> handler) {
+        TopicName name = topic.getTopicName();
+        delegate.create(topic, ar -> {
+            if (ar.succeeded()) {
+                // A newly created znode has version 0
+                cache.put(name, new Entry(topic, 0));
+            } else {
+                evict(name);
+            }
+            handler.handle(ar);
+        });
+    }
+
+    @Override
+    public void update(Topic topic, Handler<AsyncResult<Void>> handler) {
+        TopicName name = topic.getTopicName();
+        Entry entry = cache.get(name);
+        int version = entry != null ? entry.version : -1;
+        delegate.update(topic, version, ar -> {
+            if (ar.succeeded() && version != -1) {
+                cache.compute(name, (key, current) -> newer(current, new Entry(topic, version + 1)));
+            } else {
+                // We either don't know the new version, or our copy is wrong:
+                // Either way the next read will go to ZooKeeper
+                if (ar.failed() && ar.cause() instanceof ZkBadVersionException) {
+                    LOGGER.warn("Topic {} was modified concurrently in the topic store (expected version {})", name, version);
+                }
+                evict(name);
+            }
+            handler.handle(ar);
+        });
+    }
+
+    @Override
+    public void delete(TopicName name, Handler<AsyncResult<Void>> handler) {
+        Entry entry = cache.get(name);
+        int version = entry != null ? entry.version : -1;
+        delegate.delete(name, version, ar -> {
+            if (ar.failed() && ar.cause() instanceof ZkBadVersionException) {
+                LOGGER.warn("Topic {} was modified concurrently in the topic store (expected version {})", name, version);
+            }
+            evict(name);
+            handler.handle(ar);
+        });
+    }
+
+    @Override
+    public void invalidate(TopicName name) {
+        evict(name);
+    }
+
+    private void evict(TopicName name) {
+        // Increment first, so a read which completes concurrently either gets evicted or doesn't cache
+        evictions.incrementAndGet();
+        cache.remove(name);
+    }
+
+    private static Entry newer(Entry current, Entry candidate) {
+        return current == null || current.version < candidate.version ? candidate : current;
+    }
+
+    /**
+     * Lists the topics in ZooKeeper, since the cache might not hold every topic.
+     */
+    @Override
+    public void list(Handler<AsyncResult<List<TopicName>>> handler) {
+        delegate.list(handler);
+    }
+
+    /**
+     * Read all the topics in the store into the cache.
+     * The reads are all made at once, so with a {@link io.strimzi.operator.topic.zk.Zk} which pipelines requests
+     * this costs a few round trips to ZooKeeper, rather than one per topic.
+     * The returned future is completed with the number of topics read.
+     */
+    Future<Integer> warmUp() {
+        Future<List<TopicName>> names = Future.future();
+        delegate.list(names);
+        return names.compose(topicNames -> {
+            List<Future> reads = new ArrayList<>(topicNames.size());
+            for (TopicName name : topicNames) {
+                Future<Topic> read = Future.future();
+                read(name, read);
+                reads.add(read);
+            }
+            return CompositeFuture.all(reads).map(topicNames.size());
+        });
+    }
+
+    /** The number of cached topics. */
+    int size() {
+        return cache.size();
+    }
+}
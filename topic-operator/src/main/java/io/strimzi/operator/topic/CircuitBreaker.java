@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * A circuit breaker for each key (e.g. a topic).
+ * When an operation for a key {@linkplain #failed(Object) fails} {@code threshold} times, with no more than
+ * {@code coolDownMs} between failures, the breaker for that key is open for the next {@code coolDownMs}.
+ * Callers should not retry the operation while the breaker is {@linkplain #isOpen(Object) open}.
+ * Once the cool-down has passed the operation can be tried again, and the failures are counted afresh.
+ * A {@linkplain #succeeded(Object) success} forgets the failures for the key.
+ */
+class CircuitBreaker<K> {
+
+    private static class State {
+        private int failures;
+        private long lastFailureMs;
+        private long openUntilMs;
+    }
+
+    private final int threshold;
+    private final long coolDownMs;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<K, State> states = new ConcurrentHashMap<>();
+    private final Metrics.Counter opened;
+
+    CircuitBreaker(int threshold, long coolDownMs, Metrics metrics) {
+        this(threshold, coolDownMs, metrics, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int threshold, long coolDownMs, Metrics metrics, LongSupplier clock) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("The threshold must be greater than zero");
+        }
+        this.threshold = threshold;
+        this.coolDownMs = coolDownMs;
+        this.clock = clock;
+        metrics.gauge(Metrics.PREFIX + "topic_metadata_circuit_breakers_open",
+                "The number of topics whose metadata is not being retried because they failed repeatedly", this::openCount);
+        this.opened = metrics.counter(Metrics.PREFIX + "topic_metadata_circuit_breakers_opened_total",
+                "The number of times a topic's metadata circuit breaker has opened");
+    }
+
+    /**
+     * @return Whether the breaker for the given key is open.
+     */
+    boolean isOpen(K key) {
+        State state = states.get(key);
+        if (state == null) {
+            return false;
+        }
+        synchronized (state) {
+            return state.openUntilMs > clock.getAsLong();
+        }
+    }
+
+    /**
+     * Record a failure of the operation for the given key.
+     * @return true if this failure opened the breaker.
+     */
+    boolean failed(K key) {
+        long now = clock.getAsLong();
+        State state = states.computeIfAbsent(key, k -> new State());
+        synchronized (state) {
+            if (now - state.lastFailureMs > coolDownMs) {
+                state.failures = 0;
+            }
+            state.failures++;
+            state.lastFailureMs = now;
+            if (state.failures >= threshold && state.openUntilMs <= now) {
+                state.failures = 0;
+                state.openUntilMs = now + coolDownMs;
+                opened.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Record a success of the operation for the given key, forgetting its failures.
+     * The breaker stays open if it already is.
+     */
+    void succeeded(K key) {
+        State state = states.get(key);
+        if (state != null) {
+            synchronized (state) {
+                state.failures = 0;
+            }
+        }
+    }
+
+    /**
+     * Forget the breakers which have neither failed nor been open within the cool-down.
+     */
+    void forgetClosed() {
+        long now = clock.getAsLong();
+        Iterator<Map.Entry<K, State>> iterator = states.entrySet().iterator();
+        while (iterator.hasNext()) {
+            State state = iterator.next().getValue();
+            synchronized (state) {
+                if (state.openUntilMs <= now && now - state.lastFailureMs > coolDownMs) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of open breakers.
+     */
+    int openCount() {
+        long now = clock.getAsLong();
+        int open = 0;
+        for (State state : states.values()) {
+            synchronized (state) {
+                if (state.openUntilMs > now) {
+                    open++;
+                }
+            }
+        }
+        return open;
+    }
+
+    /**
+     * @return The number of keys whose failures are remembered.
+     */
+    int size() {
+        return states.size();
+    }
+
+    /**
+     * @return The number of times a breaker has opened.
+     */
+    long openedCount() {
+        return opened.get();
+    }
+}
@@ -96,9 +96,25 @@ public class Config {
     public static final String TC_ZK_SESSION_TIMEOUT_MS = "STRIMZI_ZOOKEEPER_SESSION_TIMEOUT_MS";
     public static final String TC_ZK_CONNECTION_TIMEOUT_MS = "TC_ZK_CONNECTION_TIMEOUT_MS";
     public static final String TC_PERIODIC_INTERVAL_MS = "STRIMZI_FULL_RECONCILIATION_INTERVAL_MS";
+    public static final String TC_PERIODIC_CONCURRENCY = "STRIMZI_FULL_RECONCILIATION_CONCURRENCY";
+    public static final String TC_ZK_TOPICS_BATCH_MS = "STRIMZI_ZOOKEEPER_TOPICS_BATCH_MS";
+    public static final String TC_ZK_WATCH_MODE = "STRIMZI_ZOOKEEPER_WATCH_MODE";
+    public static final String TC_ZK_CLIENT = "STRIMZI_ZOOKEEPER_CLIENT";
+    public static final String TC_KAFKA_ADMIN_BATCH_MS = "STRIMZI_KAFKA_ADMIN_BATCH_MS";
+    public static final String TC_PARTITION_CHECK_INTERVAL_MS = "STRIMZI_PARTITION_CHECK_INTERVAL_MS";
     public static final String TC_REASSIGN_THROTTLE = "STRIMZI_REASSIGN_THROTTLE";
     public static final String TC_REASSIGN_VERIFY_INTERVAL_MS = "STRIMZI_REASSIGN_VERIFY_INTERVAL_MS";
+    public static final String TC_REASSIGN_TIMEOUT_MS = "STRIMZI_REASSIGN_TIMEOUT_MS";
     public static final String TC_TOPIC_METADATA_MAX_ATTEMPTS = "STRIMZI_TOPIC_METADATA_MAX_ATTEMPTS";
+    public static final String TC_TOPIC_METADATA_BREAKER_THRESHOLD = "STRIMZI_TOPIC_METADATA_BREAKER_THRESHOLD";
+    public static final String TC_TOPIC_METADATA_BREAKER_COOL_DOWN_MS = "STRIMZI_TOPIC_METADATA_BREAKER_COOL_DOWN_MS";
+    public static final String TC_TOPIC_METADATA_SNAPSHOT_MAX_AGE_MS = "STRIMZI_TOPIC_METADATA_SNAPSHOT_MAX_AGE_MS";
+    public static final String TC_TOPIC_STORE = "STRIMZI_TOPIC_STORE";
+    public static final String TC_TOPIC_STORE_TOPIC = "STRIMZI_TOPIC_STORE_TOPIC";
+    public static final String TC_TOPIC_STORE_REPLICATION_FACTOR = "STRIMZI_TOPIC_STORE_REPLICATION_FACTOR";
+    public static final String TC_SHARDING_ENABLED = "STRIMZI_SHARDING_ENABLED";
+    public static final String TC_SHARD_MEMBER_ID = "STRIMZI_SHARD_MEMBER_ID";
+    public static final String TC_SHARD_HANDOVER_MS = "STRIMZI_SHARD_HANDOVER_MS";
 
     public static final String TC_TLS_ENABLED = "STRIMZI_TLS_ENABLED";
     public static final String TC_TLS_TRUSTSTORE_LOCATION = "STRIMZI_TRUSTSTORE_LOCATION";
@@ -126,21 +142,79 @@ public class Config {
     /** The zookeeper connection timeout. */
     public static final Value<Long> ZOOKEEPER_CONNECTION_TIMEOUT_MS = new Value<>(TC_ZK_CONNECTION_TIMEOUT_MS, DURATION, "20000");
 
+    /** The zookeeper client implementation: "zkclient" or "async". */
+    public static final Value<String> ZOOKEEPER_CLIENT = new Value<>(TC_ZK_CLIENT, STRING, "zkclient");
+
     /** The period between full reconciliations. */
     public static final Value<Long> FULL_RECONCILIATION_INTERVAL_MS = new Value<>(TC_PERIODIC_INTERVAL_MS, DURATION, "900000");
 
+    /** The maximum number of topics being reconciled at once during a full reconciliation. */
+    public static final Value<Integer> FULL_RECONCILIATION_CONCURRENCY = new Value<>(TC_PERIODIC_CONCURRENCY, POSITIVE_INTEGER, "100");
+
+    /** How long to wait for further changes to the topics in ZooKeeper before working out which topics were created and deleted */
+    public static final Value<Long> ZOOKEEPER_TOPICS_BATCH_MS = new Value<>(TC_ZK_TOPICS_BATCH_MS, DURATION, "100");
+
+    /**
+     * How topic config and partition changes are noticed: "per-topic" uses a ZooKeeper watch for each topic,
+     * "multiplexed" watches the config change notifications and periodically checks the number of partitions
+     */
+    public static final Value<String> ZOOKEEPER_WATCH_MODE = new Value<>(TC_ZK_WATCH_MODE, STRING, "per-topic");
+
+    /** The interval between checks of the number of partitions of the topics, when {@link #ZOOKEEPER_WATCH_MODE} is "multiplexed" */
+    public static final Value<Long> PARTITION_CHECK_INTERVAL_MS = new Value<>(TC_PARTITION_CHECK_INTERVAL_MS, DURATION, "30000");
+
+    /**
+     * How long to wait for further topic creations, partition increases or config changes before sending them to Kafka
+     * in a single AdminClient request.
+     */
+    public static final Value<Long> KAFKA_ADMIN_BATCH_MS = new Value<>(TC_KAFKA_ADMIN_BATCH_MS, DURATION, "10");
+
     /** The interbroker throttled rate to use when a topic change requires partition reassignment. */
     public static final Value<Long> REASSIGN_THROTTLE = new Value<>(TC_REASSIGN_THROTTLE, LONG, Long.toString(Long.MAX_VALUE));
 
     /**
-     * The interval between verification executions (as in {@code kafka-reassign-partitions.sh --verify ...})
+     * The interval between checks of the progress of a partition reassignment
      * when a topic change requires partition reassignment.
      */
     public static final Value<Long> REASSIGN_VERIFY_INTERVAL_MS = new Value<>(TC_REASSIGN_VERIFY_INTERVAL_MS, DURATION, "120000");
 
+    /**
+     * How long to wait for a partition reassignment to complete
+     * before failing the topic change and removing the throttles.
+     */
+    public static final Value<Long> REASSIGN_TIMEOUT_MS = new Value<>(TC_REASSIGN_TIMEOUT_MS, DURATION, "3600000");
+
     /** The maximum number of retries for getting topic metadata from the Kafka cluster */
     public static final Value<Integer> TOPIC_METADATA_MAX_ATTEMPTS = new Value<>(TC_TOPIC_METADATA_MAX_ATTEMPTS, POSITIVE_INTEGER, "6");
 
+    /** The number of times a topic can run out of {@link #TOPIC_METADATA_MAX_ATTEMPTS} before its metadata is not retried for a while */
+    public static final Value<Integer> TOPIC_METADATA_BREAKER_THRESHOLD = new Value<>(TC_TOPIC_METADATA_BREAKER_THRESHOLD, POSITIVE_INTEGER, "3");
+
+    /** How long a topic's metadata is not retried once it has reached the {@link #TOPIC_METADATA_BREAKER_THRESHOLD} */
+    public static final Value<Long> TOPIC_METADATA_BREAKER_COOL_DOWN_MS = new Value<>(TC_TOPIC_METADATA_BREAKER_COOL_DOWN_MS, DURATION, "300000");
+
+    /**
+     * How long the metadata of all the topics, fetched at the start of a full reconciliation, is used for.
+     * Topics reconciled after that have their metadata fetched individually.
+     */
+    public static final Value<Long> TOPIC_METADATA_SNAPSHOT_MAX_AGE_MS = new Value<>(TC_TOPIC_METADATA_SNAPSHOT_MAX_AGE_MS, DURATION, "60000");
+
+    /** Where the operator stores its private copy of the topic state: {@code zookeeper} or {@code kafka}. */
+    public static final Value<String> TOPIC_STORE = new Value<>(TC_TOPIC_STORE, STRING, "zookeeper");
+
+    /** The name of the compacted topic used when {@link #TOPIC_STORE} is {@code kafka}. */
+    public static final Value<String> TOPIC_STORE_TOPIC = new Value<>(TC_TOPIC_STORE_TOPIC, STRING, "__strimzi_topic_operator_store");
+
+    /** The replication factor of the {@link #TOPIC_STORE_TOPIC}, if the operator has to create it. */
+    public static final Value<Integer> TOPIC_STORE_REPLICATION_FACTOR = new Value<>(TC_TOPIC_STORE_REPLICATION_FACTOR, POSITIVE_INTEGER, "3");
+
+    /** If the topics are to be shared between all the instances of the operator which have sharding enabled */
+    public static final Value<String> SHARDING_ENABLED = new Value<>(TC_SHARDING_ENABLED, STRING, "false");
+    /** The id of this instance of the operator when {@link #SHARDING_ENABLED}. If empty the host name is used. */
+    public static final Value<String> SHARD_MEMBER_ID = new Value<>(TC_SHARD_MEMBER_ID, STRING, "");
+    /** How long a member waits after the membership changes before operating on the topics it has gained. */
+    public static final Value<Long> SHARD_HANDOVER_MS = new Value<>(TC_SHARD_HANDOVER_MS, DURATION, "10000");
+
     /** If the connection with Kafka has to be encrypted by TLS protocol */
     public static final Value<String> TLS_ENABLED = new Value<>(TC_TLS_ENABLED, STRING, "false");
     /** The truststore with CA certificate for Kafka broker/server authentication */
@@ -160,10 +234,26 @@ public class Config {
         addConfigValue(configValues, ZOOKEEPER_CONNECT);
         addConfigValue(configValues, ZOOKEEPER_SESSION_TIMEOUT_MS);
         addConfigValue(configValues, ZOOKEEPER_CONNECTION_TIMEOUT_MS);
+        addConfigValue(configValues, ZOOKEEPER_CLIENT);
         addConfigValue(configValues, FULL_RECONCILIATION_INTERVAL_MS);
+        addConfigValue(configValues, FULL_RECONCILIATION_CONCURRENCY);
+        addConfigValue(configValues, ZOOKEEPER_TOPICS_BATCH_MS);
+        addConfigValue(configValues, ZOOKEEPER_WATCH_MODE);
+        addConfigValue(configValues, PARTITION_CHECK_INTERVAL_MS);
+        addConfigValue(configValues, KAFKA_ADMIN_BATCH_MS);
         addConfigValue(configValues, REASSIGN_THROTTLE);
         addConfigValue(configValues, REASSIGN_VERIFY_INTERVAL_MS);
+        addConfigValue(configValues, REASSIGN_TIMEOUT_MS);
         addConfigValue(configValues, TOPIC_METADATA_MAX_ATTEMPTS);
+        addConfigValue(configValues, TOPIC_METADATA_BREAKER_THRESHOLD);
+        addConfigValue(configValues, TOPIC_METADATA_BREAKER_COOL_DOWN_MS);
+        addConfigValue(configValues, TOPIC_METADATA_SNAPSHOT_MAX_AGE_MS);
+        addConfigValue(configValues, TOPIC_STORE);
+        addConfigValue(configValues, TOPIC_STORE_TOPIC);
+        addConfigValue(configValues, TOPIC_STORE_REPLICATION_FACTOR);
+        addConfigValue(configValues, SHARDING_ENABLED);
+        addConfigValue(configValues, SHARD_MEMBER_ID);
+        addConfigValue(configValues, SHARD_HANDOVER_MS);
         addConfigValue(configValues, TLS_ENABLED);
         addConfigValue(configValues, TLS_TRUSTSTORE_LOCATION);
         addConfigValue(configValues, TLS_TRUSTSTORE_PASSWORD);
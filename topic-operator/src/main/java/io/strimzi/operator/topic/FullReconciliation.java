@@ -0,0 +1,309 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.strimzi.api.kafka.model.KafkaTopic;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reconciles every topic which a {@link TopicOperator} {@linkplain #owns(TopicName) owns},
+ * streaming the topics through a {@link BoundedPipeline} so that
+ * at most {@link Config#FULL_RECONCILIATION_CONCURRENCY} topics are being reconciled at once.
+ * It also keeps the {@link TopicFingerprint}s of the topics which have been reconciled,
+ * so that reconciling a topic which hasn't changed since can be skipped.
+ */
+class FullReconciliation {
+
+    private final static Logger LOGGER = LogManager.getLogger(FullReconciliation.class);
+
+    private final TopicOperator operator;
+    private final Kafka kafka;
+    private final K8s k8s;
+    private final TopicStore topicStore;
+    private final Config config;
+    private final Shard shard;
+    /** The topic used by the {@link KafkaTopicStore}, which isn't the operator's to reconcile, or null. */
+    private final TopicName storeTopic;
+    /** The fingerprints of the topics, as of when they were last successfully reconciled. */
+    private final ConcurrentHashMap<TopicName, TopicFingerprint> fingerprints = new ConcurrentHashMap<>();
+    private final Metrics.Counter unchangedTopicsSkipped;
+    private volatile BoundedPipeline<?> progress;
+    /**
+     * The topics which have had an event since the metadata snapshot of the latest full reconciliation started
+     * being fetched, so the snapshot's metadata of those topics could be older than what the event reconciled.
+     */
+    private volatile Set<TopicName> changedSinceSnapshot = ConcurrentHashMap.newKeySet();
+
+    FullReconciliation(TopicOperator operator, Kafka kafka, K8s k8s, TopicStore topicStore, Config config,
+                       Metrics metrics, Shard shard) {
+        this.operator = operator;
+        this.kafka = kafka;
+        this.k8s = k8s;
+        this.topicStore = topicStore;
+        this.config = config;
+        this.shard = shard;
+        this.storeTopic = config != null && "kafka".equals(config.get(Config.TOPIC_STORE))
+                ? new TopicName(config.get(Config.TOPIC_STORE_TOPIC))
+                : null;
+        this.unchangedTopicsSkipped = metrics.counter(Metrics.PREFIX + "reconciliations_skipped_unchanged_total",
+                "The number of periodic reconciliations skipped because the topic was unchanged");
+        metrics.gauge(Metrics.PREFIX + "reconciliation_fingerprints",
+                "The number of topics whose last successful reconciliation is remembered", fingerprints::size);
+        String help = "The progress of the current (or most recent) phase of full reconciliation";
+        metrics.gauge(Metrics.PREFIX + "full_reconciliation_topics", help,
+            () -> progress != null ? progress.total() : 0, "state", "total");
+        metrics.gauge(Metrics.PREFIX + "full_reconciliation_topics", help,
+            () -> progress != null ? progress.succeeded() : 0, "state", "succeeded");
+        metrics.gauge(Metrics.PREFIX + "full_reconciliation_topics", help,
+            () -> progress != null ? progress.failed() : 0, "state", "failed");
+    }
+
+    /**
+     * @return Whether this instance of the operator is responsible for the given topic.
+     * The operator is never responsible for the topic its own topic store is kept in.
+     */
+    boolean owns(TopicName topicName) {
+        return !topicName.equals(storeTopic) && shard.owns(topicName);
+    }
+
+    /**
+     * Note that the given topic has had an event, so the metadata snapshot of the current full reconciliation,
+     * if there is one, mustn't be used for it.
+     */
+    void changed(TopicName topicName) {
+        changedSinceSnapshot.add(topicName);
+    }
+
+    /**
+     * @return Whether the given topic has had an event since the current full reconciliation listed the topics.
+     */
+    boolean isChanged(TopicName topicName) {
+        return changedSinceSnapshot.contains(topicName);
+    }
+
+    /**
+     * @return Whether the topic with the given inputs to its reconciliation is unchanged since it was last
+     * successfully reconciled, in which case reconciling it again would do nothing.
+     */
+    boolean isUnchanged(TopicName topicName, KafkaTopic resource, Topic kafkaTopic, Topic privateTopic) {
+        if (TopicFingerprint.of(resource, kafkaTopic, privateTopic).equals(fingerprints.get(topicName))) {
+            unchangedTopicsSkipped.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record the fingerprint of the given topic, which has been successfully reconciled from the given inputs.
+     * If they were already the same then the reconciliation changed nothing, so the fingerprint is that of the inputs.
+     * Otherwise the topic is read again, so that the fingerprint is that of the reconciled topic
+     * and the next full reconciliation can skip it.
+     * @return A future completed once the fingerprint has been recorded or forgotten.
+     */
+    Future<Void> reconciled(TopicName topicName, KafkaTopic resource, Topic k8sTopic, Topic kafkaTopic, Topic privateTopic) {
+        if (resource == null && kafkaTopic == null) {
+            // The topic is gone, or the reconciliation deleted what was left of it
+            fingerprints.remove(topicName);
+            return Future.succeededFuture();
+        } else if (k8sTopic != null && kafkaTopic != null && privateTopic != null
+                && TopicDiff.diff(privateTopic, kafkaTopic).isEmpty()
+                && TopicDiff.diff(privateTopic, k8sTopic).isEmpty()) {
+            fingerprints.put(topicName, TopicFingerprint.of(resource, kafkaTopic, privateTopic));
+            return Future.succeededFuture();
+        }
+        Future<Void> result = Future.future();
+        Future<KafkaTopic> resourceResult = Future.future();
+        Future<TopicMetadata> metadataResult = Future.future();
+        Future<Topic> storeResult = Future.future();
+        k8s.getFromName(resource != null ? new ResourceName(resource) : topicName.asMapName(), resourceResult.completer());
+        kafka.topicMetadata(topicName, metadataResult.completer());
+        topicStore.read(topicName, storeResult.completer());
+        CompositeFuture.all(resourceResult, metadataResult, storeResult).setHandler(ar -> {
+            if (ar.succeeded() && (resourceResult.result() != null || metadataResult.result() != null)) {
+                fingerprints.put(topicName, TopicFingerprint.of(resourceResult.result(),
+                        TopicSerialization.fromTopicMetadata(metadataResult.result()), storeResult.result()));
+            } else {
+                if (ar.failed()) {
+                    LOGGER.debug("Error reading topic {} after reconciling it, it will be reconciled again", topicName, ar.cause());
+                }
+                fingerprints.remove(topicName);
+            }
+            result.complete();
+        });
+        return result;
+    }
+
+    /**
+     * Forget the fingerprint of the given topic, so that it's reconciled by the next full reconciliation.
+     */
+    void forget(TopicName topicName) {
+        fingerprints.remove(topicName);
+    }
+
+    /**
+     * @return The number of times a topic's reconciliation has been skipped because it was unchanged.
+     */
+    long unchangedTopicsSkipped() {
+        return unchangedTopicsSkipped.get();
+    }
+
+    private int concurrency() {
+        return config != null ? config.get(Config.FULL_RECONCILIATION_CONCURRENCY) : Integer.parseInt(Config.FULL_RECONCILIATION_CONCURRENCY.defaultValue);
+    }
+
+    private long metadataSnapshotMaxAgeMs() {
+        return config != null ? config.get(Config.TOPIC_METADATA_SNAPSHOT_MAX_AGE_MS) : Long.parseLong(Config.TOPIC_METADATA_SNAPSHOT_MAX_AGE_MS.defaultValue);
+    }
+
+    /**
+     * Reconcile every owned topic.
+     * First the topics in Kafka are reconciled, then the KafkaTopics which don't correspond to a topic in Kafka,
+     * then the topics in the topic store which are in neither.
+     */
+    Future<?> run(String reconciliationType) {
+        Future<Void> topicsJoin = Future.future();
+        Future<Void> mapsJoin = Future.future();
+        Future<Void> storeJoin = Future.future();
+        int concurrency = concurrency();
+        LOGGER.info("Starting {} reconciliation", reconciliationType);
+        kafka.listTopics(topicsListResult -> {
+            if (topicsListResult.succeeded()) {
+                Set<String> kafkaTopics = topicsListResult.result();
+                LOGGER.debug("Reconciling kafka topics {}", kafkaTopics);
+                // First reconcile the topics in kafka, using a bulk snapshot of their metadata
+                List<TopicName> topicNames = kafkaTopics.stream().map(TopicName::new).filter(this::owns).collect(Collectors.toList());
+                Set<TopicName> changed = ConcurrentHashMap.newKeySet();
+                changedSinceSnapshot = changed;
+                kafka.topicsMetadata(topicNames, metadataResult -> {
+                    TopicMetadataSnapshot snapshot;
+                    if (metadataResult.succeeded()) {
+                        snapshot = new TopicMetadataSnapshot(metadataResult.result(), metadataSnapshotMaxAgeMs(), changed);
+                    } else {
+                        LOGGER.warn("Error getting metadata for all topics during {} reconciliation, will get metadata for each topic",
+                                reconciliationType, metadataResult.cause());
+                        snapshot = null;
+                    }
+                    BoundedPipeline<TopicName> topicsPipeline = new BoundedPipeline<>(reconciliationType + " reconciliation of topics",
+                        concurrency, topicNames.size(), topicNames.iterator(),
+                        topicName -> reconcileKafkaTopic(reconciliationType, topicName, snapshot));
+                    progress = topicsPipeline;
+                    topicsPipeline.run().setHandler(topicsResult -> {
+                        topicsJoin.handle(topicsResult);
+                        // Then those in k8s which aren't in kafka
+                        Set<TopicName> reconciled = new HashSet<>(topicNames);
+                        reconcileKafkaTopicsNotInKafka(reconciliationType, concurrency, kafkaTopics, reconciled).setHandler(mapsResult -> {
+                            mapsJoin.handle(mapsResult);
+                            if (mapsResult.succeeded()) {
+                                // Finally those in private store which we've not dealt with so far
+                                reconcileStoreTopicsNotReconciled(reconciliationType, concurrency, reconciled).setHandler(storeJoin);
+                            } else {
+                                storeJoin.handle(mapsResult);
+                            }
+                        });
+                    });
+                });
+            } else {
+                LOGGER.error("Error performing {} reconciliation", reconciliationType, topicsListResult.cause());
+                OperatorException listException = new OperatorException("Error listing existing topics during " + reconciliationType + " reconciliation", topicsListResult.cause());
+                topicsJoin.fail(listException);
+                mapsJoin.fail(listException);
+                storeJoin.fail(listException);
+            }
+        });
+        return CompositeFuture.join(topicsJoin, mapsJoin, storeJoin);
+    }
+
+    private Future<Void> reconcileKafkaTopic(String reconciliationType, TopicName topicName, TopicMetadataSnapshot snapshot) {
+        LOGGER.debug("{} reconciliation of topic {}", reconciliationType, topicName);
+        Future<Void> topicFuture = Future.future();
+        k8s.getFromName(topicName.asMapName(), topicResult -> {
+            if (topicResult.succeeded()) {
+                KafkaTopic kafkaTopic = topicResult.result();
+                operator.reconcile(kafkaTopic, topicName, snapshot, true).setHandler(topicFuture);
+            } else {
+                LOGGER.error("Error {} getting KafkaTopic {} for topic {}",
+                        reconciliationType,
+                        topicName.asMapName(), topicName, topicResult.cause());
+                topicFuture.fail(new OperatorException("Error getting KafkaTopic " + topicName.asMapName() + " during " + reconciliationType + " reconciliation", topicResult.cause()));
+            }
+        });
+        return topicFuture;
+    }
+
+    /**
+     * Reconcile the KafkaTopics which don't correspond to a topic in Kafka,
+     * adding the names of the topics of all the KafkaTopics to the given {@code reconciled}.
+     */
+    private Future<Void> reconcileKafkaTopicsNotInKafka(String reconciliationType, int concurrency, Set<String> kafkaTopics,
+                                                        Set<TopicName> reconciled) {
+        Future<Void> mapsJoin = Future.future();
+        LOGGER.debug("Reconciling KafkaTopics");
+        k8s.listMaps(resourcesListResult -> {
+            if (resourcesListResult.succeeded()) {
+                List<KafkaTopic> resources = resourcesListResult.result();
+                Map<String, KafkaTopic> resourcesMap = resources.stream()
+                    .filter(resource -> owns(new TopicName(resource)))
+                    .collect(Collectors.toMap(
+                        resource -> resource.getMetadata().getName(),
+                        resource -> resource));
+                for (KafkaTopic resource : resourcesMap.values()) {
+                    reconciled.add(new TopicName(resource));
+                }
+                resourcesMap.keySet().removeAll(kafkaTopics);
+                LOGGER.debug("Reconciling KafkaTopics: {}", resourcesMap.keySet());
+                BoundedPipeline<KafkaTopic> resourcesPipeline = new BoundedPipeline<>(reconciliationType + " reconciliation of KafkaTopics",
+                    concurrency, resourcesMap.size(), resourcesMap.values().iterator(),
+                    resource -> {
+                        LOGGER.debug("{} reconciliation of KafkaTopic {}", reconciliationType, resource.getMetadata().getName());
+                        return operator.reconcile(resource, new TopicName(resource), null, true);
+                    });
+                progress = resourcesPipeline;
+                resourcesPipeline.run().setHandler(mapsJoin);
+            } else {
+                LOGGER.error("Unable to list KafkaTopics", resourcesListResult.cause());
+                mapsJoin.fail(new OperatorException("Error listing existing KafkaTopics during " + reconciliationType + " reconciliation", resourcesListResult.cause()));
+            }
+        });
+        return mapsJoin;
+    }
+
+    /**
+     * Reconcile the topics in the topic store which aren't in the given {@code reconciled},
+     * i.e. those which have neither a topic in Kafka nor a KafkaTopic.
+     * Usually this deletes them from the store, which otherwise would accumulate entries which are never visited.
+     */
+    private Future<Void> reconcileStoreTopicsNotReconciled(String reconciliationType, int concurrency, Set<TopicName> reconciled) {
+        Future<Void> storeJoin = Future.future();
+        LOGGER.debug("Reconciling topics in the topic store");
+        topicStore.list(storeListResult -> {
+            if (storeListResult.succeeded()) {
+                List<TopicName> storeTopics = storeListResult.result().stream()
+                    .filter(topicName -> !reconciled.contains(topicName))
+                    .filter(this::owns)
+                    .collect(Collectors.toList());
+                LOGGER.debug("Reconciling topics only in the topic store: {}", storeTopics);
+                BoundedPipeline<TopicName> storePipeline = new BoundedPipeline<>(reconciliationType + " reconciliation of stored topics",
+                    concurrency, storeTopics.size(), storeTopics.iterator(),
+                    topicName -> reconcileKafkaTopic(reconciliationType, topicName, null));
+                progress = storePipeline;
+                storePipeline.run().setHandler(storeJoin);
+            } else {
+                LOGGER.error("Unable to list the topics in the topic store", storeListResult.cause());
+                storeJoin.fail(new OperatorException("Error listing the topic store during " + reconciliationType + " reconciliation", storeListResult.cause()));
+            }
+        });
+        return storeJoin;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A consistent hash ring which assigns each topic to one of a set of members.
+ * Each member is placed on the ring at a number of points, so that the topics are spread evenly over
+ * the members, and when a member joins or leaves only the topics it gains or loses change owner.
+ * The hashing is stable across JVMs, so every member computes the same assignment from the same membership.
+ */
+class HashRing {
+
+    /** The number of points on the ring for each member. */
+    static final int POINTS_PER_MEMBER = 128;
+
+    private final TreeMap<Integer, String> ring = new TreeMap<>();
+
+    HashRing(Collection<String> members) {
+        for (String member : members) {
+            for (int i = 0; i < POINTS_PER_MEMBER; i++) {
+                ring.put(hash(member + "#" + i), member);
+            }
+        }
+    }
+
+    private static int hash(String s) {
+        return Utils.murmur2(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return The member which owns the given topic, or null if there are no members.
+     */
+    String owner(TopicName topicName) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Integer, String> entry = ring.ceilingEntry(hash(topicName.toString()));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+}
@@ -11,6 +11,10 @@ import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -35,6 +39,15 @@ import java.util.concurrent.ConcurrentHashMap;
  * due to event 1 is complete. The reconciliation algorithm is smart
  * enough realize, when reconciling the KafkaTopic creation that the Kafka
  * and TopicStore state is already correct, and so the reconciliation is a noop.
+ *
+ * Actions are enqueued with a kind. An action enqueued while an action of the same kind is waiting
+ * for the key replaces it, wherever it is in the queue
+ * (the result handlers of both are called with the result of the action which runs).
+ * This is safe because actions of the same kind must subsume each other, for example because they all
+ * reconcile the current state of the topic, so at most one action of each kind waits for a key,
+ * and a burst of events for a topic results in a couple of reconciliations rather than one per event.
+ * Actions of different kinds are not merged, because one might not subsume the other
+ * (for example the deletion of a topic and a reconciliation), so they wait in turn.
  */
 class InFlight<T> {
 
@@ -44,80 +57,146 @@ class InFlight<T> {
 
     private final ConcurrentHashMap<T, InflightHandler> map = new ConcurrentHashMap<>();
 
-    class InflightHandler implements Handler<AsyncResult<Void>> {
-
-        private final Handler<AsyncResult<Void>> h1;
-        private final Handler<AsyncResult<Void>> h2;
-        private final String fur;
-        private Handler<AsyncResult<Void>> h3;
-        private final Future<Void> fut;
-
-        public InflightHandler(T key, String fur, Handler<AsyncResult<Void>> h1) {
-            this.fur = fur;
-            this.h1 = h1;
-            this.h2 = x -> {
-                // remove from map if fut is the current key
-                map.compute(key, (k2, v) -> {
-                    if (v == this) {
-                        LOGGER.debug("Removing finished action {}", this);
-                        return null;
-                    } else {
-                        return v;
-                    }
-                });
-            };
-            Future<Void> fut = Future.future();
-            this.fut = fut;
-            fut.setHandler(this);
+    private final Metrics.Counter merged;
+
+    private final Metrics.Histogram waitDuration;
+
+    /** The kind of the actions enqueued without one, which can all be merged with each other. */
+    static final String DEFAULT_KIND = "default";
+
+    /** An action waiting to run, and the result handlers of it and of the actions it replaced. */
+    private class Waiting {
+        private final String kind;
+        private final long since;
+        private final List<Handler<AsyncResult<Void>>> handlers = new ArrayList<>(2);
+        private Handler<Future<Void>> action;
+
+        Waiting(String kind, Handler<Future<Void>> action, Handler<AsyncResult<Void>> resultHandler) {
+            this.kind = kind;
+            this.since = System.nanoTime();
+            this.action = action;
+            this.handlers.add(resultHandler);
         }
+    }
 
-        @Override
-        public void handle(AsyncResult<Void> event) {
-            h1.handle(event);
-            h2.handle(event);
-            if (h3 != null) {
-                h3.handle(event);
-            }
+    /**
+     * The running action for a key, and the actions (if any) waiting to run after it, in order.
+     * Only mutated within {@code map.compute()} for the key.
+     */
+    class InflightHandler {
+
+        private final T key;
+        private String running;
+        private final Deque<Waiting> waiting = new ArrayDeque<>(1);
+        /** The size of {@link #waiting}, for reading outside {@code map.compute()}. */
+        private volatile int waitingCount = 0;
+
+        InflightHandler(T key) {
+            this.key = key;
         }
 
-        public void setHandler(Handler<AsyncResult<Void>> h3) {
-            this.h3 = h3;
+        /** Start the given action, calling the given handlers when it completes. */
+        private void run(Handler<Future<Void>> action, List<Handler<AsyncResult<Void>>> resultHandlers) {
+            this.running = action.toString();
+            Future<Void> fut = Future.future();
+            fut.setHandler(ar -> {
+                try {
+                    for (Handler<AsyncResult<Void>> resultHandler : resultHandlers) {
+                        resultHandler.handle(ar);
+                    }
+                } finally {
+                    next();
+                }
+            });
+            vertx.runOnContext(ignored -> action.handle(fut));
+        }
+
+        /** Start the waiting action, if there is one, otherwise remove this from the map. */
+        private void next() {
+            map.compute(key, (k, v) -> {
+                if (v != this) {
+                    return v;
+                } else if (waiting.isEmpty()) {
+                    LOGGER.debug("Removing finished action {}", this);
+                    return null;
+                } else {
+                    Waiting next = waiting.poll();
+                    waitingCount = waiting.size();
+                    waitDuration.observeSince(next.since);
+                    LOGGER.debug("Queueing {} after deferred execution", next.action);
+                    run(next.action, next.handlers);
+                    return this;
+                }
+            });
         }
 
         public String toString() {
-            return fur;
+            return running;
         }
     }
 
     public InFlight(Vertx vertx) {
+        this(vertx, new Metrics());
+    }
+
+    public InFlight(Vertx vertx, Metrics metrics) {
         this.vertx = vertx;
+        this.waitDuration = metrics.histogram(Metrics.PREFIX + "inflight_wait_duration_seconds",
+                "The time a reconciliation waited for the running reconciliation of the same topic to finish");
+        metrics.gauge(Metrics.PREFIX + "inflight_topics",
+                "The number of topics with a running reconciliation", this::size);
+        metrics.gauge(Metrics.PREFIX + "inflight_waiting",
+                "The number of topics with a reconciliation waiting for the running one to finish", this::waiting);
+        this.merged = metrics.counter(Metrics.PREFIX + "inflight_merged_total",
+                "The number of reconciliations replaced by a later one for the same topic before they could run");
     }
 
 
     /**
      * Run the given {@code action} on the context thread,
      * immediately if there are currently no other actions with the given {@code key},
-     * or when the other actions with the given {@code key} have completed.
-     * When the given {@code action} is complete it must complete its argument future,
-     * which will complete the given {@code resultHandler}.
+     * or when the running action with the given {@code key} has completed.
+     * The action is of the {@link #DEFAULT_KIND}.
+     * @see #enqueue(Object, String, Handler, Handler)
      */
     public void enqueue(T key, Handler<Future<Void>> action, Handler<AsyncResult<Void>> resultHandler) {
-        InflightHandler fut = new InflightHandler(key, action.toString(), resultHandler);
-        LOGGER.debug("resultHandler:{}, action:{}, fut:{}", resultHandler, action, fut);
+        enqueue(key, DEFAULT_KIND, action, resultHandler);
+    }
+
+    /**
+     * Run the given {@code action} on the context thread,
+     * immediately if there are currently no other actions with the given {@code key},
+     * or once the running action with the given {@code key}, and the actions waiting before it, have completed.
+     * If an action with the given {@code key} and of the same {@code kind} is waiting to run, then
+     * the given {@code action} takes its place, and the waiting action is never run.
+     * When the given {@code action} is complete it must complete its argument future,
+     * which will complete the given {@code resultHandler} (and the result handlers
+     * of any action it replaced).
+     */
+    public void enqueue(T key, String kind, Handler<Future<Void>> action, Handler<AsyncResult<Void>> resultHandler) {
+        LOGGER.debug("resultHandler:{}, action:{}", resultHandler, action);
         map.compute(key, (k, current) -> {
             if (current == null) {
                 LOGGER.debug("Queueing {} for immediate execution", action);
-                vertx.runOnContext(ignored -> action.handle(fut.fut));
-                return fut;
-            } else {
-                LOGGER.debug("Queueing {} for deferred execution after {}", action, current);
-                current.setHandler(ar -> {
-                    LOGGER.debug("Queueing {} after deferred execution", action);
-                    vertx.runOnContext(ar2 ->
-                            action.handle(fut.fut));
-                });
-                return fut;
+                InflightHandler handler = new InflightHandler(key);
+                List<Handler<AsyncResult<Void>>> handlers = new ArrayList<>(1);
+                handlers.add(resultHandler);
+                handler.run(action, handlers);
+                return handler;
             }
+            for (Waiting queued : current.waiting) {
+                if (queued.kind.equals(kind)) {
+                    LOGGER.debug("Merging {} into {}, which is waiting for deferred execution after {}", queued.action, action, current);
+                    merged.increment();
+                    queued.action = action;
+                    queued.handlers.add(resultHandler);
+                    return current;
+                }
+            }
+            LOGGER.debug("Queueing {} for deferred execution after {}", action, current);
+            current.waiting.add(new Waiting(kind, action, resultHandler));
+            current.waitingCount = current.waiting.size();
+            return current;
         });
     }
 
@@ -127,4 +206,24 @@ class InFlight<T> {
     public int size() {
         return map.size();
     }
+
+    /**
+     * The number of keys with an action waiting to run after the running action.
+     */
+    public int waiting() {
+        int result = 0;
+        for (InflightHandler handler : map.values()) {
+            if (handler.waitingCount > 0) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The number of actions which were replaced by a later action for the same key before they could run.
+     */
+    public long merged() {
+        return merged.get();
+    }
 }
@@ -7,6 +7,8 @@ package io.strimzi.operator.topic;
 import io.fabric8.kubernetes.api.model.Event;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
 import io.strimzi.api.kafka.Crds;
@@ -14,6 +16,7 @@ import io.strimzi.api.kafka.model.DoneableKafkaTopic;
 import io.strimzi.api.kafka.KafkaTopicList;
 import io.strimzi.api.kafka.model.KafkaTopic;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
@@ -25,6 +28,10 @@ public class K8sImpl implements K8s {
 
     private final static Logger LOGGER = LogManager.getLogger(TopicOperator.class);
 
+    private static final int HTTP_GONE = 410;
+    private static final long MIN_RESTART_DELAY_MS = 1_000;
+    private static final long MAX_RESTART_DELAY_MS = 30_000;
+
     private final LabelPredicate resourcePredicate;
     private final String namespace;
 
@@ -32,18 +39,166 @@ public class K8sImpl implements K8s {
 
     private Vertx vertx;
 
+    private final KafkaTopicCache cache;
+
+    private final Metrics metrics;
+
     public K8sImpl(Vertx vertx, KubernetesClient client, LabelPredicate resourcePredicate, String namespace) {
+        this(vertx, client, resourcePredicate, namespace, new Metrics());
+    }
+
+    public K8sImpl(Vertx vertx, KubernetesClient client, LabelPredicate resourcePredicate, String namespace, Metrics metrics) {
         this.vertx = vertx;
+        this.metrics = metrics;
         this.client = client;
         this.resourcePredicate = resourcePredicate;
         this.namespace = namespace;
+        this.cache = new KafkaTopicCache(resourcePredicate);
+    }
+
+    /**
+     * Populate the local cache of KafkaTopics from a list, then watch for changes from the
+     * resourceVersion of that list, keeping the cache up to date before passing each event to the given watcher.
+     * Once this returns {@link #getFromName(ResourceName, Handler)} and {@link #listMaps(Handler)}
+     * are served from the cache rather than the API server.
+     *
+     * If the watch is closed by the API server it is re-established from the last resourceVersion seen,
+     * so no events are missed. Only if that resourceVersion is too old (410 Gone) are the KafkaTopics relisted,
+     * in which case the given watcher receives an event for each resource which changed while the watch was down.
+     * The given watcher's {@link Watcher#onClose(KubernetesClientException)} is only called when the returned
+     * Watch is closed.
+     * This method blocks, so must not be called on the event loop.
+     */
+    public Watch watch(Watcher<KafkaTopic> watcher) {
+        ResumingWatch watch = new ResumingWatch(watcher);
+        watch.start(relist(watcher, false));
+        return watch;
+    }
+
+    /**
+     * List the KafkaTopics and sync the cache with them.
+     * If {@code notify}, pass an event for each difference between the cache and the list to the given watcher.
+     * @return The resourceVersion of the list.
+     */
+    private String relist(Watcher<KafkaTopic> watcher, boolean notify) {
+        KafkaTopicList list = operation().inNamespace(namespace).withLabels(resourcePredicate.labels()).list();
+        if (notify) {
+            int gap = cache.resync(list.getItems(), watcher::eventReceived);
+            metrics.counter(Metrics.PREFIX + "k8s_watch_gap_events_total",
+                    "The number of KafkaTopic changes missed by the watch and found by relisting").increment(gap);
+            LOGGER.info("Relisted {} KafkaTopics, of which {} changed while the watch was down", cache.size(), gap);
+        } else {
+            cache.sync(list.getItems());
+        }
+        String resourceVersion = list.getMetadata() != null ? list.getMetadata().getResourceVersion() : null;
+        LOGGER.debug("Cached {} KafkaTopics, watching from resourceVersion {}", cache.size(), resourceVersion);
+        return resourceVersion;
+    }
+
+    /**
+     * Whether the given watch error means the resourceVersion we were watching from is no longer available.
+     */
+    static boolean isGone(KubernetesClientException e) {
+        return e.getCode() == HTTP_GONE
+                || e.getStatus() != null && e.getStatus().getCode() != null && e.getStatus().getCode() == HTTP_GONE;
+    }
+
+    /**
+     * A Watch which re-establishes the underlying watch whenever the API server closes it,
+     * until it is itself closed.
+     */
+    private class ResumingWatch implements Watch, Watcher<KafkaTopic> {
+
+        private final Watcher<KafkaTopic> watcher;
+
+        private volatile String resourceVersion;
+        private volatile boolean closed = false;
+        private volatile Watch delegate;
+        private volatile long closedAtNanos;
+        private long retryDelayMs = MIN_RESTART_DELAY_MS;
+
+        ResumingWatch(Watcher<KafkaTopic> watcher) {
+            this.watcher = watcher;
+        }
+
+        private void start(String resourceVersion) {
+            this.resourceVersion = resourceVersion;
+            Watch watch = operation().inNamespace(namespace).watch(resourceVersion, this);
+            this.delegate = watch;
+            if (closed) {
+                // Closed while we were starting
+                watch.close();
+            }
+        }
+
+        @Override
+        public void eventReceived(Action action, KafkaTopic kafkaTopic) {
+            if (kafkaTopic.getMetadata() != null && kafkaTopic.getMetadata().getResourceVersion() != null) {
+                resourceVersion = kafkaTopic.getMetadata().getResourceVersion();
+            }
+            cache.update(action, kafkaTopic);
+            watcher.eventReceived(action, kafkaTopic);
+        }
+
+        @Override
+        public void onClose(KubernetesClientException e) {
+            if (closed || e == null) {
+                cache.invalidate();
+                watcher.onClose(e);
+                return;
+            }
+            closedAtNanos = System.nanoTime();
+            restart(isGone(e), e);
+        }
+
+        private void restart(boolean relist, Exception cause) {
+            if (relist) {
+                LOGGER.warn("KafkaTopic watch from resourceVersion {} is gone, relisting", resourceVersion, cause);
+                cache.invalidate();
+            } else {
+                LOGGER.info("KafkaTopic watch closed, resuming from resourceVersion {}", resourceVersion, cause);
+            }
+            vertx.<Void>executeBlocking(future -> {
+                if (!closed) {
+                    start(relist ? relist(watcher, true) : resourceVersion);
+                }
+                future.complete();
+            }, false, ar -> restarted(ar, relist));
+        }
+
+        private void restarted(AsyncResult<Void> ar, boolean relist) {
+            if (ar.succeeded()) {
+                metrics.counter(Metrics.PREFIX + "k8s_watch_restarts_total",
+                        "The number of times the KafkaTopic watch has been re-established",
+                        "type", relist ? "relisted" : "resumed").increment();
+                metrics.histogram(Metrics.PREFIX + "k8s_watch_gap_seconds",
+                        "How long the KafkaTopic watch was down before being re-established").observeSince(closedAtNanos);
+                retryDelayMs = MIN_RESTART_DELAY_MS;
+            } else if (!closed) {
+                boolean gone = ar.cause() instanceof KubernetesClientException && isGone((KubernetesClientException) ar.cause());
+                LOGGER.warn("Error re-establishing KafkaTopic watch, retrying in {}ms", retryDelayMs, ar.cause());
+                long delay = retryDelayMs;
+                retryDelayMs = Math.min(2 * retryDelayMs, MAX_RESTART_DELAY_MS);
+                vertx.setTimer(delay, timerId -> restart(relist || gone, ar.cause()));
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            Watch watch = delegate;
+            if (watch != null) {
+                watch.close();
+            }
+        }
     }
 
     @Override
     public void createResource(KafkaTopic topicResource, Handler<AsyncResult<Void>> handler) {
         vertx.executeBlocking(future -> {
             try {
-                operation().inNamespace(namespace).create(topicResource);
+                KafkaTopic created = operation().inNamespace(namespace).create(topicResource);
+                cache.put(created != null ? created : topicResource);
                 future.complete();
             } catch (Exception e) {
                 future.fail(e);
@@ -55,7 +210,8 @@ public class K8sImpl implements K8s {
     public void updateResource(KafkaTopic topicResource, Handler<AsyncResult<Void>> handler) {
         vertx.executeBlocking(future -> {
             try {
-                operation().inNamespace(namespace).withName(topicResource.getMetadata().getName()).patch(topicResource);
+                KafkaTopic patched = operation().inNamespace(namespace).withName(topicResource.getMetadata().getName()).patch(topicResource);
+                cache.put(patched != null ? patched : topicResource);
                 future.complete();
             } catch (Exception e) {
                 future.fail(e);
@@ -69,6 +225,7 @@ public class K8sImpl implements K8s {
             try {
                 // Delete the resource by the topic name, because neither ZK nor Kafka know the resource name
                 operation().inNamespace(namespace).withName(resourceName.toString()).delete();
+                cache.remove(resourceName);
                 future.complete();
             } catch (Exception e) {
                 future.fail(e);
@@ -82,6 +239,10 @@ public class K8sImpl implements K8s {
 
     @Override
     public void listMaps(Handler<AsyncResult<List<KafkaTopic>>> handler) {
+        if (cache.isSynced()) {
+            handler.handle(Future.succeededFuture(cache.list()));
+            return;
+        }
         vertx.executeBlocking(future -> {
             try {
                 future.complete(operation().inNamespace(namespace).withLabels(resourcePredicate.labels()).list().getItems());
@@ -93,6 +254,10 @@ public class K8sImpl implements K8s {
 
     @Override
     public void getFromName(ResourceName resourceName, Handler<AsyncResult<KafkaTopic>> handler) {
+        if (cache.isSynced()) {
+            handler.handle(Future.succeededFuture(cache.get(resourceName)));
+            return;
+        }
         vertx.executeBlocking(future -> {
             try {
                 future.complete(operation().inNamespace(namespace).withName(resourceName.toString()).get());
@@ -100,7 +265,6 @@ public class K8sImpl implements K8s {
                 future.fail(e);
             }
         }, handler);
-
     }
 
     /**
@@ -7,6 +7,8 @@ package io.strimzi.operator.topic;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -64,6 +66,15 @@ public interface Kafka {
      */
     void topicMetadata(TopicName topicName, Handler<AsyncResult<TopicMetadata>> handler);
 
+    /**
+     * Asynchronously fetch the metadata of all the given topics in Kafka, using as few
+     * requests as possible. Invoke the given handler with the result. If the operation fails
+     * the given handler will be called with a failed AsyncResult whose {@code cause()} is the
+     * KafkaException (not an ExecutionException).
+     * Topics which do not exist will be absent from the {@link AsyncResult#result()}.
+     */
+    void topicsMetadata(Collection<TopicName> topicNames, Handler<AsyncResult<Map<TopicName, TopicMetadata>>> handler);
+
     /**
      * Asynchronously list the topics available in Kafka. Invoke the given
      * handler with the result. If the operation fails the given handler
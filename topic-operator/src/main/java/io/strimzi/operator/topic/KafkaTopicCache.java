@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.fabric8.kubernetes.client.Watcher;
+import io.strimzi.api.kafka.model.KafkaTopic;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * A local cache of the {@code KafkaTopic} resources matching a {@link LabelPredicate}, indexed by resource name.
+ * The cache is populated from a list (see {@link #sync(List)}) and then kept up to date with the events
+ * of a watch started from the {@code resourceVersion} of that list (see {@link #update(Watcher.Action, KafkaTopic)}).
+ * Until the first {@link #sync(List)} the cache is not {@linkplain #isSynced() synced} and should not be read.
+ */
+class KafkaTopicCache {
+
+    private final static Logger LOGGER = LogManager.getLogger(KafkaTopicCache.class);
+
+    private final LabelPredicate resourcePredicate;
+
+    private final ConcurrentHashMap<ResourceName, KafkaTopic> byName = new ConcurrentHashMap<>();
+
+    private volatile boolean synced = false;
+
+    KafkaTopicCache(LabelPredicate resourcePredicate) {
+        this.resourcePredicate = resourcePredicate;
+    }
+
+    /**
+     * Replace the content of the cache with the given resources, and mark the cache as synced.
+     */
+    void sync(List<KafkaTopic> resources) {
+        byName.clear();
+        for (KafkaTopic resource : resources) {
+            put(resource);
+        }
+        synced = true;
+        LOGGER.debug("Synced cache with {} KafkaTopics", byName.size());
+    }
+
+    /**
+     * Like {@link #sync(List)}, but first pass each difference between the cache and the given resources
+     * to the given consumer, as the watch event which would have made that change.
+     * @return The number of differences.
+     */
+    int resync(List<KafkaTopic> resources, BiConsumer<Watcher.Action, KafkaTopic> changes) {
+        Map<ResourceName, KafkaTopic> removed = new HashMap<>(byName);
+        int count = 0;
+        for (KafkaTopic resource : resources) {
+            if (!resourcePredicate.test(resource)) {
+                continue;
+            }
+            KafkaTopic cached = removed.remove(new ResourceName(resource));
+            if (cached == null) {
+                changes.accept(Watcher.Action.ADDED, resource);
+                count++;
+            } else if (!Objects.equals(cached.getMetadata().getResourceVersion(), resource.getMetadata().getResourceVersion())) {
+                changes.accept(Watcher.Action.MODIFIED, resource);
+                count++;
+            }
+        }
+        for (KafkaTopic resource : removed.values()) {
+            changes.accept(Watcher.Action.DELETED, resource);
+            count++;
+        }
+        sync(resources);
+        return count;
+    }
+
+    /**
+     * Mark the cache as not synced, e.g. because the watch feeding it has been closed.
+     * Readers should fall back to the API server until the next {@link #sync(List)}.
+     */
+    void invalidate() {
+        synced = false;
+    }
+
+    boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Apply a watch event to the cache.
+     */
+    void update(Watcher.Action action, KafkaTopic resource) {
+        switch (action) {
+            case ADDED:
+            case MODIFIED:
+                put(resource);
+                break;
+            case DELETED:
+                remove(new ResourceName(resource));
+                break;
+            default:
+        }
+    }
+
+    /**
+     * Add or replace the given resource in the cache, unless the cache already holds a more recent version of it.
+     * Resources which don't match the predicate are removed from the cache.
+     */
+    void put(KafkaTopic resource) {
+        ResourceName name = new ResourceName(resource);
+        if (!resourcePredicate.test(resource)) {
+            byName.remove(name);
+            return;
+        }
+        byName.merge(name, resource, (current, candidate) ->
+                isOlder(candidate, current) ? current : candidate);
+    }
+
+    void remove(ResourceName name) {
+        byName.remove(name);
+    }
+
+    /**
+     * Get the cached resource with the given name, or null if there is no such resource.
+     */
+    KafkaTopic get(ResourceName name) {
+        return byName.get(name);
+    }
+
+    /**
+     * A snapshot of all the cached resources.
+     */
+    List<KafkaTopic> list() {
+        return new ArrayList<>(byName.values());
+    }
+
+    int size() {
+        return byName.size();
+    }
+
+    /**
+     * Whether {@code candidate} has a lower resourceVersion than {@code current}.
+     * ResourceVersions are supposed to be opaque, so if either can't be parsed we say it's not older.
+     */
+    private static boolean isOlder(KafkaTopic candidate, KafkaTopic current) {
+        try {
+            return Long.parseLong(candidate.getMetadata().getResourceVersion())
+                    < Long.parseLong(current.getMetadata().getResourceVersion());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
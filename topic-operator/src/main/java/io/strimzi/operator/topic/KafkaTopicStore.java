@@ -0,0 +1,341 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.strimzi.operator.topic.zk.Zk;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.I0Itec.zkclient.exception.ZkNoNodeException;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of {@link TopicStore} that stores the topic state in a compacted Kafka topic
+ * (one record per topic, keyed by topic name, with a tombstone for a deleted topic).
+ *
+ * Reads are served from a local materialized view of the store topic, which is built by
+ * {@linkplain #start(Consumer, Zk) restoring} the store topic when the operator starts,
+ * and is then kept up to date as writes are acknowledged.
+ * This relies on the operator being the only writer to the store topic, so it can't be used
+ * when the topics are {@linkplain ZkShard sharded} over several instances of the operator.
+ * Writes are asynchronous producer sends, so that the producer can batch them.
+ * Writes of the same topic are made one at a time, each after the previous one has been acknowledged,
+ * so that each write is checked against the effect of the writes before it.
+ *
+ * The first time the store is started it migrates the topics from a {@link ZkTopicStore}.
+ * Completion of the migration is recorded in the store topic, so it only ever happens once.
+ */
+class KafkaTopicStore implements TopicStore {
+
+    private final static Logger LOGGER = LogManager.getLogger(KafkaTopicStore.class);
+
+    /**
+     * The key of the record which marks the migration from ZooKeeper as done.
+     * This can't collide with a topic name, because topic names cannot contain '/'.
+     */
+    static final String MIGRATION_MARKER_KEY = ZkTopicStore.TOPICS_PATH;
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+    private final Vertx vertx;
+    private final String storeTopic;
+    private final Producer<String, byte[]> producer;
+
+    private final ConcurrentHashMap<TopicName, Topic> view = new ConcurrentHashMap<>();
+    private volatile boolean migrated = false;
+
+    // Only accessed on the vertx context.
+    private boolean ready = false;
+    private Throwable startFailure;
+    private final List<Runnable> waiting = new ArrayList<>();
+    /** The writes waiting for an earlier write of the same topic, for each topic with a write in flight. */
+    private final Map<TopicName, Queue<Runnable>> writing = new HashMap<>();
+
+    KafkaTopicStore(Vertx vertx, String storeTopic, Producer<String, byte[]> producer) {
+        this.vertx = vertx;
+        this.storeTopic = storeTopic;
+        this.producer = producer;
+    }
+
+    /**
+     * Create the compacted store topic, if it doesn't already exist.
+     */
+    static Future<Void> createStoreTopic(Vertx vertx, AdminClient adminClient, String storeTopic, short replicationFactor) {
+        Future<Void> result = Future.future();
+        Context context = vertx.getOrCreateContext();
+        NewTopic newTopic = new NewTopic(storeTopic, 1, replicationFactor)
+                .configs(Collections.singletonMap(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT));
+        adminClient.createTopics(Collections.singleton(newTopic)).all().whenComplete((ignored, error) ->
+            context.runOnContext(v -> {
+                if (error == null || error instanceof TopicExistsException) {
+                    result.complete();
+                } else {
+                    result.fail(error);
+                }
+            }));
+        return result;
+    }
+
+    /**
+     * Restore the materialized view by consuming the store topic from the beginning to its current end,
+     * then (if that hasn't already happened) migrate the topics stored in ZooKeeper.
+     * Operations on this store are deferred until this has finished.
+     * @param consumer The consumer to use for restoring the view. It is closed by this method.
+     * @param zk The ZooKeeper client to migrate topics from, or null to not migrate.
+     * @return A future which completes when the store is ready.
+     */
+    Future<Void> start(Consumer<String, byte[]> consumer, Zk zk) {
+        Future<Void> restored = Future.future();
+        vertx.executeBlocking(future -> {
+            try {
+                restore(consumer);
+                future.complete();
+            } catch (Throwable t) {
+                future.fail(t);
+            } finally {
+                consumer.close();
+            }
+        }, restored);
+        Future<Void> result = restored.compose(ignored -> {
+            LOGGER.info("Restored {} topics from store topic {}", view.size(), storeTopic);
+            if (migrated || zk == null) {
+                return Future.succeededFuture();
+            }
+            return migrateFrom(zk);
+        });
+        Future<Void> started = Future.future();
+        result.setHandler(ar -> {
+            if (ar.failed()) {
+                LOGGER.error("Error starting topic store on {}", storeTopic, ar.cause());
+                startFailure = ar.cause();
+            }
+            ready = true;
+            for (Runnable op : waiting) {
+                op.run();
+            }
+            waiting.clear();
+            started.handle(ar);
+        });
+        return started;
+    }
+
+    private void restore(Consumer<String, byte[]> consumer) {
+        List<PartitionInfo> partitionInfos = consumer.partitionsFor(storeTopic);
+        if (partitionInfos == null || partitionInfos.isEmpty()) {
+            throw new OperatorException("Store topic " + storeTopic + " does not exist");
+        }
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (PartitionInfo partitionInfo : partitionInfos) {
+            partitions.add(new TopicPartition(storeTopic, partitionInfo.partition()));
+        }
+        consumer.assign(partitions);
+        consumer.seekToBeginning(partitions);
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        while (!reachedEnd(consumer, endOffsets)) {
+            for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                apply(record.key(), record.value());
+            }
+        }
+    }
+
+    private static boolean reachedEnd(Consumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            if (consumer.position(entry.getKey()) < entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void apply(String key, byte[] value) {
+        if (MIGRATION_MARKER_KEY.equals(key)) {
+            migrated = value != null;
+        } else if (value == null) {
+            view.remove(new TopicName(key));
+        } else {
+            view.put(new TopicName(key), TopicSerialization.fromJson(value));
+        }
+    }
+
+    /**
+     * Copy the topics in the ZooKeeper topic store which aren't already in this store,
+     * then record that the migration has happened.
+     * The topics are left in ZooKeeper.
+     */
+    private Future<Void> migrateFrom(Zk zk) {
+        LOGGER.info("Migrating topics from {} to store topic {}", ZkTopicStore.TOPICS_PATH, storeTopic);
+        Future<List<String>> children = Future.future();
+        zk.children(ZkTopicStore.TOPICS_PATH, ar -> {
+            if (ar.failed() && ar.cause() instanceof ZkNoNodeException) {
+                children.complete(Collections.emptyList());
+            } else {
+                children.handle(ar);
+            }
+        });
+        return children.compose(names -> {
+            List<Future> futures = new ArrayList<>(names.size());
+            for (String name : names) {
+                Future<Void> migratedTopic = Future.future();
+                zk.getData(ZkTopicStore.TOPICS_PATH + "/" + name, ar -> {
+                    TopicName topicName = new TopicName(name);
+                    if (ar.failed()) {
+                        migratedTopic.fail(ar.cause());
+                    } else if (view.containsKey(topicName)) {
+                        migratedTopic.complete();
+                    } else {
+                        Topic topic = TopicSerialization.fromJson(ar.result());
+                        send(name, ar.result(), () -> view.putIfAbsent(topicName, topic), migratedTopic);
+                    }
+                });
+                futures.add(migratedTopic);
+            }
+            return CompositeFuture.all(futures).map(names.size());
+        }).compose(count -> {
+            Future<Void> marked = Future.future();
+            byte[] marker = Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8);
+            send(MIGRATION_MARKER_KEY, marker, () -> migrated = true, marked);
+            return marked.map(ignored -> {
+                LOGGER.info("Migrated {} topics from {} to store topic {}", count, ZkTopicStore.TOPICS_PATH, storeTopic);
+                return null;
+            });
+        });
+    }
+
+    /**
+     * Send the given record, running the given {@code onAck} then the given handler on the context
+     * once the send has been acknowledged.
+     */
+    private void send(String key, byte[] value, Runnable onAck, Handler<AsyncResult<Void>> handler) {
+        Context context = vertx.getOrCreateContext();
+        try {
+            producer.send(new ProducerRecord<>(storeTopic, key, value), (metadata, exception) ->
+                context.runOnContext(v -> {
+                    if (exception != null) {
+                        handler.handle(Future.failedFuture(exception));
+                    } else {
+                        onAck.run();
+                        handler.handle(Future.succeededFuture());
+                    }
+                }));
+        } catch (RuntimeException e) {
+            handler.handle(Future.failedFuture(e));
+        }
+    }
+
+    /**
+     * Run the given operation once the store has started, or fail the given handler if it couldn't be started.
+     */
+    private <T> void whenReady(Runnable op, Handler<AsyncResult<T>> handler) {
+        if (!ready) {
+            waiting.add(() -> whenReady(op, handler));
+        } else if (startFailure != null) {
+            handler.handle(Future.failedFuture(startFailure));
+        } else {
+            op.run();
+        }
+    }
+
+    @Override
+    public void read(TopicName name, Handler<AsyncResult<Topic>> handler) {
+        whenReady(() -> handler.handle(Future.succeededFuture(view.get(name))), handler);
+    }
+
+    @Override
+    public void list(Handler<AsyncResult<List<TopicName>>> handler) {
+        whenReady(() -> handler.handle(Future.succeededFuture(new ArrayList<>(view.keySet()))), handler);
+    }
+
+    /**
+     * Run the given write of the given topic once the store has started
+     * and any earlier writes of the same topic have completed.
+     */
+    private void write(TopicName name, Handler<Handler<AsyncResult<Void>>> op, Handler<AsyncResult<Void>> handler) {
+        whenReady(() -> {
+            Runnable write = () -> op.handle(ar -> {
+                handler.handle(ar);
+                Runnable next = writing.get(name).poll();
+                if (next != null) {
+                    next.run();
+                } else {
+                    writing.remove(name);
+                }
+            });
+            Queue<Runnable> queue = writing.get(name);
+            if (queue != null) {
+                queue.add(write);
+            } else {
+                writing.put(name, new ArrayDeque<>());
+                write.run();
+            }
+        }, handler);
+    }
+
+    @Override
+    public void create(Topic topic, Handler<AsyncResult<Void>> handler) {
+        TopicName name = topic.getTopicName();
+        write(name, done -> {
+            if (view.containsKey(name)) {
+                done.handle(Future.failedFuture(new EntityExistsException()));
+            } else {
+                send(name.toString(), TopicSerialization.toJson(topic), () -> view.put(name, topic), done);
+            }
+        }, handler);
+    }
+
+    @Override
+    public void update(Topic topic, Handler<AsyncResult<Void>> handler) {
+        TopicName name = topic.getTopicName();
+        write(name, done -> {
+            if (!view.containsKey(name)) {
+                done.handle(Future.failedFuture(new NoSuchEntityExistsException()));
+            } else {
+                send(name.toString(), TopicSerialization.toJson(topic), () -> view.put(name, topic), done);
+            }
+        }, handler);
+    }
+
+    @Override
+    public void delete(TopicName name, Handler<AsyncResult<Void>> handler) {
+        write(name, done -> {
+            if (!view.containsKey(name)) {
+                done.handle(Future.failedFuture(new NoSuchEntityExistsException()));
+            } else {
+                send(name.toString(), null, () -> view.remove(name), done);
+            }
+        }, handler);
+    }
+
+    /**
+     * Flush any unsent writes and close the producer.
+     */
+    void close() {
+        producer.close();
+    }
+}
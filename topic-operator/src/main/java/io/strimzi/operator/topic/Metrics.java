@@ -0,0 +1,16 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.strimzi.operator.common.MetricsRegistry;
+
+/**
+ * The topic operator's metrics.
+ */
+public class Metrics extends MetricsRegistry {
+
+    /** The prefix of the names of all the operator's metrics. */
+    static final String PREFIX = "strimzi_topic_operator_";
+}
@@ -4,41 +4,39 @@
  */
 package io.strimzi.operator.topic;
 
-import com.fasterxml.jackson.core.JsonEncoding;
-import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.core.JsonGenerator;
-import io.strimzi.operator.common.process.ProcessHelper;
+import io.strimzi.operator.topic.zk.AclBuilder;
+import io.strimzi.operator.topic.zk.Zk;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import org.I0Itec.zkclient.exception.ZkNoNodeException;
+import org.I0Itec.zkclient.exception.ZkNodeExistsException;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.NewPartitions;
 import org.apache.kafka.clients.admin.NewTopic;
-import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.clients.admin.TopicDescription;
 import org.apache.kafka.common.Node;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Stat;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import static java.util.Arrays.asList;
 
 /**
  * An implementation of {@link Kafka} which leave partition assignment decisions to the Kafka operator.
@@ -47,307 +45,270 @@ import java.util.regex.Pattern;
  */
 public class OperatorAssignedKafkaImpl extends BaseKafkaImpl {
 
-    private static final Pattern REASSIGN_FAILED = Pattern.compile("Reassignment of partition .* failed");
-    private static final Pattern REASSIGN_COMPLETE = Pattern.compile("Reassignment of partition .* completed successfully");
-    private static final Pattern REASSIGN_INPROGRESS = Pattern.compile("Reassignment of partition .* is still in progress");
+    private static final String CONFIG_CHANGE_PATH = "/config/changes/config_change_";
 
     private final static Logger LOGGER = LogManager.getLogger(OperatorAssignedKafkaImpl.class);
     private final Config config;
+    private final Zk zk;
+    private final List<ACL> acl;
+    private final AdminClientBatcher<NewTopic> createTopicBatcher;
+    private final AdminClientBatcher<NewPartitions> increasePartitionsBatcher;
+
+    public OperatorAssignedKafkaImpl(AdminClient adminClient, Vertx vertx, Config config, Zk zk) {
+        this(adminClient, vertx, config, zk, new Metrics());
+    }
 
-    public OperatorAssignedKafkaImpl(AdminClient adminClient, Vertx vertx, Config config) {
-        super(adminClient, vertx);
+    public OperatorAssignedKafkaImpl(AdminClient adminClient, Vertx vertx, Config config, Zk zk, Metrics metrics) {
+        super(adminClient, vertx, metrics, config.get(Config.KAFKA_ADMIN_BATCH_MS));
         this.config = config;
+        this.zk = zk;
+        this.acl = new AclBuilder().setWorld(AclBuilder.Permission.values()).build();
+        this.createTopicBatcher = batcher("createTopic",
+            newTopics -> adminClient.createTopics(newTopics.values()).values());
+        this.increasePartitionsBatcher = batcher("increasePartitions",
+            newPartitions -> adminClient.createPartitions(newPartitions).values());
     }
 
+    /**
+     * Increase the number of partitions of a topic via the Kafka AdminClient API, calling the given handler
+     * (in a different thread) with the result.
+     * Increases made at about the same time are sent in a single request.
+     */
     @Override
     public void increasePartitions(Topic topic, Handler<AsyncResult<Void>> handler) {
         final NewPartitions newPartitions = NewPartitions.increaseTo(topic.getNumPartitions());
-        final Map<String, NewPartitions> request = Collections.singletonMap(topic.getTopicName().toString(), newPartitions);
-        KafkaFuture<Void> future = adminClient.createPartitions(request).values().get(topic.getTopicName().toString());
-        queueWork(new UniWork<>("increasePartitions", future, handler));
+        increasePartitionsBatcher.add(topic.getTopicName().toString(), newPartitions, handler);
     }
 
     /**
      * Create a new topic via the Kafka AdminClient API, calling the given handler
      * (in a different thread) with the result.
+     * Topics created at about the same time are created in a single request.
      */
     @Override
     public void createTopic(Topic topic, Handler<AsyncResult<Void>> handler) {
         NewTopic newTopic = TopicSerialization.toNewTopic(topic, null);
 
         LOGGER.debug("Creating topic {}", newTopic);
-        KafkaFuture<Void> future = adminClient.createTopics(
-                Collections.singleton(newTopic)).values().get(newTopic.name());
-        queueWork(new UniWork<>("createTopic", future, handler));
+        createTopicBatcher.add(newTopic.name(), newTopic, handler);
     }
 
+    /**
+     * Change the replication factor of the given topic by reassigning its partitions.
+     * The reassignment is generated in-process, submitted by creating the
+     * {@code /admin/reassign_partitions} znode and is complete when the controller deletes that znode.
+     * If {@link Config#REASSIGN_THROTTLE} is set, replication of the moving partitions is throttled
+     * for the duration of the reassignment.
+     * The result fails with a {@link TransientOperatorException} if the reassignment doesn't complete
+     * within {@link Config#REASSIGN_TIMEOUT_MS}, in which case the throttles are still removed.
+     */
     @Override
     public void changeReplicationFactor(Topic topic, Handler<AsyncResult<Void>> handler) {
 
         LOGGER.info("Changing replication factor of topic {} to {}", topic.getTopicName(), topic.getNumReplicas());
 
-        final String zookeeper = config.get(Config.ZOOKEEPER_CONNECT);
-        Future<File> generateFuture = Future.future();
+        final Long throttle = config.get(Config.REASSIGN_THROTTLE);
+        final boolean throttled = throttle != null && throttle != Long.MAX_VALUE;
 
-        // generate a reassignment
-        vertx.executeBlocking(fut -> {
-            try {
-                LOGGER.debug("Generating reassignment json for topic {}", topic.getTopicName());
-                String reassignment = generateReassignment(topic, zookeeper);
-                LOGGER.debug("Reassignment json for topic {}: {}", topic.getTopicName(), reassignment);
-                File reassignmentJsonFile = ProcessHelper.createTmpFile("-reassignment.json");
-                try (Writer w = new OutputStreamWriter(new FileOutputStream(reassignmentJsonFile), StandardCharsets.UTF_8)) {
-                    w.write(reassignment);
-                }
-                fut.complete(reassignmentJsonFile);
-            } catch (Exception e) {
-                fut.fail(e);
+        generateReassignment(topic).compose(reassignment -> {
+            if (!reassignment.isChange()) {
+                LOGGER.info("Topic {} already has replication factor {}", topic.getTopicName(), topic.getNumReplicas());
+                return Future.<Void>succeededFuture();
             }
-        },
-            generateFuture.completer());
-
-        Future<File> executeFuture = Future.future();
-
-        generateFuture.compose(reassignmentJsonFile -> {
-            // execute the reassignment
-            vertx.executeBlocking(fut -> {
-                final Long throttle = config.get(Config.REASSIGN_THROTTLE);
-                try {
-                    LOGGER.debug("Starting reassignment for topic {} with throttle {}", topic.getTopicName(), throttle);
-                    executeReassignment(reassignmentJsonFile, zookeeper, throttle);
-                    fut.complete(reassignmentJsonFile);
-                } catch (Exception e) {
-                    fut.fail(e);
-                }
-            },
-                executeFuture.completer());
-        }, executeFuture);
-
-        Future<Void> periodicFuture = Future.future();
-        Future<Void> reassignmentFinishedFuture = Future.future();
-
-        executeFuture.compose(reassignmentJsonFile -> {
-            // Poll repeatedly, calling --verify to remove the throttle
-            long timeout = 10_000;
-            long first = System.currentTimeMillis();
-            final Long periodMs = config.get(Config.REASSIGN_VERIFY_INTERVAL_MS);
-            LOGGER.debug("Verifying reassignment every {} seconds", TimeUnit.SECONDS.convert(periodMs, TimeUnit.MILLISECONDS));
-            vertx.setPeriodic(periodMs, timerId ->
-                vertx.<Boolean>executeBlocking(fut -> {
-                    LOGGER.debug(String.format("Verifying reassignment for topic {} (timer id=%s)", topic.getTopicName(), timerId));
-
-                    final Long throttle = config.get(Config.REASSIGN_THROTTLE);
-                    final boolean reassignmentComplete;
-                    try {
-                        reassignmentComplete = verifyReassignment(reassignmentJsonFile, zookeeper, throttle);
-                    } catch (Exception e) {
-                        fut.fail(e);
-                        return;
-                    }
-                    fut.complete(reassignmentComplete);
-                },
-                    ar -> {
-                        if (ar.succeeded()) {
-                            if (ar.result()) {
-                                LOGGER.info("Reassignment complete");
-                                ProcessHelper.delete(reassignmentJsonFile);
-                                LOGGER.debug("Cancelling timer " + timerId);
-                                vertx.cancelTimer(timerId);
-                                reassignmentFinishedFuture.complete();
-                            } else if (System.currentTimeMillis() - first > timeout) {
-                                LOGGER.error("Reassignment timed out");
-                                ProcessHelper.delete(reassignmentJsonFile);
-                                LOGGER.debug("Cancelling timer " + timerId);
-                                vertx.cancelTimer(timerId);
-                                reassignmentFinishedFuture.fail("Timeout");
-                            }
-                        } else {
-                            //reassignmentFinishedFuture.fail(ar.cause());
-                            LOGGER.error("Error while verifying reassignment", ar.cause());
-                        }
-                    }
-                )
-            );
-            periodicFuture.complete();
-        },
-            periodicFuture);
-
-
-        CompositeFuture.all(periodicFuture, reassignmentFinishedFuture).map((Void) null).setHandler(handler);
-
-        // TODO The algorithm should really be more like this:
-        // 1. Use the cmdline tool to generate an assignment
-        // 2. Set the throttles
-        // 3. Update the reassign_partitions znode
-        // 4. Watch for changes or deletion of reassign_partitions
-        //    a. Update the throttles
-        //    b. complete the handler
-        // Doing this is much better because means we don't have to batch reassignments
-        // and also means we need less state for reassignment
-        // though we aren't relieved of the statefullness wrt removing throttles :-(
+            LOGGER.debug("Reassignment for topic {}: {}", topic.getTopicName(), reassignment);
+            if (!throttled) {
+                return executeReassignment(reassignment)
+                    .compose(ignored -> awaitReassignment(reassignment));
+            }
+            Set<Integer> throttledBrokers = ConcurrentHashMap.newKeySet();
+            return setThrottles(reassignment, throttle, throttledBrokers)
+                .compose(ignored -> executeReassignment(reassignment))
+                .compose(ignored -> awaitReassignment(reassignment))
+                .recover(error -> {
+                    // Don't leave the throttles behind if the reassignment couldn't be started or didn't complete
+                    Future<Void> result = Future.future();
+                    removeThrottles(reassignment, throttledBrokers).setHandler(ar -> result.fail(error));
+                    return result;
+                })
+                .compose(ignored -> removeThrottles(reassignment, throttledBrokers));
+        }).setHandler(handler);
     }
 
-
-
-    private static class VerifyLineParser implements Function<String, Void> {
-        int complete = 0;
-        int inProgress = 0;
-
-        @Override
-        public Void apply(String line) {
-            if (line.contains("Partitions reassignment failed due to")
-                    || REASSIGN_FAILED.matcher(line).matches()) {
-                throw new OperatorException("Reassigment failed: " + line);
-            } else if (REASSIGN_COMPLETE.matcher(line).matches()) {
-                complete++;
-            } else if (REASSIGN_INPROGRESS.matcher(line).matches()) {
-                inProgress++;
-            }
-            return null;
-        }
+    /**
+     * Generate a reassignment of the partitions of the given topic which gives it the topic's replication factor.
+     */
+    protected Future<PartitionReassignment> generateReassignment(Topic topic) {
+        // protected access only for testing purposes
+        String topicName = topic.getTopicName().toString();
+        Future<Collection<Node>> brokers = mapFuture("describeCluster", adminClient.describeCluster().nodes());
+        Future<TopicDescription> description = mapFuture("describeTopics",
+                adminClient.describeTopics(Collections.singleton(topicName)).values().get(topicName));
+        return CompositeFuture.all(brokers, description).map(ignored ->
+            PartitionReassignment.propose(topicName,
+                PartitionReassignment.assignment(description.result()),
+                brokers.result(),
+                topic.getNumReplicas()));
     }
 
-    private <T> T forEachLineStdout(ProcessHelper.ProcessResult pr, Function<String, T> fn) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
-                // Use platform default charset, on assumption that
-                // the ReassignPartitionsCommand will output in that
-                new FileInputStream(pr.standardOutput()), Charset.defaultCharset()))) {
-            String line = reader.readLine();
-            while (line != null) {
-                LOGGER.debug("Process {}: stdout: {}", pr, line);
-                T result = fn.apply(line);
-                if (result != null) {
-                    return result;
-                }
-                line = reader.readLine();
+    /**
+     * Submit the given reassignment to the controller.
+     * This fails with a {@link TransientOperatorException} if another reassignment is already running,
+     * since the controller only supports one at a time.
+     */
+    private Future<Void> executeReassignment(PartitionReassignment reassignment) {
+        Future<Void> result = Future.future();
+        zk.create(PartitionReassignment.REASSIGN_PARTITIONS_PATH, reassignment.toJson(), acl, CreateMode.PERSISTENT, ar -> {
+            if (ar.succeeded()) {
+                LOGGER.info("Started reassignment of topic {}", reassignment.topic());
+                result.complete();
+            } else if (ar.cause() instanceof ZkNodeExistsException) {
+                result.fail(new TransientOperatorException("Reassignment of topic " + reassignment.topic()
+                        + " failed: There is an existing assignment running"));
+            } else {
+                result.fail(ar.cause());
             }
-            return null;
-        }
+        });
+        return result;
     }
 
-    private boolean verifyReassignment(File reassignmentJsonFile, String zookeeper, Long throttle) throws IOException, InterruptedException {
-        List<String> verifyArgs = new ArrayList<>();
-        addJavaArgs(verifyArgs);
-        // command args
-        verifyArgs.add("--zookeeper");
-        verifyArgs.add(zookeeper);
-        if (throttle != null) {
-            verifyArgs.add("--throttle");
-            verifyArgs.add(Long.toString(throttle));
-        }
-        verifyArgs.add("--reassignment-json-file");
-        verifyArgs.add(reassignmentJsonFile.toString());
-        verifyArgs.add("--verify");
-        VerifyLineParser verifyLineParser = new VerifyLineParser();
-        forEachLineStdout(ProcessHelper.executeSubprocess(verifyArgs),
-                verifyLineParser);
-        return verifyLineParser.inProgress == 0;
+    /**
+     * Wait for the controller to delete the {@code /admin/reassign_partitions} znode, which it does once
+     * all the partitions in it have been reassigned, or until {@link Config#REASSIGN_TIMEOUT_MS} has passed.
+     */
+    private Future<Void> awaitReassignment(PartitionReassignment reassignment) {
+        Future<Void> result = Future.future();
+        Future<Void> finished = Future.future();
+        Context context = vertx.getOrCreateContext();
+        String path = PartitionReassignment.REASSIGN_PARTITIONS_PATH;
+        // The watch won't tell us about progress, or about a reassignment which finished before
+        // the watch was set, so also check the znode periodically
+        long timerId = vertx.setPeriodic(config.get(Config.REASSIGN_VERIFY_INTERVAL_MS),
+            id -> checkReassignment(reassignment, finished));
+        long timeout = config.get(Config.REASSIGN_TIMEOUT_MS);
+        long timeoutId = vertx.setTimer(timeout,
+            id -> finished.tryFail(new TransientOperatorException("Reassignment of topic " + reassignment.topic()
+                    + " did not complete within " + timeout + "ms")));
+        finished.setHandler(ar -> {
+            vertx.cancelTimer(timerId);
+            vertx.cancelTimer(timeoutId);
+            zk.unwatchDeletion(path);
+            result.handle(ar);
+        });
+        zk.watchDeletion(path, ar -> context.runOnContext(ignored -> finished.tryComplete()));
+        checkReassignment(reassignment, finished);
+        return result;
     }
 
-    private void executeReassignment(File reassignmentJsonFile, String zookeeper, Long throttle) throws IOException, InterruptedException {
-        List<String> executeArgs = new ArrayList<>();
-        addJavaArgs(executeArgs);
-        executeArgs.add("--zookeeper");
-        executeArgs.add(zookeeper);
-        if (throttle != null) {
-            executeArgs.add("--throttle");
-            executeArgs.add(Long.toString(throttle));
-        }
-        executeArgs.add("--reassignment-json-file");
-        executeArgs.add(reassignmentJsonFile.toString());
-        executeArgs.add("--execute");
-
-        if (!forEachLineStdout(ProcessHelper.executeSubprocess(executeArgs), line -> {
-            if (line.contains("Partitions reassignment failed due to")
-                    || line.contains("There is an existing assignment running")
-                    || line.contains("Failed to reassign partitions")) {
-                throw new TransientOperatorException("Reassigment failed: " + line);
-            } else if (line.contains("Successfully started reassignment of partitions.")) {
-                return true;
+    private void checkReassignment(PartitionReassignment reassignment, Future<Void> finished) {
+        zk.getData(PartitionReassignment.REASSIGN_PARTITIONS_PATH, ar -> {
+            if (ar.succeeded()) {
+                int remaining = reassignment.remainingPartitions(ar.result());
+                if (remaining == 0) {
+                    finished.tryComplete();
+                } else {
+                    LOGGER.debug("Reassignment of {} partitions of topic {} is still in progress", remaining, reassignment.topic());
+                }
+            } else if (ar.cause() instanceof ZkNoNodeException) {
+                finished.tryComplete();
             } else {
-                return null;
+                LOGGER.warn("Error while verifying reassignment of topic {}", reassignment.topic(), ar.cause());
             }
-        })) {
-            throw new TransientOperatorException("Reassignment execution neither failed nor finished");
-        }
+        });
     }
 
-    private String generateReassignment(Topic topic, String zookeeper) throws IOException, InterruptedException, ExecutionException {
-        JsonFactory factory = new JsonFactory();
-
-        File topicsToMove = ProcessHelper.createTmpFile("-topics-to-move.json");
-
-        try (JsonGenerator gen = factory.createGenerator(topicsToMove, JsonEncoding.UTF8)) {
-            gen.writeStartObject();
-            gen.writeNumberField("version", 1);
-            gen.writeArrayFieldStart("topics");
-            gen.writeStartObject();
-            gen.writeStringField("topic", topic.getTopicName().toString());
-            gen.writeEndObject();
-            gen.writeEndArray();
-            gen.writeEndObject();
-            gen.flush();
+    /**
+     * Throttle replication of the moving partitions of the given reassignment.
+     * The throttled rate is only set on brokers which don't already have one,
+     * and those brokers are added to the given {@code throttledBrokers}.
+     */
+    private Future<Void> setThrottles(PartitionReassignment reassignment, long throttle, Set<Integer> throttledBrokers) {
+        LOGGER.debug("Throttling reassignment of topic {} to {} bytes/s", reassignment.topic(), throttle);
+        Map<String, String> rates = new HashMap<>();
+        rates.put(PartitionReassignment.LEADER_THROTTLED_RATE, Long.toString(throttle));
+        rates.put(PartitionReassignment.FOLLOWER_THROTTLED_RATE, Long.toString(throttle));
+        List<Future> futures = new ArrayList<>();
+        futures.add(changeEntityConfig("topics", reassignment.topic(), entityConfig -> {
+            entityConfig.putAll(reassignment.topicThrottles());
+            return true;
+        }));
+        for (Integer broker : reassignment.involvedBrokers()) {
+            futures.add(changeEntityConfig("brokers", broker.toString(), entityConfig -> {
+                if (entityConfig.containsKey(PartitionReassignment.LEADER_THROTTLED_RATE)
+                        || entityConfig.containsKey(PartitionReassignment.FOLLOWER_THROTTLED_RATE)) {
+                    // Someone else has throttled this broker, so leave their rates as they are
+                    LOGGER.debug("Broker {} already has a throttled rate, not changing it", broker);
+                    return false;
+                }
+                entityConfig.putAll(rates);
+                throttledBrokers.add(broker);
+                return true;
+            }));
         }
-        List<String> executeArgs = new ArrayList<>();
-        addJavaArgs(executeArgs);
-        executeArgs.add("--zookeeper");
-        executeArgs.add(zookeeper);
-        executeArgs.add("--topics-to-move-json-file");
-        executeArgs.add(topicsToMove.toString());
-        executeArgs.add("--broker-list");
-        executeArgs.add(brokerList());
-        executeArgs.add("--generate");
-
-        final ProcessHelper.ProcessResult processResult = ProcessHelper.executeSubprocess(executeArgs);
-        ProcessHelper.delete(topicsToMove);
-        String json = forEachLineStdout(processResult, new ReassignmentLineParser());
-        return json;
-
+        return CompositeFuture.all(futures).map((Void) null);
     }
 
-    /** Use the AdminClient to get a comma-separated list of the broker ids in the Kafka cluster */
-    private String brokerList() throws InterruptedException, ExecutionException {
-        StringBuilder sb = new StringBuilder();
-        for (Node node: adminClient.describeCluster().nodes().get()) {
-            if (sb.length() != 0) {
-                sb.append(",");
-            }
-            sb.append(node.id());
+    /**
+     * Remove the throttles set by {@link #setThrottles(PartitionReassignment, long, Set)}:
+     * The topic's throttled replicas and the throttled rates of the given {@code throttledBrokers}.
+     */
+    private Future<Void> removeThrottles(PartitionReassignment reassignment, Set<Integer> throttledBrokers) {
+        LOGGER.debug("Removing throttles for reassignment of topic {}", reassignment.topic());
+        Set<String> rates = new HashSet<>(asList(PartitionReassignment.LEADER_THROTTLED_RATE, PartitionReassignment.FOLLOWER_THROTTLED_RATE));
+        List<Future> futures = new ArrayList<>();
+        futures.add(changeEntityConfig("topics", reassignment.topic(), entityConfig -> {
+            entityConfig.keySet().removeAll(reassignment.topicThrottles().keySet());
+            return true;
+        }));
+        for (Integer broker : throttledBrokers) {
+            futures.add(changeEntityConfig("brokers", broker.toString(), entityConfig -> {
+                entityConfig.keySet().removeAll(rates);
+                return true;
+            }));
         }
-        return sb.toString();
+        return CompositeFuture.all(futures).map((Void) null);
     }
 
-    protected void addJavaArgs(List<String> verifyArgs) {
-        // protected access only for testing purposes
-
-        // use the same java executable that's executing this code
-        verifyArgs.add(System.getProperty("java.home") + "/bin/java");
-        // use the same classpath as we have
-        verifyArgs.add("-cp");
-        verifyArgs.add(System.getProperty("java.class.path"));
-        // main
-        verifyArgs.add("kafka.admin.ReassignPartitionsCommand");
-    }
-
-
-
-    private static class ReassignmentLineParser implements Function<String, String> {
-        boolean returnLine = false;
-
-        @Override
-        public String apply(String line) {
-            if (line.contains("Partitions reassignment failed due to")) {
-                throw new TransientOperatorException("Reassignment failed: " + line);
+    /**
+     * Change the config overrides of the given entity (a topic or a broker) in the same way as {@code kafka-configs.sh}:
+     * By updating the {@code /config/<entity-type>/<entity>} znode
+     * then creating a {@code /config/changes/config_change_} notification so that the brokers apply the change.
+     * @param change Changes the given config overrides, returning false if they should be left as they were.
+     */
+    private Future<Void> changeEntityConfig(String entityType, String entityName, Predicate<Map<String, String>> change) {
+        String path = "/config/" + entityType + "/" + entityName;
+        Stat stat = new Stat();
+        Future<Boolean> written = Future.future();
+        zk.getData(path, stat, ar -> {
+            final Map<String, String> entityConfig;
+            if (ar.succeeded()) {
+                entityConfig = PartitionReassignment.parseEntityConfig(ar.result());
+            } else if (ar.cause() instanceof ZkNoNodeException) {
+                entityConfig = new HashMap<>();
+            } else {
+                written.fail(ar.cause());
+                return;
+            }
+            if (!change.test(entityConfig)) {
+                written.complete(false);
+                return;
             }
-            if (returnLine) {
-                return line;
+            byte[] data = PartitionReassignment.entityConfigJson(entityConfig);
+            Handler<AsyncResult<Void>> handler = writeResult -> written.handle(writeResult.map(true));
+            if (ar.succeeded()) {
+                zk.setData(path, data, stat.getVersion(), handler);
+            } else {
+                zk.create(path, data, acl, CreateMode.PERSISTENT, handler);
             }
-            if (line.contains("Proposed partition reassignment configuration")) {
-                // Return the line following this one, since that's the JSON representation of the reassignment
-                returnLine = true;
+        });
+        return written.compose(changed -> {
+            Future<Void> notified = Future.future();
+            if (changed) {
+                zk.create(CONFIG_CHANGE_PATH, PartitionReassignment.configChangeJson(entityType + "/" + entityName),
+                        acl, CreateMode.PERSISTENT_SEQUENTIAL, notified);
+            } else {
+                notified.complete();
             }
-            return null;
-        }
+            return notified;
+        });
     }
 }
-
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The replica assignment of the partitions of a single topic, and the logic for changing its replication factor,
+ * in the form Kafka expects in the {@code /admin/reassign_partitions} znode.
+ * This does in-process what {@code kafka-reassign-partitions.sh --generate} would do.
+ */
+class PartitionReassignment {
+
+    /** The znode which the Kafka controller watches for reassignments. */
+    static final String REASSIGN_PARTITIONS_PATH = "/admin/reassign_partitions";
+
+    static final String LEADER_THROTTLED_REPLICAS = "leader.replication.throttled.replicas";
+    static final String FOLLOWER_THROTTLED_REPLICAS = "follower.replication.throttled.replicas";
+    static final String LEADER_THROTTLED_RATE = "leader.replication.throttled.rate";
+    static final String FOLLOWER_THROTTLED_RATE = "follower.replication.throttled.rate";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String topic;
+    private final Map<Integer, List<Integer>> current;
+    private final Map<Integer, List<Integer>> proposed;
+
+    PartitionReassignment(String topic, Map<Integer, List<Integer>> current, Map<Integer, List<Integer>> proposed) {
+        this.topic = topic;
+        this.current = current;
+        this.proposed = proposed;
+    }
+
+    /**
+     * The replicas of each partition of the given topic, by partition number.
+     */
+    static Map<Integer, List<Integer>> assignment(TopicDescription description) {
+        Map<Integer, List<Integer>> result = new TreeMap<>();
+        for (TopicPartitionInfo partition : description.partitions()) {
+            List<Integer> replicas = new ArrayList<>(partition.replicas().size());
+            for (Node replica : partition.replicas()) {
+                replicas.add(replica.id());
+            }
+            result.put(partition.partition(), replicas);
+        }
+        return result;
+    }
+
+    /**
+     * Propose a new assignment with the given replication factor.
+     * Existing replicas are kept (in order, so the preferred leader doesn't change) where possible.
+     * When the replication factor is decreased the last replicas of each partition are dropped.
+     * When it is increased each new replica is placed on a broker which doesn't already have a replica
+     * of that partition, preferring brokers in racks not already used by the partition
+     * and then brokers with fewer replicas of this topic.
+     * @throws InvalidTopicException If there are fewer brokers than the requested replication factor.
+     */
+    static PartitionReassignment propose(String topic, Map<Integer, List<Integer>> current,
+                                         Collection<Node> brokers, int replicationFactor) {
+        if (replicationFactor > brokers.size()) {
+            throw new InvalidTopicException(null, "Cannot change replication factor of topic " + topic
+                    + " to " + replicationFactor + " with only " + brokers.size() + " brokers");
+        }
+        Map<Integer, String> racks = new TreeMap<>();
+        for (Node broker : brokers) {
+            racks.put(broker.id(), broker.rack());
+        }
+        Map<Integer, List<Integer>> proposed = new TreeMap<>();
+        Map<Integer, Integer> load = new HashMap<>();
+        for (Integer broker : racks.keySet()) {
+            load.put(broker, 0);
+        }
+        for (Map.Entry<Integer, List<Integer>> entry : current.entrySet()) {
+            List<Integer> replicas = new ArrayList<>(entry.getValue());
+            if (replicas.size() > replicationFactor) {
+                replicas = new ArrayList<>(replicas.subList(0, replicationFactor));
+            }
+            for (Integer replica : replicas) {
+                load.merge(replica, 1, Integer::sum);
+            }
+            proposed.put(entry.getKey(), replicas);
+        }
+        for (Map.Entry<Integer, List<Integer>> entry : proposed.entrySet()) {
+            List<Integer> replicas = entry.getValue();
+            while (replicas.size() < replicationFactor) {
+                Integer broker = leastLoaded(entry.getKey(), replicas, racks, load);
+                replicas.add(broker);
+                load.merge(broker, 1, Integer::sum);
+            }
+        }
+        return new PartitionReassignment(topic, current, proposed);
+    }
+
+    private static Integer leastLoaded(int partition, List<Integer> replicas, Map<Integer, String> racks, Map<Integer, Integer> load) {
+        Set<String> usedRacks = new HashSet<>();
+        for (Integer replica : replicas) {
+            String rack = racks.get(replica);
+            if (rack != null) {
+                usedRacks.add(rack);
+            }
+        }
+        Integer best = null;
+        boolean bestRackUsed = true;
+        // Break ties by starting at a different broker for each partition, so the choice is deterministic
+        // but the new replicas are spread over the brokers
+        List<Integer> ids = new ArrayList<>(racks.keySet());
+        int start = Math.floorMod(partition, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Integer id = ids.get((start + i) % ids.size());
+            if (replicas.contains(id)) {
+                continue;
+            }
+            String rack = racks.get(id);
+            boolean rackUsed = rack != null && usedRacks.contains(rack);
+            if (best == null
+                    || bestRackUsed && !rackUsed
+                    || bestRackUsed == rackUsed && load.get(id) < load.get(best)) {
+                best = id;
+                bestRackUsed = rackUsed;
+            }
+        }
+        return best;
+    }
+
+    String topic() {
+        return topic;
+    }
+
+    /** Whether the proposed assignment is different from the current one. */
+    boolean isChange() {
+        return !proposed.equals(current);
+    }
+
+    Map<Integer, List<Integer>> proposed() {
+        return proposed;
+    }
+
+    /**
+     * The JSON for the {@code /admin/reassign_partitions} znode, containing only the partitions which move.
+     */
+    byte[] toJson() {
+        List<Map<String, Object>> partitions = new ArrayList<>();
+        for (Map.Entry<Integer, List<Integer>> entry : proposed.entrySet()) {
+            if (entry.getValue().equals(current.get(entry.getKey()))) {
+                continue;
+            }
+            Map<String, Object> partition = new LinkedHashMap<>();
+            partition.put("topic", topic);
+            partition.put("partition", entry.getKey());
+            partition.put("replicas", entry.getValue());
+            partitions.add(partition);
+        }
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("version", 1);
+        root.put("partitions", partitions);
+        return toBytes(root);
+    }
+
+    /**
+     * The number of partitions of this topic which are still listed in the given JSON
+     * from the {@code /admin/reassign_partitions} znode.
+     * The controller removes each partition from the znode as its reassignment completes.
+     */
+    int remainingPartitions(byte[] json) {
+        try {
+            Map<String, Object> root = MAPPER.readValue(json, new TypeReference<Map<String, Object>>() { });
+            Object partitions = root.get("partitions");
+            int result = 0;
+            if (partitions instanceof List) {
+                for (Object partition : (List<?>) partitions) {
+                    if (partition instanceof Map && topic.equals(((Map<?, ?>) partition).get("topic"))) {
+                        result++;
+                    }
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            throw new OperatorException("Error parsing " + REASSIGN_PARTITIONS_PATH, e);
+        }
+    }
+
+    /**
+     * The topic configs which throttle replication of the moving partitions,
+     * in the same way as {@code kafka-reassign-partitions.sh --throttle}:
+     * The existing replicas are throttled as leaders and the new replicas as followers.
+     */
+    Map<String, String> topicThrottles() {
+        List<String> leaders = new ArrayList<>();
+        List<String> followers = new ArrayList<>();
+        for (Map.Entry<Integer, List<Integer>> entry : proposed.entrySet()) {
+            List<Integer> existing = current.get(entry.getKey());
+            if (entry.getValue().equals(existing)) {
+                continue;
+            }
+            for (Integer replica : existing) {
+                leaders.add(entry.getKey() + ":" + replica);
+            }
+            for (Integer replica : entry.getValue()) {
+                if (!existing.contains(replica)) {
+                    followers.add(entry.getKey() + ":" + replica);
+                }
+            }
+        }
+        Map<String, String> result = new HashMap<>();
+        result.put(LEADER_THROTTLED_REPLICAS, String.join(",", leaders));
+        result.put(FOLLOWER_THROTTLED_REPLICAS, String.join(",", followers));
+        return result;
+    }
+
+    /**
+     * The ids of the brokers hosting a current or proposed replica of a moving partition.
+     */
+    Set<Integer> involvedBrokers() {
+        Set<Integer> result = new HashSet<>();
+        for (Map.Entry<Integer, List<Integer>> entry : proposed.entrySet()) {
+            List<Integer> existing = current.get(entry.getKey());
+            if (!entry.getValue().equals(existing)) {
+                result.addAll(existing);
+                result.addAll(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse the config overrides from the JSON in a {@code /config/<entity-type>/<entity>} znode.
+     */
+    static Map<String, String> parseEntityConfig(byte[] json) {
+        if (json == null || json.length == 0) {
+            return new HashMap<>();
+        }
+        try {
+            Map<String, Object> root = MAPPER.readValue(json, new TypeReference<Map<String, Object>>() { });
+            Object config = root.get("config");
+            Map<String, String> result = new HashMap<>();
+            if (config instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) config).entrySet()) {
+                    result.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            throw new OperatorException("Error parsing entity config", e);
+        }
+    }
+
+    /**
+     * The JSON for a {@code /config/<entity-type>/<entity>} znode with the given config overrides.
+     */
+    static byte[] entityConfigJson(Map<String, String> config) {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("version", 1);
+        root.put("config", config);
+        return toBytes(root);
+    }
+
+    /**
+     * The JSON for a {@code /config/changes/config_change_} notification that the config
+     * of the given entity (e.g. {@code topics/my-topic}) has changed.
+     */
+    static byte[] configChangeJson(String entityPath) {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("version", 2);
+        root.put("entity_path", entityPath);
+        return toBytes(root);
+    }
+
+    private static byte[] toBytes(Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new OperatorException("Error generating JSON", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionReassignment(topic=" + topic + ", current=" + current + ", proposed=" + proposed + ")";
+    }
+}
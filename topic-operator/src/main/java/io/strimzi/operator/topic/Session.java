@@ -6,10 +6,6 @@ package io.strimzi.operator.topic;
 
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.Watch;
-import io.strimzi.api.kafka.Crds;
-import io.strimzi.api.kafka.KafkaTopicList;
-import io.strimzi.api.kafka.model.DoneableKafkaTopic;
-import io.strimzi.api.kafka.model.KafkaTopic;
 import io.strimzi.operator.topic.zk.Zk;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Future;
@@ -17,11 +13,20 @@ import io.vertx.core.Handler;
 import io.vertx.core.http.HttpServer;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.config.SslConfigs;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Properties;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 public class Session extends AbstractVerticle {
@@ -35,6 +40,7 @@ public class Session extends AbstractVerticle {
 
     OperatorAssignedKafkaImpl kafka;
     AdminClient adminClient;
+    KafkaTopicStore kafkaTopicStore;
     K8sImpl k8s;
     TopicOperator topicOperator;
     Watch topicWatch;
@@ -44,8 +50,12 @@ public class Session extends AbstractVerticle {
     /** The id of the periodic reconciliation timer. This is null during a periodic reconciliation. */
     private volatile Long timerId;
     private volatile boolean stopped = false;
+    /** Whether this instance couldn't join the shard, in which case it owns no topics, and so is unhealthy. */
+    private volatile boolean shardFailed = false;
     private Zk zk;
     private volatile HttpServer healthServer;
+    private ZkShard shard;
+    private final Metrics metrics = new Metrics();
 
     public Session(KubernetesClient kubeClient, Config config) {
         this.kubeClient = kubeClient;
@@ -90,6 +100,10 @@ public class Session extends AbstractVerticle {
             }
             LOGGER.debug("Stopping kafka {}", kafka);
             kafka.stop();
+            if (kafkaTopicStore != null) {
+                LOGGER.debug("Closing topic store {}", kafkaTopicStore);
+                kafkaTopicStore.close();
+            }
 
             LOGGER.debug("Disconnecting from zookeeper {}", zk);
             zk.disconnect(zkResult -> {
@@ -110,6 +124,91 @@ public class Session extends AbstractVerticle {
         }, stopFuture);
     }
 
+    /**
+     * @return The shard of the topics which this instance is responsible for, or null if sharding is not enabled.
+     */
+    private ZkShard createShard() {
+        if (!Boolean.valueOf(config.get(Config.SHARDING_ENABLED))) {
+            return null;
+        }
+        String memberId = config.get(Config.SHARD_MEMBER_ID);
+        if (memberId.isEmpty()) {
+            memberId = System.getenv("HOSTNAME");
+        }
+        if (memberId == null || memberId.isEmpty()) {
+            memberId = UUID.randomUUID().toString();
+        }
+        // Keep trying to register for long enough for the znode of a previous instance with this id to have expired
+        ZkShard shard = new ZkShard(vertx, memberId, config.get(Config.SHARD_HANDOVER_MS),
+                2 * config.get(Config.ZOOKEEPER_SESSION_TIMEOUT_MS));
+        metrics.gauge(Metrics.PREFIX + "shard_members",
+                "The number of instances of the operator the topics are sharded over", shard::members);
+        return shard;
+    }
+
+    private static boolean isAsyncZkClient(String client) {
+        switch (client) {
+            case "zkclient":
+                return false;
+            case "async":
+                return true;
+            default:
+                throw new IllegalArgumentException("Unknown " + Config.TC_ZK_CLIENT + ": " + client);
+        }
+    }
+
+    private TopicStore createTopicStore(Properties kafkaClientProps) {
+        String store = config.get(Config.TOPIC_STORE);
+        switch (store) {
+            case "zookeeper":
+                CachingTopicStore cachingTopicStore = new CachingTopicStore(new ZkTopicStore(zk, metrics));
+                metrics.gauge(Metrics.PREFIX + "topic_store_cached_topics",
+                        "The number of topics cached in memory by the topic store", cachingTopicStore::size);
+                cachingTopicStore.warmUp().setHandler(ar -> {
+                    if (ar.succeeded()) {
+                        LOGGER.info("Read {} topics from the topic store", ar.result());
+                    } else {
+                        LOGGER.warn("Error reading the topic store, topics will be read as they are needed", ar.cause());
+                    }
+                });
+                return cachingTopicStore;
+            case "kafka":
+                if (Boolean.valueOf(config.get(Config.SHARDING_ENABLED))) {
+                    // Each instance's view of the store topic is only kept up to date with its own writes
+                    throw new IllegalArgumentException(Config.TC_TOPIC_STORE + "=kafka cannot be used with "
+                            + Config.TC_SHARDING_ENABLED + "=true");
+                }
+                String storeTopic = config.get(Config.TOPIC_STORE_TOPIC);
+
+                Properties producerProps = new Properties();
+                producerProps.putAll(kafkaClientProps);
+                producerProps.setProperty(ProducerConfig.ACKS_CONFIG, "all");
+                producerProps.setProperty(ProducerConfig.LINGER_MS_CONFIG, "5");
+                producerProps.setProperty(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "true");
+                producerProps.setProperty(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+                producerProps.setProperty(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
+
+                Properties consumerProps = new Properties();
+                consumerProps.putAll(kafkaClientProps);
+                consumerProps.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+                consumerProps.setProperty(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+                consumerProps.setProperty(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+
+                this.kafkaTopicStore = new KafkaTopicStore(vertx, storeTopic, new KafkaProducer<>(producerProps));
+                KafkaTopicStore.createStoreTopic(vertx, adminClient, storeTopic,
+                        config.get(Config.TOPIC_STORE_REPLICATION_FACTOR).shortValue()).setHandler(ar -> {
+                            if (ar.failed()) {
+                                // It might exist anyway, in which case we can still use it
+                                LOGGER.warn("Error creating store topic {}", storeTopic, ar.cause());
+                            }
+                            kafkaTopicStore.start(new KafkaConsumer<>(consumerProps), zk);
+                        });
+                return kafkaTopicStore;
+            default:
+                throw new IllegalArgumentException("Unknown " + Config.TC_TOPIC_STORE + ": " + store);
+        }
+    }
+
     @Override
     public void start() {
         LOGGER.info("Starting");
@@ -127,37 +226,69 @@ public class Session extends AbstractVerticle {
 
         this.adminClient = AdminClient.create(adminClientProps);
         LOGGER.debug("Using AdminClient {}", adminClient);
-        this.kafka = new OperatorAssignedKafkaImpl(adminClient, vertx, config);
+        this.zk = Zk.create(vertx, config.get(Config.ZOOKEEPER_CONNECT),
+                this.config.get(Config.ZOOKEEPER_SESSION_TIMEOUT_MS).intValue(),
+                this.config.get(Config.ZOOKEEPER_CONNECTION_TIMEOUT_MS).intValue(),
+                isAsyncZkClient(config.get(Config.ZOOKEEPER_CLIENT)));
+        LOGGER.debug("Using ZooKeeper {}", zk);
+
+        this.kafka = new OperatorAssignedKafkaImpl(adminClient, vertx, config, zk, metrics);
         LOGGER.debug("Using Kafka {}", kafka);
         LabelPredicate resourcePredicate = config.get(Config.LABELS);
 
         String namespace = config.get(Config.NAMESPACE);
         LOGGER.debug("Using namespace {}", namespace);
-        this.k8s = new K8sImpl(vertx, kubeClient, resourcePredicate, namespace);
+        this.k8s = new K8sImpl(vertx, kubeClient, resourcePredicate, namespace, metrics);
         LOGGER.debug("Using k8s {}", k8s);
 
-        this.zk = Zk.create(vertx, config.get(Config.ZOOKEEPER_CONNECT),
-                this.config.get(Config.ZOOKEEPER_SESSION_TIMEOUT_MS).intValue(),
-                this.config.get(Config.ZOOKEEPER_CONNECTION_TIMEOUT_MS).intValue());
-        LOGGER.debug("Using ZooKeeper {}", zk);
-
-        ZkTopicStore topicStore = new ZkTopicStore(zk);
+        TopicStore topicStore = createTopicStore(adminClientProps);
         LOGGER.debug("Using TopicStore {}", topicStore);
 
-        this.topicOperator = new TopicOperator(vertx, kafka, k8s, topicStore, resourcePredicate, namespace, config);
+        this.shard = createShard();
+        LOGGER.debug("Using Shard {}", shard);
+
+        CircuitBreaker<TopicName> metadataBreaker = new CircuitBreaker<>(config.get(Config.TOPIC_METADATA_BREAKER_THRESHOLD),
+                config.get(Config.TOPIC_METADATA_BREAKER_COOL_DOWN_MS), metrics);
+        this.topicOperator = new TopicOperator(vertx, kafka, k8s, topicStore, resourcePredicate, namespace, config, metrics,
+                shard != null ? shard : Shard.ALL, metadataBreaker);
         LOGGER.debug("Using Operator {}", topicOperator);
 
-        this.topicConfigsWatcher = new TopicConfigsWatcher(topicOperator);
+        String watchMode = config.get(Config.ZOOKEEPER_WATCH_MODE);
+        switch (watchMode) {
+            case "per-topic":
+                this.topicConfigsWatcher = new TopicConfigsWatcher(topicOperator);
+                this.topicWatcher = new ZkTopicWatcher(topicOperator);
+                break;
+            case "multiplexed":
+                this.topicConfigsWatcher = new TopicConfigsWatcher(topicOperator, true);
+                this.topicWatcher = new ZkTopicWatcher(topicOperator, vertx, kafka, config.get(Config.PARTITION_CHECK_INTERVAL_MS));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown " + Config.TC_ZK_WATCH_MODE + ": " + watchMode);
+        }
         LOGGER.debug("Using TopicConfigsWatcher {}", topicConfigsWatcher);
-        this.topicWatcher = new ZkTopicWatcher(topicOperator);
         LOGGER.debug("Using TopicWatcher {}", topicWatcher);
-        this.topicsWatcher = new ZkTopicsWatcher(topicOperator, topicConfigsWatcher, topicWatcher);
+        this.topicsWatcher = new ZkTopicsWatcher(topicOperator, topicConfigsWatcher, topicWatcher,
+                vertx, config.get(Config.ZOOKEEPER_TOPICS_BATCH_MS));
         LOGGER.debug("Using TopicsWatcher {}", topicsWatcher);
         topicsWatcher.start(zk);
 
+        if (shard != null) {
+            shard.start(zk, ignored -> {
+                // Watch the topics we now own, and reconcile them since we've not been watching them
+                topicsWatcher.rebalance();
+                topicOperator.reconcileAllTopics("rebalance");
+            }).setHandler(ar -> {
+                if (ar.failed()) {
+                    LOGGER.error("Error registering as a shard member", ar.cause());
+                    shardFailed = true;
+                }
+            });
+        }
+
         Thread resourceThread = new Thread(() -> {
             LOGGER.debug("Watching KafkaTopics matching {}", resourcePredicate);
-            Session.this.topicWatch = kubeClient.customResources(Crds.topic(), KafkaTopic.class, KafkaTopicList.class, DoneableKafkaTopic.class).inNamespace(namespace).watch(new K8sTopicWatcher(topicOperator, resourcePredicate));
+            Session.this.topicWatch = k8s.watch(new K8sTopicWatcher(topicOperator, resourcePredicate));
             LOGGER.debug("Watching setup");
 
             // start the HTTP server for healthchecks
@@ -186,7 +317,7 @@ public class Session extends AbstractVerticle {
     }
 
     /**
-     * Start an HTTP health server
+     * Start an HTTP health server, which also serves the operator's metrics in Prometheus format on {@code /metrics}
      */
     private HttpServer startHealthServer() {
 
@@ -194,9 +325,13 @@ public class Session extends AbstractVerticle {
                 .requestHandler(request -> {
 
                     if (request.path().equals("/healthy")) {
-                        request.response().setStatusCode(200).end();
+                        request.response().setStatusCode(shardFailed ? 500 : 200).end();
                     } else if (request.path().equals("/ready")) {
                         request.response().setStatusCode(200).end();
+                    } else if (request.path().equals("/metrics")) {
+                        request.response().setStatusCode(200)
+                                .putHeader("Content-Type", "text/plain; version=0.0.4")
+                                .end(metrics.scrape());
                     }
                 })
                 .listen(HEALTH_SERVER_PORT);
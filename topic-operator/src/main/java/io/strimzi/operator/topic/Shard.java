@@ -0,0 +1,21 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+/**
+ * Decides which topics this instance of the operator is responsible for.
+ * Events and reconciliations for topics which aren't owned are ignored,
+ * on the basis that another instance of the operator owns them.
+ */
+public interface Shard {
+
+    /** The shard used when the operator isn't sharded, which owns every topic. */
+    Shard ALL = topicName -> true;
+
+    /**
+     * @return Whether this instance of the operator is responsible for the given topic.
+     */
+    boolean owns(TopicName topicName);
+}
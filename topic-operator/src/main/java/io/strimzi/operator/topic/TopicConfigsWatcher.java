@@ -4,19 +4,184 @@
  */
 package io.strimzi.operator.topic;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.strimzi.operator.topic.zk.Zk;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
+import org.I0Itec.zkclient.exception.ZkNoNodeException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ZooKeeper watcher for child znodes of {@code /configs/topics},
  * calling {@link TopicOperator#onTopicConfigChanged(TopicName, Handler)}
  * for changed children.
+ *
+ * When multiplexed, rather than watching the config znode of each topic this watches the
+ * {@code /config/changes} znode, where Kafka creates a sequential notification for each config change,
+ * so a single ZooKeeper watch covers all the topics.
  */
 class TopicConfigsWatcher extends ZkWatcher {
 
     private static final String CONFIGS_ZNODE = "/config/topics";
+    static final String CHANGES_ZNODE = "/config/changes";
+    private static final String TOPICS_ENTITY_TYPE = "topics";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final boolean multiplexed;
+
+    private static final long UNINITIALISED = Long.MIN_VALUE;
+
+    /**
+     * The sequence number of the latest notification seen, -1 if there were no notifications when this started,
+     * or {@link #UNINITIALISED} before the existing notifications are known.
+     */
+    private final AtomicLong lastSequence = new AtomicLong(UNINITIALISED);
+
+    private volatile Zk zk;
 
     TopicConfigsWatcher(TopicOperator topicOperator) {
-        super(topicOperator, CONFIGS_ZNODE);
+        this(topicOperator, false);
+    }
+
+    TopicConfigsWatcher(TopicOperator topicOperator, boolean multiplexed) {
+        super(topicOperator, CONFIGS_ZNODE, !multiplexed);
+        this.multiplexed = multiplexed;
+    }
+
+    @Override
+    protected void start(Zk zk) {
+        super.start(zk);
+        this.zk = zk;
+        if (multiplexed) {
+            lastSequence.set(UNINITIALISED);
+            zk.watchChildren(CHANGES_ZNODE, childrenResult -> {
+                if (childrenResult.failed()) {
+                    log.error("Error on znode {} children", CHANGES_ZNODE, childrenResult.cause());
+                } else {
+                    notificationsChanged(childrenResult.result(), true);
+                }
+            }).children(CHANGES_ZNODE, childrenResult -> {
+                if (childrenResult.failed()) {
+                    if (childrenResult.cause() instanceof ZkNoNodeException) {
+                        // No config has been changed yet
+                        notificationsChanged(Collections.emptyList(), false);
+                    } else {
+                        log.error("Error on znode {} children", CHANGES_ZNODE, childrenResult.cause());
+                    }
+                } else {
+                    // The existing notifications are for changes which happened before we started
+                    notificationsChanged(childrenResult.result(), false);
+                }
+            });
+        }
+    }
+
+    @Override
+    protected void stop() {
+        super.stop();
+        if (multiplexed && zk != null) {
+            zk.unwatchChildren(CHANGES_ZNODE);
+        }
+    }
+
+    /**
+     * Read the notifications which are newer than any we've seen before, and notify the operator of changes
+     * to the topics we're watching.
+     */
+    private void notificationsChanged(List<String> notifications, boolean notify) {
+        if (notifications == null || !started()) {
+            return;
+        }
+        long previous;
+        List<String> newer;
+        do {
+            previous = lastSequence.get();
+            // Once the existing notifications are known this is initialised, even if there weren't any
+            long max = Math.max(previous, -1);
+            newer = new ArrayList<>();
+            for (String notification : notifications) {
+                long sequence = sequence(notification);
+                if (sequence > previous) {
+                    newer.add(notification);
+                    max = Math.max(max, sequence);
+                }
+            }
+            // Retry if a concurrent call has handled some of these
+            if (lastSequence.compareAndSet(previous, max)) {
+                break;
+            }
+        } while (true);
+        if (!notify || previous == UNINITIALISED) {
+            return;
+        }
+        // The sequence numbers are zero padded, so this is the order they were created
+        Collections.sort(newer);
+        for (String notification : newer) {
+            String path = CHANGES_ZNODE + "/" + notification;
+            zk.getData(path, dataResult -> notificationData(path, dataResult));
+        }
+    }
+
+    private void notificationData(String path, AsyncResult<byte[]> dataResult) {
+        if (dataResult.failed()) {
+            if (!(dataResult.cause() instanceof ZkNoNodeException)) {
+                log.error("Error getting config change notification {}", path, dataResult.cause());
+            }
+            // Otherwise Kafka has already purged the notification
+            return;
+        }
+        String topic = topicOf(dataResult.result());
+        if (topic != null && watching(topic)) {
+            countEvent();
+            notifyOperator(topic);
+        }
+    }
+
+    /**
+     * @return The sequence number of the given notification znode name, or -1 if it doesn't have one.
+     */
+    static long sequence(String notification) {
+        try {
+            return Long.parseLong(notification.substring(notification.lastIndexOf('_') + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return The name of the topic whose config changed according to the given notification,
+     * or null if the notification is not about a topic.
+     */
+    static String topicOf(byte[] notification) {
+        if (notification == null) {
+            return null;
+        }
+        try {
+            JsonNode root = MAPPER.readTree(notification);
+            if (root.has("entity_path")) {
+                // Version 2: {"version":2,"entity_path":"topics/my-topic"}
+                String entityPath = root.get("entity_path").asText();
+                int slash = entityPath.indexOf('/');
+                if (slash > 0 && TOPICS_ENTITY_TYPE.equals(entityPath.substring(0, slash))) {
+                    return entityPath.substring(slash + 1);
+                }
+            } else if (root.has("entity_type") && root.has("entity_name")) {
+                // Version 1: {"version":1,"entity_type":"topics","entity_name":"my-topic"}
+                if (TOPICS_ENTITY_TYPE.equals(root.get("entity_type").asText())) {
+                    return root.get("entity_name").asText();
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
     }
 
     @Override
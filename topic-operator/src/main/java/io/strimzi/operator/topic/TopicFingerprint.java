@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.strimzi.api.kafka.model.KafkaTopic;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A summary of the three inputs to the reconciliation of a topic:
+ * the {@code resourceVersion} of the KafkaTopic, the partitions, replicas and config of the topic in Kafka
+ * and the topic in the topic store.
+ * If the fingerprint of a topic hasn't changed since it was last successfully reconciled,
+ * reconciling it again would do nothing, so it can be skipped.
+ * The values themselves are kept, rather than hashes of them, so that a change is never mistaken for no change.
+ */
+final class TopicFingerprint {
+
+    private final String resourceVersion;
+    private final int kafkaPartitions;
+    private final int kafkaReplicas;
+    private final Map<String, String> kafkaConfig;
+    private final Topic storeTopic;
+
+    private TopicFingerprint(String resourceVersion, int kafkaPartitions, int kafkaReplicas, Map<String, String> kafkaConfig,
+                             Topic storeTopic) {
+        this.resourceVersion = resourceVersion;
+        this.kafkaPartitions = kafkaPartitions;
+        this.kafkaReplicas = kafkaReplicas;
+        this.kafkaConfig = kafkaConfig;
+        this.storeTopic = storeTopic;
+    }
+
+    /**
+     * @param resource The KafkaTopic, or null if there's no KafkaTopic.
+     * @param kafkaTopic The topic in Kafka, or null if there's no topic in Kafka.
+     * @param privateTopic The topic in the topic store, or null if there's no topic in the store.
+     */
+    static TopicFingerprint of(KafkaTopic resource, Topic kafkaTopic, Topic privateTopic) {
+        String resourceVersion = resource != null && resource.getMetadata() != null ? resource.getMetadata().getResourceVersion() : null;
+        if (kafkaTopic != null) {
+            return new TopicFingerprint(resourceVersion, kafkaTopic.getNumPartitions(), kafkaTopic.getNumReplicas(),
+                    kafkaTopic.getConfig(), privateTopic);
+        } else {
+            return new TopicFingerprint(resourceVersion, -1, -1, null, privateTopic);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TopicFingerprint that = (TopicFingerprint) o;
+        return kafkaPartitions == that.kafkaPartitions
+                && kafkaReplicas == that.kafkaReplicas
+                && Objects.equals(resourceVersion, that.resourceVersion)
+                && Objects.equals(kafkaConfig, that.kafkaConfig)
+                && Objects.equals(storeTopic, that.storeTopic);
+    }
+
+    @Override
+    public int hashCode() {
+        // Topic.hashCode() doesn't allow for a topic without metadata
+        return Objects.hash(resourceVersion, kafkaPartitions, kafkaReplicas, kafkaConfig);
+    }
+
+    @Override
+    public String toString() {
+        return "TopicFingerprint(resourceVersion=" + resourceVersion
+                + ", kafkaPartitions=" + kafkaPartitions
+                + ", kafkaReplicas=" + kafkaReplicas
+                + ", kafkaConfig=" + kafkaConfig
+                + ", storeTopic=" + storeTopic + ")";
+    }
+}
@@ -10,6 +10,7 @@ import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -20,8 +21,13 @@ public abstract class TopicMetadataHandler implements Handler<AsyncResult<TopicM
 
     private static final Logger log = LogManager.getLogger(TopicMetadataHandler.class);
 
+    /** Shared by the jittered back offs, which can run on different threads. */
+    private static final Random JITTER = new Random();
+
     private final BackOff backOff;
 
+    private final CircuitBreaker<TopicName> breaker;
+
     private final Vertx vertx;
     private final Kafka kafka;
     private final TopicName topicName;
@@ -35,10 +41,39 @@ public abstract class TopicMetadataHandler implements Handler<AsyncResult<TopicM
      * @param backOff   backoff information to use for retrying
      */
     TopicMetadataHandler(Vertx vertx, Kafka kafka, TopicName topicName, BackOff backOff) {
+        this(vertx, kafka, topicName, backOff, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param vertx Vert.x instance to use for retrying mechanism
+     * @param kafka Kafka client for getting topic metadata
+     * @param topicName topic name for which to get metadata
+     * @param backOff   backoff information to use for retrying
+     * @param breaker   circuit breaker which is told when the retries are exhausted,
+     *                  and which prevents retrying while it's open for the topic, or null
+     */
+    TopicMetadataHandler(Vertx vertx, Kafka kafka, TopicName topicName, BackOff backOff, CircuitBreaker<TopicName> breaker) {
         this.vertx = vertx;
         this.kafka = kafka;
         this.topicName = topicName;
         this.backOff = backOff;
+        this.breaker = breaker;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param vertx Vert.x instance to use for retrying mechanism
+     * @param kafka Kafka client for getting topic metadata
+     * @param topicName topic name for which to get metadata
+     * @param maxAttempts the maximum number of attempts of the jittered back off to use for retrying
+     * @param breaker   circuit breaker which is told when the retries are exhausted,
+     *                  and which prevents retrying while it's open for the topic, or null
+     */
+    TopicMetadataHandler(Vertx vertx, Kafka kafka, TopicName topicName, int maxAttempts, CircuitBreaker<TopicName> breaker) {
+        this(vertx, kafka, topicName, new BackOff(maxAttempts, JITTER), breaker);
     }
 
     /**
@@ -54,16 +89,25 @@ public abstract class TopicMetadataHandler implements Handler<AsyncResult<TopicM
 
     /**
      * Schedules this handler to execute again after a delay defined by the {@code BackOff}.
-     * Calls {@link #onMaxAttemptsExceeded} if the backoff has reached its permitted number of retries.
+     * Calls {@link #onMaxAttemptsExceeded} if the backoff has reached its permitted number of retries,
+     * or without retrying if the circuit breaker is open for the topic.
      */
     protected void retry() {
 
+        if (breaker != null && breaker.isOpen(topicName)) {
+            log.debug("Circuit breaker open for {}, not retrying getting metadata", topicName);
+            this.onMaxAttemptsExceeded(new MaxAttemptsExceededException());
+            return;
+        }
         long delay;
         try {
             delay = backOff.delayMs();
             log.debug("Backing off for {}ms on getting metadata for {}", delay, topicName);
         } catch (MaxAttemptsExceededException e) {
             log.info("Max attempts reached on getting metadata for {} after {}ms, giving up for now", topicName, backOff.totalDelayMs());
+            if (breaker != null && breaker.failed(topicName)) {
+                log.warn("Circuit breaker opened for {}: Getting its metadata will not be retried for a while", topicName);
+            }
             this.onMaxAttemptsExceeded(e);
             return;
         }
@@ -77,6 +121,16 @@ public abstract class TopicMetadataHandler implements Handler<AsyncResult<TopicM
         }
     }
 
+    /**
+     * Called by subclasses when they've got the metadata they were waiting for,
+     * so earlier failures for the topic don't count towards opening the circuit breaker.
+     */
+    protected void succeeded() {
+        if (breaker != null) {
+            breaker.succeeded(topicName);
+        }
+    }
+
     /**
      * Called when the max attempts are exceeded during retry
      *
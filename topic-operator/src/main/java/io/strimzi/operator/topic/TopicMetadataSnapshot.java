@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The metadata of many topics, fetched from Kafka in bulk via {@link Kafka#topicsMetadata} at the start of a
+ * full reconciliation. The metadata of the topics which are reconciled late in a long reconciliation would be
+ * out of date, so the snapshot can only be used until it is {@code maxAgeMs} old.
+ * After that the metadata of each topic has to be fetched when it's reconciled.
+ * Nor can it be used for a topic which has been {@linkplain #invalidate(TopicName) invalidated},
+ * because an event has been received for the topic since the snapshot was taken.
+ */
+class TopicMetadataSnapshot {
+
+    private final Map<TopicName, TopicMetadata> metadata;
+    private final long maxAgeNanos;
+    private final LongSupplier nanoTime;
+    private final long takenNanos;
+    private final Set<TopicName> invalidated;
+
+    /**
+     * @param metadata The metadata of the topics, which was fetched just now. Topics which don't exist are absent.
+     * @param maxAgeMs How long the snapshot can be used for.
+     */
+    TopicMetadataSnapshot(Map<TopicName, TopicMetadata> metadata, long maxAgeMs) {
+        this(metadata, maxAgeMs, ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * @param invalidated The topics the snapshot can't be used for. This is a live, concurrent set,
+     * so that topics can be invalidated while the metadata is being fetched.
+     */
+    TopicMetadataSnapshot(Map<TopicName, TopicMetadata> metadata, long maxAgeMs, Set<TopicName> invalidated) {
+        this(metadata, maxAgeMs, invalidated, System::nanoTime);
+    }
+
+    TopicMetadataSnapshot(Map<TopicName, TopicMetadata> metadata, long maxAgeMs, Set<TopicName> invalidated, LongSupplier nanoTime) {
+        this.metadata = metadata;
+        this.invalidated = invalidated;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+        this.nanoTime = nanoTime;
+        this.takenNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * @return Whether the snapshot is too old to be used.
+     */
+    boolean isExpired() {
+        return nanoTime.getAsLong() - takenNanos > maxAgeNanos;
+    }
+
+    /**
+     * Stop using the snapshot for the given topic, whose metadata might have changed since the snapshot was taken.
+     */
+    void invalidate(TopicName topicName) {
+        invalidated.add(topicName);
+    }
+
+    /**
+     * The metadata of the given topic, in the form {@link TopicOperator} reconciles it,
+     * with a null result if the topic doesn't exist in Kafka.
+     * @return The metadata, or null if the snapshot can't be used for the topic and its metadata must be fetched.
+     */
+    AsyncResult<TopicMetadata> get(TopicName topicName) {
+        if (isExpired() || invalidated.contains(topicName)) {
+            return null;
+        }
+        return Future.succeededFuture(metadata.get(topicName));
+    }
+}
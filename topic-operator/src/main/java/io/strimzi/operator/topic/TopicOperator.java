@@ -18,12 +18,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import static java.util.Collections.disjoint;
 
@@ -31,6 +27,12 @@ public class TopicOperator {
 
     private final static Logger LOGGER = LogManager.getLogger(TopicOperator.class);
     private final static Logger EVENT_LOGGER = LogManager.getLogger("Event");
+    /**
+     * The kind of the reconciliations which reconcile the current state of a topic, whatever triggered them,
+     * so that any which are waiting for the same topic can be coalesced into one.
+     * Actions such as deletions, which act on a particular change, are each of their own kind.
+     */
+    static final String RECONCILE_CURRENT_STATE = "reconcile";
     private final Kafka kafka;
     private final K8s k8s;
     private final Vertx vertx;
@@ -39,6 +41,11 @@ public class TopicOperator {
     private TopicStore topicStore;
     private final InFlight<TopicName> inFlight;
     private final Config config;
+    private final FullReconciliation fullReconciliation;
+    private final Metrics metrics;
+    private final Metrics.Histogram reconcileDuration;
+    private final Metrics.Counter metadataRetries;
+    private final CircuitBreaker<TopicName> metadataBreaker;
 
     enum EventType {
         INFO("Info"),
@@ -332,27 +339,87 @@ public class TopicOperator {
                          LabelPredicate resourcePredicate,
                          String namespace,
                          Config config) {
+        this(vertx, kafka, k8s, topicStore, resourcePredicate, namespace, config, new Metrics(), Shard.ALL, null);
+    }
+
+    /**
+     * @param metadataBreaker The circuit breaker which stops getting the metadata of a topic being retried
+     *                        after it has failed repeatedly, or null.
+     */
+    public TopicOperator(Vertx vertx, Kafka kafka,
+                         K8s k8s,
+                         TopicStore topicStore,
+                         LabelPredicate resourcePredicate,
+                         String namespace,
+                         Config config,
+                         Metrics metrics,
+                         Shard shard,
+                         CircuitBreaker<TopicName> metadataBreaker) {
         this.kafka = kafka;
         this.k8s = k8s;
         this.vertx = vertx;
         this.resourcePredicate = resourcePredicate;
         this.topicStore = topicStore;
-        this.inFlight = new InFlight<>(vertx);
+        this.inFlight = new InFlight<>(vertx, metrics);
         this.namespace = namespace;
         this.config = config;
+        this.metrics = metrics;
+        this.metadataBreaker = metadataBreaker;
+        this.fullReconciliation = new FullReconciliation(this, kafka, k8s, topicStore, config, metrics, shard);
+        this.reconcileDuration = metrics.histogram(Metrics.PREFIX + "reconcile_duration_seconds",
+                "The time taken to reconcile a topic, excluding time spent waiting for other reconciliations of the topic");
+        this.metadataRetries = metrics.counter(Metrics.PREFIX + "topic_metadata_retries_total",
+                "The number of times getting topic metadata from Kafka was retried with back off");
+    }
+
+    /**
+     * Record the outcome of a reconciliation which started at the given {@link System#nanoTime()}.
+     */
+    private void reconciled(long start, String outcome) {
+        reconcileDuration.observeSince(start);
+        metrics.counter(Metrics.PREFIX + "reconciliations_total",
+                "The number of reconciliations of individual topics, by outcome", "outcome", outcome).increment();
     }
 
     Future<Void> reconcile(KafkaTopic topicResource, TopicName topicName) {
+        return reconcile(topicResource, topicName, null, false);
+    }
+
+    /**
+     * Reconcile the given topic, using its metadata from the given {@code snapshot} (from a bulk fetch)
+     * as the Kafka state of the topic, or fetching it from Kafka if {@code snapshot} is null or can't be used.
+     * If {@code skipIfUnchanged} and the {@link TopicFingerprint} of the topic is the same as when
+     * it was last successfully reconciled, the reconciliation is skipped.
+     */
+    Future<Void> reconcile(KafkaTopic topicResource, TopicName topicName, TopicMetadataSnapshot snapshot,
+                           boolean skipIfUnchanged) {
         Future<Void> result = Future.future();
-        Handler<Future<Void>> action = new Reconciliation("reconcile") {
+        Reconciliation action = new Reconciliation("reconcile", RECONCILE_CURRENT_STATE) {
             @Override
             public void handle(Future<Void> fut) {
-
+                long start = System.nanoTime();
+                if (skipIfUnchanged && fullReconciliation.isChanged(topicName)) {
+                    // There's been an event for the topic since the full reconciliation listed it,
+                    // which might have been merged into this, so the listed state might be out of date
+                    Future<Void> current = Future.future();
+                    reconcileCurrentState(topicName, current);
+                    current.setHandler(ar -> {
+                        reconciled(start, ar.succeeded() ? "success" : "failure");
+                        fut.handle(ar);
+                    });
+                    return;
+                }
                 try {
                     Topic k8sTopic = topicResource != null ? TopicSerialization.fromTopicResource(topicResource) : null;
                     Future<Topic> topicResult = Future.future();
                     Future<TopicMetadata> metadataResult = Future.future();
-                    kafka.topicMetadata(topicName, metadataResult.completer());
+                    // The snapshot is consulted only now, rather than when this was enqueued, because it can be out of date by then
+                    AsyncResult<TopicMetadata> kafkaMetadata = snapshot != null ? snapshot.get(topicName) : null;
+                    if (kafkaMetadata != null) {
+                        metadataResult.handle(kafkaMetadata);
+                    } else {
+                        kafka.topicMetadata(topicName, metadataResult.completer());
+                    }
                     topicStore.read(topicName, topicResult.completer());
                     CompositeFuture.all(topicResult, metadataResult).setHandler(ar -> {
 
@@ -360,30 +427,44 @@ public class TopicOperator {
                             Topic privateTopic = ar.result().resultAt(0);
                             TopicMetadata kafkaTopicMeta = ar.result().resultAt(1);
                             Topic kafkaTopic = TopicSerialization.fromTopicMetadata(kafkaTopicMeta);
+                            if (skipIfUnchanged && fullReconciliation.isUnchanged(topicName, topicResource, kafkaTopic, privateTopic)) {
+                                LOGGER.debug("Skipping reconciliation of unchanged topic {}", topicName);
+                                reconciled(start, "skipped");
+                                fut.complete();
+                                return;
+                            }
                             reconcile(topicResource, k8sTopic, kafkaTopic, privateTopic, reconcileResult -> {
                                 if (reconcileResult.succeeded()) {
                                     LOGGER.info("Success reconciling KafkaTopic {}", logTopic(topicResource));
-                                    fut.complete();
+                                    fullReconciliation.reconciled(topicName, topicResource, k8sTopic, kafkaTopic, privateTopic).setHandler(recorded -> {
+                                        reconciled(start, "success");
+                                        fut.complete();
+                                    });
                                 } else {
                                     LOGGER.error("Error reconciling KafkaTopic {}", logTopic(topicResource), reconcileResult.cause());
+                                    fullReconciliation.forget(topicName);
+                                    reconciled(start, "failure");
                                     fut.fail(reconcileResult.cause());
                                 }
                             });
                         } else {
                             LOGGER.error("Error reconciling KafkaTopic {}", logTopic(topicResource), ar.cause());
+                            reconciled(start, "failure");
                             fut.fail(ar.cause());
                         }
                     });
                 } catch (InvalidTopicException e) {
                     LOGGER.error("Error reconciling KafkaTopic {}: Invalid resource: ", logTopic(topicResource), e.getMessage());
+                    reconciled(start, "failure");
                     fut.fail(e);
                 } catch (OperatorException e) {
                     LOGGER.error("Error reconciling KafkaTopic {}", logTopic(topicResource), e);
+                    reconciled(start, "failure");
                     fut.fail(e);
                 }
             }
         };
-        inFlight.enqueue(topicName, action, result);
+        inFlight.enqueue(topicName, action.kind, action, result);
         return result;
     }
 
@@ -607,42 +688,49 @@ public class TopicOperator {
 
     /** Called when a topic znode is deleted in ZK */
     void onTopicDeleted(TopicName topicName, Handler<AsyncResult<Void>> resultHandler) {
-        Handler<Future<Void>> action = new Reconciliation("onTopicDeleted") {
+        Reconciliation action = new Reconciliation("onTopicDeleted") {
             @Override
             public void handle(Future<Void> fut) {
                 TopicOperator.this.reconcileOnTopicChange(topicName, null, fut.completer());
             }
         };
-        inFlight.enqueue(topicName, action, resultHandler);
+        enqueueEvent(topicName, action, resultHandler);
 
     }
 
     void onTopicConfigChanged(TopicName topicName, Handler<AsyncResult<Void>> resultHandler) {
-        Handler<Future<Void>> action = new Reconciliation("onTopicConfigChanged") {
+        Reconciliation action = new Reconciliation("onTopicConfigChanged", RECONCILE_CURRENT_STATE) {
             @Override
             public void handle(Future<Void> fut) {
-                kafka.topicMetadata(topicName, metadataResult -> {
-                    if (metadataResult.succeeded()) {
-                        Topic topic = TopicSerialization.fromTopicMetadata(metadataResult.result());
-                        TopicOperator.this.reconcileOnTopicChange(topicName, topic, fut.completer());
-                    } else {
-                        fut.fail(metadataResult.cause());
-                    }
-                });
+                reconcileCurrentState(topicName, fut);
             }
         };
-        inFlight.enqueue(topicName, action, resultHandler);
+        enqueueEvent(topicName, action, resultHandler);
+    }
+
+    /**
+     * Reconcile the current state of the given topic, fetching all of it afresh.
+     */
+    private void reconcileCurrentState(TopicName topicName, Future<Void> fut) {
+        kafka.topicMetadata(topicName, metadataResult -> {
+            if (metadataResult.succeeded()) {
+                Topic topic = TopicSerialization.fromTopicMetadata(metadataResult.result());
+                reconcileOnTopicChange(topicName, topic, fut.completer());
+            } else {
+                fut.fail(metadataResult.cause());
+            }
+        });
     }
 
     void onTopicPartitionsChanged(TopicName topicName, Handler<AsyncResult<Void>> resultHandler) {
-        Handler<Future<Void>> action = new Reconciliation("onTopicPartitionsChanged") {
+        Reconciliation action = new Reconciliation("onTopicPartitionsChanged") {
             @Override
             public void handle(Future<Void> fut) {
 
                 // getting topic information from the private store
                 topicStore.read(topicName, topicResult -> {
 
-                    TopicMetadataHandler handler = new TopicMetadataHandler(vertx, kafka, topicName, topicMetadataBackOff()) {
+                    TopicMetadataHandler handler = new TopicMetadataHandler(vertx, kafka, topicName, config.get(Config.TOPIC_METADATA_MAX_ATTEMPTS), metadataBreaker) {
                         @Override
                         public void handle(AsyncResult<TopicMetadata> metadataResult) {
 
@@ -653,8 +741,10 @@ public class TopicOperator {
 
                                 // if partitions aren't changed on Kafka yet, we retry with exponential backoff
                                 if (topicResult.result().getNumPartitions() == kafkaTopic.getNumPartitions()) {
+                                    metadataRetries.increment();
                                     retry();
                                 } else {
+                                    succeeded();
                                     LOGGER.info("Topic {} partitions changed to {}", topicName, kafkaTopic.getNumPartitions());
                                     TopicOperator.this.reconcileOnTopicChange(topicName, kafkaTopic, fut.completer());
                                 }
@@ -676,7 +766,7 @@ public class TopicOperator {
                 });
             }
         };
-        inFlight.enqueue(topicName, action, resultHandler);
+        enqueueEvent(topicName, action, resultHandler);
     }
 
     private void reconcileOnTopicChange(TopicName topicName, Topic kafkaTopic, Handler<AsyncResult<Void>> resultHandler) {
@@ -711,11 +801,11 @@ public class TopicOperator {
     void onTopicCreated(TopicName topicName, Handler<AsyncResult<Void>> resultHandler) {
         // XXX currently runs on the ZK thread, requiring a synchronized inFlight
         // is it better to put this check in the topic deleted event?
-        Handler<Future<Void>> action = new Reconciliation("onTopicCreated") {
+        Reconciliation action = new Reconciliation("onTopicCreated") {
             @Override
             public void handle(Future<Void> fut) {
 
-                TopicMetadataHandler handler = new TopicMetadataHandler(vertx, kafka, topicName, topicMetadataBackOff()) {
+                TopicMetadataHandler handler = new TopicMetadataHandler(vertx, kafka, topicName, config.get(Config.TOPIC_METADATA_MAX_ATTEMPTS), metadataBreaker) {
 
                     @Override
                     public void handle(AsyncResult<TopicMetadata> metadataResult) {
@@ -725,10 +815,12 @@ public class TopicOperator {
                                 // In this case it is most likely that we've been notified by ZK
                                 // before Kafka has finished creating the topic, so we retry
                                 // with exponential backoff.
+                                metadataRetries.increment();
                                 retry();
                             } else {
                                 // We now have the metadata we need to create the
                                 // resource...
+                                succeeded();
                                 Topic kafkaTopic = TopicSerialization.fromTopicMetadata(metadataResult.result());
                                 reconcileOnTopicChange(topicName, kafkaTopic, fut);
                             }
@@ -745,7 +837,7 @@ public class TopicOperator {
                 kafka.topicMetadata(topicName, handler);
             }
         };
-        inFlight.enqueue(topicName, action, resultHandler);
+        enqueueEvent(topicName, action, resultHandler);
     }
 
     /** Called when a resource is added in k8s */
@@ -758,23 +850,44 @@ public class TopicOperator {
                 resultHandler.handle(Future.failedFuture(e));
                 return;
             }
-            Handler<Future<Void>> action = new Reconciliation("onResourceAdded") {
+            Reconciliation action = new Reconciliation("onResourceAdded", RECONCILE_CURRENT_STATE) {
                 @Override
                 public void handle(Future<Void> fut) {
                     TopicOperator.this.reconcileOnResourceChange(addedTopic, k8sTopic, false, fut);
                 }
             };
-            inFlight.enqueue(new TopicName(addedTopic), action, resultHandler);
+            enqueueEvent(new TopicName(addedTopic), action, resultHandler);
         } else {
             resultHandler.handle(Future.succeededFuture());
         }
     }
 
+    /**
+     * Enqueue the reconciliation of an event for the given topic.
+     * It's only merged with waiting reconciliations of the same kind, and
+     * the topic's current state will be fetched afresh by the current full reconciliation, if there is one,
+     * rather than being taken from a listing or snapshot which might be older than the event.
+     */
+    private void enqueueEvent(TopicName topicName, Reconciliation action, Handler<AsyncResult<Void>> resultHandler) {
+        fullReconciliation.changed(topicName);
+        inFlight.enqueue(topicName, action.kind, action, resultHandler);
+    }
+
     abstract class Reconciliation implements Handler<Future<Void>> {
         private final String name;
+        private final String kind;
 
         public Reconciliation(String name) {
+            this(name, name);
+        }
+
+        /**
+         * @param kind The {@link InFlight} kind of the reconciliation: Waiting reconciliations of the same kind
+         *             are merged, so {@link #RECONCILE_CURRENT_STATE} ones are coalesced into one.
+         */
+        public Reconciliation(String name, String kind) {
             this.name = name;
+            this.kind = kind;
         }
 
         @Override
@@ -793,13 +906,13 @@ public class TopicOperator {
                 resultHandler.handle(Future.failedFuture(e));
                 return;
             }
-            Reconciliation action = new Reconciliation("onResourceModified") {
+            Reconciliation action = new Reconciliation("onResourceModified", RECONCILE_CURRENT_STATE) {
                 @Override
                 public void handle(Future<Void> fut) {
                     TopicOperator.this.reconcileOnResourceChange(modifiedTopic, k8sTopic, true, fut);
                 }
             };
-            inFlight.enqueue(new TopicName(modifiedTopic), action, resultHandler);
+            enqueueEvent(new TopicName(modifiedTopic), action, resultHandler);
         } else {
             resultHandler.handle(Future.succeededFuture());
         }
@@ -836,7 +949,7 @@ public class TopicOperator {
                     TopicOperator.this.reconcileOnResourceChange(deletedTopic, null, false, fut);
                 }
             };
-            inFlight.enqueue(new TopicName(deletedTopic), action, resultHandler);
+            enqueueEvent(new TopicName(deletedTopic), action, resultHandler);
         } else {
             resultHandler.handle(Future.succeededFuture());
         }
@@ -935,10 +1048,34 @@ public class TopicOperator {
     }
 
     /**
-     * @return a new instance of BackOff with configured topic metadata max attempts
+     * @return The number of events whose reconciliation was merged into that of a later event for the same topic.
+     */
+    long eventsMerged() {
+        return inFlight.merged();
+    }
+
+    /**
+     * @return Whether this instance of the operator is responsible for the given topic.
+     * The operator is never responsible for the topic its own topic store is kept in.
      */
-    private BackOff topicMetadataBackOff() {
-        return new BackOff(config.get(Config.TOPIC_METADATA_MAX_ATTEMPTS));
+    boolean owns(TopicName topicName) {
+        return fullReconciliation.owns(topicName);
+    }
+
+    /**
+     * Forget what is remembered about the given topic, because this instance of the operator has started or stopped
+     * being responsible for it, so another instance could have changed it in the meantime.
+     */
+    void ownershipChanged(TopicName topicName) {
+        fullReconciliation.forget(topicName);
+        topicStore.invalidate(topicName);
+    }
+
+    /**
+     * @return The registry of this operator's metrics.
+     */
+    Metrics metrics() {
+        return metrics;
     }
 
     /**
@@ -949,67 +1086,21 @@ public class TopicOperator {
         return resource != null ? resource.getMetadata().getNamespace() + "/" + resource.getMetadata().getName() : null;
     }
 
+    /**
+     * @return The number of times a topic's reconciliation has been skipped because it was unchanged.
+     */
+    long unchangedTopicsSkipped() {
+        return fullReconciliation.unchangedTopicsSkipped();
+    }
+
+    /**
+     * Reconcile every topic which this instance of the operator {@linkplain #owns(TopicName) owns},
+     * as described by {@link FullReconciliation}.
+     */
     Future<?> reconcileAllTopics(String reconciliationType) {
-        Future topicsJoin = Future.future();
-        Future mapsJoin = Future.future();
-        LOGGER.info("Starting {} reconciliation", reconciliationType);
-        kafka.listTopics(topicsListResult -> {
-            if (topicsListResult.succeeded()) {
-                Set<String> kafkaTopics = topicsListResult.result();
-                LOGGER.debug("Reconciling kafka topics {}", kafkaTopics);
-                // First reconcile the topics in kafka
-                List<Future> topicFutures = new ArrayList<>();
-                for (String name : kafkaTopics) {
-                    LOGGER.debug("{} reconciliation of topic {}", reconciliationType, name);
-                    TopicName topicName = new TopicName(name);
-                    Future topicFuture = Future.future();
-                    topicFutures.add(topicFuture);
-                    k8s.getFromName(topicName.asMapName(), topicResult -> {
-                        if (topicResult.succeeded()) {
-                            KafkaTopic kafkaTopic = topicResult.result();
-                            reconcile(kafkaTopic, topicName).setHandler(topicFuture);
-                        } else {
-                            LOGGER.error("Error {} getting KafkaTopic {} for topic {}",
-                                    reconciliationType,
-                                    topicName.asMapName(), topicName, topicResult.cause());
-                            topicFuture.fail(new OperatorException("Error getting KafkaTopic " + topicName.asMapName() + " during " + reconciliationType + " reconciliation", topicResult.cause()));
-                        }
-                    });
-                }
-                CompositeFuture.join(topicFutures).setHandler(topicsJoin);
-                LOGGER.debug("Reconciling KafkaTopics");
-                // Then those in k8s which aren't in kafka
-                k8s.listMaps(resourcesListResult -> {
-                    List<Future> resourceFutures = new ArrayList<>();
-                    if (resourcesListResult.succeeded()) {
-                        List<KafkaTopic> resources = resourcesListResult.result();
-                        Map<String, KafkaTopic> resourcesMap = resources.stream().collect(Collectors.toMap(
-                            resource -> resource.getMetadata().getName(),
-                            resource -> resource));
-                        resourcesMap.keySet().removeAll(kafkaTopics);
-                        LOGGER.debug("Reconciling KafkaTopics: {}", resourcesMap.keySet());
-                        for (KafkaTopic resource : resourcesMap.values()) {
-                            LOGGER.debug("{} reconciliation of KafkaTopic {}", reconciliationType, resource.getMetadata().getName());
-
-                            TopicName topicName = new TopicName(resource);
-                            resourceFutures.add(reconcile(resource, topicName));
-                        }
-                        CompositeFuture.join(resourceFutures).setHandler(mapsJoin);
-                    } else {
-                        LOGGER.error("Unable to list KafkaTopics", resourcesListResult.cause());
-                        mapsJoin.fail(new OperatorException("Error listing existing KafkaTopics during " + reconciliationType + " reconciliation", resourcesListResult.cause()));
-                    }
-                    // Finally those in private store which we've not dealt with so far...
-                    // TODO ^^
-                });
-            } else {
-                LOGGER.error("Error performing {} reconciliation", reconciliationType, topicsListResult.cause());
-                OperatorException listException = new OperatorException("Error listing existing topics during " + reconciliationType + " reconciliation", topicsListResult.cause());
-                topicsJoin.fail(listException);
-                mapsJoin.fail(listException);
-            }
-        });
-        return CompositeFuture.join(topicsJoin, mapsJoin);
+        if (metadataBreaker != null) {
+            metadataBreaker.forgetClosed();
+        }
+        return fullReconciliation.run(reconciliationType);
     }
 }
-
@@ -5,9 +5,11 @@
 package io.strimzi.operator.topic;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
 import io.strimzi.api.kafka.model.KafkaTopic;
@@ -17,7 +19,6 @@ import org.apache.kafka.clients.admin.ConfigEntry;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.common.config.ConfigResource;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
@@ -41,10 +42,18 @@ public class TopicSerialization {
     public static final String JSON_KEY_REPLICAS = "replicas";
     public static final String JSON_KEY_CONFIG = "config";
 
-    @SuppressWarnings("unchecked")
-    private static Map<String, String> topicConfigFromTopicConfig(KafkaTopic kafkaTopic) {
+    /**
+     * The factory for the JSON stored in ZK.
+     * This is thread safe, and shared so that Jackson's buffers get recycled between calls.
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .configure(JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION, false);
+
+    /**
+     * Add the config of the given KafkaTopic to the given builder.
+     */
+    private static void topicConfigFromTopicConfig(KafkaTopic kafkaTopic, Topic.Builder builder) {
         if (kafkaTopic.getSpec().getConfig() != null) {
-            Map<String, String> result = new HashMap<>(kafkaTopic.getSpec().getConfig().size());
             for (Map.Entry<String, Object> entry : kafkaTopic.getSpec().getConfig().entrySet()) {
                 String key = entry.getKey();
                 Object v = entry.getValue();
@@ -56,7 +65,7 @@ public class TopicSerialization {
                 if (v instanceof String
                         || isNumberType
                         || v instanceof Boolean) {
-                    result.put(key, v.toString());
+                    builder.withConfigEntry(key, v.toString());
                 } else {
                     String msg = "The value corresponding to the key must have a string, number or boolean value";
                     if (v == null) {
@@ -68,9 +77,6 @@ public class TopicSerialization {
                             "The key '" + key + "' of the topic config is invalid: " + msg);
                 }
             }
-            return result;
-        } else {
-            return Collections.EMPTY_MAP;
         }
     }
 
@@ -88,8 +94,8 @@ public class TopicSerialization {
                 .withTopicName(getTopicName(kafkaTopic))
                 .withNumPartitions(getPartitions(kafkaTopic))
                 .withNumReplicas(getReplicas(kafkaTopic))
-                .withConfig(topicConfigFromTopicConfig(kafkaTopic))
                 .withMetadata(kafkaTopic.getMetadata());
+        topicConfigFromTopicConfig(kafkaTopic, builder);
         return builder.build();
     }
 
@@ -234,57 +240,80 @@ public class TopicSerialization {
      * This is what is stored in the znodes owned by the {@link ZkTopicStore}.
      */
     public static byte[] toJson(Topic topic) {
-        ObjectMapper mapper = objectMapper();
-        ObjectNode root = mapper.createObjectNode();
-        // TODO Do we store the k8s uid here?
-        root.put(JSON_KEY_MAP_NAME, topic.getOrAsMapName().toString());
-        root.put(JSON_KEY_TOPIC_NAME, topic.getTopicName().toString());
-        root.put(JSON_KEY_PARTITIONS, topic.getNumPartitions());
-        root.put(JSON_KEY_REPLICAS, topic.getNumReplicas());
-
-        ObjectNode config = mapper.createObjectNode();
-        for (Map.Entry<String, String> entry : topic.getConfig().entrySet()) {
-            config.put(entry.getKey(), entry.getValue());
-        }
-        root.set(JSON_KEY_CONFIG, config);
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ByteArrayBuilder bytes = new ByteArrayBuilder();
         try {
-            mapper.writeValue(baos, root);
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(bytes)) {
+                generator.writeStartObject();
+                // TODO Do we store the k8s uid here?
+                generator.writeStringField(JSON_KEY_MAP_NAME, topic.getOrAsMapName().toString());
+                generator.writeStringField(JSON_KEY_TOPIC_NAME, topic.getTopicName().toString());
+                generator.writeNumberField(JSON_KEY_PARTITIONS, topic.getNumPartitions());
+                generator.writeNumberField(JSON_KEY_REPLICAS, topic.getNumReplicas());
+                generator.writeObjectFieldStart(JSON_KEY_CONFIG);
+                for (Map.Entry<String, String> entry : topic.getConfig().entrySet()) {
+                    generator.writeStringField(entry.getKey(), entry.getValue());
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            return bytes.toByteArray();
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            bytes.release();
         }
-        return baos.toByteArray();
     }
 
     /**
      * Returns the Topic represented by the given UTF-8 encoded JSON.
      * This is what is stored in the znodes owned by the {@link ZkTopicStore}.
+     * The fields may be in any order, and unknown fields are ignored.
      */
-    @SuppressWarnings("unchecked")
     public static Topic fromJson(byte[] json) {
-        ObjectMapper mapper = objectMapper();
-        Map<String, Object> root = null;
-        try {
-            root = mapper.readValue(json, Map.class);
+        Topic.Builder builder = new Topic.Builder();
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case JSON_KEY_TOPIC_NAME:
+                        builder.withTopicName(parser.getValueAsString());
+                        break;
+                    case JSON_KEY_MAP_NAME:
+                        builder.withMapName(parser.getValueAsString());
+                        break;
+                    case JSON_KEY_PARTITIONS:
+                        expect(parser, value, JsonToken.VALUE_NUMBER_INT);
+                        builder.withNumPartitions(parser.getIntValue());
+                        break;
+                    case JSON_KEY_REPLICAS:
+                        expect(parser, value, JsonToken.VALUE_NUMBER_INT);
+                        builder.withNumReplicas(parser.getShortValue());
+                        break;
+                    case JSON_KEY_CONFIG:
+                        expect(parser, value, JsonToken.START_OBJECT);
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String key = parser.getCurrentName();
+                            parser.nextToken();
+                            builder.withConfigEntry(key, parser.getValueAsString());
+                            parser.skipChildren();
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        Topic.Builder builder = new Topic.Builder();
-        builder.withTopicName((String) root.get(JSON_KEY_TOPIC_NAME))
-                .withMapName((String) root.get(JSON_KEY_MAP_NAME))
-                .withNumPartitions((Integer) root.get(JSON_KEY_PARTITIONS))
-                .withNumReplicas(((Integer) root.get(JSON_KEY_REPLICAS)).shortValue());
-        Map<String, String> config = (Map) root.get(JSON_KEY_CONFIG);
-        for (Map.Entry<String, String> entry : config.entrySet()) {
-            builder.withConfigEntry(entry.getKey(), entry.getValue());
-        }
         return builder.build();
     }
 
-    private static ObjectMapper objectMapper() {
-        JsonFactory jf = new JsonFactory();
-        jf.configure(JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION, false);
-        return new ObjectMapper(jf);
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but got " + actual);
+        }
     }
 
 }
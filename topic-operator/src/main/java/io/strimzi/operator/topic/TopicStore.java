@@ -7,6 +7,8 @@ package io.strimzi.operator.topic;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 
+import java.util.List;
+
 /**
  * Represents a persistent data store where the operator can store its copy of the
  * topic state that won't be modified by either K8S or Kafka.
@@ -55,5 +57,19 @@ public interface TopicStore {
      * {@link NoSuchEntityExistsException}.
      */
     void delete(TopicName topic, Handler<AsyncResult<Void>> handler);
+
+    /**
+     * Asynchronously get the names of all the topics in the store
+     * and run the given handler on the context with the result.
+     */
+    void list(Handler<AsyncResult<List<TopicName>>> handler);
+
+    /**
+     * Forget anything held in memory about the topic with the given name,
+     * so that it's next read from the underlying storage.
+     * Used when this operator stops, or starts, being responsible for the topic.
+     */
+    default void invalidate(TopicName name) {
+    }
 }
 
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.strimzi.operator.topic.zk.AclBuilder;
+import io.strimzi.operator.topic.zk.Zk;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.I0Itec.zkclient.exception.ZkNodeExistsException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Stat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link Shard} whose members are the instances of the operator registered in ZooKeeper.
+ * Each instance creates an ephemeral znode under {@link #MEMBERS_PATH} and watches its siblings.
+ * Topics are assigned to the members using a {@link HashRing}, so when an instance joins or leaves
+ * (or its ZooKeeper session expires) the topics are rebalanced over the remaining instances.
+ *
+ * Until the membership is first known this shard owns no topics.
+ *
+ * Members see a change in membership at slightly different times, so a topic which a member gains
+ * is only owned once the handover period has passed since the last change,
+ * giving the member which lost it time to see the same change and stop operating on it.
+ * Topics which a member loses are given up immediately.
+ */
+class ZkShard implements Shard {
+
+    private final static Logger LOGGER = LogManager.getLogger(ZkShard.class);
+
+    static final String MEMBERS_PATH = "/strimzi/topic-operator-members";
+
+    private static final long MIN_REGISTER_DELAY_MS = 100;
+    private static final long MAX_REGISTER_DELAY_MS = 30_000;
+
+    private final Vertx vertx;
+    private final String memberId;
+    private final long handoverMs;
+    private final long registerTimeoutMs;
+    private final List<ACL> acl;
+
+    private volatile HashRing ring = new HashRing(Collections.emptyList());
+    /** The ring as of before the membership last changed, while topics are being handed over, otherwise null. */
+    private volatile HashRing handingOverFrom = null;
+    private volatile List<String> members = Collections.emptyList();
+
+    // Only accessed on the vertx context.
+    private Zk zk;
+    private Handler<Void> onRebalance;
+    private long handoverTimer = -1;
+    private boolean registering = false;
+    private long registerDelayMs = MIN_REGISTER_DELAY_MS;
+
+    /**
+     * @param vertx The vertx instance.
+     * @param memberId The id of this member.
+     * @param handoverMs How long to wait after the membership changes before owning the topics this member gains.
+     * @param registerTimeoutMs How long to keep retrying the initial registration, which should be longer than
+     *                          the ZooKeeper session timeout, so that the znode of a previous instance with the
+     *                          same id has gone by the time we give up.
+     */
+    ZkShard(Vertx vertx, String memberId, long handoverMs, long registerTimeoutMs) {
+        if (memberId.isEmpty() || memberId.contains("/")) {
+            throw new IllegalArgumentException("Invalid shard member id '" + memberId + "'");
+        }
+        this.vertx = vertx;
+        this.memberId = memberId;
+        this.handoverMs = handoverMs;
+        this.registerTimeoutMs = registerTimeoutMs;
+        this.acl = new AclBuilder().setWorld(AclBuilder.Permission.values()).build();
+    }
+
+    @Override
+    public boolean owns(TopicName topicName) {
+        HashRing from = handingOverFrom;
+        return memberId.equals(ring.owner(topicName))
+                && (from == null || memberId.equals(from.owner(topicName)));
+    }
+
+    /**
+     * Register this instance as a member, and start watching the membership.
+     * @param zk The ZooKeeper client.
+     * @param onRebalance Called (on the context) each time the ownership of topics changes:
+     *                    when the membership changes, and again when the handover period has passed.
+     * @return A future which completes once this instance is registered,
+     * or fails if it couldn't register within the registration timeout.
+     */
+    Future<Void> start(Zk zk, Handler<Void> onRebalance) {
+        this.zk = zk;
+        this.onRebalance = onRebalance;
+        Context context = vertx.getOrCreateContext();
+        return createParent("/strimzi")
+            .compose(ignored -> createParent(MEMBERS_PATH))
+            .compose(ignored -> register(System.currentTimeMillis() + registerTimeoutMs))
+            .map(ignored -> {
+                Handler<AsyncResult<List<String>>> membershipHandler =
+                    childrenResult -> context.runOnContext(v -> membershipChanged(childrenResult));
+                zk.watchChildren(MEMBERS_PATH, membershipHandler).children(MEMBERS_PATH, membershipHandler);
+                return null;
+            });
+    }
+
+    private Future<Void> createParent(String path) {
+        Future<Void> result = Future.future();
+        zk.create(path, null, acl, CreateMode.PERSISTENT, ar -> {
+            if (ar.succeeded() || ar.cause() instanceof ZkNodeExistsException) {
+                result.complete();
+            } else {
+                result.fail(ar.cause());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Register, retrying with a back off until the given time.
+     */
+    private Future<Void> register(long giveUpAt) {
+        Future<Void> result = Future.future();
+        register(giveUpAt, result);
+        return result;
+    }
+
+    private void register(long giveUpAt, Future<Void> result) {
+        register().setHandler(ar -> {
+            if (ar.succeeded()) {
+                registerDelayMs = MIN_REGISTER_DELAY_MS;
+                result.complete();
+            } else if (System.currentTimeMillis() + registerDelayMs > giveUpAt) {
+                result.fail(ar.cause());
+            } else {
+                LOGGER.warn("Error registering as shard member {}, retrying in {}ms", memberId, registerDelayMs, ar.cause());
+                long delay = registerDelayMs;
+                registerDelayMs = Math.min(2 * registerDelayMs, MAX_REGISTER_DELAY_MS);
+                vertx.setTimer(delay, timerId -> register(giveUpAt, result));
+            }
+        });
+    }
+
+    private Future<Void> register() {
+        Future<Void> result = Future.future();
+        zk.create(memberPath(), null, acl, CreateMode.EPHEMERAL, ar -> {
+            if (ar.succeeded()) {
+                LOGGER.info("Registered as shard member {}", memberId);
+                result.complete();
+            } else if (ar.cause() instanceof ZkNodeExistsException) {
+                registered(result);
+            } else {
+                result.fail(ar.cause());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Our znode already exists: Complete the given result if it belongs to our session
+     * (e.g. because a create was retried after the connection was lost), otherwise fail it.
+     */
+    private void registered(Future<Void> result) {
+        Stat stat = new Stat();
+        zk.getData(memberPath(), stat, ar -> {
+            if (ar.failed()) {
+                result.fail(ar.cause());
+            } else if (stat.getEphemeralOwner() == zk.sessionId()) {
+                LOGGER.info("Shard member {} is already registered by this session", memberId);
+                result.complete();
+            } else {
+                // Either another instance has the same member id, or our previous session hasn't expired yet.
+                // In both cases two instances would own the same topics.
+                result.fail(new OperatorException("Shard member " + memberId + " is already registered in "
+                        + MEMBERS_PATH + " by session " + Long.toHexString(stat.getEphemeralOwner())));
+            }
+        });
+    }
+
+    private String memberPath() {
+        return MEMBERS_PATH + "/" + memberId;
+    }
+
+    private void membershipChanged(AsyncResult<List<String>> childrenResult) {
+        if (childrenResult.failed()) {
+            LOGGER.error("Error getting shard members from {}", MEMBERS_PATH, childrenResult.cause());
+            return;
+        }
+        List<String> current = childrenResult.result() != null ? new ArrayList<>(childrenResult.result()) : new ArrayList<>();
+        Collections.sort(current);
+        if (!current.equals(members)) {
+            LOGGER.info("Topics are now sharded over {} members: {}", current.size(), current);
+            members = current;
+            if (handoverMs > 0 && handingOverFrom == null) {
+                handingOverFrom = ring;
+            }
+            ring = new HashRing(current);
+            if (handingOverFrom != null) {
+                // (Re)start the handover period, so gained topics are owned once the membership has settled
+                vertx.cancelTimer(handoverTimer);
+                handoverTimer = vertx.setTimer(handoverMs, timerId -> handedOver());
+            }
+            onRebalance.handle(null);
+        }
+        if (!current.contains(memberId)) {
+            // Our ephemeral znode has gone, e.g. because our session expired, so (having given up our topics)
+            // register again, which will cause another change in membership
+            LOGGER.warn("Shard member {} is no longer registered, registering again", memberId);
+            reregister();
+        }
+    }
+
+    private void reregister() {
+        if (registering) {
+            return;
+        }
+        registering = true;
+        register(Long.MAX_VALUE).setHandler(ar -> registering = false);
+    }
+
+    private void handedOver() {
+        handoverTimer = -1;
+        handingOverFrom = null;
+        LOGGER.info("Topics have been handed over to shard member {}", memberId);
+        onRebalance.handle(null);
+    }
+
+    /**
+     * @return The number of members, as of the last change in membership.
+     */
+    int members() {
+        return members.size();
+    }
+}
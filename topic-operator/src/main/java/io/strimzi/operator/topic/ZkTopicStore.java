@@ -9,13 +9,17 @@ import io.strimzi.operator.topic.zk.Zk;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import org.I0Itec.zkclient.exception.ZkBadVersionException;
 import org.I0Itec.zkclient.exception.ZkNoNodeException;
 import org.I0Itec.zkclient.exception.ZkNodeExistsException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Stat;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -30,8 +34,15 @@ public class ZkTopicStore implements TopicStore {
 
     private final List<ACL> acl;
 
+    private final Metrics metrics;
+
     public ZkTopicStore(Zk zk) {
+        this(zk, new Metrics());
+    }
+
+    public ZkTopicStore(Zk zk, Metrics metrics) {
         this.zk = zk;
+        this.metrics = metrics;
         acl = new AclBuilder().setWorld(AclBuilder.Permission.values()).build();
         createStrimziTopicsPath();
     }
@@ -60,10 +71,35 @@ public class ZkTopicStore implements TopicStore {
         return TOPICS_PATH + "/" + name;
     }
 
+    /**
+     * Wrap the given handler so that the time until it's called is recorded as the duration of the given operation.
+     */
+    private <T> Handler<AsyncResult<T>> timed(String operation, Handler<AsyncResult<T>> handler) {
+        long start = System.nanoTime();
+        return result -> {
+            metrics.histogram(Metrics.PREFIX + "topic_store_duration_seconds",
+                    "The time taken by topic store operations", "store", "zookeeper", "operation", operation).observeSince(start);
+            if (result.failed()) {
+                metrics.counter(Metrics.PREFIX + "topic_store_errors_total",
+                        "The number of failed topic store operations", "store", "zookeeper", "operation", operation).increment();
+            }
+            handler.handle(result);
+        };
+    }
+
     @Override
     public void read(TopicName topicName, Handler<AsyncResult<Topic>> handler) {
+        read(topicName, new Stat(), handler);
+    }
+
+    /**
+     * Like {@link #read(TopicName, Handler)}, but also populates the given {@code stat} with
+     * the metadata of the topic's znode, so that the caller knows its version.
+     */
+    void read(TopicName topicName, Stat stat, Handler<AsyncResult<Topic>> resultHandler) {
+        Handler<AsyncResult<Topic>> handler = timed("read", resultHandler);
         String topicPath = getTopicPath(topicName);
-        zk.getData(topicPath, result -> {
+        zk.getData(topicPath, stat, result -> {
             final AsyncResult<Topic> fut;
             if (result.succeeded()) {
                 fut = Future.succeededFuture(TopicSerialization.fromJson(result.result()));
@@ -79,7 +115,26 @@ public class ZkTopicStore implements TopicStore {
     }
 
     @Override
-    public void create(Topic topic, Handler<AsyncResult<Void>> handler) {
+    public void list(Handler<AsyncResult<List<TopicName>>> resultHandler) {
+        Handler<AsyncResult<List<TopicName>>> handler = timed("list", resultHandler);
+        zk.children(TOPICS_PATH, result -> {
+            if (result.succeeded()) {
+                List<TopicName> names = new ArrayList<>(result.result().size());
+                for (String child : result.result()) {
+                    names.add(new TopicName(child));
+                }
+                handler.handle(Future.succeededFuture(names));
+            } else if (result.cause() instanceof ZkNoNodeException) {
+                handler.handle(Future.succeededFuture(Collections.emptyList()));
+            } else {
+                handler.handle(result.map((List<TopicName>) null));
+            }
+        });
+    }
+
+    @Override
+    public void create(Topic topic, Handler<AsyncResult<Void>> resultHandler) {
+        Handler<AsyncResult<Void>> handler = timed("create", resultHandler);
         byte[] data = TopicSerialization.toJson(topic);
         String topicPath = getTopicPath(topic.getTopicName());
         LOGGER.debug("create znode {}", topicPath);
@@ -94,19 +149,36 @@ public class ZkTopicStore implements TopicStore {
 
     @Override
     public void update(Topic topic, Handler<AsyncResult<Void>> handler) {
+        update(topic, -1, handler);
+    }
+
+    /**
+     * Like {@link #update(Topic, Handler)}, but only updates the topic's znode if it has the given version
+     * (or if the given version is -1). If the versions don't match the handler is called with a
+     * failed result whose {@code cause()} is {@link ZkBadVersionException}.
+     */
+    void update(Topic topic, int version, Handler<AsyncResult<Void>> handler) {
         byte[] data = TopicSerialization.toJson(topic);
-        // TODO pass a non-zero version
         String topicPath = getTopicPath(topic.getTopicName());
-        LOGGER.debug("update znode {}", topicPath);
-        zk.setData(topicPath, data, -1, handler);
+        LOGGER.debug("update znode {} with version {}", topicPath, version);
+        zk.setData(topicPath, data, version, timed("update", handler));
     }
 
     @Override
     public void delete(TopicName topicName, Handler<AsyncResult<Void>> handler) {
-        // TODO pass a non-zero version
+        delete(topicName, -1, handler);
+    }
+
+    /**
+     * Like {@link #delete(TopicName, Handler)}, but only deletes the topic's znode if it has the given version
+     * (or if the given version is -1). If the versions don't match the handler is called with a
+     * failed result whose {@code cause()} is {@link ZkBadVersionException}.
+     */
+    void delete(TopicName topicName, int version, Handler<AsyncResult<Void>> resultHandler) {
+        Handler<AsyncResult<Void>> handler = timed("delete", resultHandler);
         String topicPath = getTopicPath(topicName);
-        LOGGER.debug("delete znode {}", topicPath);
-        zk.delete(topicPath, -1, result -> {
+        LOGGER.debug("delete znode {} with version {}", topicPath, version);
+        zk.delete(topicPath, version, result -> {
             if (result.failed() && result.cause() instanceof ZkNoNodeException) {
                 handler.handle(Future.failedFuture(new NoSuchEntityExistsException()));
             } else {
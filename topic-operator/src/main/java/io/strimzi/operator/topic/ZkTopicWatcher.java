@@ -4,19 +4,119 @@
  */
 package io.strimzi.operator.topic;
 
+import io.strimzi.operator.topic.zk.Zk;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ZooKeeper watcher for child znodes of {@code /brokers/topics},
  * calling {@link TopicOperator#onTopicPartitionsChanged(TopicName, Handler)}
  * for changed children.
+ *
+ * When multiplexed, rather than watching the znode of each topic this periodically fetches the metadata of all
+ * the watched topics from Kafka in bulk, and compares their number of partitions with the last check.
+ * Creation and deletion of topics is still noticed by the watch on the children of {@code /brokers/topics}.
  */
 public class ZkTopicWatcher extends ZkWatcher {
 
     private static final String TOPICS_ZNODE = "/brokers/topics";
 
+    private final Vertx vertx;
+    private final Kafka kafka;
+    private final long checkIntervalMs;
+
+    /** The number of partitions of each watched topic, as of the last check. */
+    private final Map<String, Integer> partitionCounts = new ConcurrentHashMap<>();
+    private volatile long timerId = -1;
+    private volatile boolean checking;
+
     ZkTopicWatcher(TopicOperator topicOperator) {
         super(topicOperator, TOPICS_ZNODE);
+        this.vertx = null;
+        this.kafka = null;
+        this.checkIntervalMs = 0;
+    }
+
+    /**
+     * Constructor for a multiplexed watcher.
+     *
+     * @param topicOperator Operator instance to notify
+     * @param vertx Vertx instance, for the check timer
+     * @param kafka Kafka, for fetching the topics' metadata
+     * @param checkIntervalMs The interval between checks of the number of partitions
+     */
+    ZkTopicWatcher(TopicOperator topicOperator, Vertx vertx, Kafka kafka, long checkIntervalMs) {
+        super(topicOperator, TOPICS_ZNODE, false);
+        this.vertx = vertx;
+        this.kafka = kafka;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    @Override
+    protected void start(Zk zk) {
+        super.start(zk);
+        if (kafka != null) {
+            partitionCounts.clear();
+            timerId = vertx.setPeriodic(checkIntervalMs, id -> checkPartitions());
+        }
+    }
+
+    @Override
+    protected void stop() {
+        super.stop();
+        if (timerId != -1) {
+            vertx.cancelTimer(timerId);
+            timerId = -1;
+        }
+    }
+
+    @Override
+    protected void removeChild(String child) {
+        super.removeChild(child);
+        partitionCounts.remove(child);
+    }
+
+    /**
+     * Fetch the metadata of all the watched topics in bulk,
+     * and notify the operator of those whose number of partitions has changed since the last check.
+     * Topics which weren't known at the last check just have their number of partitions noted.
+     */
+    void checkPartitions() {
+        if (checking || !started()) {
+            return;
+        }
+        List<TopicName> topicNames = new ArrayList<>(children().size());
+        for (String child : children()) {
+            topicNames.add(new TopicName(child));
+        }
+        if (topicNames.isEmpty()) {
+            return;
+        }
+        checking = true;
+        kafka.topicsMetadata(topicNames, metadataResult -> {
+            checking = false;
+            if (metadataResult.failed()) {
+                log.warn("Error checking the number of partitions of {} topics", topicNames.size(), metadataResult.cause());
+                return;
+            }
+            for (Map.Entry<TopicName, TopicMetadata> entry : metadataResult.result().entrySet()) {
+                String topic = entry.getKey().toString();
+                if (!watching(topic)) {
+                    continue;
+                }
+                int partitions = entry.getValue().getDescription().partitions().size();
+                Integer previous = partitionCounts.put(topic, partitions);
+                if (previous != null && previous != partitions) {
+                    countEvent();
+                    notifyOperator(topic);
+                }
+            }
+        });
     }
 
     @Override
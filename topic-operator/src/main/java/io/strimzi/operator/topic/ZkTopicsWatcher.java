@@ -5,17 +5,26 @@
 package io.strimzi.operator.topic;
 
 import io.strimzi.operator.topic.zk.Zk;
+import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * ZooKeeper watcher for child znodes of {@code /brokers/topics},
  * calling {@link TopicOperator#onTopicCreated(TopicName, io.vertx.core.Handler)} for new children and
  * {@link TopicOperator#onTopicDeleted(TopicName, io.vertx.core.Handler)} for deleted children.
+ *
+ * The known children are kept sorted, so each notification is diffed against them with a single merge
+ * rather than by building sets of all the topics.
+ * Notifications which arrive within the batch window of the first are coalesced,
+ * and only the children in the last of them are diffed.
+ * A notification which arrives before the initial children have been read is kept until they have,
+ * and then diffed against them.
  */
 class ZkTopicsWatcher {
 
@@ -27,7 +36,17 @@ class ZkTopicsWatcher {
     private final TopicConfigsWatcher tcw;
     private final ZkTopicWatcher tw;
 
-    private List<String> children;
+    private final Vertx vertx;
+    private final long batchMs;
+
+    /** The children as of the last diff, sorted. */
+    private volatile List<String> children;
+
+    /** The children from the latest notification which has not been diffed yet, if batching. */
+    private final AtomicReference<List<String>> pending = new AtomicReference<>();
+
+    /** The children from the latest notification received before the initial children were read. Guarded by this. */
+    private List<String> early;
 
     private volatile int state = 0;
 
@@ -39,9 +58,24 @@ class ZkTopicsWatcher {
      * @param tw    watcher for the topics partitions changes
      */
     ZkTopicsWatcher(TopicOperator topicOperator, TopicConfigsWatcher tcw, ZkTopicWatcher tw) {
+        this(topicOperator, tcw, tw, null, 0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param topicOperator    Operator instance
+     * @param tcw   watcher for the topics config changes
+     * @param tw    watcher for the topics partitions changes
+     * @param vertx Vertx instance, for the batch timer
+     * @param batchMs   how long to wait for further notifications before diffing the children, or 0 to diff every notification
+     */
+    ZkTopicsWatcher(TopicOperator topicOperator, TopicConfigsWatcher tcw, ZkTopicWatcher tw, Vertx vertx, long batchMs) {
         this.topicOperator = topicOperator;
         this.tcw = tcw;
         this.tw = tw;
+        this.vertx = vertx;
+        this.batchMs = batchMs;
     }
 
     void stop() {
@@ -54,8 +88,36 @@ class ZkTopicsWatcher {
         return this.state == 1;
     }
 
+    /**
+     * Update the child watches after the topics owned by this instance of the operator have changed:
+     * Stop watching the topics which are no longer owned and start watching the ones which now are.
+     * The operator is told about each topic whose ownership changed, so it can forget what it knew about it.
+     */
+    void rebalance() {
+        List<String> children = this.children;
+        if (children == null) {
+            return;
+        }
+        for (String topicName : children) {
+            boolean owned = topicOperator.owns(new TopicName(topicName));
+            if (owned && !tw.watching(topicName)) {
+                topicOperator.ownershipChanged(new TopicName(topicName));
+                tcw.addChild(topicName);
+                tw.addChild(topicName);
+            } else if (!owned && tw.watching(topicName)) {
+                tcw.removeChild(topicName);
+                tw.removeChild(topicName);
+                topicOperator.ownershipChanged(new TopicName(topicName));
+            }
+        }
+    }
+
     void start(Zk zk) {
-        children = null;
+        synchronized (this) {
+            children = null;
+            early = null;
+        }
+        pending.set(null);
         tcw.start(zk);
         tw.start(zk);
         zk.watchChildren(TOPICS_ZNODE, childResult -> {
@@ -63,57 +125,124 @@ class ZkTopicsWatcher {
                 zk.unwatchChildren(TOPICS_ZNODE);
                 return;
             }
+            topicOperator.metrics().counter(Metrics.PREFIX + "zk_watch_events_total",
+                    "The number of ZooKeeper watch notifications received, by watcher", "watcher", "topics").increment();
+            if (childResult.failed()) {
+                LOGGER.error("Error on znode {} children", TOPICS_ZNODE, childResult.cause());
+                return;
+            }
+            notified(childResult.result());
+        }).children(TOPICS_ZNODE, childResult -> {
             if (childResult.failed()) {
                 LOGGER.error("Error on znode {} children", TOPICS_ZNODE, childResult.cause());
                 return;
             }
-            List<String> result = childResult.result();
-            LOGGER.debug("znode {} now has children {}, previous children {}", TOPICS_ZNODE, result, this.children);
-            Set<String> deleted = new HashSet<>(this.children);
-            deleted.removeAll(result);
-            Set<String> created = new HashSet<>(result);
-            created.removeAll(this.children);
-            this.children = result;
-
-            if (!deleted.isEmpty()) {
-                LOGGER.info("Deleted topics: {}", deleted);
-                for (String topicName : deleted) {
-                    tcw.removeChild(topicName);
-                    tw.removeChild(topicName);
-                    topicOperator.onTopicDeleted(new TopicName(topicName), ar -> {
-                        if (ar.succeeded()) {
-                            LOGGER.debug("Success responding to deletion of topic {}", topicName);
-                        } else {
-                            LOGGER.warn("Error responding to deletion of topic {}", topicName, ar.cause());
-                        }
-                    });
+            initialChildren(sorted(childResult.result()));
+        });
+    }
+
+    private synchronized void initialChildren(List<String> result) {
+        LOGGER.debug("Setting initial children {}", result);
+        this.children = result;
+        this.state = 1;
+        if (early != null) {
+            List<String> notifiedChildren = early;
+            early = null;
+            childrenChanged(notifiedChildren);
+        }
+    }
+
+    private synchronized void notified(List<String> result) {
+        if (children == null) {
+            // There's nothing to diff against yet
+            early = result;
+        } else if (batchMs <= 0) {
+            childrenChanged(result);
+        } else if (pending.getAndSet(result) == null) {
+            vertx.setTimer(batchMs, timerId -> {
+                if (state != 2) {
+                    childrenChanged(pending.getAndSet(null));
                 }
+            });
+        } else {
+            topicOperator.metrics().counter(Metrics.PREFIX + "zk_topics_notifications_coalesced_total",
+                    "The number of notifications of the children of " + TOPICS_ZNODE + " superseded by a later one before being diffed").increment();
+        }
+    }
+
+    private static List<String> sorted(List<String> children) {
+        // The list is ours, so sort it in place
+        List<String> result = children != null ? children : Collections.emptyList();
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Diff the given children against the known children, and notify the operator of the created and deleted topics.
+     */
+    private synchronized void childrenChanged(List<String> current) {
+        List<String> result = sorted(current);
+        List<String> previous = this.children;
+        this.children = result;
+        LOGGER.debug("znode {} now has {} children, previously {}", TOPICS_ZNODE, result.size(), previous.size());
+        List<String> deleted = new ArrayList<>(0);
+        List<String> created = new ArrayList<>(0);
+        // Merge the two sorted lists
+        int i = 0;
+        int j = 0;
+        while (i < previous.size() || j < result.size()) {
+            int cmp;
+            if (i == previous.size()) {
+                cmp = 1;
+            } else if (j == result.size()) {
+                cmp = -1;
+            } else {
+                cmp = previous.get(i).compareTo(result.get(j));
             }
+            if (cmp < 0) {
+                deleted.add(previous.get(i++));
+            } else if (cmp > 0) {
+                created.add(result.get(j++));
+            } else {
+                i++;
+                j++;
+            }
+        }
 
-            if (!created.isEmpty()) {
-                LOGGER.info("Created topics: {}", created);
-                for (String topicName : created) {
-                    tcw.addChild(topicName);
-                    tw.addChild(topicName);
-                    topicOperator.onTopicCreated(new TopicName(topicName), ar -> {
-                        if (ar.succeeded()) {
-                            LOGGER.debug("Success responding to creation of topic {}", topicName);
-                        } else {
-                            LOGGER.warn("Error responding to creation of topic {}", topicName, ar.cause());
-                        }
-                    });
+        if (!deleted.isEmpty()) {
+            LOGGER.info("Deleted topics: {}", deleted);
+            for (String topicName : deleted) {
+                if (!topicOperator.owns(new TopicName(topicName))) {
+                    continue;
                 }
+                tcw.removeChild(topicName);
+                tw.removeChild(topicName);
+                topicOperator.onTopicDeleted(new TopicName(topicName), ar -> {
+                    if (ar.succeeded()) {
+                        LOGGER.debug("Success responding to deletion of topic {}", topicName);
+                    } else {
+                        LOGGER.warn("Error responding to deletion of topic {}", topicName, ar.cause());
+                    }
+                });
             }
+        }
 
-        }).children(TOPICS_ZNODE, childResult -> {
-            if (childResult.failed()) {
-                LOGGER.error("Error on znode {} children", TOPICS_ZNODE, childResult.cause());
-                return;
+        if (!created.isEmpty()) {
+            LOGGER.info("Created topics: {}", created);
+            for (String topicName : created) {
+                if (!topicOperator.owns(new TopicName(topicName))) {
+                    continue;
+                }
+                tcw.addChild(topicName);
+                tw.addChild(topicName);
+                topicOperator.onTopicCreated(new TopicName(topicName), ar -> {
+                    if (ar.succeeded()) {
+                        LOGGER.debug("Success responding to creation of topic {}", topicName);
+                    } else {
+                        LOGGER.warn("Error responding to creation of topic {}", topicName, ar.cause());
+                    }
+                });
             }
-            List<String> result = childResult.result();
-            LOGGER.debug("Setting initial children {}", result);
-            this.children = result;
-            this.state = 1;
-        });
+        }
     }
 }
@@ -10,10 +10,13 @@ import io.vertx.core.Handler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Base abstract class for a ZooKeeper watcher for child znodes
+ * Base abstract class for a ZooKeeper watcher for child znodes.
+ * Normally each child added has its own data watch. Subclasses can instead opt to just keep track of the
+ * children, and detect their changes in some other way which doesn't need a ZooKeeper watch per child.
  */
 public abstract class ZkWatcher {
 
@@ -25,6 +28,7 @@ public abstract class ZkWatcher {
 
     private final ConcurrentHashMap<String, Boolean> children = new ConcurrentHashMap<>();
     private final String rootZNode;
+    private final boolean dataWatches;
 
     /**
      * Constructor
@@ -33,8 +37,20 @@ public abstract class ZkWatcher {
      * @param rootZNode     root znode to watch children
      */
     ZkWatcher(TopicOperator topicOperator, String rootZNode) {
+        this(topicOperator, rootZNode, true);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param topicOperator    Operator instance to notify
+     * @param rootZNode     root znode to watch children
+     * @param dataWatches   whether to watch the data of each child, or only keep track of the children
+     */
+    ZkWatcher(TopicOperator topicOperator, String rootZNode, boolean dataWatches) {
         this.topicOperator = topicOperator;
         this.rootZNode = rootZNode;
+        this.dataWatches = dataWatches;
     }
 
     /**
@@ -67,6 +83,10 @@ public abstract class ZkWatcher {
      * @param child child to watch
      */
     protected void addChild(String child) {
+        if (!dataWatches) {
+            this.children.put(child, true);
+            return;
+        }
         this.children.put(child, false);
         String path = getPath(child);
         log.debug("Watching znode {} for changes", path);
@@ -74,6 +94,7 @@ public abstract class ZkWatcher {
             if (dataResult.succeeded()) {
                 this.children.compute(child, (k, v) -> {
                     if (v) {
+                        countEvent();
                         this.notifyOperator(child);
                     }
                     return true;
@@ -93,7 +114,9 @@ public abstract class ZkWatcher {
     protected void removeChild(String child) {
         log.debug("Unwatching znode {} for changes", child);
         this.children.remove(child);
-        zk.unwatchData(getPath(child));
+        if (dataWatches) {
+            zk.unwatchData(getPath(child));
+        }
     }
 
     /**
@@ -116,6 +139,21 @@ public abstract class ZkWatcher {
         return this.children.containsKey(child);
     }
 
+    /**
+     * @return A live view of the children currently watched
+     */
+    protected Set<String> children() {
+        return this.children.keySet();
+    }
+
+    /**
+     * Count a change notification from ZooKeeper
+     */
+    protected void countEvent() {
+        topicOperator.metrics().counter(Metrics.PREFIX + "zk_watch_events_total",
+                "The number of ZooKeeper watch notifications received, by watcher", "watcher", getClass().getSimpleName()).increment();
+    }
+
     /**
      * Notify the operator about changes in the provided child
      *
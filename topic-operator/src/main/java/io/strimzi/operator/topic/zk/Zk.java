@@ -8,7 +8,10 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Stat;
 
 import java.util.List;
 
@@ -18,7 +21,19 @@ import java.util.List;
 public interface Zk {
 
     public static Zk create(Vertx vertx, String zkConnectionString, int sessionTimeout, int connectionTimeout) {
-        return new ZkImpl(vertx, zkConnectionString, sessionTimeout, connectionTimeout);
+        return create(vertx, zkConnectionString, sessionTimeout, connectionTimeout, false);
+    }
+
+    /**
+     * Create a client, using the {@link ZkAsyncImpl native asynchronous API} if {@code async},
+     * otherwise using {@link ZkImpl ZkClient}.
+     */
+    public static Zk create(Vertx vertx, String zkConnectionString, int sessionTimeout, int connectionTimeout, boolean async) {
+        if (async) {
+            return new ZkAsyncImpl(vertx, zkConnectionString, sessionTimeout, connectionTimeout);
+        } else {
+            return new ZkImpl(vertx, zkConnectionString, sessionTimeout, connectionTimeout);
+        }
     }
 
     /**
@@ -26,6 +41,11 @@ public interface Zk {
      */
     Zk disconnect(Handler<AsyncResult<Void>> handler);
 
+    /**
+     * The id of the current ZooKeeper session, which is the {@code ephemeralOwner} of the ephemeral znodes it creates.
+     */
+    long sessionId();
+
     /**
      * Asynchronously create the znode at the given path and with the given data and ACL, using the
      * given createMode, then invoke the given handler with the result.
@@ -70,6 +90,13 @@ public interface Zk {
      */
     Zk getData(String path, Handler<AsyncResult<byte[]>> handler);
 
+    /**
+     * Asynchronously fetch the data of the given znode at the given path, calling the given handler
+     * with the result. Before the handler is called the given {@code stat} is populated with the
+     * znode's metadata (in particular its version).
+     */
+    Zk getData(String path, Stat stat, Handler<AsyncResult<byte[]>> handler);
+
     /**
      * Set given the data {@code watcher} on the given {@code path}.
      * A subsequent call to {@link #getData(String, Handler)} with the same path will register the data {@code watcher}
@@ -83,7 +110,24 @@ public interface Zk {
      */
     Zk unwatchData(String path);
 
-    // TODO getAcl(), setAcl(), multi()
+    /**
+     * Set the given {@code watcher} to be called when the znode at the given {@code path} is deleted.
+     * Unlike a data watcher, this can be set on a path which doesn't (yet) exist.
+     */
+    Zk watchDeletion(String path, Handler<AsyncResult<Void>> watcher);
+
+    /**
+     * Remove the deletion watcher, if any, for the given {@code path}.
+     */
+    Zk unwatchDeletion(String path);
+
+    /**
+     * Asynchronously perform the given operations as a single transaction: Either all of them succeed or none of them do,
+     * then invoke the given handler with the results.
+     */
+    Zk multi(List<Op> ops, Handler<AsyncResult<List<OpResult>>> handler);
+
+    // TODO getAcl(), setAcl()
 
 }
 
@@ -0,0 +1,485 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.zk;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.I0Itec.zkclient.exception.ZkException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Stat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Implementation of {@link Zk} using the native asynchronous ZooKeeper API.
+ * Unlike {@link ZkImpl} no threads are blocked waiting for responses, so any number of requests
+ * can be pipelined on the connection.
+ * Handlers are called on the context of the caller.
+ * Failures have the same {@code ZkClient} exception types as {@link ZkImpl},
+ * so callers can handle both implementations in the same way.
+ */
+public class ZkAsyncImpl implements Zk {
+
+    private final static Logger LOGGER = LogManager.getLogger(ZkAsyncImpl.class);
+
+    /** The delay before retrying a request which failed because the connection was lost. */
+    private static final long RETRY_DELAY_MS = 100;
+
+    /** Makes a single request using the given client, and passes the return code and result to the given callback. */
+    @FunctionalInterface
+    private interface Request<T> {
+        void send(ZooKeeper zookeeper, BiConsumer<Integer, T> callback);
+    }
+
+    private final Vertx vertx;
+    private final String zkConnectionString;
+    private final int sessionTimeout;
+    private final int connectionTimeout;
+    private volatile ZooKeeper zookeeper;
+    private volatile boolean closed = false;
+
+    private final ConcurrentHashMap<String, DataWatch> dataWatches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DeletionWatch> deletionWatches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ChildWatch> childWatches = new ConcurrentHashMap<>();
+
+    public ZkAsyncImpl(Vertx vertx, String zkConnectionString, int sessionTimeout, int connectionTimeout) {
+        this.vertx = vertx;
+        this.zkConnectionString = zkConnectionString;
+        this.sessionTimeout = sessionTimeout;
+        this.connectionTimeout = connectionTimeout;
+        this.zookeeper = connect();
+    }
+
+    private ZooKeeper connect() {
+        try {
+            return new ZooKeeper(zkConnectionString, sessionTimeout, this::sessionEvent);
+        } catch (IOException e) {
+            throw new ZkException("Unable to connect to " + zkConnectionString, e);
+        }
+    }
+
+    /**
+     * Handle changes in the state of the session. When the session has expired the ZooKeeper client
+     * can't be used any more, so we create a new one and set the watches again.
+     */
+    private void sessionEvent(WatchedEvent event) {
+        LOGGER.debug("ZooKeeper session event {}", event);
+        if (event.getState() == Watcher.Event.KeeperState.Expired) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                LOGGER.warn("ZooKeeper session expired, reconnecting");
+                this.zookeeper = connect();
+            }
+            // Like ZkClient, notify all the watchers, since we can't know what changed while we had no session
+            childWatches.values().forEach(ChildWatch::refresh);
+            dataWatches.values().forEach(DataWatch::refresh);
+            deletionWatches.values().forEach(DeletionWatch::refresh);
+        }
+    }
+
+    /**
+     * Send the given request, retrying it while the connection is lost (for up to the connection timeout),
+     * and then call the given handler on the current context with the result.
+     */
+    private <T> void send(String path, Request<T> request, Handler<AsyncResult<T>> handler) {
+        Context context = vertx.getOrCreateContext();
+        send(path, request, System.currentTimeMillis() + connectionTimeout, context, handler);
+    }
+
+    private <T> void send(String path, Request<T> request, long deadline, Context context, Handler<AsyncResult<T>> handler) {
+        if (closed) {
+            context.runOnContext(v -> handler.handle(Future.failedFuture(new IllegalStateException("The ZooKeeper client has been disconnected"))));
+            return;
+        }
+        try {
+            request.send(zookeeper, (rc, result) -> {
+                KeeperException.Code code = KeeperException.Code.get(rc);
+                if (code == KeeperException.Code.OK) {
+                    context.runOnContext(v -> handler.handle(Future.succeededFuture(result)));
+                } else if ((code == KeeperException.Code.CONNECTIONLOSS
+                            || code == KeeperException.Code.SESSIONEXPIRED)
+                        && !closed
+                        && System.currentTimeMillis() < deadline) {
+                    LOGGER.debug("Retrying request on {} after {}", path, code);
+                    vertx.setTimer(RETRY_DELAY_MS, timerId -> send(path, request, deadline, context, handler));
+                } else {
+                    ZkException exception = ZkException.create(KeeperException.create(code, path));
+                    context.runOnContext(v -> handler.handle(Future.failedFuture(exception)));
+                }
+            });
+        } catch (RuntimeException e) {
+            context.runOnContext(v -> handler.handle(Future.failedFuture(e)));
+        }
+    }
+
+    @Override
+    public long sessionId() {
+        return zookeeper.getSessionId();
+    }
+
+    @Override
+    public Zk disconnect(Handler<AsyncResult<Void>> handler) {
+        closed = true;
+        dataWatches.clear();
+        deletionWatches.clear();
+        childWatches.clear();
+        // close() waits for the server to acknowledge, so don't do it on an event loop
+        vertx.executeBlocking(
+            future -> {
+                try {
+                    zookeeper.close();
+                    future.complete();
+                } catch (Throwable t) {
+                    future.fail(t);
+                }
+            },
+            handler);
+        return this;
+    }
+
+    @Override
+    public Zk create(String path, byte[] data, List<ACL> acls, CreateMode createMode, Handler<AsyncResult<Void>> handler) {
+        byte[] bytes = data == null ? new byte[0] : data;
+        send(path, (zookeeper, callback) ->
+            zookeeper.create(path, bytes, acls, createMode,
+                (rc, p, ctx, name) -> callback.accept(rc, null), null),
+            handler);
+        return this;
+    }
+
+    @Override
+    public Zk delete(String path, int version, Handler<AsyncResult<Void>> handler) {
+        send(path, (zookeeper, callback) ->
+            zookeeper.delete(path, version,
+                (rc, p, ctx) -> callback.accept(rc, null), null),
+            handler);
+        return this;
+    }
+
+    @Override
+    public Zk setData(String path, byte[] data, int version, Handler<AsyncResult<Void>> handler) {
+        send(path, (zookeeper, callback) ->
+            zookeeper.setData(path, data, version,
+                (rc, p, ctx, stat) -> callback.accept(rc, null), null),
+            handler);
+        return this;
+    }
+
+    @Override
+    public Zk children(String path, Handler<AsyncResult<List<String>>> handler) {
+        send(path, (zookeeper, callback) ->
+            zookeeper.getChildren(path, false,
+                (rc, p, ctx, children) -> callback.accept(rc, children), null),
+            handler);
+        return this;
+    }
+
+    @Override
+    public Zk getData(String path, Handler<AsyncResult<byte[]>> handler) {
+        return getData(path, null, handler);
+    }
+
+    @Override
+    public Zk getData(String path, Stat stat, Handler<AsyncResult<byte[]>> handler) {
+        send(path, (zookeeper, callback) ->
+            zookeeper.getData(path, false,
+                (rc, p, ctx, data, resultStat) -> {
+                    if (stat != null && resultStat != null) {
+                        copyStat(resultStat, stat);
+                    }
+                    callback.accept(rc, data);
+                }, null),
+            handler);
+        return this;
+    }
+
+    private static void copyStat(Stat from, Stat to) {
+        to.setCzxid(from.getCzxid());
+        to.setMzxid(from.getMzxid());
+        to.setCtime(from.getCtime());
+        to.setMtime(from.getMtime());
+        to.setVersion(from.getVersion());
+        to.setCversion(from.getCversion());
+        to.setAversion(from.getAversion());
+        to.setEphemeralOwner(from.getEphemeralOwner());
+        to.setDataLength(from.getDataLength());
+        to.setNumChildren(from.getNumChildren());
+        to.setPzxid(from.getPzxid());
+    }
+
+    @Override
+    public Zk multi(List<Op> ops, Handler<AsyncResult<List<OpResult>>> handler) {
+        String path = ops.isEmpty() ? null : ops.get(0).getPath();
+        send(path, (zookeeper, callback) ->
+            zookeeper.multi(ops,
+                (rc, p, ctx, results) -> callback.accept(rc, results), null),
+            handler);
+        return this;
+    }
+
+    /**
+     * Base class for watches. ZooKeeper watches only fire once, so they're set again each time they fire,
+     * unless they've been removed (ZooKeeper 3.4 has no way to remove a watch from the server).
+     */
+    private abstract class Watch<T> implements Watcher {
+        protected final String path;
+        private final Context context;
+        private final Handler<AsyncResult<T>> watcher;
+
+        Watch(String path, Handler<AsyncResult<T>> watcher) {
+            this.path = path;
+            this.context = vertx.getOrCreateContext();
+            this.watcher = watcher;
+        }
+
+        /** Whether this is still the watch for its path. */
+        abstract boolean isCurrent();
+
+        /** Set the watch in ZooKeeper. */
+        abstract void arm();
+
+        /** Set the watch in ZooKeeper and notify the watcher of the current state. */
+        abstract void refresh();
+
+        @Override
+        public void process(WatchedEvent event) {
+            if (event.getType() != Event.EventType.None && isCurrent()) {
+                LOGGER.trace("Watch on {} fired with {}", path, event);
+                fired(event.getType());
+            }
+        }
+
+        abstract void fired(Event.EventType type);
+
+        void notifyWatcher(T result) {
+            context.runOnContext(v -> {
+                if (isCurrent()) {
+                    watcher.handle(Future.succeededFuture(result));
+                }
+            });
+        }
+
+        void failed(int rc) {
+            if (rc != KeeperException.Code.SESSIONEXPIRED.intValue()
+                    && rc != KeeperException.Code.CONNECTIONLOSS.intValue()) {
+                LOGGER.warn("Error setting watch on {}: {}", path, KeeperException.Code.get(rc));
+            } else if (!closed) {
+                // The watch will be set when we have reconnected
+                vertx.setTimer(RETRY_DELAY_MS, timerId -> {
+                    if (isCurrent()) {
+                        arm();
+                    }
+                });
+            }
+        }
+    }
+
+    private class ChildWatch extends Watch<List<String>> {
+
+        ChildWatch(String path, Handler<AsyncResult<List<String>>> watcher) {
+            super(path, watcher);
+        }
+
+        @Override
+        boolean isCurrent() {
+            return childWatches.get(path) == this;
+        }
+
+        @Override
+        void arm() {
+            getChildren(false);
+        }
+
+        @Override
+        void refresh() {
+            getChildren(true);
+        }
+
+        private void getChildren(boolean notify) {
+            zookeeper.getChildren(path, this, (rc, p, ctx, children) -> {
+                if (rc == KeeperException.Code.OK.intValue()) {
+                    if (notify) {
+                        notifyWatcher(children);
+                    }
+                } else if (rc == KeeperException.Code.NONODE.intValue()) {
+                    // Watch for its creation instead
+                    zookeeper.exists(path, this, (rc2, p2, ctx2, stat) -> {
+                        if (rc2 == KeeperException.Code.OK.intValue()) {
+                            // Created in the meantime
+                            getChildren(notify);
+                        } else if (rc2 != KeeperException.Code.NONODE.intValue()) {
+                            failed(rc2);
+                        }
+                    }, null);
+                } else {
+                    failed(rc);
+                }
+            }, null);
+        }
+
+        @Override
+        void fired(Event.EventType type) {
+            if (type == Event.EventType.NodeChildrenChanged || type == Event.EventType.NodeCreated) {
+                refresh();
+            } else {
+                arm();
+            }
+        }
+    }
+
+    private class DataWatch extends Watch<byte[]> {
+
+        DataWatch(String path, Handler<AsyncResult<byte[]>> watcher) {
+            super(path, watcher);
+        }
+
+        @Override
+        boolean isCurrent() {
+            return dataWatches.get(path) == this;
+        }
+
+        @Override
+        void arm() {
+            getData(false);
+        }
+
+        @Override
+        void refresh() {
+            getData(true);
+        }
+
+        private void getData(boolean notify) {
+            zookeeper.getData(path, this, (rc, p, ctx, data, stat) -> {
+                if (rc == KeeperException.Code.OK.intValue()) {
+                    if (notify) {
+                        notifyWatcher(data);
+                    }
+                } else if (rc == KeeperException.Code.NONODE.intValue()) {
+                    // Watch for its creation instead
+                    zookeeper.exists(path, this, (rc2, p2, ctx2, stat2) -> {
+                        if (rc2 == KeeperException.Code.OK.intValue()) {
+                            // Created in the meantime
+                            getData(true);
+                        } else if (rc2 != KeeperException.Code.NONODE.intValue()) {
+                            failed(rc2);
+                        }
+                    }, null);
+                } else {
+                    failed(rc);
+                }
+            }, null);
+        }
+
+        @Override
+        void fired(Event.EventType type) {
+            if (type == Event.EventType.NodeDataChanged || type == Event.EventType.NodeCreated) {
+                refresh();
+            } else {
+                arm();
+            }
+        }
+    }
+
+    private class DeletionWatch extends Watch<Void> {
+
+        DeletionWatch(String path, Handler<AsyncResult<Void>> watcher) {
+            super(path, watcher);
+        }
+
+        @Override
+        boolean isCurrent() {
+            return deletionWatches.get(path) == this;
+        }
+
+        @Override
+        void arm() {
+            exists(false);
+        }
+
+        @Override
+        void refresh() {
+            exists(true);
+        }
+
+        private void exists(boolean notify) {
+            zookeeper.exists(path, this, (rc, p, ctx, stat) -> {
+                if (rc == KeeperException.Code.NONODE.intValue()) {
+                    if (notify) {
+                        notifyWatcher(null);
+                    }
+                } else if (rc != KeeperException.Code.OK.intValue()) {
+                    failed(rc);
+                }
+            }, null);
+        }
+
+        @Override
+        void fired(Event.EventType type) {
+            if (type == Event.EventType.NodeDeleted) {
+                notifyWatcher(null);
+            }
+            arm();
+        }
+    }
+
+    @Override
+    public Zk watchChildren(String path, Handler<AsyncResult<List<String>>> watcher) {
+        ChildWatch watch = new ChildWatch(path, watcher);
+        childWatches.put(path, watch);
+        watch.arm();
+        return this;
+    }
+
+    @Override
+    public Zk unwatchChildren(String path) {
+        childWatches.remove(path);
+        return this;
+    }
+
+    @Override
+    public Zk watchData(String path, Handler<AsyncResult<byte[]>> watcher) {
+        DataWatch watch = new DataWatch(path, watcher);
+        dataWatches.put(path, watch);
+        watch.arm();
+        return this;
+    }
+
+    @Override
+    public Zk unwatchData(String path) {
+        dataWatches.remove(path);
+        return this;
+    }
+
+    @Override
+    public Zk watchDeletion(String path, Handler<AsyncResult<Void>> watcher) {
+        DeletionWatch watch = new DeletionWatch(path, watcher);
+        deletionWatches.put(path, watch);
+        watch.arm();
+        return this;
+    }
+
+    @Override
+    public Zk unwatchDeletion(String path) {
+        deletionWatches.remove(path);
+        return this;
+    }
+}
@@ -12,12 +12,16 @@ import io.vertx.core.WorkerExecutor;
 import org.I0Itec.zkclient.IZkChildListener;
 import org.I0Itec.zkclient.IZkDataListener;
 import org.I0Itec.zkclient.ZkClient;
+import org.I0Itec.zkclient.ZkConnection;
 import org.I0Itec.zkclient.exception.ZkNoNodeException;
 import org.I0Itec.zkclient.serialize.BytesPushThroughSerializer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Stat;
 
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,16 +38,24 @@ public class ZkImpl implements Zk {
         };
     }
     private final Vertx vertx;
+    private final ZkConnection connection;
     private final ZkClient zookeeper;
 
     // Only accessed on the vertx context.
 
     private final ConcurrentHashMap<String, IZkDataListener> dataWatches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, IZkDataListener> deletionWatches = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, IZkChildListener> childWatches = new ConcurrentHashMap<>();
 
     public ZkImpl(Vertx vertx, String zkConnectionString, int sessionTimeout, int connectionTimeout) {
         this.vertx = vertx;
-        this.zookeeper = new ZkClient(zkConnectionString, sessionTimeout, connectionTimeout, new BytesPushThroughSerializer());
+        this.connection = new ZkConnection(zkConnectionString, sessionTimeout);
+        this.zookeeper = new ZkClient(connection, connectionTimeout, new BytesPushThroughSerializer());
+    }
+
+    @Override
+    public long sessionId() {
+        return connection.getZookeeper().getSessionId();
     }
 
 
@@ -107,6 +119,20 @@ public class ZkImpl implements Zk {
         return this;
     }
 
+    @Override
+    public Zk getData(String path, Stat stat, Handler<AsyncResult<byte[]>> handler) {
+        workerPool().executeBlocking(
+            future -> {
+                try {
+                    future.complete(zookeeper.readData(path, stat));
+                } catch (Throwable t) {
+                    future.fail(t);
+                }
+            },
+            handler);
+        return this;
+    }
+
     static class DataWatchAdapter implements IZkDataListener {
 
         private final Handler<AsyncResult<byte[]>> watcher;
@@ -161,6 +187,60 @@ public class ZkImpl implements Zk {
         return this;
     }
 
+    static class DeletionWatchAdapter implements IZkDataListener {
+
+        private final Handler<AsyncResult<Void>> watcher;
+
+        public DeletionWatchAdapter(Handler<AsyncResult<Void>> watcher) {
+            this.watcher = watcher;
+        }
+
+        @Override
+        public void handleDataChange(String dataPath, Object data) throws Exception {
+
+        }
+
+        @Override
+        public void handleDataDeleted(String dataPath) throws Exception {
+            watcher.handle(Future.succeededFuture());
+        }
+    }
+
+    @Override
+    public Zk watchDeletion(String path, Handler<AsyncResult<Void>> watcher) {
+        workerPool().executeBlocking(
+            future -> {
+                try {
+                    IZkDataListener listener = new DeletionWatchAdapter(watcher);
+                    deletionWatches.put(path, listener);
+                    zookeeper.subscribeDataChanges(path, listener);
+                    future.complete();
+                } catch (Throwable t) {
+                    future.fail(t);
+                }
+            },
+            log("watchDeletion"));
+        return this;
+    }
+
+    @Override
+    public Zk unwatchDeletion(String path) {
+        workerPool().executeBlocking(
+            future -> {
+                try {
+                    IZkDataListener listener = deletionWatches.remove(path);
+                    if (listener != null) {
+                        zookeeper.unsubscribeDataChanges(path, listener);
+                    }
+                    future.complete();
+                } catch (Throwable t) {
+                    future.fail(t);
+                }
+            },
+            log("unwatchDeletion"));
+        return this;
+    }
+
     @Override
     public Zk delete(String path, int version, Handler<AsyncResult<Void>> handler) {
         workerPool().executeBlocking(
@@ -179,6 +259,20 @@ public class ZkImpl implements Zk {
         return this;
     }
 
+    @Override
+    public Zk multi(List<Op> ops, Handler<AsyncResult<List<OpResult>>> handler) {
+        workerPool().executeBlocking(
+            future -> {
+                try {
+                    future.complete(zookeeper.multi(ops));
+                } catch (Throwable t) {
+                    future.fail(t);
+                }
+            },
+            handler);
+        return this;
+    }
+
     private WorkerExecutor workerPool() {
         return vertx.createSharedWorkerExecutor(getClass().getName(), 4);
     }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+@RunWith(VertxUnitRunner.class)
+public class AdminClientBatcherTest {
+
+    private final Vertx vertx = Vertx.vertx();
+
+    private final List<List<String>> requests = new ArrayList<>();
+
+    @After
+    public void teardown() {
+        vertx.close();
+    }
+
+    /** A batcher whose requests succeed for every item except "bad". */
+    private AdminClientBatcher<String> batcher(long windowMs) {
+        return new AdminClientBatcher<>(vertx, "test", windowMs, items -> {
+            synchronized (requests) {
+                requests.add(new ArrayList<>(items.keySet()));
+            }
+            Map<String, KafkaFuture<Void>> futures = new HashMap<>();
+            for (String key : items.keySet()) {
+                KafkaFutureImpl<Void> future = new KafkaFutureImpl<>();
+                if ("bad".equals(key)) {
+                    future.completeExceptionally(new TopicExistsException(key));
+                } else {
+                    future.complete(null);
+                }
+                futures.put(key, future);
+            }
+            return futures;
+        }, (future, handler) -> future.whenComplete((v, error) ->
+            handler.handle(error != null ? Future.failedFuture(error) : Future.succeededFuture())));
+    }
+
+    @Test
+    public void testItemsWithinWindowAreSentTogether(TestContext context) {
+        AdminClientBatcher<String> batcher = batcher(100);
+        Async async = context.async(3);
+        batcher.add("a", "a", context.asyncAssertSuccess(v -> async.countDown()));
+        batcher.add("b", "b", context.asyncAssertSuccess(v -> async.countDown()));
+        batcher.add("bad", "bad", context.asyncAssertFailure(e -> {
+            context.assertTrue(e instanceof TopicExistsException);
+            async.countDown();
+        }));
+        async.await();
+        context.assertEquals(singletonList(asList("a", "b", "bad")), requests);
+    }
+
+    @Test
+    public void testSameTopicIsSentInNextRequest(TestContext context) {
+        AdminClientBatcher<String> batcher = batcher(100);
+        Async async = context.async(3);
+        batcher.add("a", "a1", context.asyncAssertSuccess(v -> async.countDown()));
+        batcher.add("b", "b", context.asyncAssertSuccess(v -> async.countDown()));
+        batcher.add("a", "a2", context.asyncAssertSuccess(v -> async.countDown()));
+        async.await();
+        context.assertEquals(asList(asList("a", "b"), singletonList("a")), requests);
+    }
+
+    @Test
+    public void testNoWindowSendsEachItem(TestContext context) {
+        AdminClientBatcher<String> batcher = batcher(0);
+        Async async = context.async(2);
+        batcher.add("a", "a", context.asyncAssertSuccess(v -> async.countDown()));
+        batcher.add("b", "b", context.asyncAssertSuccess(v -> async.countDown()));
+        async.await();
+        context.assertEquals(asList(singletonList("a"), singletonList("b")), requests);
+    }
+}
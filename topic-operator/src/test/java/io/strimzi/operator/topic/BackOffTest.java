@@ -7,7 +7,10 @@ package io.strimzi.operator.topic;
 
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class BackOffTest {
@@ -62,4 +65,26 @@ public class BackOffTest {
         }
         assertEquals(600L, b.totalDelayMs());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testJitteredBackoff() {
+        BackOff b = new BackOff(6, new Random(42));
+        assertEquals(0L, b.delayMs());
+        long previous = 200L;
+        long total = 0;
+        for (int i = 1; i < 6; i++) {
+            long delay = b.delayMs();
+            assertTrue(delay >= 200L);
+            assertTrue(delay <= Math.min(3200L, previous * 3));
+            previous = delay;
+            total += delay;
+        }
+        try {
+            b.delayMs();
+            fail("Should throw");
+        } catch (MaxAttemptsExceededException e) {
+
+        }
+        assertEquals(total, b.totalDelayMs());
+    }
+}
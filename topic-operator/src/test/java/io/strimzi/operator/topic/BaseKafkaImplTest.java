@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.DeleteTopicsResult;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(VertxUnitRunner.class)
+public class BaseKafkaImplTest {
+
+    private static final Map<String, String> MANDATORY_CONFIG = new HashMap<>();
+
+    static {
+        MANDATORY_CONFIG.put(Config.ZOOKEEPER_CONNECT.key, "localhost:2181");
+        MANDATORY_CONFIG.put(Config.KAFKA_BOOTSTRAP_SERVERS.key, "localhost:9092");
+        MANDATORY_CONFIG.put(Config.NAMESPACE.key, "default");
+    }
+
+    private final Vertx vertx = Vertx.vertx();
+
+    @After
+    public void teardown() {
+        vertx.close();
+    }
+
+    private AdminClient adminClient(List<KafkaFutureImpl<Void>> kafkaFutures) {
+        AdminClient adminClient = mock(AdminClient.class);
+        when(adminClient.deleteTopics(any())).thenAnswer(invocation -> {
+            Collection<String> names = invocation.getArgument(0);
+            KafkaFutureImpl<Void> future = new KafkaFutureImpl<>();
+            kafkaFutures.add(future);
+            DeleteTopicsResult result = mock(DeleteTopicsResult.class);
+            when(result.values()).thenReturn(Collections.singletonMap(names.iterator().next(), future));
+            return result;
+        });
+        return adminClient;
+    }
+
+    @Test
+    public void testHandlersRunOnContextWhenFuturesComplete(TestContext context) {
+        int inflight = 100;
+        List<KafkaFutureImpl<Void>> kafkaFutures = new CopyOnWriteArrayList<>();
+        Kafka kafka = new OperatorAssignedKafkaImpl(adminClient(kafkaFutures), vertx, new Config(MANDATORY_CONFIG), null);
+        Async async = context.async(inflight);
+        vertx.runOnContext(v -> {
+            Context callerContext = vertx.getOrCreateContext();
+            for (int i = 0; i < inflight; i++) {
+                kafka.deleteTopic(new TopicName("topic-" + i), ar -> {
+                    context.assertTrue(ar.succeeded());
+                    context.assertEquals(callerContext, vertx.getOrCreateContext());
+                    async.countDown();
+                });
+            }
+            context.assertEquals(inflight, kafkaFutures.size());
+            // Complete the futures from a thread other than the event loop, as the AdminClient would
+            new Thread(() -> {
+                for (KafkaFutureImpl<Void> future : kafkaFutures) {
+                    future.complete(null);
+                }
+            }).start();
+        });
+    }
+
+    @Test
+    public void testFailureCauseIsUnwrapped(TestContext context) {
+        List<KafkaFutureImpl<Void>> kafkaFutures = new CopyOnWriteArrayList<>();
+        Kafka kafka = new OperatorAssignedKafkaImpl(adminClient(kafkaFutures), vertx, new Config(MANDATORY_CONFIG), null);
+        Async async = context.async();
+        vertx.runOnContext(v -> {
+            kafka.deleteTopic(new TopicName("topic"), ar -> {
+                context.assertTrue(ar.failed());
+                context.assertTrue(ar.cause() instanceof UnknownTopicOrPartitionException);
+                async.complete();
+            });
+            kafkaFutures.get(0).completeExceptionally(new UnknownTopicOrPartitionException());
+        });
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.Future;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedPipelineTest {
+
+    private List<Integer> items(int n) {
+        return IntStream.range(0, n).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() {
+        List<Future<Void>> pending = new ArrayList<>();
+        BoundedPipeline<Integer> pipeline = new BoundedPipeline<>("test", 3, 10, items(10).iterator(), item -> {
+            Future<Void> f = Future.future();
+            pending.add(f);
+            return f;
+        });
+        Future<Void> result = pipeline.run();
+        int completed = 0;
+        while (!pending.isEmpty()) {
+            assertTrue(pending.size() <= 3);
+            assertEquals(completed + pending.size(), pipeline.started());
+            pending.remove(0).complete();
+            completed++;
+        }
+        assertEquals(10, completed);
+        assertTrue(result.succeeded());
+        assertTrue(pipeline.isFinished());
+        assertEquals(10, pipeline.succeeded());
+    }
+
+    @Test
+    public void testSynchronousTasksDoNotRecurse() {
+        BoundedPipeline<Integer> pipeline = new BoundedPipeline<>("test", 2, 100_000, items(100_000).iterator(),
+            item -> Future.succeededFuture());
+        assertTrue(pipeline.run().succeeded());
+        assertEquals(100_000, pipeline.completed());
+    }
+
+    @Test
+    public void testFailsWithFirstCauseOnceAllComplete() {
+        List<Future<Void>> pending = new ArrayList<>();
+        BoundedPipeline<Integer> pipeline = new BoundedPipeline<>("test", 10, 3, items(3).iterator(), item -> {
+            Future<Void> f = Future.future();
+            pending.add(f);
+            return f;
+        });
+        Future<Void> result = pipeline.run();
+        RuntimeException first = new RuntimeException("first");
+        pending.get(1).fail(first);
+        pending.get(0).fail(new RuntimeException("second"));
+        assertFalse(result.isComplete());
+        pending.get(2).complete();
+        assertTrue(result.failed());
+        assertEquals(first, result.cause());
+        assertEquals(2, pipeline.failed());
+        assertEquals(1, pipeline.succeeded());
+    }
+
+    @Test
+    public void testEmpty() {
+        BoundedPipeline<Integer> pipeline = new BoundedPipeline<>("test", 1, 0, items(0).iterator(),
+            item -> Future.succeededFuture());
+        assertTrue(pipeline.run().succeeded());
+    }
+}
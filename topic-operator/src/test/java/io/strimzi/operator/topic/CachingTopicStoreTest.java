@@ -0,0 +1,245 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import org.I0Itec.zkclient.exception.ZkBadVersionException;
+import org.apache.zookeeper.data.Stat;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class CachingTopicStoreTest {
+
+    private final TopicName topicName = new TopicName("my-topic");
+    private final Topic topic = new Topic.Builder(topicName, 2, (short) 1, Collections.singletonMap("foo", "bar")).build();
+
+    private ZkTopicStore zkStore;
+    private CachingTopicStore store;
+
+    @Before
+    public void setup() {
+        zkStore = mock(ZkTopicStore.class);
+        store = new CachingTopicStore(zkStore);
+    }
+
+    private void zkHasTopicWithVersion(Topic topic, int version) {
+        doAnswer(invocation -> {
+            Stat stat = invocation.getArgument(1);
+            stat.setVersion(version);
+            Handler<AsyncResult<Topic>> handler = invocation.getArgument(2);
+            handler.handle(Future.succeededFuture(topic));
+            return null;
+        }).when(zkStore).read(eq(topicName), any(Stat.class), any());
+    }
+
+    private void zkUpdateResult(AsyncResult<Void> result) {
+        doAnswer(invocation -> {
+            Handler<AsyncResult<Void>> handler = invocation.getArgument(2);
+            handler.handle(result);
+            return null;
+        }).when(zkStore).update(any(Topic.class), anyInt(), any());
+    }
+
+    /** Makes reads of the topic complete only when the returned consumer is called with the version read. */
+    private AtomicReference<Consumer<Integer>> zkReadIsInFlight(Topic topic) {
+        AtomicReference<Consumer<Integer>> complete = new AtomicReference<>();
+        doAnswer(invocation -> {
+            Stat stat = invocation.getArgument(1);
+            Handler<AsyncResult<Topic>> handler = invocation.getArgument(2);
+            complete.set(version -> {
+                stat.setVersion(version);
+                handler.handle(Future.succeededFuture(topic));
+            });
+            return null;
+        }).when(zkStore).read(eq(topicName), any(Stat.class), any());
+        return complete;
+    }
+
+    private void zkDeleteSucceeds() {
+        doAnswer(invocation -> {
+            Handler<AsyncResult<Void>> handler = invocation.getArgument(2);
+            handler.handle(Future.succeededFuture());
+            return null;
+        }).when(zkStore).delete(any(TopicName.class), anyInt(), any());
+    }
+
+    private <T> AsyncResult<T> sync(Consumer<Handler<AsyncResult<T>>> call) {
+        AtomicReference<AsyncResult<T>> ref = new AtomicReference<>();
+        call.accept(ref::set);
+        return ref.get();
+    }
+
+    @Test
+    public void testReadIsServedFromCache() {
+        zkHasTopicWithVersion(topic, 3);
+        assertSame(topic, this.<Topic>sync(h -> store.read(topicName, h)).result());
+        assertSame(topic, this.<Topic>sync(h -> store.read(topicName, h)).result());
+        verify(zkStore, times(1)).read(eq(topicName), any(Stat.class), any());
+    }
+
+    @Test
+    public void testAbsentTopicIsNotCached() {
+        zkHasTopicWithVersion(null, 0);
+        assertEquals(null, this.<Topic>sync(h -> store.read(topicName, h)).result());
+        assertEquals(null, this.<Topic>sync(h -> store.read(topicName, h)).result());
+        verify(zkStore, times(2)).read(eq(topicName), any(Stat.class), any());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testUpdateUsesCachedVersion() {
+        zkHasTopicWithVersion(topic, 3);
+        zkUpdateResult(Future.succeededFuture());
+        store.read(topicName, ar -> { });
+
+        Topic updated = new Topic.Builder(topic).withNumPartitions(3).build();
+        assertTrue(this.<Void>sync(h -> store.update(updated, h)).succeeded());
+        verify(zkStore).update(eq(updated), eq(3), any());
+        assertSame(updated, this.<Topic>sync(h -> store.read(topicName, h)).result());
+
+        Topic updatedAgain = new Topic.Builder(updated).withNumPartitions(4).build();
+        assertTrue(this.<Void>sync(h -> store.update(updatedAgain, h)).succeeded());
+        verify(zkStore).update(eq(updatedAgain), eq(4), any());
+        verify(zkStore, times(1)).read(eq(topicName), any(Stat.class), any());
+    }
+
+    @Test
+    public void testCreateThenUpdateUsesVersionZero() {
+        doAnswer(invocation -> {
+            Handler<AsyncResult<Void>> handler = invocation.getArgument(1);
+            handler.handle(Future.succeededFuture());
+            return null;
+        }).when(zkStore).create(any(Topic.class), any());
+        zkUpdateResult(Future.succeededFuture());
+
+        assertTrue(this.<Void>sync(h -> store.create(topic, h)).succeeded());
+        assertTrue(this.<Void>sync(h -> store.update(topic, h)).succeeded());
+        verify(zkStore).update(eq(topic), eq(0), any());
+    }
+
+    @Test
+    public void testUnconditionalUpdateWhenNotCached() {
+        zkUpdateResult(Future.succeededFuture());
+        assertTrue(this.<Void>sync(h -> store.update(topic, h)).succeeded());
+        verify(zkStore).update(eq(topic), eq(-1), any());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testBadVersionEvicts() {
+        zkHasTopicWithVersion(topic, 3);
+        zkUpdateResult(Future.failedFuture(new ZkBadVersionException("bad version")));
+        store.read(topicName, ar -> { });
+        assertEquals(1, store.size());
+
+        AsyncResult<Void> result = this.sync(h -> store.update(topic, h));
+        assertTrue(result.failed());
+        assertTrue(result.cause() instanceof ZkBadVersionException);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testDeleteUsesCachedVersionAndEvicts() {
+        zkHasTopicWithVersion(topic, 5);
+        zkDeleteSucceeds();
+        store.read(topicName, ar -> { });
+
+        assertTrue(this.<Void>sync(h -> store.delete(topicName, h)).succeeded());
+        verify(zkStore).delete(eq(topicName), eq(5), any());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testSlowReadDoesNotReplaceLaterWrite() {
+        zkUpdateResult(Future.succeededFuture());
+        AtomicReference<Consumer<Integer>> fastRead = zkReadIsInFlight(topic);
+        store.read(topicName, ar -> { });
+        AtomicReference<Consumer<Integer>> slowRead = zkReadIsInFlight(topic);
+        store.read(topicName, ar -> { });
+        fastRead.get().accept(3);
+
+        // The slow read started before the update, but completes after it
+        Topic updated = new Topic.Builder(topic).withNumPartitions(3).build();
+        assertTrue(this.<Void>sync(h -> store.update(updated, h)).succeeded());
+        verify(zkStore).update(eq(updated), eq(3), any());
+        slowRead.get().accept(3);
+
+        assertSame(updated, this.<Topic>sync(h -> store.read(topicName, h)).result());
+    }
+
+    @Test
+    public void testReadInFlightDuringUnconditionalUpdateIsNotCached() {
+        zkUpdateResult(Future.succeededFuture());
+        AtomicReference<Consumer<Integer>> slowRead = zkReadIsInFlight(topic);
+        store.read(topicName, ar -> { });
+
+        Topic updated = new Topic.Builder(topic).withNumPartitions(3).build();
+        assertTrue(this.<Void>sync(h -> store.update(updated, h)).succeeded());
+        verify(zkStore).update(eq(updated), eq(-1), any());
+        slowRead.get().accept(3);
+
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testReadInFlightDuringDeleteIsNotCached() {
+        zkDeleteSucceeds();
+        AtomicReference<Consumer<Integer>> slowRead = zkReadIsInFlight(topic);
+        store.read(topicName, ar -> { });
+
+        assertTrue(this.<Void>sync(h -> store.delete(topicName, h)).succeeded());
+        slowRead.get().accept(3);
+
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testInvalidateEvicts() {
+        zkHasTopicWithVersion(topic, 3);
+        store.read(topicName, ar -> { });
+        assertEquals(1, store.size());
+
+        store.invalidate(topicName);
+        assertEquals(0, store.size());
+        assertSame(topic, this.<Topic>sync(h -> store.read(topicName, h)).result());
+        verify(zkStore, times(2)).read(eq(topicName), any(Stat.class), any());
+    }
+
+    @Test
+    public void testWarmUpReadsAllTopics() {
+        zkHasTopicWithVersion(topic, 2);
+        doAnswer(invocation -> {
+            Handler<AsyncResult<List<TopicName>>> handler = invocation.getArgument(0);
+            handler.handle(Future.succeededFuture(Collections.singletonList(topicName)));
+            return null;
+        }).when(zkStore).list(any());
+
+        AtomicReference<AsyncResult<Integer>> warmedUp = new AtomicReference<>();
+        store.warmUp().setHandler(warmedUp::set);
+        assertEquals(Integer.valueOf(1), warmedUp.get().result());
+        assertEquals(1, store.size());
+
+        assertSame(topic, this.<Topic>sync(h -> store.read(topicName, h)).result());
+        verify(zkStore, times(1)).read(eq(topicName), any(Stat.class), any());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final Metrics metrics = new Metrics();
+    private final CircuitBreaker<String> breaker = new CircuitBreaker<>(3, 1000L, metrics, now::get);
+
+    @Test
+    public void testOpensAfterThresholdFailures() {
+        assertFalse(breaker.failed("a"));
+        assertFalse(breaker.failed("a"));
+        assertFalse(breaker.isOpen("a"));
+        assertTrue(breaker.failed("a"));
+        assertTrue(breaker.isOpen("a"));
+        assertFalse(breaker.isOpen("b"));
+        assertEquals(1, breaker.openCount());
+        assertEquals(1L, breaker.openedCount());
+    }
+
+    @Test
+    public void testClosesAfterCoolDown() {
+        breaker.failed("a");
+        breaker.failed("a");
+        breaker.failed("a");
+        now.addAndGet(1001L);
+        assertFalse(breaker.isOpen("a"));
+        assertEquals(0, breaker.openCount());
+        // The failures are counted afresh
+        assertFalse(breaker.failed("a"));
+        assertFalse(breaker.isOpen("a"));
+    }
+
+    @Test
+    public void testInfrequentFailuresDoNotOpen() {
+        for (int i = 0; i < 10; i++) {
+            assertFalse(breaker.failed("a"));
+            now.addAndGet(1001L);
+        }
+        assertFalse(breaker.isOpen("a"));
+        assertEquals(0L, breaker.openedCount());
+    }
+
+    @Test
+    public void testSuccessResetsFailures() {
+        assertFalse(breaker.failed("a"));
+        assertFalse(breaker.failed("a"));
+        breaker.succeeded("a");
+        assertFalse(breaker.failed("a"));
+        assertFalse(breaker.failed("a"));
+        assertFalse(breaker.isOpen("a"));
+        assertTrue(breaker.failed("a"));
+        // A success doesn't close an open breaker
+        breaker.succeeded("a");
+        assertTrue(breaker.isOpen("a"));
+    }
+
+    @Test
+    public void testForgetClosed() {
+        breaker.failed("a");
+        breaker.failed("b");
+        breaker.failed("b");
+        breaker.failed("b");
+        now.addAndGet(500L);
+        breaker.failed("c");
+        now.addAndGet(501L);
+        // Scraping the metrics doesn't forget anything
+        assertEquals(0, breaker.openCount());
+        assertEquals(3, breaker.size());
+        breaker.forgetClosed();
+        assertEquals(1, breaker.size());
+        assertFalse(breaker.failed("c"));
+        assertTrue(breaker.failed("c"));
+    }
+}
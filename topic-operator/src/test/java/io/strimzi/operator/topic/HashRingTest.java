@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HashRingTest {
+
+    private static final int TOPICS = 10_000;
+
+    @Test
+    public void testEmpty() {
+        assertNull(new HashRing(Collections.emptyList()).owner(new TopicName("my-topic")));
+    }
+
+    @Test
+    public void testSingleMember() {
+        HashRing ring = new HashRing(asList("a"));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("a", ring.owner(new TopicName("topic-" + i)));
+        }
+    }
+
+    @Test
+    public void testTopicsAreSpreadOverMembers() {
+        HashRing ring = new HashRing(asList("a", "b", "c"));
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < TOPICS; i++) {
+            counts.merge(ring.owner(new TopicName("topic-" + i)), 1, Integer::sum);
+        }
+        assertEquals(3, counts.size());
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            // Each member should own roughly a third of the topics
+            assertTrue(entry.toString(), entry.getValue() > TOPICS / 4);
+            assertTrue(entry.toString(), entry.getValue() < TOPICS / 2);
+        }
+    }
+
+    @Test
+    public void testOnlyTopicsOfNewMemberMove() {
+        HashRing before = new HashRing(asList("a", "b", "c"));
+        HashRing after = new HashRing(asList("a", "b", "c", "d"));
+        int moved = 0;
+        for (int i = 0; i < TOPICS; i++) {
+            TopicName topic = new TopicName("topic-" + i);
+            String oldOwner = before.owner(topic);
+            String newOwner = after.owner(topic);
+            if (!oldOwner.equals(newOwner)) {
+                assertEquals("d", newOwner);
+                moved++;
+            }
+        }
+        // The new member should take roughly a quarter of the topics
+        assertTrue("moved " + moved, moved > TOPICS / 8);
+        assertTrue("moved " + moved, moved < TOPICS / 2);
+    }
+
+    @Test
+    public void testOrderOfMembersDoesNotMatter() {
+        HashRing ring1 = new HashRing(asList("a", "b", "c"));
+        HashRing ring2 = new HashRing(asList("c", "a", "b"));
+        for (int i = 0; i < 1000; i++) {
+            TopicName topic = new TopicName("topic-" + i);
+            assertEquals(ring1.owner(topic), ring2.owner(topic));
+        }
+    }
+}
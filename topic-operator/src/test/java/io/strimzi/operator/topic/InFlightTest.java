@@ -13,7 +13,7 @@ import org.apache.logging.log4j.Logger;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
-
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(VertxUnitRunner.class)
 public class InFlightTest {
@@ -116,6 +116,93 @@ public class InFlightTest {
         });
     }
 
+    @Test
+    public void testWaitingTasksAreMerged(TestContext context) {
+        Async allEnqueued = context.async();
+        Async allCompleted = context.async(4);
+        InFlight<String> inflight = new InFlight(vertx);
+        AtomicInteger runs = new AtomicInteger();
+        inflight.enqueue("test", fut -> {
+            allEnqueued.await();
+            runs.incrementAndGet();
+            fut.complete();
+        }, v -> allCompleted.countDown());
+        inflight.enqueue("test", fut -> context.fail("The 2nd task should have been merged into the 4th"),
+            v -> {
+                context.assertTrue(v.succeeded());
+                allCompleted.countDown();
+            });
+        inflight.enqueue("test", fut -> context.fail("The 3rd task should have been merged into the 4th"),
+            v -> {
+                context.assertTrue(v.succeeded());
+                allCompleted.countDown();
+            });
+        inflight.enqueue("test", fut -> {
+            runs.incrementAndGet();
+            fut.complete();
+        }, v -> allCompleted.countDown());
+        context.assertEquals(2L, inflight.merged());
+        allEnqueued.complete();
+        allCompleted.await();
+        context.assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testWaitingTasksOfDifferentKindsAreNotMerged(TestContext context) {
+        Async allEnqueued = context.async();
+        Async allCompleted = context.async(4);
+        InFlight<String> inflight = new InFlight(vertx);
+        StringBuffer runs = new StringBuffer();
+        inflight.enqueue("test", "event", fut -> {
+            allEnqueued.await();
+            runs.append("1");
+            fut.complete();
+        }, v -> allCompleted.countDown());
+        inflight.enqueue("test", "event", fut -> {
+            runs.append("2");
+            fut.complete();
+        }, v -> allCompleted.countDown());
+        inflight.enqueue("test", "periodic", fut -> context.fail("The 3rd task should have been merged into the 4th"),
+            v -> allCompleted.countDown());
+        inflight.enqueue("test", "periodic", fut -> {
+            runs.append("4");
+            fut.complete();
+        }, v -> allCompleted.countDown());
+        context.assertEquals(1L, inflight.merged());
+        allEnqueued.complete();
+        allCompleted.await();
+        context.assertEquals("124", runs.toString());
+    }
+
+    @Test
+    public void testWaitingTasksOfTheSameKindAreMergedWhereverTheyAreQueued(TestContext context) {
+        Async allEnqueued = context.async();
+        Async allCompleted = context.async(4);
+        InFlight<String> inflight = new InFlight(vertx);
+        StringBuffer runs = new StringBuffer();
+        inflight.enqueue("test", "reconcile", fut -> {
+            allEnqueued.await();
+            runs.append("1");
+            fut.complete();
+        }, v -> allCompleted.countDown());
+        inflight.enqueue("test", "reconcile", fut -> context.fail("The 2nd task should have been merged into the 4th"),
+            v -> allCompleted.countDown());
+        inflight.enqueue("test", "delete", fut -> {
+            runs.append("3");
+            fut.complete();
+        }, v -> allCompleted.countDown());
+        inflight.enqueue("test", "reconcile", fut -> {
+            runs.append("4");
+            fut.complete();
+        }, v -> allCompleted.countDown());
+        context.assertEquals(1L, inflight.merged());
+        context.assertEquals(1, inflight.waiting());
+        allEnqueued.complete();
+        allCompleted.await();
+        // The merged task runs in the place of the task it replaced
+        context.assertEquals("143", runs.toString());
+    }
+
     @Test
     public void test0(TestContext context) {
         testSingleTask(context);
@@ -4,9 +4,14 @@
  */
 package io.strimzi.operator.topic;
 
+import io.fabric8.kubernetes.api.model.ListMetaBuilder;
 import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.StatusBuilder;
 import io.fabric8.kubernetes.api.model.apiextensions.CustomResourceDefinition;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
 import io.strimzi.api.kafka.KafkaTopicList;
@@ -18,12 +23,19 @@ import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 
 import java.util.Collections;
 import java.util.List;
 
+import static java.util.Arrays.asList;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(VertxUnitRunner.class)
@@ -61,4 +73,137 @@ public class K8sImplTest {
             async.complete();
         });
     }
+
+    @Test
+    public void testReadsFromCacheOnceWatching(TestContext context) {
+        Async async = context.async();
+
+        KubernetesClient mockClient = mock(KubernetesClient.class);
+        MixedOperation<KafkaTopic, KafkaTopicList, TopicOperator.DeleteKafkaTopic, Resource<KafkaTopic, TopicOperator.DeleteKafkaTopic>> mockResources = mock(MixedOperation.class);
+        when(mockClient.customResources(any(CustomResourceDefinition.class), any(Class.class), any(Class.class), any(Class.class))).thenReturn(mockResources);
+        when(mockResources.withLabels(any())).thenReturn(mockResources);
+        when(mockResources.inNamespace(any())).thenReturn(mockResources);
+        when(mockResources.list()).thenAnswer(invocation -> {
+            KafkaTopicList ktl = new KafkaTopicList();
+            ktl.setMetadata(new ListMetaBuilder().withResourceVersion("42").build());
+            ktl.setItems(Collections.singletonList(new KafkaTopicBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                    .withName("foo")
+                    .withResourceVersion("41")
+                    .withLabels(Collections.singletonMap("foo", "bar")).build())
+                .build()));
+            return ktl;
+        });
+        ArgumentCaptor<Watcher> watcherCaptor = ArgumentCaptor.forClass(Watcher.class);
+        when(mockResources.watch(eq("42"), watcherCaptor.capture())).thenReturn(mock(Watch.class));
+
+        K8sImpl k8s = new K8sImpl(vertx, mockClient, new LabelPredicate("foo", "bar"), "default");
+        k8s.watch(mock(Watcher.class));
+
+        watcherCaptor.getValue().eventReceived(Watcher.Action.ADDED, new KafkaTopicBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName("bar")
+                        .withResourceVersion("43")
+                        .withLabels(Collections.singletonMap("foo", "bar")).build())
+                .build());
+
+        k8s.getFromName(new ResourceName("bar"), ar -> {
+            context.assertTrue(ar.succeeded());
+            context.assertEquals("bar", ar.result().getMetadata().getName());
+            k8s.listMaps(ar2 -> {
+                context.assertTrue(ar2.succeeded());
+                context.assertEquals(2, ar2.result().size());
+                verify(mockResources, never()).withName(any());
+                verify(mockResources, times(1)).list();
+                async.complete();
+            });
+        });
+    }
+
+    private static KafkaTopic topic(String name, String resourceVersion) {
+        return new KafkaTopicBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName(name)
+                        .withResourceVersion(resourceVersion)
+                        .withLabels(Collections.singletonMap("foo", "bar")).build())
+                .build();
+    }
+
+    private static KafkaTopicList list(String resourceVersion, KafkaTopic... items) {
+        KafkaTopicList ktl = new KafkaTopicList();
+        ktl.setMetadata(new ListMetaBuilder().withResourceVersion(resourceVersion).build());
+        ktl.setItems(asList(items));
+        return ktl;
+    }
+
+    @Test
+    public void testWatchResumesFromLastResourceVersion(TestContext context) {
+        Async async = context.async();
+
+        KubernetesClient mockClient = mock(KubernetesClient.class);
+        MixedOperation<KafkaTopic, KafkaTopicList, TopicOperator.DeleteKafkaTopic, Resource<KafkaTopic, TopicOperator.DeleteKafkaTopic>> mockResources = mock(MixedOperation.class);
+        when(mockClient.customResources(any(CustomResourceDefinition.class), any(Class.class), any(Class.class), any(Class.class))).thenReturn(mockResources);
+        when(mockResources.withLabels(any())).thenReturn(mockResources);
+        when(mockResources.inNamespace(any())).thenReturn(mockResources);
+        when(mockResources.list()).thenReturn(list("42", topic("foo", "41")));
+        ArgumentCaptor<Watcher> watcherCaptor = ArgumentCaptor.forClass(Watcher.class);
+        when(mockResources.watch(any(), watcherCaptor.capture())).thenReturn(mock(Watch.class));
+
+        Metrics metrics = new Metrics();
+        K8sImpl k8s = new K8sImpl(vertx, mockClient, new LabelPredicate("foo", "bar"), "default", metrics);
+        Watcher<KafkaTopic> watcher = mock(Watcher.class);
+        k8s.watch(watcher);
+
+        watcherCaptor.getValue().eventReceived(Watcher.Action.ADDED, topic("bar", "43"));
+        watcherCaptor.getValue().onClose(new KubernetesClientException("connection reset"));
+
+        vertx.setPeriodic(10, timerId -> {
+            if (metrics.counter(Metrics.PREFIX + "k8s_watch_restarts_total", "", "type", "resumed").get() == 1) {
+                vertx.cancelTimer(timerId);
+                verify(mockResources).watch(eq("43"), any());
+                verify(mockResources, times(1)).list();
+                verify(watcher, never()).onClose(any());
+                async.complete();
+            }
+        });
+    }
+
+    @Test
+    public void testWatchRelistsWhenGone(TestContext context) {
+        Async async = context.async();
+
+        KubernetesClient mockClient = mock(KubernetesClient.class);
+        MixedOperation<KafkaTopic, KafkaTopicList, TopicOperator.DeleteKafkaTopic, Resource<KafkaTopic, TopicOperator.DeleteKafkaTopic>> mockResources = mock(MixedOperation.class);
+        when(mockClient.customResources(any(CustomResourceDefinition.class), any(Class.class), any(Class.class), any(Class.class))).thenReturn(mockResources);
+        when(mockResources.withLabels(any())).thenReturn(mockResources);
+        when(mockResources.inNamespace(any())).thenReturn(mockResources);
+        when(mockResources.list()).thenReturn(
+                list("42", topic("foo", "40"), topic("bar", "41")),
+                list("50", topic("foo", "40"), topic("baz", "49")));
+        ArgumentCaptor<Watcher> watcherCaptor = ArgumentCaptor.forClass(Watcher.class);
+        when(mockResources.watch(any(), watcherCaptor.capture())).thenReturn(mock(Watch.class));
+
+        Metrics metrics = new Metrics();
+        K8sImpl k8s = new K8sImpl(vertx, mockClient, new LabelPredicate("foo", "bar"), "default", metrics);
+        Watcher<KafkaTopic> watcher = mock(Watcher.class);
+        k8s.watch(watcher);
+
+        watcherCaptor.getValue().onClose(new KubernetesClientException(
+                new StatusBuilder().withCode(410).withMessage("too old resource version").build()));
+
+        vertx.setPeriodic(10, timerId -> {
+            if (metrics.counter(Metrics.PREFIX + "k8s_watch_restarts_total", "", "type", "relisted").get() == 1) {
+                vertx.cancelTimer(timerId);
+                verify(mockResources).watch(eq("50"), any());
+                verify(watcher).eventReceived(eq(Watcher.Action.ADDED), argThat(t -> "baz".equals(t.getMetadata().getName())));
+                verify(watcher).eventReceived(eq(Watcher.Action.DELETED), argThat(t -> "bar".equals(t.getMetadata().getName())));
+                verify(watcher, times(2)).eventReceived(any(), any());
+                context.assertEquals(2L, metrics.counter(Metrics.PREFIX + "k8s_watch_gap_events_total", "").get());
+                k8s.listMaps(context.asyncAssertSuccess(topics -> {
+                    context.assertEquals(2, topics.size());
+                    async.complete();
+                }));
+            }
+        });
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(VertxUnitRunner.class)
+public class KafkaTopicStoreTest {
+
+    private static final String STORE_TOPIC = "store";
+    private static final TopicPartition STORE_PARTITION = new TopicPartition(STORE_TOPIC, 0);
+
+    private final Vertx vertx = Vertx.vertx();
+    private MockProducer<String, byte[]> producer;
+    private MockConsumer<String, byte[]> consumer;
+    private MockZk zk;
+    private KafkaTopicStore store;
+
+    @Before
+    public void setup() {
+        producer = new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions(STORE_TOPIC, Collections.singletonList(
+                new PartitionInfo(STORE_TOPIC, 0, null, null, null)));
+        consumer.updateBeginningOffsets(Collections.singletonMap(STORE_PARTITION, 0L));
+        consumer.updateEndOffsets(Collections.singletonMap(STORE_PARTITION, 0L));
+        zk = new MockZk();
+        zk.childrenResult = Future.succeededFuture(Collections.emptyList());
+        store = new KafkaTopicStore(vertx, STORE_TOPIC, producer);
+    }
+
+    @After
+    public void teardown() {
+        vertx.close();
+    }
+
+    private Topic topic(String name, int partitions) {
+        return new Topic.Builder(name, partitions, (short) 1, Collections.singletonMap("foo", "bar")).build();
+    }
+
+    private void storeTopicContains(List<ConsumerRecord<String, byte[]>> records) {
+        consumer.updateEndOffsets(Collections.singletonMap(STORE_PARTITION, (long) records.size()));
+        consumer.schedulePollTask(() -> records.forEach(consumer::addRecord));
+    }
+
+    private ConsumerRecord<String, byte[]> record(long offset, String key, byte[] value) {
+        return new ConsumerRecord<>(STORE_TOPIC, 0, offset, key, value);
+    }
+
+    private List<ProducerRecord<String, byte[]>> sent() {
+        return producer.history();
+    }
+
+    @Test
+    public void testRestore(TestContext context) {
+        storeTopicContains(Arrays.asList(
+                record(0, "a", TopicSerialization.toJson(topic("a", 1))),
+                record(1, "b", TopicSerialization.toJson(topic("b", 1))),
+                record(2, "a", TopicSerialization.toJson(topic("a", 2))),
+                record(3, "b", null),
+                record(4, KafkaTopicStore.MIGRATION_MARKER_KEY, new byte[]{'1'})));
+        Async async = context.async();
+        store.start(consumer, zk).setHandler(context.asyncAssertSuccess(v -> {
+            store.read(new TopicName("a"), context.asyncAssertSuccess(topic -> {
+                context.assertEquals(2, topic.getNumPartitions());
+                store.read(new TopicName("b"), context.asyncAssertSuccess(absent -> {
+                    context.assertNull(absent);
+                    // Already migrated, so nothing was sent
+                    context.assertTrue(sent().isEmpty());
+                    async.complete();
+                }));
+            }));
+        }));
+    }
+
+    @Test
+    public void testCrud(TestContext context) {
+        Topic topic = topic("my-topic", 1);
+        TopicName name = topic.getTopicName();
+        Topic updated = topic("my-topic", 2);
+        Async async = context.async();
+        store.start(consumer, zk).setHandler(context.asyncAssertSuccess(v -> {
+            int marker = sent().size();
+            store.create(topic, context.asyncAssertSuccess(created -> {
+                store.create(topic, context.asyncAssertFailure(e -> {
+                    context.assertTrue(e instanceof TopicStore.EntityExistsException);
+                    store.update(updated, context.asyncAssertSuccess(u -> {
+                        store.read(name, context.asyncAssertSuccess(read -> {
+                            context.assertEquals(updated, read);
+                            store.delete(name, context.asyncAssertSuccess(d -> {
+                                store.delete(name, context.asyncAssertFailure(e2 -> {
+                                    context.assertTrue(e2 instanceof TopicStore.NoSuchEntityExistsException);
+                                    List<ProducerRecord<String, byte[]>> sent = sent().subList(marker, sent().size());
+                                    context.assertEquals(3, sent.size());
+                                    context.assertEquals("my-topic", sent.get(2).key());
+                                    context.assertNull(sent.get(2).value());
+                                    async.complete();
+                                }));
+                            }));
+                        }));
+                    }));
+                }));
+            }));
+        }));
+    }
+
+    @Test
+    public void testConcurrentCreatesOfTheSameTopic(TestContext context) {
+        producer = new MockProducer<>(false, new StringSerializer(), new ByteArraySerializer());
+        store = new KafkaTopicStore(vertx, STORE_TOPIC, producer);
+        Topic topic = topic("my-topic", 1);
+        Async async = context.async(2);
+        store.start(consumer, null).setHandler(context.asyncAssertSuccess(v -> {
+            store.create(topic, context.asyncAssertSuccess(created -> async.countDown()));
+            // Not checked against the view until the first create has been acknowledged
+            store.create(topic, context.asyncAssertFailure(e -> {
+                context.assertTrue(e instanceof TopicStore.EntityExistsException);
+                context.assertEquals(1, sent().size());
+                async.countDown();
+            }));
+            context.assertEquals(1, sent().size());
+            producer.completeNext();
+        }));
+    }
+
+    @Test
+    public void testUpdateOfAbsentTopicFails(TestContext context) {
+        Async async = context.async();
+        store.start(consumer, zk).setHandler(context.asyncAssertSuccess(v -> {
+            store.update(topic("absent", 1), context.asyncAssertFailure(e -> {
+                context.assertTrue(e instanceof TopicStore.NoSuchEntityExistsException);
+                async.complete();
+            }));
+        }));
+    }
+
+    @Test
+    public void testMigrationFromZk(TestContext context) {
+        Topic topic = topic("migrated", 3);
+        zk.childrenResult = Future.succeededFuture(Collections.singletonList("migrated"));
+        zk.dataResult = Future.succeededFuture(TopicSerialization.toJson(topic));
+        Async async = context.async();
+        store.start(consumer, zk).setHandler(context.asyncAssertSuccess(v -> {
+            context.assertEquals(2, sent().size());
+            context.assertEquals("migrated", sent().get(0).key());
+            context.assertEquals(KafkaTopicStore.MIGRATION_MARKER_KEY, sent().get(1).key());
+            store.read(topic.getTopicName(), context.asyncAssertSuccess(read -> {
+                context.assertEquals(topic.getNumPartitions(), read.getNumPartitions());
+                context.assertEquals(topic.getConfig(), read.getConfig());
+                async.complete();
+            }));
+        }));
+    }
+
+    @Test
+    public void testOperationsWaitForStart(TestContext context) {
+        Async async = context.async();
+        vertx.runOnContext(v -> {
+            storeTopicContains(Collections.singletonList(
+                    record(0, "a", TopicSerialization.toJson(topic("a", 1)))));
+            store.read(new TopicName("a"), context.asyncAssertSuccess(topic -> {
+                context.assertNotNull(topic);
+                async.complete();
+            }));
+            store.start(consumer, null);
+        });
+    }
+}
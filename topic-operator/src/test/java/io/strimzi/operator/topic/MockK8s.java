@@ -29,6 +29,11 @@ public class MockK8s implements K8s {
     private Function<ResourceName, AsyncResult<Void>> deleteResponse = n -> Future.failedFuture("Unexpected. ");
     private Supplier<AsyncResult<List<KafkaTopic>>> listResponse = () -> Future.succeededFuture(new ArrayList(byName.values().stream().filter(ar -> ar.succeeded()).map(ar -> ar.result()).collect(Collectors.toList())));
 
+    public MockK8s setCreateResponse(Function<ResourceName, AsyncResult<Void>> createResponse) {
+        this.createResponse = createResponse;
+        return this;
+    }
+
     public MockK8s setCreateResponse(ResourceName resourceName, Exception exception) {
         Function<ResourceName, AsyncResult<Void>> old = createResponse;
         createResponse = n -> {
@@ -11,6 +11,7 @@ import io.vertx.core.Handler;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 class MockTopicOperator extends TopicOperator {
 
@@ -26,7 +27,8 @@ class MockTopicOperator extends TopicOperator {
             DELETE,
             MODIFY,
             MODIFY_CONFIG,
-            MODIFY_PARTITIONS
+            MODIFY_PARTITIONS,
+            OWNERSHIP_CHANGED
         }
         private final TopicName topicName;
         private final KafkaTopic kafkaTopicResource;
@@ -82,6 +84,8 @@ class MockTopicOperator extends TopicOperator {
     public AsyncResult<Void> resourceModifiedResult = Future.failedFuture("Unexpected mock interaction. Configure " + getClass().getSimpleName() + ".resourceModifiedResult");
     private List<MockOperatorEvent> mockOperatorEvents = new ArrayList<>();
 
+    public Predicate<TopicName> owned = topicName -> true;
+
     public List<MockOperatorEvent> getMockOperatorEvents() {
         return mockOperatorEvents;
     }
@@ -131,4 +135,14 @@ class MockTopicOperator extends TopicOperator {
         mockOperatorEvents.add(new MockOperatorEvent(MockOperatorEvent.Type.DELETE, resource));
         resultHandler.handle(resourceDeletedResult);
     }
+
+    @Override
+    boolean owns(TopicName topicName) {
+        return owned.test(topicName);
+    }
+
+    @Override
+    void ownershipChanged(TopicName topicName) {
+        mockOperatorEvents.add(new MockOperatorEvent(MockOperatorEvent.Type.OWNERSHIP_CHANGED, topicName));
+    }
 }
@@ -9,7 +9,9 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.ext.unit.TestContext;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -18,6 +20,7 @@ public class MockTopicStore implements TopicStore {
     private Map<TopicName, Topic> topics = new HashMap<>();
     private Function<TopicName, AsyncResult<Void>> createTopicResponse = t -> Future.failedFuture("Unexpected. Your test's MockTopicStore probably nees a createTopicResponse configured.");
     private Function<TopicName, AsyncResult<Void>> deleteTopicResponse = t -> Future.failedFuture("Unexpected. Your test's MockTopicStore probably nees a deleteTopicResponse configured.");
+    private AsyncResult<List<TopicName>> listResponse;
     private Function<TopicName, AsyncResult<Void>> updateTopicResponse = t -> Future.failedFuture("Unexpected. Your test's MockTopicStore probably nees a updateTopicResponse configured.");
 
     @Override
@@ -60,6 +63,16 @@ public class MockTopicStore implements TopicStore {
         handler.handle(response);
     }
 
+    @Override
+    public void list(Handler<AsyncResult<List<TopicName>>> handler) {
+        handler.handle(listResponse != null ? listResponse : Future.succeededFuture(new ArrayList<>(topics.keySet())));
+    }
+
+    public MockTopicStore setListResponse(AsyncResult<List<TopicName>> listResponse) {
+        this.listResponse = listResponse;
+        return this;
+    }
+
     public void assertExists(TestContext context, TopicName topicName) {
         context.assertTrue(topics.containsKey(topicName));
     }
@@ -72,6 +85,11 @@ public class MockTopicStore implements TopicStore {
         context.assertEquals(topic, topics.get(topic.getTopicName()));
     }
 
+    public MockTopicStore setCreateTopicResponse(Function<TopicName, AsyncResult<Void>> createTopicResponse) {
+        this.createTopicResponse = createTopicResponse;
+        return this;
+    }
+
     public MockTopicStore setCreateTopicResponse(TopicName createTopic, Exception exception) {
         Function<TopicName, AsyncResult<Void>> old = this.createTopicResponse;
         this.createTopicResponse = t -> {
@@ -9,8 +9,12 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Stat;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,8 +25,21 @@ class MockZk implements Zk {
     public AsyncResult<Void> setDataResult = Future.failedFuture("Unexpected mock interaction. Configure " + getClass().getSimpleName() + ".setDataResult");
     public AsyncResult<List<String>> childrenResult = Future.failedFuture("Unexpected mock interaction. Configure " + getClass().getSimpleName() + ".childrenResult");
     public AsyncResult<byte[]> dataResult = Future.failedFuture("Unexpected mock interaction. Configure " + getClass().getSimpleName() + ".dataResult");
+    public AsyncResult<List<OpResult>> multiResult = Future.failedFuture("Unexpected mock interaction. Configure " + getClass().getSimpleName() + ".multiResult");
+    public long sessionId = 1;
+    /** The ephemeralOwner of the znode whose data is returned by getData(). */
+    public long dataEphemeralOwner = 0;
     private Handler<AsyncResult<List<String>>> childrenHandler;
     private Map<String, Handler<AsyncResult<byte[]>>> dataHandlers = new HashMap<>();
+    private Map<String, Handler<AsyncResult<Void>>> deletionHandlers = new HashMap<>();
+    /** The data successfully written by create() and setData(), in order, by path. */
+    public final Map<String, List<byte[]>> writes = new HashMap<>();
+
+    private void written(String path, byte[] data, AsyncResult<Void> result) {
+        if (result.succeeded()) {
+            writes.computeIfAbsent(path, p -> new ArrayList<>()).add(data);
+        }
+    }
 
     public void triggerChildren(AsyncResult<List<String>> childrenResult) {
         if (childrenHandler != null) {
@@ -38,20 +55,34 @@ class MockZk implements Zk {
         }
     }
 
+    public void triggerDeletion(String path) {
+        Handler<AsyncResult<Void>> handler = deletionHandlers.get(path);
+        if (handler != null) {
+            handler.handle(Future.succeededFuture());
+        }
+    }
+
     @Override
     public Zk disconnect(Handler<AsyncResult<Void>> handler) {
         handler.handle(Future.succeededFuture());
         return this;
     }
 
+    @Override
+    public long sessionId() {
+        return sessionId;
+    }
+
     @Override
     public Zk create(String path, byte[] data, List<ACL> acls, CreateMode createMode, Handler<AsyncResult<Void>> handler) {
+        written(path, data, createResult);
         handler.handle(createResult);
         return this;
     }
 
     @Override
     public Zk setData(String path, byte[] data, int version, Handler<AsyncResult<Void>> handler) {
+        written(path, data, setDataResult);
         handler.handle(setDataResult);
         return this;
     }
@@ -80,6 +111,13 @@ class MockZk implements Zk {
         return this;
     }
 
+    @Override
+    public Zk getData(String path, Stat stat, Handler<AsyncResult<byte[]>> handler) {
+        stat.setEphemeralOwner(dataEphemeralOwner);
+        handler.handle(dataResult);
+        return this;
+    }
+
     @Override
     public Zk watchData(String path, Handler<AsyncResult<byte[]>> watcher) {
         dataHandlers.put(path, watcher);
@@ -92,8 +130,26 @@ class MockZk implements Zk {
         return this;
     }
 
+    @Override
+    public Zk watchDeletion(String path, Handler<AsyncResult<Void>> watcher) {
+        deletionHandlers.put(path, watcher);
+        return this;
+    }
+
+    @Override
+    public Zk unwatchDeletion(String path) {
+        deletionHandlers.remove(path);
+        return this;
+    }
+
     @Override
     public Zk delete(String path, int version, Handler<AsyncResult<Void>> handler) {
         return null;
     }
+
+    @Override
+    public Zk multi(List<Op> ops, Handler<AsyncResult<List<OpResult>>> handler) {
+        handler.handle(multiResult);
+        return this;
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import org.apache.kafka.common.Node;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PartitionReassignmentTest {
+
+    private static final String TOPIC = "my-topic";
+
+    private static List<Node> brokers(String... racks) {
+        Node[] nodes = new Node[racks.length];
+        for (int i = 0; i < racks.length; i++) {
+            nodes[i] = new Node(i, "localhost", -2, racks[i]);
+        }
+        return asList(nodes);
+    }
+
+    @SafeVarargs
+    private static Map<Integer, List<Integer>> assignment(List<Integer>... replicas) {
+        Map<Integer, List<Integer>> result = new TreeMap<>();
+        for (int i = 0; i < replicas.length; i++) {
+            result.put(i, replicas[i]);
+        }
+        return result;
+    }
+
+    @Test
+    public void testIncreaseKeepsExistingReplicasAndBalances() {
+        PartitionReassignment reassignment = PartitionReassignment.propose(TOPIC,
+                assignment(asList(0), asList(1), asList(2)),
+                brokers(null, null, null), 2);
+        assertTrue(reassignment.isChange());
+        Map<Integer, List<Integer>> proposed = reassignment.proposed();
+        int[] load = new int[3];
+        for (Map.Entry<Integer, List<Integer>> entry : proposed.entrySet()) {
+            List<Integer> replicas = entry.getValue();
+            assertEquals(2, replicas.size());
+            // The preferred leader is unchanged
+            assertEquals(entry.getKey(), replicas.get(0));
+            assertEquals(2, new HashSet<>(replicas).size());
+            for (Integer replica : replicas) {
+                load[replica]++;
+            }
+        }
+        assertEquals(2, load[0]);
+        assertEquals(2, load[1]);
+        assertEquals(2, load[2]);
+    }
+
+    @Test
+    public void testIncreasePrefersUnusedRacks() {
+        PartitionReassignment reassignment = PartitionReassignment.propose(TOPIC,
+                assignment(asList(0)),
+                brokers("a", "a", "b"), 2);
+        assertEquals(asList(0, 2), reassignment.proposed().get(0));
+    }
+
+    @Test
+    public void testDecreaseDropsLastReplicas() {
+        PartitionReassignment reassignment = PartitionReassignment.propose(TOPIC,
+                assignment(asList(2, 0, 1), asList(1, 2, 0)),
+                brokers(null, null, null), 1);
+        assertEquals(assignment(asList(2), asList(1)), reassignment.proposed());
+    }
+
+    @Test
+    public void testUnchanged() {
+        PartitionReassignment reassignment = PartitionReassignment.propose(TOPIC,
+                assignment(asList(0, 1)),
+                brokers(null, null, null), 2);
+        assertFalse(reassignment.isChange());
+    }
+
+    @Test(expected = InvalidTopicException.class)
+    public void testTooFewBrokers() {
+        PartitionReassignment.propose(TOPIC, assignment(asList(0)), brokers(null, null), 3);
+    }
+
+    @Test
+    public void testJsonOnlyContainsMovingPartitions() {
+        PartitionReassignment reassignment = new PartitionReassignment(TOPIC,
+                assignment(asList(0, 1), asList(1)),
+                assignment(asList(0, 1), asList(1, 2)));
+        String json = new String(reassignment.toJson(), StandardCharsets.UTF_8);
+        assertEquals("{\"version\":1,\"partitions\":[{\"topic\":\"my-topic\",\"partition\":1,\"replicas\":[1,2]}]}", json);
+        assertEquals(1, reassignment.remainingPartitions(reassignment.toJson()));
+        assertEquals(0, reassignment.remainingPartitions(
+                "{\"version\":1,\"partitions\":[{\"topic\":\"other\",\"partition\":1,\"replicas\":[1]}]}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testThrottles() {
+        PartitionReassignment reassignment = new PartitionReassignment(TOPIC,
+                assignment(asList(0, 1), asList(1)),
+                assignment(asList(0, 1), asList(1, 2)));
+        Map<String, String> throttles = reassignment.topicThrottles();
+        assertEquals("1:1", throttles.get(PartitionReassignment.LEADER_THROTTLED_REPLICAS));
+        assertEquals("1:2", throttles.get(PartitionReassignment.FOLLOWER_THROTTLED_REPLICAS));
+        assertEquals(new HashSet<>(asList(1, 2)), reassignment.involvedBrokers());
+    }
+
+    @Test
+    public void testEntityConfigRoundTrip() {
+        Map<String, String> config = singletonMap(PartitionReassignment.LEADER_THROTTLED_RATE, "1000");
+        assertEquals(config, PartitionReassignment.parseEntityConfig(PartitionReassignment.entityConfigJson(config)));
+        assertTrue(PartitionReassignment.parseEntityConfig(new byte[0]).isEmpty());
+        assertNotEquals(0, PartitionReassignment.configChangeJson("topics/" + TOPIC).length);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.Future;
+import org.I0Itec.zkclient.exception.ZkNoNodeException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TopicConfigsWatcherTest {
+
+    private MockTopicOperator operator;
+    private MockZk mockZk;
+
+    @Before
+    public void setup() {
+        operator = new MockTopicOperator();
+        operator.topicModifiedResult = Future.succeededFuture();
+        mockZk = new MockZk();
+    }
+
+    private static byte[] notification(String topic) {
+        return ("{\"version\":2,\"entity_path\":\"topics/" + topic + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void assertModified(String topic) {
+        assertEquals(asList(new MockTopicOperator.MockOperatorEvent(
+                MockTopicOperator.MockOperatorEvent.Type.MODIFY_CONFIG, new TopicName(topic))), operator.getMockOperatorEvents());
+    }
+
+    @Test
+    public void testConfigChangeNotificationParsing() {
+        assertEquals("foo", TopicConfigsWatcher.topicOf(notification("foo")));
+        assertEquals("foo", TopicConfigsWatcher.topicOf(
+                "{\"version\":1,\"entity_type\":\"topics\",\"entity_name\":\"foo\"}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(TopicConfigsWatcher.topicOf(
+                "{\"version\":2,\"entity_path\":\"brokers/0\"}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(TopicConfigsWatcher.topicOf("not json".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(42, TopicConfigsWatcher.sequence("config_change_0000000042"));
+        assertEquals(-1, TopicConfigsWatcher.sequence("something_else"));
+    }
+
+    @Test
+    public void testMultiplexedConfigChange() {
+        mockZk.childrenResult = Future.succeededFuture(asList("config_change_0000000001"));
+        TopicConfigsWatcher topicConfigsWatcher = new TopicConfigsWatcher(operator, true);
+        topicConfigsWatcher.addChild("foo");
+        topicConfigsWatcher.start(mockZk);
+        // The existing notification is not replayed
+        assertTrue(operator.getMockOperatorEvents().isEmpty());
+
+        mockZk.dataResult = Future.succeededFuture(notification("foo"));
+        mockZk.triggerChildren(Future.succeededFuture(asList("config_change_0000000001", "config_change_0000000002")));
+        assertModified("foo");
+
+        // Notifications for topics which aren't watched are ignored
+        operator.clearEvents();
+        mockZk.dataResult = Future.succeededFuture(notification("bar"));
+        mockZk.triggerChildren(Future.succeededFuture(asList("config_change_0000000002", "config_change_0000000003")));
+        assertTrue(operator.getMockOperatorEvents().isEmpty());
+    }
+
+    @Test
+    public void testFirstNotificationAfterEmptyListing() {
+        mockZk.childrenResult = Future.succeededFuture(Collections.emptyList());
+        TopicConfigsWatcher topicConfigsWatcher = new TopicConfigsWatcher(operator, true);
+        topicConfigsWatcher.addChild("foo");
+        topicConfigsWatcher.start(mockZk);
+        assertTrue(operator.getMockOperatorEvents().isEmpty());
+
+        mockZk.dataResult = Future.succeededFuture(notification("foo"));
+        mockZk.triggerChildren(Future.succeededFuture(asList("config_change_0000000000")));
+        assertModified("foo");
+    }
+
+    @Test
+    public void testFirstNotificationAfterMissingChangesZnode() {
+        mockZk.childrenResult = Future.failedFuture(new ZkNoNodeException());
+        TopicConfigsWatcher topicConfigsWatcher = new TopicConfigsWatcher(operator, true);
+        topicConfigsWatcher.addChild("foo");
+        topicConfigsWatcher.start(mockZk);
+        assertTrue(operator.getMockOperatorEvents().isEmpty());
+
+        mockZk.dataResult = Future.succeededFuture(notification("foo"));
+        mockZk.triggerChildren(Future.succeededFuture(asList("config_change_0000000000")));
+        assertModified("foo");
+    }
+}
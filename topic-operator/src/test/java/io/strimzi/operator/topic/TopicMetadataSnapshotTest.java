@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.AsyncResult;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TopicMetadataSnapshotTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final TopicName topicName = new TopicName("my-topic");
+    private final TopicMetadata metadata = Utils.getTopicMetadata(topicName.toString(),
+            new org.apache.kafka.clients.admin.Config(Collections.emptyList()));
+    private final TopicMetadataSnapshot snapshot = new TopicMetadataSnapshot(
+            Collections.singletonMap(topicName, metadata), 1000L, new HashSet<>(), now::get);
+
+    @Test
+    public void testUsableUntilMaxAge() {
+        AsyncResult<TopicMetadata> result = snapshot.get(topicName);
+        assertTrue(result.succeeded());
+        assertSame(metadata, result.result());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000L));
+        assertFalse(snapshot.isExpired());
+        assertSame(metadata, snapshot.get(topicName).result());
+    }
+
+    @Test
+    public void testTopicNotInSnapshotDoesNotExist() {
+        AsyncResult<TopicMetadata> result = snapshot.get(new TopicName("other"));
+        assertTrue(result.succeeded());
+        assertNull(result.result());
+    }
+
+    @Test
+    public void testNotUsedOnceExpired() {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001L));
+        assertTrue(snapshot.isExpired());
+        assertNull(snapshot.get(topicName));
+        assertNull(snapshot.get(new TopicName("other")));
+    }
+
+    @Test
+    public void testNotUsedForInvalidatedTopic() {
+        snapshot.invalidate(topicName);
+        assertNull(snapshot.get(topicName));
+        assertTrue(snapshot.get(new TopicName("other")).succeeded());
+    }
+}
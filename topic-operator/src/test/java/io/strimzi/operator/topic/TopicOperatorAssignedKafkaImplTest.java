@@ -4,20 +4,25 @@
  */
 package io.strimzi.operator.topic;
 
-import io.strimzi.test.TestUtils;
+import io.strimzi.operator.topic.zk.Zk;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.I0Itec.zkclient.exception.ZkNoNodeException;
+import org.I0Itec.zkclient.exception.ZkNodeExistsException;
 import org.apache.kafka.clients.admin.AdminClient;
-import org.junit.BeforeClass;
+import org.apache.kafka.common.Node;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyMap;
@@ -25,254 +30,243 @@ import static java.util.Collections.emptyMap;
 @RunWith(VertxUnitRunner.class)
 public class TopicOperatorAssignedKafkaImplTest {
 
-    private static Config config;
+    private static final String TOPIC = "changeReplicationFactor";
 
-    static {
+    private final Vertx vertx = Vertx.vertx();
+    private final MockZk zk = new MockZk();
 
+    private static Config config(boolean throttled) {
+        return config(throttled, "60000");
+    }
+
+    private static Config config(boolean throttled, String timeoutMs) {
         Map<String, String> map = new HashMap<>();
         map.put(Config.ZOOKEEPER_CONNECT.key, "localhost:2181");
         map.put(Config.KAFKA_BOOTSTRAP_SERVERS.key, "localhost:9092");
         map.put(Config.NAMESPACE.key, "default");
         map.put(Config.REASSIGN_VERIFY_INTERVAL_MS.key, "1000");
-        config = new Config(map);
+        map.put(Config.REASSIGN_TIMEOUT_MS.key, timeoutMs);
+        if (throttled) {
+            map.put(Config.REASSIGN_THROTTLE.key, "1000");
+        }
+        return new Config(map);
     }
 
     /**
-     * We subclass the class under test so that we can run our own executable
-     * rather than the real ReassignPartitionsCommand. This allows us to test
-     * various scenarios without needing ZK+Kafka clusters deployed.
+     * We subclass the class under test so that we can supply the current assignment
+     * without needing a Kafka cluster deployed.
      */
     static class Subclass extends OperatorAssignedKafkaImpl {
 
-        static List<String> fail(String message) {
-            return asList("--fail", message);
-        }
-
-        static List<String> generate(String current, String propose) {
-            return asList("--generate-current", current, "--generate-propose", propose);
-        }
+        private final Map<Integer, List<Integer>> current;
 
-        static List<String> executeStarted() {
-            return asList("--execute-started");
+        public Subclass(AdminClient adminClient, Vertx vertx, Config config, Zk zk, Map<Integer, List<Integer>> current) {
+            super(adminClient, vertx, config, zk);
+            this.current = current;
         }
 
-        static List<String> verifyInProgress(String... partitions) {
-            List<String> result = new ArrayList(2 * partitions.length);
-            for (String partition: partitions) {
-                result.add("--verify-in-progress");
-                result.add(partition);
-            }
-            return result;
-        }
-
-        static List<String> verifySuccess(String... partitions) {
-            List<String> result = new ArrayList(2 * partitions.length);
-            for (String partition: partitions) {
-                result.add("--verify-success");
-                result.add(partition);
-            }
-            return result;
+        @Override
+        protected Future<PartitionReassignment> generateReassignment(Topic topic) {
+            List<Node> brokers = asList(new Node(0, "localhost", -2),
+                    new Node(1, "localhost", -2),
+                    new Node(2, "localhost", -2));
+            return Future.succeededFuture(current).map(assignment ->
+                    PartitionReassignment.propose(TOPIC, assignment, brokers, topic.getNumReplicas()));
         }
+    }
 
-        static List<String> verifyFail(String message) {
-            return asList("--verify-fail", message);
-        }
+    @After
+    public void teardown() {
+        vertx.close();
+    }
 
-        static List<String> executeFail(String message) {
-            return asList("--execute-fail", message);
-        }
+    private Subclass kafka(boolean throttled) {
+        return kafka(config(throttled));
+    }
 
-        static List<String> executeInProgress() {
-            return asList("--execute-running");
-        }
+    private Subclass kafka(Config config) {
+        Map<Integer, List<Integer>> current = new TreeMap<>();
+        current.put(0, asList(0));
+        current.put(1, asList(1));
+        return new Subclass(new MockAdminClient(), vertx, config, zk, current);
+    }
 
-        public static final String SCRIPT = "src/test/scripts/reassign.sh";
-        private final List<List<String>> args;
-        private final String script;
-        private int i = 0;
+    private Topic topic(int replicationFactor) {
+        return new Topic.Builder(TOPIC, 2, (short) replicationFactor, emptyMap()).build();
+    }
 
-        public Subclass(AdminClient adminClient, Vertx vertx, Config config, List<List<String>> args) {
-            this(adminClient, vertx, config, SCRIPT, args);
+    private static byte[] inProgress(int... partitions) {
+        StringBuilder sb = new StringBuilder("{\"version\":1,\"partitions\":[");
+        for (int i = 0; i < partitions.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"topic\":\"").append(TOPIC).append("\",\"partition\":").append(partitions[i]).append(",\"replicas\":[0,1]}");
         }
+        return sb.append("]}").getBytes(StandardCharsets.UTF_8);
+    }
 
-        public Subclass(AdminClient adminClient, Vertx vertx, Config config, String script, List<List<String>> args) {
-            super(adminClient, vertx, config);
-            this.script = script;
-            this.args = args;
-        }
+    @Test
+    public void changeReplicationFactor(TestContext context) {
+        zk.createResult = Future.succeededFuture();
+        zk.dataResult = Future.succeededFuture(inProgress(0, 1));
+        Async async = context.async();
+        kafka(false).changeReplicationFactor(topic(2), ar -> {
+            context.assertTrue(ar.succeeded());
+            async.complete();
+        });
+        // The controller deletes the znode when the reassignment is complete
+        vertx.setTimer(100, id -> zk.triggerDeletion(PartitionReassignment.REASSIGN_PARTITIONS_PATH));
+    }
 
-        @Override
-        protected void addJavaArgs(List<String> args) {
-            args.add(script);
-            args.addAll(this.args.get(i++));
-        }
+    /**
+     * Test the case where the reassignment completes before we've started watching the znode.
+     */
+    @Test
+    public void changeReplicationFactor_AlreadyComplete(TestContext context) {
+        zk.createResult = Future.succeededFuture();
+        zk.dataResult = Future.failedFuture(new ZkNoNodeException());
+        Async async = context.async();
+        kafka(false).changeReplicationFactor(topic(2), ar -> {
+            context.assertTrue(ar.succeeded());
+            async.complete();
+        });
     }
 
-    @BeforeClass
-    public static void setUp() throws Exception {
-        TestUtils.assumeLinux();
+    /**
+     * Test the case where the znode no longer lists any partitions of our topic.
+     */
+    @Test
+    public void changeReplicationFactor_NoPartitionsRemaining(TestContext context) {
+        zk.createResult = Future.succeededFuture();
+        zk.dataResult = Future.succeededFuture(inProgress());
+        Async async = context.async();
+        kafka(false).changeReplicationFactor(topic(2), ar -> {
+            context.assertTrue(ar.succeeded());
+            async.complete();
+        });
     }
 
     @Test
-    public void changeReplicationFactor_missingExecutable(TestContext context) {
-        MockAdminClient adminClient = new MockAdminClient();
-        Vertx vertx = Vertx.vertx();
-        Topic topic = new Topic.Builder("changeReplicationFactor", 2, (short) 2, emptyMap()).build();
-        String[] partitions = new String[]{"changeReplicationFactor-0", "changeReplicationFactor-1"};
-        final String doesNotExist = "/some/executable/that/does/not/exist";
-        Subclass sub = new Subclass(adminClient, vertx, config, doesNotExist, asList(
-                Subclass.generate("{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}",
-                        "{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}"),
-                Subclass.executeStarted(),
-                Subclass.verifyInProgress(partitions),
-                Subclass.verifySuccess(partitions)));
+    public void changeReplicationFactor_Unchanged(TestContext context) {
+        // No interactions with ZooKeeper are expected
         Async async = context.async();
-        sub.changeReplicationFactor(topic, ar -> {
-            context.assertFalse(ar.succeeded());
-            final String message = ar.cause().getMessage();
-            context.assertTrue(message.contains("lacks an executable arg[0]")
-                    && message.contains("/some/executable/that/does/not/exist"));
+        kafka(false).changeReplicationFactor(topic(1), ar -> {
+            context.assertTrue(ar.succeeded());
             async.complete();
         });
     }
 
     @Test
-    public void changeReplicationFactor_notExecutable(TestContext context) {
-        MockAdminClient adminClient = new MockAdminClient();
-        Vertx vertx = Vertx.vertx();
-        Topic topic = new Topic.Builder("changeReplicationFactor", 2, (short) 2, emptyMap()).build();
-        String[] partitions = new String[]{"changeReplicationFactor-0", "changeReplicationFactor-1"};
-        Subclass sub = new Subclass(adminClient, vertx, config, "pom.xml", asList(
-                Subclass.generate("{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}",
-                        "{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}"),
-                Subclass.executeStarted(),
-                Subclass.verifyInProgress(partitions),
-                Subclass.verifySuccess(partitions)));
+    public void changeReplicationFactor_TooFewBrokers(TestContext context) {
         Async async = context.async();
-        sub.changeReplicationFactor(topic, ar -> {
+        kafka(false).changeReplicationFactor(topic(4), ar -> {
             context.assertFalse(ar.succeeded());
-            final String message = ar.cause().getMessage();
-            context.assertTrue(message.contains("lacks an executable arg[0]")
-                && message.contains("pom.xml"));
+            context.assertTrue(ar.cause() instanceof InvalidTopicException);
             async.complete();
         });
     }
 
     @Test
-    public void changeReplicationFactor(TestContext context) {
-        MockAdminClient adminClient = new MockAdminClient();
-        Vertx vertx = Vertx.vertx();
-        Topic topic = new Topic.Builder("changeReplicationFactor", 2, (short) 2, emptyMap()).build();
-        String[] partitions = new String[]{"changeReplicationFactor-0", "changeReplicationFactor-1"};
-        Subclass sub = new Subclass(adminClient, vertx, config, asList(
-                Subclass.generate("{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}",
-                        "{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}"),
-                Subclass.executeStarted(),
-                Subclass.verifyInProgress(partitions),
-                Subclass.verifySuccess(partitions)));
+    public void changeReplicationFactor_ExecuteInProgress(TestContext context) {
+        zk.createResult = Future.failedFuture(new ZkNodeExistsException());
         Async async = context.async();
-        sub.changeReplicationFactor(topic, ar -> {
-            context.assertTrue(ar.succeeded());
+        kafka(false).changeReplicationFactor(topic(2), ar -> {
+            context.assertFalse(ar.succeeded());
+            context.assertTrue(ar.cause() instanceof TransientOperatorException);
+            context.assertTrue(ar.cause().getMessage().contains("There is an existing assignment running"));
             async.complete();
         });
     }
 
     /**
-     * Test the case where an error happens during --verify execution.
-     * We should retry until we succeed (or (TODO) a timeout happens).
-     * We handle this differently from case of error in --execute because we need to ensure throttles get removed.
+     * Test the case where an error happens while checking on the reassignment.
+     * We should keep waiting, rather than failing, because we need to ensure throttles get removed.
      */
     @Test
     public void changeReplicationFactor_TransientErrorInVerify(TestContext context) {
-        MockAdminClient adminClient = new MockAdminClient();
-        Vertx vertx = Vertx.vertx();
-        Topic topic = new Topic.Builder("changeReplicationFactor", 2, (short) 2, emptyMap()).build();
-        String[] partitions = new String[]{"changeReplicationFactor-0", "changeReplicationFactor-1"};
-        Subclass sub = new Subclass(adminClient, vertx, config, asList(
-                Subclass.generate("{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}",
-                        "{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}"),
-                Subclass.executeStarted(),
-                Subclass.verifyInProgress(partitions),
-                Subclass.fail("Bang!"),
-                Subclass.verifySuccess(partitions)));
+        zk.createResult = Future.succeededFuture();
+        zk.dataResult = Future.failedFuture("Connection loss");
         Async async = context.async();
-        sub.changeReplicationFactor(topic, ar -> {
-            // We should retry anf ultimately succeed
+        kafka(false).changeReplicationFactor(topic(2), ar -> {
             context.assertTrue(ar.succeeded());
             async.complete();
         });
+        vertx.setTimer(1_500, id -> zk.dataResult = Future.failedFuture(new ZkNoNodeException()));
     }
 
     @Test
-    public void changeReplicationFactor_ErrorInVerify(TestContext context) {
-        MockAdminClient adminClient = new MockAdminClient();
-        Vertx vertx = Vertx.vertx();
-        Topic topic = new Topic.Builder("changeReplicationFactor", 2, (short) 2, emptyMap()).build();
-        String[] partitions = new String[]{"changeReplicationFactor-0", "changeReplicationFactor-1"};
-        Subclass sub = new Subclass(adminClient, vertx, config, asList(
-                Subclass.generate("{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}",
-                        "{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}"),
-                Subclass.executeStarted(),
-                Subclass.verifyInProgress(partitions),
-                Subclass.verifyFail("Bang!"),
-                Subclass.verifySuccess(partitions)));
+    public void changeReplicationFactor_Throttled(TestContext context) {
+        // The throttle configs don't exist yet, so are created
+        zk.createResult = Future.succeededFuture();
+        zk.dataResult = Future.failedFuture(new ZkNoNodeException());
         Async async = context.async();
-        sub.changeReplicationFactor(topic, ar -> {
-            // We should retry anf ultimately succeed
+        kafka(true).changeReplicationFactor(topic(2), ar -> {
             context.assertTrue(ar.succeeded());
+            // The topic's throttled replicas were set, then removed once the reassignment was complete
+            List<byte[]> topicConfigs = zk.writes.get("/config/topics/" + TOPIC);
+            context.assertEquals(2, topicConfigs.size());
+            Map<String, String> throttled = PartitionReassignment.parseEntityConfig(topicConfigs.get(0));
+            context.assertTrue(throttled.containsKey(PartitionReassignment.LEADER_THROTTLED_REPLICAS));
+            context.assertTrue(throttled.containsKey(PartitionReassignment.FOLLOWER_THROTTLED_REPLICAS));
+            context.assertTrue(PartitionReassignment.parseEntityConfig(topicConfigs.get(1)).isEmpty());
+            // Likewise the throttled rates of the brokers involved
+            int brokers = 0;
+            for (Map.Entry<String, List<byte[]>> entry : zk.writes.entrySet()) {
+                if (entry.getKey().startsWith("/config/brokers/")) {
+                    brokers++;
+                    context.assertEquals(2, entry.getValue().size());
+                    Map<String, String> rates = PartitionReassignment.parseEntityConfig(entry.getValue().get(0));
+                    context.assertEquals("1000", rates.get(PartitionReassignment.LEADER_THROTTLED_RATE));
+                    context.assertEquals("1000", rates.get(PartitionReassignment.FOLLOWER_THROTTLED_RATE));
+                    context.assertTrue(PartitionReassignment.parseEntityConfig(entry.getValue().get(1)).isEmpty());
+                }
+            }
+            context.assertTrue(brokers > 0);
             async.complete();
         });
     }
 
     /**
-     * Test the case where the --gexecute execution fails because a reassignment is currently running.
-     * We should give up and fail the handler, on the basis that we will retry later as a result of
-     * periodic reconciliation.
+     * Test the case where the reassignment doesn't complete in time: The throttles should still be removed.
      */
     @Test
-    public void changeReplicationFactor_ExecuteInProgress(TestContext context) {
-        MockAdminClient adminClient = new MockAdminClient();
-        Vertx vertx = Vertx.vertx();
-        Topic topic = new Topic.Builder("changeReplicationFactor", 2, (short) 2, emptyMap()).build();
-        String[] partitions = new String[]{"changeReplicationFactor-0", "changeReplicationFactor-1"};
-        Subclass sub = new Subclass(adminClient, vertx, config, asList(
-                Subclass.generate("{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}",
-                        "{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}"),
-                Subclass.executeInProgress(),
-                Subclass.verifyInProgress(partitions),
-                Subclass.verifySuccess(partitions)));
+    public void changeReplicationFactor_Timeout(TestContext context) {
+        zk.createResult = Future.succeededFuture();
+        zk.setDataResult = Future.succeededFuture();
+        zk.dataResult = Future.succeededFuture(inProgress(0, 1));
         Async async = context.async();
-        sub.changeReplicationFactor(topic, ar -> {
+        kafka(config(true, "500")).changeReplicationFactor(topic(2), ar -> {
             context.assertFalse(ar.succeeded());
-            context.assertEquals("Reassigment failed: There is an existing assignment running.", ar.cause().getMessage());
+            context.assertTrue(ar.cause() instanceof TransientOperatorException);
+            context.assertTrue(ar.cause().getMessage().contains("did not complete within 500ms"));
+            // The throttled replicas were set, then removed
+            context.assertEquals(2, zk.writes.get("/config/topics/" + TOPIC).size());
             async.complete();
         });
     }
 
     /**
-     * Test the case where something goes wrong with the initial --generate execution.
-     * We should give up and fail the handler, on the basis that we will retry later as a result of
-     * periodic reconciliation.
+     * Test the case where the brokers already have throttled rates, set by someone else:
+     * They should be neither changed nor removed.
      */
     @Test
-    public void changeReplicationFactor_ExecuteFail(TestContext context) {
-        MockAdminClient adminClient = new MockAdminClient();
-        Vertx vertx = Vertx.vertx();
-        Topic topic = new Topic.Builder("changeReplicationFactor", 2, (short) 2, emptyMap()).build();
-        String[] partitions = new String[]{"changeReplicationFactor-0", "changeReplicationFactor-1"};
-        Subclass sub = new Subclass(adminClient, vertx, config, asList(
-                Subclass.generate("{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}",
-                        "{\"version\":1,\"partitions\":[{\"topic\":\"test-topic\",\"partition\":0,\"replicas\":[0],\"log_dirs\":[\"any\"]},{\"topic\":\"test-topic\",\"partition\":1,\"replicas\":[0],\"log_dirs\":[\"any\"]}]}"),
-                Subclass.executeFail("Bang!"),
-                Subclass.executeStarted(),
-                Subclass.verifyInProgress(partitions),
-                Subclass.verifySuccess(partitions)));
+    public void changeReplicationFactor_BrokersAlreadyThrottled(TestContext context) {
+        Map<String, String> rates = new HashMap<>();
+        rates.put(PartitionReassignment.LEADER_THROTTLED_RATE, "5000");
+        rates.put(PartitionReassignment.FOLLOWER_THROTTLED_RATE, "5000");
+        zk.createResult = Future.succeededFuture();
+        zk.setDataResult = Future.succeededFuture();
+        // The reassignment is also complete, since the data lists no partitions
+        zk.dataResult = Future.succeededFuture(PartitionReassignment.entityConfigJson(rates));
         Async async = context.async();
-        sub.changeReplicationFactor(topic, ar -> {
-            context.assertFalse(ar.succeeded());
-            context.assertTrue(ar.cause().getMessage().contains("Failed to reassign partitions"));
+        kafka(true).changeReplicationFactor(topic(2), ar -> {
+            context.assertTrue(ar.succeeded());
+            context.assertEquals(2, zk.writes.get("/config/topics/" + TOPIC).size());
+            for (String path : zk.writes.keySet()) {
+                context.assertFalse(path.startsWith("/config/brokers/"), "Unexpected write to " + path);
+            }
             async.complete();
         });
     }
-
 }
@@ -24,6 +24,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -855,6 +856,167 @@ public class TopicOperatorTest {
         }));
     }
 
+    @Test
+    public void testReconcileAllTopics_skipsUnchangedTopics(TestContext context) {
+        Topic topic = new Topic.Builder(topicName, resourceName, 10, (short) 2, map("cleanup.policy", "bar"), metadata).build();
+        mockKafka.setTopicsList(singleton(topicName.toString()));
+        mockKafka.setTopicMetadataResponse(topicName, Utils.getTopicMetadata(topic), null);
+        KafkaTopic resource = TopicSerialization.toTopicResource(topic, resourcePredicate);
+        resource.setMetadata(new ObjectMetaBuilder(resource.getMetadata()).withResourceVersion("1").build());
+        mockK8s.setGetFromNameResponse(resourceName, Future.succeededFuture(resource));
+        mockTopicStore.setCreateTopicResponse(topicName, null).create(topic, ar -> { });
+
+        Async async = context.async();
+        topicOperator.reconcileAllTopics("periodic").setHandler(context.asyncAssertSuccess(first -> {
+            context.assertEquals(0L, topicOperator.unchangedTopicsSkipped());
+            topicOperator.reconcileAllTopics("periodic").setHandler(context.asyncAssertSuccess(second -> {
+                context.assertEquals(1L, topicOperator.unchangedTopicsSkipped());
+                // A new resourceVersion means the topic must be reconciled again
+                KafkaTopic modified = TopicSerialization.toTopicResource(topic, resourcePredicate);
+                modified.setMetadata(new ObjectMetaBuilder(modified.getMetadata()).withResourceVersion("2").build());
+                mockK8s.setGetFromNameResponse(resourceName, Future.succeededFuture(modified));
+                topicOperator.reconcileAllTopics("periodic").setHandler(context.asyncAssertSuccess(third -> {
+                    context.assertEquals(1L, topicOperator.unchangedTopicsSkipped());
+                    mockK8s.assertNoEvents(context);
+                    async.complete();
+                }));
+            }));
+        }));
+    }
+
+    @Test
+    public void testReconcileAllTopics_skipsTopicChangedByTheLastReconciliation(TestContext context) {
+        Topic kubeTopic = new Topic.Builder(topicName.toString(), 10, (short) 2, map("cleanup.policy", "bar")).build();
+        Topic kafkaTopic = new Topic.Builder(topicName.toString(), 10, (short) 2, map("cleanup.policy", "baz")).build();
+        KafkaTopic resource = TopicSerialization.toTopicResource(kubeTopic, resourcePredicate);
+        mockKafka.setCreateTopicResponse(topicName.toString(), null)
+                .createTopic(kafkaTopic, ar -> { });
+        mockKafka.setTopicMetadataResponse(topicName, Utils.getTopicMetadata(kafkaTopic), null);
+        mockKafka.setTopicsList(singleton(topicName.toString()));
+        mockKafka.setUpdateTopicResponse(t -> Future.succeededFuture());
+        mockTopicStore.setCreateTopicResponse(topicName, null)
+                .create(kubeTopic, ar -> { });
+        mockTopicStore.setUpdateTopicResponse(topicName, null);
+        mockK8s.setCreateResponse(resourceName, null)
+                .createResource(resource, ar -> { });
+        mockK8s.setModifyResponse(resourceName, null);
+
+        Async async = context.async();
+        topicOperator.reconcileAllTopics("periodic").setHandler(context.asyncAssertSuccess(first -> {
+            context.assertEquals(0L, topicOperator.unchangedTopicsSkipped());
+            // The fingerprint is of the topic as it was after the change in Kafka was reconciled,
+            // so it's not reconciled again just to find that it's unchanged
+            topicOperator.reconcileAllTopics("periodic").setHandler(context.asyncAssertSuccess(second -> {
+                context.assertEquals(1L, topicOperator.unchangedTopicsSkipped());
+                async.complete();
+            }));
+        }));
+    }
+
+    @Test
+    public void testOwnershipChangeForgetsTopic(TestContext context) {
+        Topic topic = new Topic.Builder(topicName, resourceName, 10, (short) 2, map("cleanup.policy", "bar"), metadata).build();
+        mockKafka.setTopicsList(singleton(topicName.toString()));
+        mockKafka.setTopicMetadataResponse(topicName, Utils.getTopicMetadata(topic), null);
+        KafkaTopic resource = TopicSerialization.toTopicResource(topic, resourcePredicate);
+        resource.setMetadata(new ObjectMetaBuilder(resource.getMetadata()).withResourceVersion("1").build());
+        mockK8s.setGetFromNameResponse(resourceName, Future.succeededFuture(resource));
+        mockTopicStore.setCreateTopicResponse(topicName, null).create(topic, ar -> { });
+
+        Async async = context.async();
+        topicOperator.reconcileAllTopics("periodic").setHandler(context.asyncAssertSuccess(first -> {
+            // Another instance could have changed the topic while this one wasn't responsible for it,
+            // so it's reconciled again even though it looks unchanged
+            topicOperator.ownershipChanged(topicName);
+            topicOperator.reconcileAllTopics("periodic").setHandler(context.asyncAssertSuccess(second -> {
+                context.assertEquals(0L, topicOperator.unchangedTopicsSkipped());
+                async.complete();
+            }));
+        }));
+    }
+
+    /**
+     * 0. A full reconciliation takes a snapshot of the topic metadata
+     * 1. ZK notifies of a change in topic config, which the operator reconciles
+     * 2. The full reconciliation reconciles the topic, and must not undo the change using its older snapshot
+     */
+    @Test
+    public void testReconcileAllTopics_afterTopicConfigChanged(TestContext context) {
+        Topic kubeTopic = new Topic.Builder(topicName.toString(), 10, (short) 2, map("cleanup.policy", "bar")).build();
+        Topic kafkaTopic = new Topic.Builder(topicName.toString(), 10, (short) 2, map("cleanup.policy", "baz")).build();
+        KafkaTopic resource = TopicSerialization.toTopicResource(kubeTopic, resourcePredicate);
+        Map<TopicName, TopicMetadata> snapshot = singletonMap(topicName, Utils.getTopicMetadata(kubeTopic));
+        mockKafka = new MockKafka() {
+            @Override
+            public void topicsMetadata(Collection<TopicName> topicNames, Handler<AsyncResult<Map<TopicName, TopicMetadata>>> handler) {
+                topicOperator.onTopicConfigChanged(topicName, context.asyncAssertSuccess(v ->
+                    handler.handle(Future.succeededFuture(snapshot))));
+            }
+        };
+        topicOperator = new TopicOperator(vertx, mockKafka, mockK8s, mockTopicStore, resourcePredicate, "default-namespace", config);
+
+        mockKafka.setCreateTopicResponse(topicName.toString(), null)
+                .createTopic(kafkaTopic, ar -> { });
+        mockKafka.setTopicMetadataResponse(topicName, Utils.getTopicMetadata(kafkaTopic), null);
+        mockKafka.setTopicsList(singleton(topicName.toString()));
+        mockTopicStore.setCreateTopicResponse(topicName, null)
+                .create(kubeTopic, ar -> { });
+        mockTopicStore.setUpdateTopicResponse(topicName, null);
+        mockK8s.setCreateResponse(resourceName, null)
+                .createResource(resource, ar -> { });
+        mockK8s.setModifyResponse(resourceName, null);
+
+        Async async = context.async(2);
+        topicOperator.reconcileAllTopics("periodic").setHandler(context.asyncAssertSuccess(v -> {
+            context.assertEquals("baz", mockKafka.getTopicState(topicName).getConfig().get("cleanup.policy"));
+            mockTopicStore.read(topicName, context.asyncAssertSuccess(storeTopic -> {
+                context.assertEquals("baz", storeTopic.getConfig().get("cleanup.policy"));
+                async.countDown();
+            }));
+            mockK8s.getFromName(resourceName, context.asyncAssertSuccess(kafkaTopicResource -> {
+                context.assertEquals("baz", TopicSerialization.fromTopicResource(kafkaTopicResource).getConfig().get("cleanup.policy"));
+                async.countDown();
+            }));
+        }));
+    }
+
+    @Test
+    public void testReconcileAllTopics_deletesTopicsOnlyInStore(TestContext context) {
+        Topic topic = new Topic.Builder(topicName, resourceName, 10, (short) 2, map("cleanup.policy", "bar"), metadata).build();
+        mockKafka.setTopicsList(emptySet());
+        mockKafka.setTopicMetadataResponse(topicName, null, null);
+        mockTopicStore.setCreateTopicResponse(topicName, null).create(topic, ar -> { });
+        mockTopicStore.setDeleteTopicResponse(topicName, null);
+
+        Async async = context.async();
+        topicOperator.reconcileAllTopics("periodic").setHandler(context.asyncAssertSuccess(v -> {
+            mockTopicStore.assertNotExists(context, topicName);
+            mockK8s.assertNotExists(context, resourceName);
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testReconcileAllTopics_listStoreFails(TestContext context) {
+        mockKafka.setTopicsList(emptySet());
+        mockTopicStore.setListResponse(Future.failedFuture(new RuntimeException("some failure")));
+
+        topicOperator.reconcileAllTopics("periodic").setHandler(context.asyncAssertFailure(e ->
+            context.assertEquals("Error listing the topic store during periodic reconciliation", e.getMessage())));
+    }
+
+    @Test
+    public void testKafkaTopicStoreTopicIsNotOwned(TestContext context) {
+        Map<String, String> kafkaStoreConfig = new HashMap<>(MANDATORY_CONFIG);
+        kafkaStoreConfig.put(Config.TOPIC_STORE.key, "kafka");
+        TopicOperator op = new TopicOperator(vertx, mockKafka, mockK8s, mockTopicStore, resourcePredicate, "default-namespace",
+                new Config(kafkaStoreConfig));
+        context.assertFalse(op.owns(new TopicName(Config.TOPIC_STORE_TOPIC.defaultValue)));
+        context.assertTrue(op.owns(new TopicName("my-topic")));
+        // With the ZooKeeper store a topic of that name is just another topic
+        context.assertTrue(topicOperator.owns(new TopicName(Config.TOPIC_STORE_TOPIC.defaultValue)));
+    }
+
     // TODO tests for nasty races (e.g. create on both ends, update on one end and delete on the other)
     // I think in these cases we should seek to detect the concurrent modification
     // and perform a full reconciliation, possibly after a backoff time
@@ -85,6 +85,36 @@ public class TopicSerializationTest {
     }
 
 
+    @Test
+    public void testJsonDeserializationIgnoresOrderAndUnknownFields() throws UnsupportedEncodingException {
+        String json = "{\"config\":{\"foo\":\"bar\",\"baz\":\"\"}," +
+                "\"replicas\":1," +
+                "\"uid\":{\"nested\":[1,2]}," +
+                "\"partitions\":2," +
+                "\"topic-name\":\"tom\"," +
+                "\"map-name\":\"bob\"" +
+                "}";
+        Topic readTopic = TopicSerialization.fromJson(json.getBytes("UTF-8"));
+        assertEquals(new Topic.Builder()
+                .withTopicName("tom")
+                .withMapName("bob")
+                .withNumReplicas((short) 1)
+                .withNumPartitions(2)
+                .withConfigEntry("foo", "bar")
+                .withConfigEntry("baz", "")
+                .build(), readTopic);
+    }
+
+    @Test
+    public void testJsonDeserializationOfInvalidJson() throws UnsupportedEncodingException {
+        try {
+            TopicSerialization.fromJson("{\"partitions\":\"two\"}".getBytes("UTF-8"));
+            fail("Should throw");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
     @Test
     public void testToNewTopic() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         Topic topic = new Topic.Builder()
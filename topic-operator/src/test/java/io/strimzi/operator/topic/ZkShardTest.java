@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.I0Itec.zkclient.exception.ZkNodeExistsException;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static java.util.Arrays.asList;
+
+@RunWith(VertxUnitRunner.class)
+public class ZkShardTest {
+
+    private final Vertx vertx = Vertx.vertx();
+    private final MockZk zk = new MockZk();
+
+    @After
+    public void teardown() {
+        vertx.close();
+    }
+
+    @Test
+    public void testTopicsAreOwnedByOneMember(TestContext context) {
+        zk.createResult = Future.succeededFuture();
+        zk.childrenResult = Future.succeededFuture(asList("b", "a"));
+        ZkShard a = new ZkShard(vertx, "a", 10, 0);
+        ZkShard b = new ZkShard(vertx, "b", 10, 0);
+        TopicName topicName = new TopicName("my-topic");
+        // Until the membership is known no topics are owned
+        context.assertFalse(a.owns(topicName));
+
+        // Each member rebalances when the membership changes and again once the topics have been handed over
+        Async rebalanced = context.async(4);
+        a.start(zk, v -> rebalanced.countDown()).setHandler(context.asyncAssertSuccess());
+        b.start(zk, v -> rebalanced.countDown()).setHandler(context.asyncAssertSuccess());
+        rebalanced.awaitSuccess(10_000);
+        context.assertEquals(2, a.members());
+        context.assertTrue(a.owns(topicName) != b.owns(topicName));
+    }
+
+    @Test
+    public void testGainedTopicsAreOwnedAfterHandover(TestContext context) {
+        zk.createResult = Future.succeededFuture();
+        zk.childrenResult = Future.succeededFuture(asList("a"));
+        ZkShard shard = new ZkShard(vertx, "a", 500, 0);
+        TopicName topicName = new TopicName("my-topic");
+
+        Async membershipChanged = context.async();
+        Async handedOver = context.async();
+        shard.start(zk, v -> {
+            if (!membershipChanged.isCompleted()) {
+                // The previous owner might not have seen the change yet
+                context.assertFalse(shard.owns(topicName));
+                membershipChanged.complete();
+            } else {
+                context.assertTrue(shard.owns(topicName));
+                handedOver.complete();
+            }
+        }).setHandler(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testUnregisteredMemberRegistersAgain(TestContext context) {
+        zk.createResult = Future.succeededFuture();
+        zk.childrenResult = Future.succeededFuture(asList("a"));
+        ZkShard shard = new ZkShard(vertx, "a", 0, 0);
+        TopicName topicName = new TopicName("my-topic");
+
+        Async registered = context.async();
+        Async registeredAgain = context.async();
+        shard.start(zk, v -> {
+            if (!registered.isCompleted()) {
+                registered.complete();
+                context.assertTrue(shard.owns(topicName));
+                // Our session expired, and "b" now owns all the topics
+                zk.triggerChildren(Future.succeededFuture(asList("b")));
+            } else {
+                context.assertFalse(shard.owns(topicName));
+                vertx.setTimer(100, timerId -> {
+                    context.assertEquals(2, zk.writes.get(ZkShard.MEMBERS_PATH + "/a").size());
+                    registeredAgain.complete();
+                });
+            }
+        }).setHandler(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testMemberRegisteredByThisSessionIsRegistered(TestContext context) {
+        // e.g. the create was retried after the connection was lost
+        zk.createResult = Future.failedFuture(new ZkNodeExistsException());
+        zk.dataResult = Future.succeededFuture(new byte[0]);
+        zk.dataEphemeralOwner = zk.sessionId;
+        zk.childrenResult = Future.succeededFuture(asList("a"));
+        ZkShard shard = new ZkShard(vertx, "a", 0, 0);
+        shard.start(zk, v -> { }).setHandler(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testAlreadyRegisteredMemberFails(TestContext context) {
+        // The parents already exist, as does the member's znode, which belongs to another session
+        zk.createResult = Future.failedFuture(new ZkNodeExistsException());
+        zk.dataResult = Future.succeededFuture(new byte[0]);
+        zk.dataEphemeralOwner = zk.sessionId + 1;
+        ZkShard shard = new ZkShard(vertx, "a", 0, 200);
+        shard.start(zk, v -> context.fail("Should not have joined the shard")).setHandler(context.asyncAssertFailure(e -> {
+            context.assertTrue(e instanceof OperatorException);
+            context.assertFalse(shard.owns(new TopicName("my-topic")));
+        }));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMemberId() {
+        new ZkShard(vertx, "a/b", 0, 0);
+    }
+}
@@ -4,12 +4,24 @@
  */
 package io.strimzi.operator.topic;
 
+import io.strimzi.operator.topic.zk.Zk;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -20,10 +32,18 @@ public class ZkTopicsWatcherTest {
 
     private MockTopicOperator operator;
     private MockZk mockZk;
+    private Vertx vertx;
+
     @Before
     public void setup() {
         operator = new MockTopicOperator();
         mockZk = new MockZk();
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void teardown() {
+        vertx.close();
     }
 
     @Test
@@ -76,4 +96,151 @@ public class ZkTopicsWatcherTest {
                 MockTopicOperator.MockOperatorEvent.Type.DELETE, new TopicName("bar"))), operator.getMockOperatorEvents());
         assertFalse(topicConfigsWatcher.watching("baz"));
     }
+
+    @Test
+    public void testCreateAndDeleteInOneNotification() {
+        operator = new MockTopicOperator();
+        operator.topicCreatedResult = Future.succeededFuture();
+        operator.topicDeletedResult = Future.succeededFuture();
+        mockZk = new MockZk();
+        mockZk.childrenResult = Future.succeededFuture(new ArrayList<>(asList("foo", "bar", "baz")));
+        mockZk.dataResult = Future.succeededFuture(new byte[0]);
+        ZkTopicsWatcher topicsWatcher = new ZkTopicsWatcher(operator, new TopicConfigsWatcher(operator), new ZkTopicWatcher(operator));
+        topicsWatcher.start(mockZk);
+        mockZk.triggerChildren(Future.succeededFuture(new ArrayList<>(asList("qux", "foo", "baz", "abc"))));
+        assertEquals(asList(
+                new MockTopicOperator.MockOperatorEvent(MockTopicOperator.MockOperatorEvent.Type.DELETE, new TopicName("bar")),
+                new MockTopicOperator.MockOperatorEvent(MockTopicOperator.MockOperatorEvent.Type.CREATE, new TopicName("abc")),
+                new MockTopicOperator.MockOperatorEvent(MockTopicOperator.MockOperatorEvent.Type.CREATE, new TopicName("qux"))),
+                operator.getMockOperatorEvents());
+    }
+
+    @Test
+    public void testNotificationsAreBatched(TestContext context) {
+        operator = new MockTopicOperator();
+        operator.topicCreatedResult = Future.succeededFuture();
+        operator.topicDeletedResult = Future.succeededFuture();
+        mockZk = new MockZk();
+        mockZk.childrenResult = Future.succeededFuture(new ArrayList<>(asList("foo", "bar")));
+        mockZk.dataResult = Future.succeededFuture(new byte[0]);
+        ZkTopicsWatcher topicsWatcher = new ZkTopicsWatcher(operator, new TopicConfigsWatcher(operator), new ZkTopicWatcher(operator),
+                vertx, 50);
+        topicsWatcher.start(mockZk);
+        // baz is created and then deleted again within the window, so the operator never hears of it
+        mockZk.triggerChildren(Future.succeededFuture(new ArrayList<>(asList("foo", "bar", "baz"))));
+        mockZk.triggerChildren(Future.succeededFuture(new ArrayList<>(asList("foo", "qux"))));
+        context.assertTrue(operator.getMockOperatorEvents().isEmpty());
+        Async async = context.async();
+        vertx.setTimer(500, timerId -> {
+            context.assertEquals(asList(
+                    new MockTopicOperator.MockOperatorEvent(MockTopicOperator.MockOperatorEvent.Type.DELETE, new TopicName("bar")),
+                    new MockTopicOperator.MockOperatorEvent(MockTopicOperator.MockOperatorEvent.Type.CREATE, new TopicName("qux"))),
+                    operator.getMockOperatorEvents());
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testNotificationBeforeInitialChildren() {
+        operator = new MockTopicOperator();
+        operator.topicCreatedResult = Future.succeededFuture();
+        AtomicReference<Handler<AsyncResult<List<String>>>> initialChildren = new AtomicReference<>();
+        mockZk = new MockZk() {
+            @Override
+            public Zk children(String path, Handler<AsyncResult<List<String>>> handler) {
+                initialChildren.set(handler);
+                return this;
+            }
+        };
+        mockZk.dataResult = Future.succeededFuture(new byte[0]);
+        ZkTopicsWatcher topicsWatcher = new ZkTopicsWatcher(operator, new TopicConfigsWatcher(operator), new ZkTopicWatcher(operator));
+        topicsWatcher.start(mockZk);
+        // baz is created before the initial children have been read
+        mockZk.triggerChildren(Future.succeededFuture(new ArrayList<>(asList("foo", "bar", "baz"))));
+        assertTrue(operator.getMockOperatorEvents().isEmpty());
+        initialChildren.get().handle(Future.succeededFuture(new ArrayList<>(asList("foo", "bar"))));
+        assertEquals(asList(new MockTopicOperator.MockOperatorEvent(
+                MockTopicOperator.MockOperatorEvent.Type.CREATE, new TopicName("baz"))), operator.getMockOperatorEvents());
+    }
+
+    @Test
+    public void testBatchedNotificationsAreDroppedOnStop(TestContext context) {
+        operator = new MockTopicOperator();
+        mockZk = new MockZk();
+        mockZk.childrenResult = Future.succeededFuture(new ArrayList<>(asList("foo", "bar")));
+        ZkTopicsWatcher topicsWatcher = new ZkTopicsWatcher(operator, new TopicConfigsWatcher(operator), new ZkTopicWatcher(operator),
+                vertx, 50);
+        topicsWatcher.start(mockZk);
+        mockZk.triggerChildren(Future.succeededFuture(new ArrayList<>(asList("foo", "bar", "baz"))));
+        topicsWatcher.stop();
+        Async async = context.async();
+        vertx.setTimer(500, timerId -> {
+            context.assertTrue(operator.getMockOperatorEvents().isEmpty());
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testRebalance() {
+        operator = new MockTopicOperator();
+        operator.owned = topicName -> false;
+        mockZk = new MockZk();
+        mockZk.childrenResult = Future.succeededFuture(new ArrayList<>(asList("foo", "bar")));
+        mockZk.dataResult = Future.succeededFuture(new byte[0]);
+        TopicConfigsWatcher topicConfigsWatcher = new TopicConfigsWatcher(operator);
+        ZkTopicWatcher topicWatcher = new ZkTopicWatcher(operator);
+        ZkTopicsWatcher topicsWatcher = new ZkTopicsWatcher(operator, topicConfigsWatcher, topicWatcher);
+        topicsWatcher.start(mockZk);
+
+        // This instance becomes responsible for foo
+        operator.owned = topicName -> topicName.toString().equals("foo");
+        topicsWatcher.rebalance();
+        assertEquals(asList(new MockTopicOperator.MockOperatorEvent(
+                MockTopicOperator.MockOperatorEvent.Type.OWNERSHIP_CHANGED, new TopicName("foo"))), operator.getMockOperatorEvents());
+        assertTrue(topicConfigsWatcher.watching("foo"));
+        assertTrue(topicWatcher.watching("foo"));
+        assertFalse(topicWatcher.watching("bar"));
+
+        // Then for bar instead of foo
+        operator.clearEvents();
+        operator.owned = topicName -> topicName.toString().equals("bar");
+        topicsWatcher.rebalance();
+        assertEquals(asList(
+                new MockTopicOperator.MockOperatorEvent(MockTopicOperator.MockOperatorEvent.Type.OWNERSHIP_CHANGED, new TopicName("bar")),
+                new MockTopicOperator.MockOperatorEvent(MockTopicOperator.MockOperatorEvent.Type.OWNERSHIP_CHANGED, new TopicName("foo"))),
+                operator.getMockOperatorEvents());
+        assertTrue(topicWatcher.watching("bar"));
+        assertFalse(topicConfigsWatcher.watching("foo"));
+        assertFalse(topicWatcher.watching("foo"));
+
+        // Nothing changes
+        operator.clearEvents();
+        topicsWatcher.rebalance();
+        assertTrue(operator.getMockOperatorEvents().isEmpty());
+    }
+
+    @Test
+    public void testMultiplexedPartitionChange() {
+        operator = new MockTopicOperator();
+        operator.topicModifiedResult = Future.succeededFuture();
+        mockZk = new MockZk();
+        MockKafka mockKafka = new MockKafka();
+        Topic foo = new Topic.Builder("foo", 1, (short) 1, Collections.emptyMap()).build();
+        mockKafka.setTopicMetadataResponse(new TopicName("foo"), Utils.getTopicMetadata(foo), null);
+        ZkTopicWatcher topicWatcher = new ZkTopicWatcher(operator, vertx, mockKafka, 1_000_000);
+        topicWatcher.addChild("foo");
+        topicWatcher.start(mockZk);
+        // The first check just notes the number of partitions
+        topicWatcher.checkPartitions();
+        assertTrue(operator.getMockOperatorEvents().isEmpty());
+        topicWatcher.checkPartitions();
+        assertTrue(operator.getMockOperatorEvents().isEmpty());
+
+        Topic foo2 = new Topic.Builder("foo", 2, (short) 1, Collections.emptyMap()).build();
+        mockKafka.setTopicMetadataResponse(new TopicName("foo"), Utils.getTopicMetadata(foo2), null);
+        topicWatcher.checkPartitions();
+        assertEquals(asList(new MockTopicOperator.MockOperatorEvent(
+                MockTopicOperator.MockOperatorEvent.Type.MODIFY_PARTITIONS, new TopicName("foo"))), operator.getMockOperatorEvents());
+        topicWatcher.stop();
+    }
 }
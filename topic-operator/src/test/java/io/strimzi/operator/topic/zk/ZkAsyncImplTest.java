@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017-2018, Strimzi authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.strimzi.operator.topic.zk;
+
+import io.strimzi.test.EmbeddedZooKeeper;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.I0Itec.zkclient.exception.ZkBadVersionException;
+import org.I0Itec.zkclient.exception.ZkNoNodeException;
+import org.I0Itec.zkclient.exception.ZkNodeExistsException;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.data.Stat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+@RunWith(VertxUnitRunner.class)
+public class ZkAsyncImplTest {
+
+    private EmbeddedZooKeeper zkServer;
+
+    private Vertx vertx = Vertx.vertx();
+    private ZkAsyncImpl zk;
+
+    @Before
+    public void setup() throws IOException, InterruptedException {
+        this.zkServer = new EmbeddedZooKeeper();
+        zk = new ZkAsyncImpl(vertx, zkServer.getZkConnectString(), 60_000, 10_000);
+    }
+
+    @After
+    public void teardown(TestContext context) {
+        Async async = context.async();
+        zk.disconnect(result -> async.complete());
+        async.await();
+        if (this.zkServer != null) {
+            this.zkServer.close();
+        }
+        vertx.close();
+    }
+
+    @Test
+    public void testErrorsHaveZkClientTypes(TestContext context) {
+        Async async = context.async(3);
+        zk.getData("/missing", context.asyncAssertFailure(e -> {
+            context.assertTrue(e instanceof ZkNoNodeException, e.toString());
+            async.countDown();
+        }));
+        zk.create("/foo", null, AclBuilder.PUBLIC, CreateMode.PERSISTENT, context.asyncAssertSuccess(v -> {
+            zk.create("/foo", null, AclBuilder.PUBLIC, CreateMode.PERSISTENT, context.asyncAssertFailure(e -> {
+                context.assertTrue(e instanceof ZkNodeExistsException, e.toString());
+                async.countDown();
+            }));
+            zk.setData("/foo", new byte[]{1}, 12, context.asyncAssertFailure(e -> {
+                context.assertTrue(e instanceof ZkBadVersionException, e.toString());
+                async.countDown();
+            }));
+        }));
+    }
+
+    @Test
+    public void testGetDataWithStat(TestContext context) {
+        Async async = context.async();
+        byte[] data = {1, 2};
+        zk.create("/foo", null, AclBuilder.PUBLIC, CreateMode.PERSISTENT, context.asyncAssertSuccess(v ->
+            zk.setData("/foo", data, 0, context.asyncAssertSuccess(v2 -> {
+                Stat stat = new Stat();
+                zk.getData("/foo", stat, context.asyncAssertSuccess(result -> {
+                    context.assertTrue(Arrays.equals(data, result));
+                    context.assertEquals(1, stat.getVersion());
+                    async.complete();
+                }));
+            }))));
+    }
+
+    @Test
+    public void testMulti(TestContext context) {
+        Async async = context.async();
+        zk.multi(Arrays.asList(
+                Op.create("/foo", new byte[0], AclBuilder.PUBLIC, CreateMode.PERSISTENT),
+                Op.create("/foo/bar", new byte[0], AclBuilder.PUBLIC, CreateMode.PERSISTENT)),
+            context.asyncAssertSuccess(results -> {
+                context.assertEquals(2, results.size());
+                // A transaction with a failing op has no effect
+                zk.multi(Arrays.asList(
+                        Op.delete("/foo/bar", -1),
+                        Op.create("/foo", new byte[0], AclBuilder.PUBLIC, CreateMode.PERSISTENT)),
+                    context.asyncAssertFailure(e -> {
+                        context.assertTrue(e instanceof ZkNodeExistsException, e.toString());
+                        zk.children("/foo", context.asyncAssertSuccess(children -> {
+                            context.assertEquals(singletonList("bar"), children);
+                            async.complete();
+                        }));
+                    }));
+            }));
+    }
+
+    @Test
+    public void testWatchUnwatchChildren(TestContext context) {
+        // Create a node
+        Async fooFuture = context.async();
+        zk.create("/foo", null, AclBuilder.PUBLIC, CreateMode.PERSISTENT, ar -> {
+            fooFuture.complete();
+        });
+        fooFuture.await();
+
+        // Now watch its children
+        Async barFuture = context.async();
+        zk.watchChildren("/foo", watchResult -> {
+            context.assertEquals(singletonList("bar"), watchResult.result());
+            zk.unwatchChildren("/foo");
+            zk.delete("/foo/bar", -1, deleteResult -> {
+                barFuture.countDown();
+            });
+
+        });
+        zk.children("/foo", lsResult -> {
+            context.assertEquals(emptyList(), lsResult.result());
+            zk.create("/foo/bar", null, AclBuilder.PUBLIC, CreateMode.PERSISTENT, ig -> { });
+        });
+        barFuture.await();
+    }
+
+    @Test
+    public void testWatchData(TestContext context) {
+        Async async = context.async();
+        byte[] data1 = {1};
+        byte[] data2 = {2};
+        zk.create("/foo", data1, AclBuilder.PUBLIC, CreateMode.PERSISTENT, context.asyncAssertSuccess(v -> {
+            zk.watchData("/foo", dataWatch -> {
+                context.assertTrue(Arrays.equals(data2, dataWatch.result()));
+                async.complete();
+            }).getData("/foo", context.asyncAssertSuccess(data -> {
+                context.assertTrue(Arrays.equals(data1, data));
+                zk.setData("/foo", data2, -1, context.asyncAssertSuccess());
+            }));
+        }));
+    }
+
+    @Test
+    public void testWatchDeletion(TestContext context) {
+        Async async = context.async();
+        zk.create("/foo", null, AclBuilder.PUBLIC, CreateMode.PERSISTENT, context.asyncAssertSuccess(v -> {
+            zk.watchDeletion("/foo", deleted -> {
+                context.assertTrue(deleted.succeeded());
+                async.complete();
+            }).getData("/foo", context.asyncAssertSuccess(data ->
+                zk.delete("/foo", -1, context.asyncAssertSuccess())));
+        }));
+    }
+}